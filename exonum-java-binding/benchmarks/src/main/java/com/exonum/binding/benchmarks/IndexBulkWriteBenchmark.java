@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.benchmarks;
+
+import com.exonum.binding.common.serialization.StandardSerializers;
+import com.exonum.binding.core.proxy.Cleaner;
+import com.exonum.binding.core.proxy.CloseFailuresException;
+import com.exonum.binding.core.storage.database.Fork;
+import com.exonum.binding.core.storage.database.TemporaryDb;
+import com.exonum.binding.core.storage.indices.IndexAddress;
+import com.exonum.binding.core.storage.indices.ListIndexProxy;
+import com.exonum.binding.core.storage.indices.MapIndexProxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the bulk write operations of indexes ({@code putAll}, {@code addAll}),
+ * which cross the JNI boundary once per batch, with a sequence of individual writes.
+ *
+ * <p>The list benchmarks clear the list after each batch so that the fork does not grow
+ * between invocations; the cost of clearing is the same for both modes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@org.openjdk.jmh.annotations.Fork(1)
+public class IndexBulkWriteBenchmark {
+
+  private static final IndexAddress MAP_ADDRESS = IndexAddress.valueOf("test_map");
+  private static final IndexAddress LIST_ADDRESS = IndexAddress.valueOf("test_list");
+  private static final int ENTRY_SIZE = 32;
+
+  @Param({"10", "1000", "10000"})
+  private int batchSize;
+
+  private TemporaryDb db;
+  private Cleaner cleaner;
+  private Fork fork;
+  private Map<byte[], byte[]> entries;
+  private List<byte[]> elements;
+
+  @Setup(Level.Trial)
+  public void setUpDatabase() {
+    db = TemporaryDb.newInstance();
+    entries = new LinkedHashMap<>(batchSize);
+    elements = new ArrayList<>(batchSize);
+    for (int i = 0; i < batchSize; i++) {
+      byte[] key = newEntry(i);
+      entries.put(key, key);
+      elements.add(key);
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void setUpFork() {
+    cleaner = new Cleaner("IndexBulkWriteBenchmark");
+    fork = db.createFork(cleaner);
+  }
+
+  @Benchmark
+  public MapIndexProxy<byte[], byte[]> mapPutEach() {
+    MapIndexProxy<byte[], byte[]> map = getMap();
+    for (Map.Entry<byte[], byte[]> entry : entries.entrySet()) {
+      map.put(entry.getKey(), entry.getValue());
+    }
+    return map;
+  }
+
+  @Benchmark
+  public MapIndexProxy<byte[], byte[]> mapPutAll() {
+    MapIndexProxy<byte[], byte[]> map = getMap();
+    map.putAll(entries);
+    return map;
+  }
+
+  @Benchmark
+  public ListIndexProxy<byte[]> listAddEach() {
+    ListIndexProxy<byte[]> list = getList();
+    for (byte[] e : elements) {
+      list.add(e);
+    }
+    list.clear();
+    return list;
+  }
+
+  @Benchmark
+  public ListIndexProxy<byte[]> listAddAll() {
+    ListIndexProxy<byte[]> list = getList();
+    list.addAll(elements);
+    list.clear();
+    return list;
+  }
+
+  @TearDown(Level.Iteration)
+  public void closeFork() throws CloseFailuresException {
+    cleaner.close();
+  }
+
+  @TearDown(Level.Trial)
+  public void closeDatabase() {
+    db.close();
+  }
+
+  private MapIndexProxy<byte[], byte[]> getMap() {
+    return fork.getMap(MAP_ADDRESS, StandardSerializers.bytes(), StandardSerializers.bytes());
+  }
+
+  private ListIndexProxy<byte[]> getList() {
+    return fork.getList(LIST_ADDRESS, StandardSerializers.bytes());
+  }
+
+  private static byte[] newEntry(int i) {
+    byte[] e = new byte[ENTRY_SIZE];
+    e[0] = (byte) (i >>> 24);
+    e[1] = (byte) (i >>> 16);
+    e[2] = (byte) (i >>> 8);
+    e[3] = (byte) i;
+    return e;
+  }
+}
@@ -18,8 +18,11 @@
 package com.exonum.binding.common.serialization;
 
 import static com.exonum.binding.common.serialization.SerializationUtils.checkLength;
+import static com.exonum.binding.common.serialization.SerializationUtils.checkRemaining;
 import static com.google.common.base.Preconditions.checkArgument;
 
+import java.nio.ByteBuffer;
+
 enum BoolSerializer implements Serializer<Boolean> {
   INSTANCE;
 
@@ -46,4 +49,18 @@ enum BoolSerializer implements Serializer<Boolean> {
     return value == BOOLEAN_FALSE || value == BOOLEAN_TRUE;
   }
 
+  @Override
+  public void writeTo(Boolean value, ByteBuffer buffer) {
+    buffer.put(value ? BOOLEAN_TRUE : BOOLEAN_FALSE);
+  }
+
+  @Override
+  public Boolean readFrom(ByteBuffer buffer) {
+    checkRemaining(buffer, BOOLEAN_BYTES);
+    byte value = buffer.get();
+    checkArgument(isValidBoolean(value), "%s is not a boolean value", value);
+
+    return value == BOOLEAN_TRUE;
+  }
+
 }
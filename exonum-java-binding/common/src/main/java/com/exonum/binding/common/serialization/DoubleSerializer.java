@@ -18,6 +18,8 @@
 package com.exonum.binding.common.serialization;
 
 import static com.exonum.binding.common.serialization.SerializationUtils.checkLength;
+import static com.exonum.binding.common.serialization.SerializationUtils.checkRemaining;
+import static com.exonum.binding.common.serialization.SerializationUtils.littleEndianLong;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -42,4 +44,16 @@ enum DoubleSerializer implements Serializer<Double> {
         .getDouble();
   }
 
+  @Override
+  public void writeTo(Double value, ByteBuffer buffer) {
+    buffer.putLong(littleEndianLong(buffer, Double.doubleToRawLongBits(value)));
+  }
+
+  @Override
+  public Double readFrom(ByteBuffer buffer) {
+    checkRemaining(buffer, Double.BYTES);
+
+    return Double.longBitsToDouble(littleEndianLong(buffer, buffer.getLong()));
+  }
+
 }
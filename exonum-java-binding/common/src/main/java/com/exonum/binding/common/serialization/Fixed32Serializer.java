@@ -18,6 +18,8 @@
 package com.exonum.binding.common.serialization;
 
 import static com.exonum.binding.common.serialization.SerializationUtils.checkLength;
+import static com.exonum.binding.common.serialization.SerializationUtils.checkRemaining;
+import static com.exonum.binding.common.serialization.SerializationUtils.littleEndianInt;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -42,4 +44,16 @@ enum Fixed32Serializer implements Serializer<Integer> {
         .getInt();
   }
 
+  @Override
+  public void writeTo(Integer value, ByteBuffer buffer) {
+    buffer.putInt(littleEndianInt(buffer, value));
+  }
+
+  @Override
+  public Integer readFrom(ByteBuffer buffer) {
+    checkRemaining(buffer, Integer.BYTES);
+
+    return littleEndianInt(buffer, buffer.getInt());
+  }
+
 }
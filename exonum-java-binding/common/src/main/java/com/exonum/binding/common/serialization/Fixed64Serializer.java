@@ -18,6 +18,8 @@
 package com.exonum.binding.common.serialization;
 
 import static com.exonum.binding.common.serialization.SerializationUtils.checkLength;
+import static com.exonum.binding.common.serialization.SerializationUtils.checkRemaining;
+import static com.exonum.binding.common.serialization.SerializationUtils.littleEndianLong;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -42,4 +44,16 @@ enum Fixed64Serializer implements Serializer<Long> {
         .getLong();
   }
 
+  @Override
+  public void writeTo(Long value, ByteBuffer buffer) {
+    buffer.putLong(littleEndianLong(buffer, value));
+  }
+
+  @Override
+  public Long readFrom(ByteBuffer buffer) {
+    checkRemaining(buffer, Long.BYTES);
+
+    return littleEndianLong(buffer, buffer.getLong());
+  }
+
 }
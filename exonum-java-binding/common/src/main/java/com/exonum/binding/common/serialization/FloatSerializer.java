@@ -18,6 +18,8 @@
 package com.exonum.binding.common.serialization;
 
 import static com.exonum.binding.common.serialization.SerializationUtils.checkLength;
+import static com.exonum.binding.common.serialization.SerializationUtils.checkRemaining;
+import static com.exonum.binding.common.serialization.SerializationUtils.littleEndianInt;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -42,4 +44,16 @@ enum FloatSerializer implements Serializer<Float> {
         .getFloat();
   }
 
+  @Override
+  public void writeTo(Float value, ByteBuffer buffer) {
+    buffer.putInt(littleEndianInt(buffer, Float.floatToRawIntBits(value)));
+  }
+
+  @Override
+  public Float readFrom(ByteBuffer buffer) {
+    checkRemaining(buffer, Float.BYTES);
+
+    return Float.intBitsToFloat(littleEndianInt(buffer, buffer.getInt()));
+  }
+
 }
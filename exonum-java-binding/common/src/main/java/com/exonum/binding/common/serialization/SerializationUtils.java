@@ -19,6 +19,9 @@ package com.exonum.binding.common.serialization;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 final class SerializationUtils {
 
   /**
@@ -33,6 +36,32 @@ final class SerializationUtils {
         "Expected an array of size %s, but was %s", length, array.length);
   }
 
+  /**
+   * Performs check that the buffer has the correct number of remaining bytes.
+   *
+   * @param buffer a buffer
+   * @param length expected number of remaining bytes
+   * @throws IllegalArgumentException thrown if the number of remaining bytes is incorrect
+   */
+  static void checkRemaining(ByteBuffer buffer, int length) {
+    checkArgument(buffer.remaining() == length,
+        "Expected a buffer with %s remaining bytes, but was %s", length, buffer.remaining());
+  }
+
+  /**
+   * Converts an int between the little-endian byte order and the byte order of the buffer.
+   */
+  static int littleEndianInt(ByteBuffer buffer, int value) {
+    return (buffer.order() == ByteOrder.LITTLE_ENDIAN) ? value : Integer.reverseBytes(value);
+  }
+
+  /**
+   * Converts a long between the little-endian byte order and the byte order of the buffer.
+   */
+  static long littleEndianLong(ByteBuffer buffer, long value) {
+    return (buffer.order() == ByteOrder.LITTLE_ENDIAN) ? value : Long.reverseBytes(value);
+  }
+
   private SerializationUtils() {
   }
 }
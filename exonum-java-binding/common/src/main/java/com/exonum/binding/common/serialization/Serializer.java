@@ -16,6 +16,9 @@
 
 package com.exonum.binding.common.serialization;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
 /**
  * Converts Java objects into a binary representation in some format, and vice versa.
  *
@@ -25,6 +28,11 @@ package com.exonum.binding.common.serialization;
  *
  * <p>This interface is designed to be primarily used by storage proxies and proof validators.
  *
+ * <p>The {@link ByteBuffer}-based methods {@link #writeTo(Object, ByteBuffer)} and
+ * {@link #readFrom(ByteBuffer)} produce the same binary representation as the array-based ones.
+ * Their default implementations delegate to the array-based methods; serializers may override
+ * them to avoid allocating intermediate arrays.
+ *
  * @param <T> a type of serializable object
  *
  * @see StandardSerializers
@@ -50,4 +58,38 @@ public interface Serializer<T> {
    *     (e.g., contains 2 bytes when 4 are expected)
    */
   T fromBytes(byte[] serializedValue);
+
+  /**
+   * Serializes a given value into the buffer, starting at its current position.
+   * The position of the buffer is advanced by the size of the serialized value.
+   *
+   * <p>The default implementation writes the array produced by {@link #toBytes(Object)}.
+   *
+   * @param value a value to serialize, must not be null
+   * @param buffer a buffer to write the serialized value into
+   * @throws NullPointerException if value is null
+   * @throws BufferOverflowException if there is insufficient space in the buffer
+   */
+  default void writeTo(T value, ByteBuffer buffer) {
+    buffer.put(toBytes(value));
+  }
+
+  /**
+   * De-serializes a value from the remaining bytes of the given buffer.
+   * The position of the buffer is advanced to its limit.
+   *
+   * <p>The default implementation passes a copy of the remaining bytes
+   * to {@link #fromBytes(byte[])}.
+   *
+   * @param buffer a buffer containing a serialized value of type T between its position
+   *     and limit
+   * @return a value
+   * @throws IllegalArgumentException if the remaining bytes cannot be decoded into a value
+   *     of type T
+   */
+  default T readFrom(ByteBuffer buffer) {
+    byte[] serializedValue = new byte[buffer.remaining()];
+    buffer.get(serializedValue);
+    return fromBytes(serializedValue);
+  }
 }
@@ -17,6 +17,7 @@
 
 package com.exonum.binding.common.serialization;
 
+import static com.exonum.binding.common.serialization.StandardSerializersTest.bufferRoundTripTest;
 import static com.exonum.binding.common.serialization.StandardSerializersTest.invalidBytesValueTest;
 import static com.exonum.binding.common.serialization.StandardSerializersTest.roundTripTest;
 
@@ -33,6 +34,12 @@ class BoolSerializerTest {
     roundTripTest(false, serializer);
   }
 
+  @Test
+  void bufferRoundTrip() {
+    bufferRoundTripTest(true, serializer);
+    bufferRoundTripTest(false, serializer);
+  }
+
   @Test
   void deserializeInvalidValue() {
     byte[] invalidValue = {2};
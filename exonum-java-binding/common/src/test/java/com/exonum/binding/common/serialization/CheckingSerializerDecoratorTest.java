@@ -23,8 +23,10 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.nio.ByteBuffer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
@@ -89,6 +91,39 @@ class CheckingSerializerDecoratorTest {
     expectBrokenSerializerException(() -> decorator.fromBytes(new byte[0]));
   }
 
+  @Test
+  void writeTo() {
+    Object value = new Object();
+    ByteBuffer buffer = ByteBuffer.allocate(0);
+
+    decorator.writeTo(value, buffer);
+
+    verify(delegateMock).writeTo(value, buffer);
+  }
+
+  @Test
+  void writeTo_NullValue() {
+    ByteBuffer buffer = ByteBuffer.allocate(0);
+
+    assertThrows(NullPointerException.class, () -> decorator.writeTo(null, buffer));
+  }
+
+  @Test
+  void readFrom() {
+    Object value = new Object();
+    ByteBuffer buffer = ByteBuffer.allocate(0);
+    when(delegateMock.readFrom(buffer)).thenReturn(value);
+
+    assertThat(decorator.readFrom(buffer), equalTo(value));
+  }
+
+  @Test
+  void readFrom_NullFromDelegate() {
+    when(delegateMock.readFrom(any())).thenReturn(null);
+
+    expectBrokenSerializerException(() -> decorator.readFrom(ByteBuffer.allocate(0)));
+  }
+
   private void expectBrokenSerializerException(Executable function) {
     IllegalStateException thrown = assertThrows(IllegalStateException.class, function);
     assertThat(thrown.getMessage(), containsString("Broken serializer"));
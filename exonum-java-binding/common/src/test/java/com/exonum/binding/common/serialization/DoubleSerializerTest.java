@@ -17,6 +17,7 @@
 
 package com.exonum.binding.common.serialization;
 
+import static com.exonum.binding.common.serialization.StandardSerializersTest.bufferRoundTripTest;
 import static com.exonum.binding.common.serialization.StandardSerializersTest.invalidBytesValueTest;
 import static com.exonum.binding.common.serialization.StandardSerializersTest.roundTripTest;
 
@@ -44,6 +45,19 @@ class DoubleSerializerTest {
     roundTripTest(value, serializer);
   }
 
+  @ParameterizedTest
+  @ValueSource(doubles = {
+      Double.NaN,
+      Double.NEGATIVE_INFINITY,
+      Double.MIN_VALUE,
+      Double.MIN_NORMAL,
+      -1D, 0D, 1.5D,
+      Double.MAX_VALUE,
+      Double.POSITIVE_INFINITY})
+  void bufferRoundTrip(Double value) {
+    bufferRoundTripTest(value, serializer);
+  }
+
   @ParameterizedTest
   @MethodSource("invalidDoubles")
   void deserializeInvalidValue(byte[] value) {
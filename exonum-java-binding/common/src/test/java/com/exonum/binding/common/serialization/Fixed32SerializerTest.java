@@ -17,6 +17,7 @@
 
 package com.exonum.binding.common.serialization;
 
+import static com.exonum.binding.common.serialization.StandardSerializersTest.bufferRoundTripTest;
 import static com.exonum.binding.common.serialization.StandardSerializersTest.invalidBytesValueTest;
 import static com.exonum.binding.common.serialization.StandardSerializersTest.roundTripTest;
 
@@ -36,6 +37,12 @@ class Fixed32SerializerTest {
     roundTripTest(value, serializer);
   }
 
+  @ParameterizedTest
+  @MethodSource("com.exonum.binding.common.serialization.StandardSerializersTest#intValues")
+  void bufferRoundTrip(Integer value) {
+    bufferRoundTripTest(value, serializer);
+  }
+
   @ParameterizedTest
   @MethodSource("invalidIntegers")
   void deserializeInvalidValue(byte[] value) {
@@ -17,6 +17,7 @@
 
 package com.exonum.binding.common.serialization;
 
+import static com.exonum.binding.common.serialization.StandardSerializersTest.bufferRoundTripTest;
 import static com.exonum.binding.common.serialization.StandardSerializersTest.invalidBytesValueTest;
 import static com.exonum.binding.common.serialization.StandardSerializersTest.roundTripTest;
 
@@ -44,6 +45,19 @@ class FloatSerializerTest {
     roundTripTest(value, serializer);
   }
 
+  @ParameterizedTest
+  @ValueSource(floats = {
+      Float.NaN,
+      Float.NEGATIVE_INFINITY,
+      Float.MIN_NORMAL,
+      Float.MIN_VALUE,
+      -1F, 0F, 1.5F,
+      Float.MAX_VALUE,
+      Float.POSITIVE_INFINITY})
+  void bufferRoundTrip(Float value) {
+    bufferRoundTripTest(value, serializer);
+  }
+
   @ParameterizedTest
   @MethodSource("invalidFloats")
   void deserializeInvalidValue(byte[] value) {
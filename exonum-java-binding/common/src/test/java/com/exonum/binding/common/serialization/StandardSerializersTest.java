@@ -22,6 +22,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.exonum.binding.test.Bytes;
+import java.nio.ByteBuffer;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
@@ -39,11 +40,41 @@ class StandardSerializersTest {
     assertThat(actual, equalTo(expected));
   }
 
+  /**
+   * Performs a round trip tests through a direct byte buffer: ObjectT -> Binary -> ObjectT;
+   * and checks that the buffer contains the same binary representation as the array.
+   */
+  static <ObjectT, SerializerT extends Serializer<ObjectT>> void bufferRoundTripTest(
+      ObjectT expected, SerializerT serializer) {
+    byte[] bytes = serializer.toBytes(expected);
+    // Use a buffer larger than needed, with a non-zero position and the default
+    // (big-endian) byte order
+    int offset = 3;
+    ByteBuffer buffer = ByteBuffer.allocateDirect(offset + bytes.length + 5);
+    buffer.position(offset);
+
+    serializer.writeTo(expected, buffer);
+
+    assertThat(buffer.position(), equalTo(offset + bytes.length));
+
+    buffer.flip();
+    buffer.position(offset);
+    ByteBuffer expectedBytes = ByteBuffer.wrap(bytes);
+    assertThat(buffer.duplicate(), equalTo(expectedBytes));
+
+    ObjectT actual = serializer.readFrom(buffer);
+
+    assertThat(actual, equalTo(expected));
+    assertThat(buffer.remaining(), equalTo(0));
+  }
+
   /**
    * Performs check for invalid argument.
    */
   static void invalidBytesValueTest(byte[] invalidValue, Serializer serializer) {
     assertThrows(IllegalArgumentException.class, () -> serializer.fromBytes(invalidValue));
+    assertThrows(IllegalArgumentException.class,
+        () -> serializer.readFrom(ByteBuffer.wrap(invalidValue)));
   }
 
   static IntStream intValues() {
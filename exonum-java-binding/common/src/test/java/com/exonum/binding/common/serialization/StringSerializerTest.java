@@ -17,6 +17,7 @@
 
 package com.exonum.binding.common.serialization;
 
+import static com.exonum.binding.common.serialization.StandardSerializersTest.bufferRoundTripTest;
 import static com.exonum.binding.common.serialization.StandardSerializersTest.invalidBytesValueTest;
 import static com.exonum.binding.common.serialization.StandardSerializersTest.roundTripTest;
 
@@ -41,6 +42,19 @@ class StringSerializerTest {
     roundTripTest(value, serializer);
   }
 
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "",
+      "a",
+      "δ", // A two-byte character
+      "\uD83E\uDD37", // A four-byte character: a shrug emoji
+      "ab",
+      "cat",
+      "Iñtërnâtiônàlizætiøn"})
+  void bufferRoundTrip(String value) {
+    bufferRoundTripTest(value, serializer);
+  }
+
   @Test
   void deserializeInvalidValue() {
     byte[] invalidValue = {-1};
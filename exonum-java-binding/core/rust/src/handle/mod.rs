@@ -17,7 +17,10 @@
 //! Wrappers and helper functions around Java pointers. Used for memory management
 //! between native and Java.
 
-use jni::{sys::jlong, JNIEnv};
+use jni::{
+    sys::{jlong, jlongArray},
+    JNIEnv,
+};
 
 use std::panic;
 
@@ -54,6 +57,29 @@ pub fn cast_handle<T>(handle: Handle) -> &'static mut T {
     unsafe { &mut *ptr }
 }
 
+/// "Converts" a handle to the shared object reference.
+///
+/// Must be used instead of `cast_handle` by the operations that do not modify the object,
+/// because such operations may be invoked concurrently with the same handle (e.g., reads
+/// of the indexes of a snapshot from several threads), and several mutable references
+/// to the same object must not exist.
+///
+/// # Panics
+///
+/// Panics if the handle is equal to zero.
+///
+/// # Notes
+///
+/// Additional validity checks are performed if "resource-manager" feature is enabled.
+pub fn cast_handle_ref<T>(handle: Handle) -> &'static T {
+    assert_ne!(handle, 0, "Invalid handle value");
+
+    resource_manager::check_handle::<T>(handle);
+
+    let ptr = handle as *const T;
+    unsafe { &*ptr }
+}
+
 /// Converts a handle into an owned value.
 /// The ownership of the object is transferred from Java to Rust and Rust side is
 /// responsible for cleaning.
@@ -80,6 +106,23 @@ pub fn drop_handle<T: 'static>(env: &JNIEnv, handle: Handle) {
     unwrap_exc_or_default(env, res);
 }
 
+/// Drops the objects with the handles passed as a Java `long[]` array.
+pub fn drop_handles<T: 'static>(env: &JNIEnv, handles: jlongArray) {
+    let res = panic::catch_unwind(|| {
+        let len = env.get_array_length(handles)?;
+        let mut buf = vec![0; len as usize];
+        env.get_long_array_region(handles, 0, &mut buf)?;
+        for handle in buf {
+            unsafe {
+                resource_manager::remove_handle::<T>(handle);
+                Box::from_raw(handle as *mut T);
+            }
+        }
+        Ok(())
+    });
+    unwrap_exc_or_default(env, res);
+}
+
 #[cfg(test)]
 mod tests {
     use super::*;
@@ -95,9 +138,26 @@ mod tests {
         assert_eq!(casted, &VALUE);
     }
 
+    #[cfg(not(feature = "resource-manager"))]
+    #[test]
+    fn cast_simple_object_ref() {
+        static VALUE: i32 = 0;
+
+        let object = Box::new(VALUE);
+        let ptr = &*object as *const i32;
+        let casted = cast_handle_ref::<i32>(ptr as jlong);
+        assert_eq!(casted, &VALUE);
+    }
+
     #[test]
     #[should_panic(expected = "Invalid handle value")]
     fn cast_zero_object() {
         let _ = cast_handle::<i32>(0);
     }
+
+    #[test]
+    #[should_panic(expected = "Invalid handle value")]
+    fn cast_zero_object_ref() {
+        let _ = cast_handle_ref::<i32>(0);
+    }
 }
@@ -28,7 +28,7 @@ pub extern "system" fn Java_com_exonum_binding_core_blockchain_BlockchainProofs_
 ) -> jbyteArray {
     let res = panic::catch_unwind(|| {
         let name = convert_to_string(&env, full_index_name)?;
-        let db = handle::cast_handle::<View>(snapshot_handle);
+        let db = handle::cast_handle_ref::<View>(snapshot_handle);
         match db.get() {
             ViewRef::Snapshot(snapshot) => {
                 let proof = snapshot.proof_for_index(&name);
@@ -57,7 +57,7 @@ pub extern "system" fn Java_com_exonum_binding_core_blockchain_BlockchainProofs_
     block_height: jlong,
 ) -> jbyteArray {
     let res = panic::catch_unwind(|| {
-        let db = handle::cast_handle::<View>(snapshot_handle);
+        let db = handle::cast_handle_ref::<View>(snapshot_handle);
         match db.get() {
             ViewRef::Snapshot(snapshot) => {
                 let schema = Schema::new(snapshot);
@@ -204,7 +204,9 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_database_Accesses_na
 mod tests {
     use exonum_merkledb::{
         access::{Access, FromAccess, RawAccess},
-        Database, Entry, TemporaryDB,
+        indexes::proof_map::PROOF_MAP_KEY_SIZE,
+        Database, Entry, KeySetIndex, ListIndex, MapIndex, ProofEntry, ProofListIndex,
+        ProofMapIndex, RawProofMapIndex, TemporaryDB, ValueSetIndex,
     };
 
     use super::*;
@@ -212,6 +214,33 @@ mod tests {
     const FIRST_TEST_VALUE: i32 = 42;
     const SECOND_TEST_VALUE: i32 = 57;
 
+    fn assert_sync<T: Sync + ?Sized>() {}
+
+    #[test]
+    fn snapshot_is_sync() {
+        // The indexes of a snapshot are read from several threads concurrently
+        // (e.g., by the afterCommit handlers of the services).
+        assert_sync::<dyn Snapshot>();
+    }
+
+    #[test]
+    fn snapshot_indexes_are_sync() {
+        // The native indexes of a snapshot are shared between the threads through
+        // their handles and read with `handle::cast_handle_ref`, hence each index type
+        // created with a snapshot must be `Sync`.
+        type SnapshotRef = &'static dyn Snapshot;
+
+        assert_sync::<Entry<SnapshotRef, Value>>();
+        assert_sync::<ProofEntry<SnapshotRef, Value>>();
+        assert_sync::<ListIndex<SnapshotRef, Value>>();
+        assert_sync::<ProofListIndex<SnapshotRef, Value>>();
+        assert_sync::<MapIndex<SnapshotRef, Key, Value>>();
+        assert_sync::<ProofMapIndex<SnapshotRef, Key, Value>>();
+        assert_sync::<RawProofMapIndex<SnapshotRef, [u8; PROOF_MAP_KEY_SIZE], Value>>();
+        assert_sync::<KeySetIndex<SnapshotRef, Key>>();
+        assert_sync::<ValueSetIndex<SnapshotRef, Value>>();
+    }
+
     #[test]
     fn snapshot_ref_view() {
         let db = setup_database();
@@ -43,7 +43,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_EntryIndexPr
     let res = panic::catch_unwind(|| {
         let name = utils::convert_to_string(&env, name)?;
         Ok(handle::to_handle(
-            match handle::cast_handle::<View>(view_handle).get() {
+            match handle::cast_handle_ref::<View>(view_handle).get() {
                 ViewRef::Snapshot(snapshot) => {
                     IndexType::SnapshotIndex(Index::from_access(snapshot, name.into()).unwrap())
                 }
@@ -74,7 +74,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_EntryIndexPr
     entry_handle: Handle,
 ) -> jbyteArray {
     let res = panic::catch_unwind(|| {
-        let val = match *handle::cast_handle::<IndexType>(entry_handle) {
+        let val = match *handle::cast_handle_ref::<IndexType>(entry_handle) {
             IndexType::SnapshotIndex(ref entry) => entry.get(),
             IndexType::ForkIndex(ref entry) => entry.get(),
         };
@@ -94,7 +94,7 @@ pub extern "C" fn Java_com_exonum_binding_core_storage_indices_EntryIndexProxy_n
     entry_handle: Handle,
 ) -> jboolean {
     let res = panic::catch_unwind(|| {
-        Ok(match *handle::cast_handle::<IndexType>(entry_handle) {
+        Ok(match *handle::cast_handle_ref::<IndexType>(entry_handle) {
             IndexType::SnapshotIndex(ref entry) => entry.exists(),
             IndexType::ForkIndex(ref entry) => entry.exists(),
         } as jboolean)
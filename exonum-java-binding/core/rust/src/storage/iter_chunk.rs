@@ -0,0 +1,93 @@
+// Copyright 2020 The Exonum Team
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+//! Helpers of the chunked iteration protocol: the Java iterators request the items
+//! of the native iterators in chunks, so that a single JNI call returns several items.
+
+use jni::{
+    sys::{jint, jobjectArray},
+    JNIEnv,
+};
+
+use utils;
+use JniResult;
+
+/// Takes the next chunk of items from the iterator and converts it into a Java array
+/// of byte arrays (`byte[][]`).
+///
+/// The chunk contains at most `max_items` items. The items are taken until their total size
+/// reaches `max_bytes`, but at least one item is taken if the iterator is not exhausted.
+/// Therefore, a chunk that is smaller than both limits signals that the iterator is exhausted;
+/// an empty chunk signals that there are no more items.
+pub fn next_chunk<I, B>(
+    env: &JNIEnv,
+    iter: &mut I,
+    max_items: jint,
+    max_bytes: jint,
+) -> JniResult<jobjectArray>
+where
+    I: Iterator<Item = B>,
+    B: AsRef<[u8]>,
+{
+    let (max_items, max_bytes) = (max_items as usize, max_bytes as usize);
+    let mut chunk = Vec::new();
+    let mut chunk_bytes = 0;
+    while chunk.len() < max_items && chunk_bytes < max_bytes {
+        match iter.next() {
+            Some(item) => {
+                chunk_bytes += item.as_ref().len();
+                chunk.push(item);
+            }
+            None => break,
+        }
+    }
+    utils::rust_arrays_to_java(env, chunk.iter())
+}
+
+/// Takes the next chunk of key-value pairs from the iterator and converts it into
+/// a Java array of byte arrays (`byte[][]`), with keys and values interleaved:
+/// `[k1, v1, k2, v2, …]`.
+///
+/// The chunk contains at most `max_items` pairs; the limits are applied as in `next_chunk`.
+/// A chunk that is smaller than both limits signals that the iterator is exhausted.
+pub fn next_pairs_chunk<I, K, V>(
+    env: &JNIEnv,
+    iter: &mut I,
+    max_items: jint,
+    max_bytes: jint,
+) -> JniResult<jobjectArray>
+where
+    I: Iterator<Item = (K, V)>,
+    K: AsRef<[u8]>,
+    V: AsRef<[u8]>,
+{
+    let (max_items, max_bytes) = (max_items as usize, max_bytes as usize);
+    let mut chunk = Vec::new();
+    let mut chunk_bytes = 0;
+    while chunk.len() < max_items && chunk_bytes < max_bytes {
+        match iter.next() {
+            Some((key, value)) => {
+                chunk_bytes += key.as_ref().len() + value.as_ref().len();
+                chunk.push((key, value));
+            }
+            None => break,
+        }
+    }
+    let mut items: Vec<&[u8]> = Vec::with_capacity(2 * chunk.len());
+    for (key, value) in &chunk {
+        items.push(key.as_ref());
+        items.push(value.as_ref());
+    }
+    utils::rust_arrays_to_java(env, items.into_iter())
+}
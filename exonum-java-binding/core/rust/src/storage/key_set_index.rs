@@ -17,12 +17,15 @@ use std::{panic, ptr};
 use exonum_merkledb::{access::FromAccess, indexes::key_set::Iter, Fork, KeySetIndex, Snapshot};
 use jni::{
     objects::{JClass, JObject, JString},
-    sys::{jboolean, jbyteArray},
+    sys::{jboolean, jbyteArray, jint, jlongArray, jobjectArray},
     JNIEnv,
 };
 
 use handle::{self, Handle};
-use storage::db::{Key, View, ViewRef};
+use storage::{
+    db::{Key, View, ViewRef},
+    iter_chunk,
+};
 use utils;
 
 type Index<T> = KeySetIndex<T, Key>;
@@ -44,7 +47,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_KeySetIndexP
     let res = panic::catch_unwind(|| {
         let address = utils::convert_to_index_address(&env, name, id_in_group)?;
         Ok(handle::to_handle(
-            match handle::cast_handle::<View>(view_handle).get() {
+            match handle::cast_handle_ref::<View>(view_handle).get() {
                 ViewRef::Snapshot(snapshot) => {
                     IndexType::SnapshotIndex(Index::from_access(snapshot, address).unwrap())
                 }
@@ -67,6 +70,16 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_KeySetIndexP
     handle::drop_handle::<IndexType>(&env, set_handle);
 }
 
+/// Destroys the underlying `KeySetIndex` objects with the given handles and frees memory.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_KeySetIndexProxy_nativeFreeAll(
+    env: JNIEnv,
+    _: JClass,
+    set_handles: jlongArray,
+) {
+    handle::drop_handles::<IndexType>(&env, set_handles);
+}
+
 /// Returns `true` if the set contains the specified value.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_KeySetIndexProxy_nativeContains(
@@ -77,7 +90,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_KeySetIndexP
 ) -> jboolean {
     let res = panic::catch_unwind(|| {
         let value = env.convert_byte_array(value)?;
-        Ok(match *handle::cast_handle::<IndexType>(set_handle) {
+        Ok(match *handle::cast_handle_ref::<IndexType>(set_handle) {
             IndexType::SnapshotIndex(ref set) => set.contains(&value),
             IndexType::ForkIndex(ref set) => set.contains(&value),
         } as jboolean)
@@ -94,7 +107,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_KeySetIndexP
 ) -> Handle {
     let res = panic::catch_unwind(|| {
         Ok(handle::to_handle(
-            match *handle::cast_handle::<IndexType>(set_handle) {
+            match *handle::cast_handle_ref::<IndexType>(set_handle) {
                 IndexType::SnapshotIndex(ref set) => set.iter(),
                 IndexType::ForkIndex(ref set) => set.iter(),
             },
@@ -114,7 +127,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_KeySetIndexP
     let res = panic::catch_unwind(|| {
         let from = env.convert_byte_array(from)?;
         Ok(handle::to_handle(
-            match *handle::cast_handle::<IndexType>(set_handle) {
+            match *handle::cast_handle_ref::<IndexType>(set_handle) {
                 IndexType::SnapshotIndex(ref set) => set.iter_from(&from),
                 IndexType::ForkIndex(ref set) => set.iter_from(&from),
             },
@@ -184,19 +197,19 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_KeySetIndexP
     utils::unwrap_exc_or_default(&env, res)
 }
 
-/// Return next value from the iterator. Returns null pointer when iteration is finished.
+/// Returns the next chunk of keys from the iterator.
+/// Returns an empty array when iteration is finished.
 #[no_mangle]
-pub extern "system" fn Java_com_exonum_binding_core_storage_indices_KeySetIndexProxy_nativeIteratorNext(
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_KeySetIndexProxy_nativeIteratorNextChunk(
     env: JNIEnv,
     _: JObject,
     iter_handle: Handle,
-) -> jbyteArray {
+    max_items: jint,
+    max_bytes: jint,
+) -> jobjectArray {
     let res = panic::catch_unwind(|| {
         let iter = handle::cast_handle::<Iter<Key>>(iter_handle);
-        match iter.next() {
-            Some(val) => env.byte_array_from_slice(&val),
-            None => Ok(ptr::null_mut()),
-        }
+        iter_chunk::next_chunk(&env, iter, max_items, max_bytes)
     });
     utils::unwrap_exc_or(&env, res, ptr::null_mut())
 }
@@ -17,12 +17,15 @@ use std::{panic, ptr};
 use exonum_merkledb::{access::FromAccess, indexes::list::Iter, Fork, ListIndex, Snapshot};
 use jni::{
     objects::{JClass, JObject, JString},
-    sys::{jboolean, jbyteArray, jlong},
+    sys::{jboolean, jbyteArray, jint, jlong, jlongArray, jobjectArray},
     JNIEnv,
 };
 
 use handle::{self, Handle};
-use storage::db::{Value, View, ViewRef};
+use storage::{
+    db::{Value, View, ViewRef},
+    iter_chunk,
+};
 use utils;
 
 type Index<T> = ListIndex<T, Value>;
@@ -43,7 +46,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ListIndexPro
 ) -> Handle {
     let res = panic::catch_unwind(|| {
         let address = utils::convert_to_index_address(&env, name, id_in_group)?;
-        let view_ref = handle::cast_handle::<View>(view_handle).get();
+        let view_ref = handle::cast_handle_ref::<View>(view_handle).get();
         Ok(handle::to_handle(match view_ref {
             ViewRef::Snapshot(snapshot) => {
                 IndexType::SnapshotIndex(Index::from_access(snapshot, address).unwrap())
@@ -64,6 +67,16 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ListIndexPro
     handle::drop_handle::<IndexType>(&env, list_handle);
 }
 
+/// Destroys the underlying `ListIndex` objects with the given handles and frees memory.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ListIndexProxy_nativeFreeAll(
+    env: JNIEnv,
+    _: JClass,
+    list_handles: jlongArray,
+) {
+    handle::drop_handles::<IndexType>(&env, list_handles);
+}
+
 /// Returns the value by index. Null pointer is returned if value is not found.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ListIndexProxy_nativeGet(
@@ -73,7 +86,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ListIndexPro
     index: jlong,
 ) -> jbyteArray {
     let res = panic::catch_unwind(|| {
-        let val = match *handle::cast_handle::<IndexType>(list_handle) {
+        let val = match *handle::cast_handle_ref::<IndexType>(list_handle) {
             IndexType::SnapshotIndex(ref list) => list.get(index as u64),
             IndexType::ForkIndex(ref list) => list.get(index as u64),
         };
@@ -85,6 +98,26 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ListIndexPro
     utils::unwrap_exc_or(&env, res, ptr::null_mut())
 }
 
+/// Returns the values in the range `[from, to)` of the list.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ListIndexProxy_nativeGetRange(
+    env: JNIEnv,
+    _: JObject,
+    list_handle: Handle,
+    from: jlong,
+    to: jlong,
+) -> jobjectArray {
+    let res = panic::catch_unwind(|| {
+        let (from, len) = (from as u64, (to - from) as usize);
+        let values: Vec<Value> = match *handle::cast_handle_ref::<IndexType>(list_handle) {
+            IndexType::SnapshotIndex(ref list) => list.iter_from(from).take(len).collect(),
+            IndexType::ForkIndex(ref list) => list.iter_from(from).take(len).collect(),
+        };
+        utils::rust_arrays_to_java(&env, values.iter())
+    });
+    utils::unwrap_exc_or(&env, res, ptr::null_mut())
+}
+
 /// Returns the last value or null pointer if the list is empty.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ListIndexProxy_nativeGetLast(
@@ -93,7 +126,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ListIndexPro
     list_handle: Handle,
 ) -> jbyteArray {
     let res = panic::catch_unwind(|| {
-        let val = match *handle::cast_handle::<IndexType>(list_handle) {
+        let val = match *handle::cast_handle_ref::<IndexType>(list_handle) {
             IndexType::SnapshotIndex(ref list) => list.last(),
             IndexType::ForkIndex(ref list) => list.last(),
         };
@@ -113,7 +146,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ListIndexPro
     list_handle: Handle,
 ) -> jboolean {
     let res = panic::catch_unwind(|| {
-        Ok(match *handle::cast_handle::<IndexType>(list_handle) {
+        Ok(match *handle::cast_handle_ref::<IndexType>(list_handle) {
             IndexType::SnapshotIndex(ref list) => list.is_empty(),
             IndexType::ForkIndex(ref list) => list.is_empty(),
         } as jboolean)
@@ -129,7 +162,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ListIndexPro
     list_handle: Handle,
 ) -> jlong {
     let res = panic::catch_unwind(|| {
-        Ok(match *handle::cast_handle::<IndexType>(list_handle) {
+        Ok(match *handle::cast_handle_ref::<IndexType>(list_handle) {
             IndexType::SnapshotIndex(ref list) => list.len(),
             IndexType::ForkIndex(ref list) => list.len(),
         } as jlong)
@@ -146,7 +179,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ListIndexPro
 ) -> Handle {
     let res = panic::catch_unwind(|| {
         Ok(handle::to_handle(
-            match *handle::cast_handle::<IndexType>(list_handle) {
+            match *handle::cast_handle_ref::<IndexType>(list_handle) {
                 IndexType::SnapshotIndex(ref list) => list.iter(),
                 IndexType::ForkIndex(ref list) => list.iter(),
             },
@@ -165,7 +198,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ListIndexPro
 ) -> Handle {
     let res = panic::catch_unwind(|| {
         Ok(handle::to_handle(
-            match *handle::cast_handle::<IndexType>(list_handle) {
+            match *handle::cast_handle_ref::<IndexType>(list_handle) {
                 IndexType::SnapshotIndex(ref list) => list.iter_from(index_from as u64),
                 IndexType::ForkIndex(ref list) => list.iter_from(index_from as u64),
             },
@@ -195,6 +228,27 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ListIndexPro
     utils::unwrap_exc_or_default(&env, res)
 }
 
+/// Appends all the `values` to the list.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ListIndexProxy_nativeAddAll(
+    env: JNIEnv,
+    _: JObject,
+    list_handle: Handle,
+    values: jobjectArray,
+) {
+    let res = panic::catch_unwind(|| match *handle::cast_handle::<IndexType>(list_handle) {
+        IndexType::SnapshotIndex(_) => {
+            panic!("Unable to modify snapshot.");
+        }
+        IndexType::ForkIndex(ref mut list) => {
+            let values = utils::java_byte_arrays_to_rust(&env, values)?;
+            list.extend(values);
+            Ok(())
+        }
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
 /// Removes the last element from a list and returns it, or null pointer if it is empty.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ListIndexProxy_nativeRemoveLast(
@@ -276,19 +330,19 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ListIndexPro
     utils::unwrap_exc_or_default(&env, res)
 }
 
-/// Returns next value from the iterator. Returns null pointer when iteration is finished.
+/// Returns the next chunk of elements from the iterator.
+/// Returns an empty array when iteration is finished.
 #[no_mangle]
-pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ListIndexProxy_nativeIterNext(
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ListIndexProxy_nativeIterNextChunk(
     env: JNIEnv,
     _: JObject,
     iter_handle: Handle,
-) -> jbyteArray {
+    max_items: jint,
+    max_bytes: jint,
+) -> jobjectArray {
     let res = panic::catch_unwind(|| {
         let iter = handle::cast_handle::<Iter<Value>>(iter_handle);
-        match iter.next() {
-            Some(val) => env.byte_array_from_slice(&val),
-            None => Ok(ptr::null_mut()),
-        }
+        iter_chunk::next_chunk(&env, iter, max_items, max_bytes)
     });
     utils::unwrap_exc_or(&env, res, ptr::null_mut())
 }
@@ -0,0 +1,298 @@
+// Copyright 2020 The Exonum Team
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+use std::{panic, ptr};
+
+use exonum_merkledb::{
+    access::FromAccess,
+    indexes::map::{Keys, Values},
+    Fork, MapIndex, Snapshot,
+};
+use jni::{
+    objects::{JClass, JObject, JString},
+    sys::{jboolean, jbyteArray, jint, jlong, jlongArray, jobjectArray},
+    JNIEnv,
+};
+
+use handle::{self, Handle};
+use storage::{
+    db::{Key, Value, View, ViewRef},
+    iter_chunk, primitives,
+};
+use utils;
+
+type Index<T> = MapIndex<T, Key, Value>;
+
+enum IndexType {
+    SnapshotIndex(Index<&'static dyn Snapshot>),
+    ForkIndex(Index<&'static Fork>),
+}
+
+/// Returns a pointer to the created `MapIndex` object.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongKeyMapIndexProxy_nativeCreate(
+    env: JNIEnv,
+    _: JClass,
+    name: JString,
+    id_in_group: jbyteArray,
+    view_handle: Handle,
+) -> Handle {
+    let res = panic::catch_unwind(|| {
+        let address = utils::convert_to_index_address(&env, name, id_in_group)?;
+        Ok(handle::to_handle(
+            match handle::cast_handle_ref::<View>(view_handle).get() {
+                ViewRef::Snapshot(snapshot) => {
+                    IndexType::SnapshotIndex(Index::from_access(snapshot, address).unwrap())
+                }
+                ViewRef::Fork(fork) => {
+                    IndexType::ForkIndex(Index::from_access(fork, address).unwrap())
+                }
+            },
+        ))
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Destroys the underlying `MapIndex` object and frees memory.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongKeyMapIndexProxy_nativeFree(
+    env: JNIEnv,
+    _: JClass,
+    map_handle: Handle,
+) {
+    handle::drop_handle::<IndexType>(&env, map_handle);
+}
+
+/// Destroys the underlying `MapIndex` objects with the given handles and frees memory.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongKeyMapIndexProxy_nativeFreeAll(
+    env: JNIEnv,
+    _: JClass,
+    map_handles: jlongArray,
+) {
+    handle::drop_handles::<IndexType>(&env, map_handles);
+}
+
+/// Returns `true` if the map contains a value for the specified key.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongKeyMapIndexProxy_nativeContainsKey(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+    key: jlong,
+) -> jboolean {
+    let res = panic::catch_unwind(|| {
+        let key = primitives::encode_key(key);
+        Ok(match *handle::cast_handle_ref::<IndexType>(map_handle) {
+            IndexType::SnapshotIndex(ref map) => map.contains(&key[..]),
+            IndexType::ForkIndex(ref map) => map.contains(&key[..]),
+        } as jboolean)
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Returns value identified by the `key`. Null pointer is returned if value is not found.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongKeyMapIndexProxy_nativeGet(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+    key: jlong,
+) -> jbyteArray {
+    let res = panic::catch_unwind(|| {
+        let key = primitives::encode_key(key);
+        let val = match *handle::cast_handle_ref::<IndexType>(map_handle) {
+            IndexType::SnapshotIndex(ref map) => map.get(&key[..]),
+            IndexType::ForkIndex(ref map) => map.get(&key[..]),
+        };
+        match val {
+            Some(val) => env.byte_array_from_slice(&val),
+            None => Ok(ptr::null_mut()),
+        }
+    });
+    utils::unwrap_exc_or(&env, res, ptr::null_mut())
+}
+
+/// Sets `value` identified by the `key` into the index.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongKeyMapIndexProxy_nativePut(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+    key: jlong,
+    value: jbyteArray,
+) {
+    let res = panic::catch_unwind(|| match *handle::cast_handle::<IndexType>(map_handle) {
+        IndexType::SnapshotIndex(_) => {
+            panic!("Unable to modify snapshot.");
+        }
+        IndexType::ForkIndex(ref mut map) => {
+            let key = primitives::encode_key(key).to_vec();
+            let value = env.convert_byte_array(value)?;
+            map.put(&key, value);
+            Ok(())
+        }
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Removes value identified by the `key` from the index.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongKeyMapIndexProxy_nativeRemove(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+    key: jlong,
+) {
+    let res = panic::catch_unwind(|| match *handle::cast_handle::<IndexType>(map_handle) {
+        IndexType::SnapshotIndex(_) => {
+            panic!("Unable to modify snapshot.");
+        }
+        IndexType::ForkIndex(ref mut map) => {
+            let key = primitives::encode_key(key);
+            map.remove(&key[..]);
+            Ok(())
+        }
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Removes all entries of the map.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongKeyMapIndexProxy_nativeClear(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+) {
+    let res = panic::catch_unwind(|| match *handle::cast_handle::<IndexType>(map_handle) {
+        IndexType::SnapshotIndex(_) => {
+            panic!("Unable to modify snapshot.");
+        }
+        IndexType::ForkIndex(ref mut map) => {
+            map.clear();
+            Ok(())
+        }
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Returns a pointer to the iterator over map keys.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongKeyMapIndexProxy_nativeCreateKeysIter(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+) -> Handle {
+    let res = panic::catch_unwind(|| {
+        Ok(handle::to_handle(
+            match *handle::cast_handle_ref::<IndexType>(map_handle) {
+                IndexType::SnapshotIndex(ref map) => map.keys(),
+                IndexType::ForkIndex(ref map) => map.keys(),
+            },
+        ))
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Returns a pointer to the iterator over map keys starting at the given key.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongKeyMapIndexProxy_nativeKeysFrom(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+    key: jlong,
+) -> Handle {
+    let res = panic::catch_unwind(|| {
+        let key = primitives::encode_key(key);
+        Ok(handle::to_handle(
+            match *handle::cast_handle_ref::<IndexType>(map_handle) {
+                IndexType::SnapshotIndex(ref map) => map.keys_from(&key[..]),
+                IndexType::ForkIndex(ref map) => map.keys_from(&key[..]),
+            },
+        ))
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Returns a pointer to the iterator over map values.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongKeyMapIndexProxy_nativeCreateValuesIter(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+) -> Handle {
+    let res = panic::catch_unwind(|| {
+        Ok(handle::to_handle(
+            match *handle::cast_handle_ref::<IndexType>(map_handle) {
+                IndexType::SnapshotIndex(ref map) => map.values(),
+                IndexType::ForkIndex(ref map) => map.values(),
+            },
+        ))
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Returns the next chunk of keys from the keys-iterator.
+/// Returns an empty array when iteration is finished.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongKeyMapIndexProxy_nativeKeysIterNextChunk(
+    env: JNIEnv,
+    _: JObject,
+    iter_handle: Handle,
+    max_items: jint,
+) -> jlongArray {
+    let res = panic::catch_unwind(|| {
+        let iter = handle::cast_handle::<Keys<Key>>(iter_handle);
+        let mut keys = iter.map(|key| primitives::decode_key(&key));
+        primitives::next_longs_chunk(&env, &mut keys, max_items)
+    });
+    utils::unwrap_exc_or(&env, res, ptr::null_mut())
+}
+
+/// Destroys the underlying `MapIndex` keys-iterator object and frees memory.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongKeyMapIndexProxy_nativeKeysIterFree(
+    env: JNIEnv,
+    _: JObject,
+    iter_handle: Handle,
+) {
+    handle::drop_handle::<Keys<Key>>(&env, iter_handle);
+}
+
+/// Returns the next chunk of values from the values-iterator.
+/// Returns an empty array when iteration is finished.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongKeyMapIndexProxy_nativeValuesIterNextChunk(
+    env: JNIEnv,
+    _: JObject,
+    iter_handle: Handle,
+    max_items: jint,
+    max_bytes: jint,
+) -> jobjectArray {
+    let res = panic::catch_unwind(|| {
+        let iter = handle::cast_handle::<Values<Value>>(iter_handle);
+        iter_chunk::next_chunk(&env, iter, max_items, max_bytes)
+    });
+    utils::unwrap_exc_or(&env, res, ptr::null_mut())
+}
+
+/// Destroys the underlying `MapIndex` values-iterator object and frees memory.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongKeyMapIndexProxy_nativeValuesIterFree(
+    env: JNIEnv,
+    _: JObject,
+    iter_handle: Handle,
+) {
+    handle::drop_handle::<Values<Value>>(&env, iter_handle);
+}
@@ -0,0 +1,298 @@
+// Copyright 2020 The Exonum Team
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+use std::{panic, ptr};
+
+use exonum_merkledb::{access::FromAccess, indexes::list::Iter, Fork, ListIndex, Snapshot};
+use jni::{
+    objects::{JClass, JObject, JString},
+    sys::{jboolean, jbyteArray, jint, jlong, jlongArray},
+    JNIEnv,
+};
+
+use handle::{self, Handle};
+use storage::{
+    db::{Value, View, ViewRef},
+    primitives,
+};
+use utils;
+
+type Index<T> = ListIndex<T, Value>;
+
+enum IndexType {
+    SnapshotIndex(Index<&'static dyn Snapshot>),
+    ForkIndex(Index<&'static Fork>),
+}
+
+/// Returns pointer to the created `ListIndex` object.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongListIndexProxy_nativeCreate(
+    env: JNIEnv,
+    _: JClass,
+    name: JString,
+    id_in_group: jbyteArray,
+    view_handle: Handle,
+) -> Handle {
+    let res = panic::catch_unwind(|| {
+        let address = utils::convert_to_index_address(&env, name, id_in_group)?;
+        let view_ref = handle::cast_handle_ref::<View>(view_handle).get();
+        Ok(handle::to_handle(match view_ref {
+            ViewRef::Snapshot(snapshot) => {
+                IndexType::SnapshotIndex(Index::from_access(snapshot, address).unwrap())
+            }
+            ViewRef::Fork(fork) => IndexType::ForkIndex(Index::from_access(fork, address).unwrap()),
+        }))
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Destroys the underlying `ListIndex` object and frees memory.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongListIndexProxy_nativeFree(
+    env: JNIEnv,
+    _: JClass,
+    list_handle: Handle,
+) {
+    handle::drop_handle::<IndexType>(&env, list_handle);
+}
+
+/// Destroys the underlying `ListIndex` objects with the given handles and frees memory.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongListIndexProxy_nativeFreeAll(
+    env: JNIEnv,
+    _: JClass,
+    list_handles: jlongArray,
+) {
+    handle::drop_handles::<IndexType>(&env, list_handles);
+}
+
+/// Returns the value by index. Panics if `index` is out of bounds.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongListIndexProxy_nativeGet(
+    env: JNIEnv,
+    _: JObject,
+    list_handle: Handle,
+    index: jlong,
+) -> jlong {
+    let res = panic::catch_unwind(|| {
+        let val = match *handle::cast_handle_ref::<IndexType>(list_handle) {
+            IndexType::SnapshotIndex(ref list) => list.get(index as u64),
+            IndexType::ForkIndex(ref list) => list.get(index as u64),
+        };
+        let val = val.expect("Index out of bounds");
+        Ok(primitives::decode_value(&val))
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Returns `true` if the list is empty.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongListIndexProxy_nativeIsEmpty(
+    env: JNIEnv,
+    _: JObject,
+    list_handle: Handle,
+) -> jboolean {
+    let res = panic::catch_unwind(|| {
+        Ok(match *handle::cast_handle_ref::<IndexType>(list_handle) {
+            IndexType::SnapshotIndex(ref list) => list.is_empty(),
+            IndexType::ForkIndex(ref list) => list.is_empty(),
+        } as jboolean)
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Returns length of the list.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongListIndexProxy_nativeSize(
+    env: JNIEnv,
+    _: JObject,
+    list_handle: Handle,
+) -> jlong {
+    let res = panic::catch_unwind(|| {
+        Ok(match *handle::cast_handle_ref::<IndexType>(list_handle) {
+            IndexType::SnapshotIndex(ref list) => list.len(),
+            IndexType::ForkIndex(ref list) => list.len(),
+        } as jlong)
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Returns pointer to the iterator over list.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongListIndexProxy_nativeCreateIter(
+    env: JNIEnv,
+    _: JObject,
+    list_handle: Handle,
+) -> Handle {
+    let res = panic::catch_unwind(|| {
+        Ok(handle::to_handle(
+            match *handle::cast_handle_ref::<IndexType>(list_handle) {
+                IndexType::SnapshotIndex(ref list) => list.iter(),
+                IndexType::ForkIndex(ref list) => list.iter(),
+            },
+        ))
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Adds value to the list.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongListIndexProxy_nativeAdd(
+    env: JNIEnv,
+    _: JObject,
+    list_handle: Handle,
+    value: jlong,
+) {
+    let res = panic::catch_unwind(|| match *handle::cast_handle::<IndexType>(list_handle) {
+        IndexType::SnapshotIndex(_) => {
+            panic!("Unable to modify snapshot.");
+        }
+        IndexType::ForkIndex(ref mut list) => {
+            list.push(primitives::encode_value(value).to_vec());
+            Ok(())
+        }
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Appends all the `values` to the list.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongListIndexProxy_nativeAddAll(
+    env: JNIEnv,
+    _: JObject,
+    list_handle: Handle,
+    values: jlongArray,
+) {
+    let res = panic::catch_unwind(|| match *handle::cast_handle::<IndexType>(list_handle) {
+        IndexType::SnapshotIndex(_) => {
+            panic!("Unable to modify snapshot.");
+        }
+        IndexType::ForkIndex(ref mut list) => {
+            let len = env.get_array_length(values)?;
+            let mut buf = vec![0; len as usize];
+            env.get_long_array_region(values, 0, &mut buf)?;
+            list.extend(
+                buf.into_iter()
+                    .map(|value| primitives::encode_value(value).to_vec()),
+            );
+            Ok(())
+        }
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Removes the last element from a list and returns it. Panics if the list is empty.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongListIndexProxy_nativeRemoveLast(
+    env: JNIEnv,
+    _: JObject,
+    list_handle: Handle,
+) -> jlong {
+    let res = panic::catch_unwind(|| {
+        let val = match *handle::cast_handle::<IndexType>(list_handle) {
+            IndexType::SnapshotIndex(_) => panic!("Unable to modify snapshot."),
+            IndexType::ForkIndex(ref mut list) => list.pop(),
+        };
+        let val = val.expect("List is empty");
+        Ok(primitives::decode_value(&val))
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Shortens the list, keeping the first len elements and dropping the rest.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongListIndexProxy_nativeTruncate(
+    env: JNIEnv,
+    _: JObject,
+    list_handle: Handle,
+    len: jlong,
+) {
+    let res = panic::catch_unwind(|| match *handle::cast_handle::<IndexType>(list_handle) {
+        IndexType::SnapshotIndex(_) => {
+            panic!("Unable to modify snapshot.");
+        }
+        IndexType::ForkIndex(ref mut list) => {
+            list.truncate(len as u64);
+            Ok(())
+        }
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Sets value into specified index. Panics if `i` is out of bounds.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongListIndexProxy_nativeSet(
+    env: JNIEnv,
+    _: JObject,
+    list_handle: Handle,
+    index: jlong,
+    value: jlong,
+) {
+    let res = panic::catch_unwind(|| match *handle::cast_handle::<IndexType>(list_handle) {
+        IndexType::SnapshotIndex(_) => {
+            panic!("Unable to modify snapshot.");
+        }
+        IndexType::ForkIndex(ref mut list) => {
+            list.set(index as u64, primitives::encode_value(value).to_vec());
+            Ok(())
+        }
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Clears the list, removing all values.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongListIndexProxy_nativeClear(
+    env: JNIEnv,
+    _: JObject,
+    list_handle: Handle,
+) {
+    let res = panic::catch_unwind(|| match *handle::cast_handle::<IndexType>(list_handle) {
+        IndexType::SnapshotIndex(_) => {
+            panic!("Unable to modify snapshot.");
+        }
+        IndexType::ForkIndex(ref mut list) => {
+            list.clear();
+            Ok(())
+        }
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Returns the next chunk of elements from the iterator.
+/// Returns an empty array when iteration is finished.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongListIndexProxy_nativeIterNextChunk(
+    env: JNIEnv,
+    _: JObject,
+    iter_handle: Handle,
+    max_items: jint,
+) -> jlongArray {
+    let res = panic::catch_unwind(|| {
+        let iter = handle::cast_handle::<Iter<Value>>(iter_handle);
+        let mut values = iter.map(|value| primitives::decode_value(&value));
+        primitives::next_longs_chunk(&env, &mut values, max_items)
+    });
+    utils::unwrap_exc_or(&env, res, ptr::null_mut())
+}
+
+/// Destroys the underlying `IndexList` iterator object and frees memory.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_LongListIndexProxy_nativeIterFree(
+    env: JNIEnv,
+    _: JObject,
+    iter_handle: Handle,
+) {
+    handle::drop_handle::<Iter<Value>>(&env, iter_handle);
+}
@@ -15,20 +15,21 @@
 use std::{panic, ptr};
 
 use exonum_merkledb::{
-    access::FromAccess,
+    access::{FromAccess, RawAccess},
     indexes::map::{Iter as IndexIter, Keys, Values},
     Fork, MapIndex, Snapshot,
 };
 use jni::{
-    objects::{JClass, JObject, JString},
-    sys::{jboolean, jbyteArray, jobject},
+    objects::{JByteBuffer, JClass, JObject, JString},
+    sys::{jboolean, jbyteArray, jint, jlongArray, jobjectArray},
     JNIEnv,
 };
 
 use handle::{self, Handle};
 use storage::{
     db::{Key, Value, View, ViewRef},
-    PairIter,
+    iter_chunk,
+    range_iter::{self, RangeIter},
 };
 use utils;
 
@@ -39,9 +40,7 @@ enum IndexType {
     ForkIndex(Index<&'static Fork>),
 }
 
-type Iter<'a> = PairIter<IndexIter<'a, Key, Value>>;
-
-const JAVA_ENTRY_FQN: &str = "com/exonum/binding/core/storage/indices/MapEntryInternal";
+type Iter<'a> = RangeIter<IndexIter<'a, Key, Value>>;
 
 /// Returns a pointer to the created `MapIndex` object.
 #[no_mangle]
@@ -55,7 +54,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProx
     let res = panic::catch_unwind(|| {
         let address = utils::convert_to_index_address(&env, name, id_in_group)?;
         Ok(handle::to_handle(
-            match handle::cast_handle::<View>(view_handle).get() {
+            match handle::cast_handle_ref::<View>(view_handle).get() {
                 ViewRef::Snapshot(snapshot) => {
                     IndexType::SnapshotIndex(Index::from_access(snapshot, address).unwrap())
                 }
@@ -78,6 +77,16 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProx
     handle::drop_handle::<IndexType>(&env, map_handle);
 }
 
+/// Destroys the underlying `MapIndex` objects with the given handles and frees memory.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativeFreeAll(
+    env: JNIEnv,
+    _: JClass,
+    map_handles: jlongArray,
+) {
+    handle::drop_handles::<IndexType>(&env, map_handles);
+}
+
 /// Returns value identified by the `key`. Null pointer is returned if value is not found.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativeGet(
@@ -88,7 +97,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProx
 ) -> jbyteArray {
     let res = panic::catch_unwind(|| {
         let key = env.convert_byte_array(key)?;
-        let val = match *handle::cast_handle::<IndexType>(map_handle) {
+        let val = match *handle::cast_handle_ref::<IndexType>(map_handle) {
             IndexType::SnapshotIndex(ref map) => map.get(&key),
             IndexType::ForkIndex(ref map) => map.get(&key),
         };
@@ -100,6 +109,46 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProx
     utils::unwrap_exc_or(&env, res, ptr::null_mut())
 }
 
+/// Writes the value identified by the key in the direct `key` buffer into the direct
+/// `value_buffer`, if it fits in `max_value_size` bytes. Returns the size of the value,
+/// or -1 if there is no value for the key.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativeGetIntoBuffer(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+    key: JByteBuffer,
+    key_offset: jint,
+    key_size: jint,
+    value_buffer: JByteBuffer,
+    value_offset: jint,
+    max_value_size: jint,
+) -> jint {
+    let res = panic::catch_unwind(|| {
+        let key = utils::direct_buffer_slice(&env, key, key_offset, key_size)?;
+        let val = match *handle::cast_handle_ref::<IndexType>(map_handle) {
+            IndexType::SnapshotIndex(ref map) => map.get(&*key),
+            IndexType::ForkIndex(ref map) => map.get(&*key),
+        };
+        match val {
+            Some(val) => {
+                if val.len() <= max_value_size as usize {
+                    let target = utils::direct_buffer_slice(
+                        &env,
+                        value_buffer,
+                        value_offset,
+                        val.len() as jint,
+                    )?;
+                    target.copy_from_slice(&val);
+                }
+                Ok(val.len() as jint)
+            }
+            None => Ok(-1),
+        }
+    });
+    utils::unwrap_exc_or(&env, res, -1)
+}
+
 /// Returns `true` if the map contains a value for the specified key.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativeContainsKey(
@@ -110,7 +159,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProx
 ) -> jboolean {
     let res = panic::catch_unwind(|| {
         let key = env.convert_byte_array(key)?;
-        Ok(match *handle::cast_handle::<IndexType>(map_handle) {
+        Ok(match *handle::cast_handle_ref::<IndexType>(map_handle) {
             IndexType::SnapshotIndex(ref map) => map.contains(&key),
             IndexType::ForkIndex(ref map) => map.contains(&key),
         } as jboolean)
@@ -118,6 +167,44 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProx
     utils::unwrap_exc_or_default(&env, res)
 }
 
+/// Returns the values identified by the `keys`, in the order of the keys. The returned array
+/// contains null pointers in place of the keys that have no value.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativeGetMulti(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+    keys: jobjectArray,
+) -> jobjectArray {
+    let res = panic::catch_unwind(|| {
+        let keys = utils::java_byte_arrays_to_rust(&env, keys)?;
+        let values = match *handle::cast_handle_ref::<IndexType>(map_handle) {
+            IndexType::SnapshotIndex(ref map) => get_multi(map, &keys),
+            IndexType::ForkIndex(ref map) => get_multi(map, &keys),
+        };
+        utils::optional_rust_arrays_to_java(&env, values.into_iter())
+    });
+    utils::unwrap_exc_or(&env, res, ptr::null_mut())
+}
+
+/// Returns `true` if the map contains values for all of the specified keys.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativeContainsAll(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+    keys: jobjectArray,
+) -> jboolean {
+    let res = panic::catch_unwind(|| {
+        let keys = utils::java_byte_arrays_to_rust(&env, keys)?;
+        Ok(match *handle::cast_handle_ref::<IndexType>(map_handle) {
+            IndexType::SnapshotIndex(ref map) => keys.iter().all(|key| map.contains(key)),
+            IndexType::ForkIndex(ref map) => keys.iter().all(|key| map.contains(key)),
+        } as jboolean)
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
 /// Returns the pointer to the iterator over a map keys and values.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativeCreateEntriesIter(
@@ -126,12 +213,11 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProx
     map_handle: Handle,
 ) -> Handle {
     let res = panic::catch_unwind(|| {
-        let iter = match *handle::cast_handle::<IndexType>(map_handle) {
+        let iter = match *handle::cast_handle_ref::<IndexType>(map_handle) {
             IndexType::SnapshotIndex(ref map) => map.iter(),
             IndexType::ForkIndex(ref map) => map.iter(),
         };
-        let iter = Iter::new(&env, iter, JAVA_ENTRY_FQN)?;
-        Ok(handle::to_handle(iter))
+        Ok(handle::to_handle(Iter::unbounded(iter)))
     });
     utils::unwrap_exc_or_default(&env, res)
 }
@@ -145,7 +231,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProx
 ) -> Handle {
     let res = panic::catch_unwind(|| {
         Ok(handle::to_handle(
-            match *handle::cast_handle::<IndexType>(map_handle) {
+            match *handle::cast_handle_ref::<IndexType>(map_handle) {
                 IndexType::SnapshotIndex(ref map) => map.keys(),
                 IndexType::ForkIndex(ref map) => map.keys(),
             },
@@ -163,7 +249,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProx
 ) -> Handle {
     let res = panic::catch_unwind(|| {
         Ok(handle::to_handle(
-            match *handle::cast_handle::<IndexType>(map_handle) {
+            match *handle::cast_handle_ref::<IndexType>(map_handle) {
                 IndexType::SnapshotIndex(ref map) => map.values(),
                 IndexType::ForkIndex(ref map) => map.values(),
             },
@@ -172,22 +258,24 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProx
     utils::unwrap_exc_or_default(&env, res)
 }
 
-/// Returns the pointer to the iterator over a map keys and values starting at the given key.
+/// Returns the pointer to the iterator over the map keys and values in the range
+/// `[from, to)`. The range has no upper bound if `to` is null.
 #[no_mangle]
-pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativeCreateIterFrom(
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativeCreateEntriesIterRange(
     env: JNIEnv,
     _: JObject,
     map_handle: Handle,
-    key: jbyteArray,
+    from: jbyteArray,
+    to: jbyteArray,
 ) -> Handle {
     let res = panic::catch_unwind(|| {
-        let key = env.convert_byte_array(key)?;
-        let iter = match *handle::cast_handle::<IndexType>(map_handle) {
-            IndexType::SnapshotIndex(ref map) => map.iter_from(&key),
-            IndexType::ForkIndex(ref map) => map.iter_from(&key),
+        let from = env.convert_byte_array(from)?;
+        let to = range_iter::upper_bound_from_java(&env, to)?;
+        let iter = match *handle::cast_handle_ref::<IndexType>(map_handle) {
+            IndexType::SnapshotIndex(ref map) => map.iter_from(&from),
+            IndexType::ForkIndex(ref map) => map.iter_from(&from),
         };
-        let iter = Iter::new(&env, iter, JAVA_ENTRY_FQN)?;
-        Ok(handle::to_handle(iter))
+        Ok(handle::to_handle(Iter::new(iter, to)))
     });
     utils::unwrap_exc_or_default(&env, res)
 }
@@ -203,7 +291,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProx
     let res = panic::catch_unwind(|| {
         let key = env.convert_byte_array(key)?;
         Ok(handle::to_handle(
-            match *handle::cast_handle::<IndexType>(map_handle) {
+            match *handle::cast_handle_ref::<IndexType>(map_handle) {
                 IndexType::SnapshotIndex(ref map) => map.keys_from(&key),
                 IndexType::ForkIndex(ref map) => map.keys_from(&key),
             },
@@ -212,6 +300,29 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProx
     utils::unwrap_exc_or_default(&env, res)
 }
 
+/// Returns the smallest key of the map that is greater than or equal to the given key.
+/// Null pointer is returned if there is no such key.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativeCeilingKey(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+    key: jbyteArray,
+) -> jbyteArray {
+    let res = panic::catch_unwind(|| {
+        let key = env.convert_byte_array(key)?;
+        let ceiling_key = match *handle::cast_handle_ref::<IndexType>(map_handle) {
+            IndexType::SnapshotIndex(ref map) => map.keys_from(&key).next(),
+            IndexType::ForkIndex(ref map) => map.keys_from(&key).next(),
+        };
+        match ceiling_key {
+            Some(ceiling_key) => env.byte_array_from_slice(&ceiling_key),
+            None => Ok(ptr::null_mut()),
+        }
+    });
+    utils::unwrap_exc_or(&env, res, ptr::null_mut())
+}
+
 /// Returns a pointer to the iterator over map values starting at the given key.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativeValuesFrom(
@@ -223,7 +334,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProx
     let res = panic::catch_unwind(|| {
         let key = env.convert_byte_array(key)?;
         Ok(handle::to_handle(
-            match *handle::cast_handle::<IndexType>(map_handle) {
+            match *handle::cast_handle_ref::<IndexType>(map_handle) {
                 IndexType::SnapshotIndex(ref map) => map.values_from(&key),
                 IndexType::ForkIndex(ref map) => map.values_from(&key),
             },
@@ -255,6 +366,115 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProx
     utils::unwrap_exc_or_default(&env, res)
 }
 
+/// Sets `value` identified by the `key` into the index. Returns true if the index
+/// did not contain the `key` before.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativePutAndCheckNew(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+    key: jbyteArray,
+    value: jbyteArray,
+) -> jboolean {
+    let res = panic::catch_unwind(|| match *handle::cast_handle::<IndexType>(map_handle) {
+        IndexType::SnapshotIndex(_) => {
+            panic!("Unable to modify snapshot.");
+        }
+        IndexType::ForkIndex(ref mut map) => {
+            let key = env.convert_byte_array(key)?;
+            let value = env.convert_byte_array(value)?;
+            let is_new = !map.contains(&key);
+            map.put(&key, value);
+            Ok(is_new as jboolean)
+        }
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Sets the value in the direct `value` buffer identified by the key in the direct `key`
+/// buffer into the index.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativePutFromBuffer(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+    key: JByteBuffer,
+    key_offset: jint,
+    key_size: jint,
+    value: JByteBuffer,
+    value_offset: jint,
+    value_size: jint,
+) {
+    let res = panic::catch_unwind(|| match *handle::cast_handle::<IndexType>(map_handle) {
+        IndexType::SnapshotIndex(_) => {
+            panic!("Unable to modify snapshot.");
+        }
+        IndexType::ForkIndex(ref mut map) => {
+            let key = utils::direct_buffer_slice(&env, key, key_offset, key_size)?;
+            let value = utils::direct_buffer_slice(&env, value, value_offset, value_size)?;
+            map.put(&key.to_vec(), value.to_vec());
+            Ok(())
+        }
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Puts all the `values` identified by the corresponding `keys` into the index.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativePutAll(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+    keys: jobjectArray,
+    values: jobjectArray,
+) {
+    let res = panic::catch_unwind(|| match *handle::cast_handle::<IndexType>(map_handle) {
+        IndexType::SnapshotIndex(_) => {
+            panic!("Unable to modify snapshot.");
+        }
+        IndexType::ForkIndex(ref mut map) => {
+            let keys = utils::java_byte_arrays_to_rust(&env, keys)?;
+            let values = utils::java_byte_arrays_to_rust(&env, values)?;
+            assert_eq!(keys.len(), values.len(), "Keys and values must have the same length");
+            for (key, value) in keys.iter().zip(values) {
+                map.put(key, value);
+            }
+            Ok(())
+        }
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Puts the `values` identified by the corresponding `keys` into the index, and removes
+/// the values identified by the keys which correspond to `null` values.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativeWriteBatch(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+    keys: jobjectArray,
+    values: jobjectArray,
+) {
+    let res = panic::catch_unwind(|| match *handle::cast_handle::<IndexType>(map_handle) {
+        IndexType::SnapshotIndex(_) => {
+            panic!("Unable to modify snapshot.");
+        }
+        IndexType::ForkIndex(ref mut map) => {
+            let keys = utils::java_byte_arrays_to_rust(&env, keys)?;
+            let values = utils::optional_java_byte_arrays_to_rust(&env, values)?;
+            assert_eq!(keys.len(), values.len(), "Keys and values must have the same length");
+            for (key, value) in keys.iter().zip(values) {
+                match value {
+                    Some(value) => map.put(key, value),
+                    None => map.remove(key),
+                }
+            }
+            Ok(())
+        }
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
 /// Removes value identified by the `key` from the index.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativeRemove(
@@ -276,6 +496,31 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProx
     utils::unwrap_exc_or_default(&env, res)
 }
 
+/// Removes value identified by the `key` from the index. Returns true if the index
+/// contained the `key`.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativeRemoveAndCheckPresent(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+    key: jbyteArray,
+) -> jboolean {
+    let res = panic::catch_unwind(|| match *handle::cast_handle::<IndexType>(map_handle) {
+        IndexType::SnapshotIndex(_) => {
+            panic!("Unable to modify snapshot.");
+        }
+        IndexType::ForkIndex(ref mut map) => {
+            let key = env.convert_byte_array(key)?;
+            let is_present = map.contains(&key);
+            if is_present {
+                map.remove(&key);
+            }
+            Ok(is_present as jboolean)
+        }
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
 /// Clears the index, removing all values.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativeClear(
@@ -295,29 +540,19 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProx
     utils::unwrap_exc_or_default(&env, res)
 }
 
-/// Returns the next value from the iterator. Returns null pointer when iteration is finished.
+/// Returns the next chunk of entries from the iterator, with keys and values interleaved.
+/// Returns an empty array when iteration is finished.
 #[no_mangle]
-pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativeEntriesIterNext(
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativeEntriesIterNextChunk(
     env: JNIEnv,
     _: JObject,
     iter_handle: Handle,
-) -> jobject {
+    max_items: jint,
+    max_bytes: jint,
+) -> jobjectArray {
     let res = panic::catch_unwind(|| {
-        let iterWrapper = handle::cast_handle::<Iter>(iter_handle);
-        match iterWrapper.iter.next() {
-            Some(val) => {
-                let key: JObject = env.byte_array_from_slice(&val.0)?.into();
-                let value: JObject = env.byte_array_from_slice(&val.1)?.into();
-                Ok(env
-                    .new_object_unchecked(
-                        &iterWrapper.element_class,
-                        iterWrapper.constructor_id,
-                        &[key.into(), value.into()],
-                    )?
-                    .into_inner())
-            }
-            None => Ok(ptr::null_mut()),
-        }
+        let iter = handle::cast_handle::<Iter>(iter_handle);
+        iter_chunk::next_pairs_chunk(&env, iter, max_items, max_bytes)
     });
     utils::unwrap_exc_or(&env, res, ptr::null_mut())
 }
@@ -332,19 +567,19 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProx
     handle::drop_handle::<Iter>(&env, iter_handle);
 }
 
-/// Returns the next value from the keys-iterator. Returns null pointer when iteration is finished.
+/// Returns the next chunk of keys from the keys-iterator.
+/// Returns an empty array when iteration is finished.
 #[no_mangle]
-pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativeKeysIterNext(
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativeKeysIterNextChunk(
     env: JNIEnv,
     _: JObject,
     iter_handle: Handle,
-) -> jbyteArray {
+    max_items: jint,
+    max_bytes: jint,
+) -> jobjectArray {
     let res = panic::catch_unwind(|| {
         let iter = handle::cast_handle::<Keys<Key>>(iter_handle);
-        match iter.next() {
-            Some(val) => env.byte_array_from_slice(&val),
-            None => Ok(ptr::null_mut()),
-        }
+        iter_chunk::next_chunk(&env, iter, max_items, max_bytes)
     });
     utils::unwrap_exc_or(&env, res, ptr::null_mut())
 }
@@ -359,19 +594,19 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProx
     handle::drop_handle::<Keys<Key>>(&env, iter_handle);
 }
 
-/// Return next value from the values-iterator. Returns null pointer when iteration is finished.
+/// Returns the next chunk of values from the values-iterator.
+/// Returns an empty array when iteration is finished.
 #[no_mangle]
-pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativeValuesIterNext(
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProxy_nativeValuesIterNextChunk(
     env: JNIEnv,
     _: JObject,
     iter_handle: Handle,
-) -> jbyteArray {
+    max_items: jint,
+    max_bytes: jint,
+) -> jobjectArray {
     let res = panic::catch_unwind(|| {
         let iter = handle::cast_handle::<Values<Value>>(iter_handle);
-        match iter.next() {
-            Some(val) => env.byte_array_from_slice(&val),
-            None => Ok(ptr::null_mut()),
-        }
+        iter_chunk::next_chunk(&env, iter, max_items, max_bytes)
     });
     utils::unwrap_exc_or(&env, res, ptr::null_mut())
 }
@@ -385,3 +620,8 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_MapIndexProx
 ) {
     handle::drop_handle::<Values<Value>>(&env, iter_handle);
 }
+
+// Looks up the values of the given keys in the map.
+fn get_multi<T: RawAccess>(map: &Index<T>, keys: &[Key]) -> Vec<Option<Value>> {
+    keys.iter().map(|key| map.get(key)).collect()
+}
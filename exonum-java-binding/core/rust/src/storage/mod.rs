@@ -17,8 +17,10 @@ pub use self::db::Java_com_exonum_binding_core_storage_database_Accesses_nativeF
 pub(crate) use self::db::View;
 pub use self::key_set_index::*;
 pub use self::list_index::*;
+pub use self::long_key_map_index::*;
+pub use self::long_list_index::*;
+pub use self::long_map_index::*;
 pub use self::map_index::*;
-pub use self::pair_iter::PairIter;
 pub use self::proof_entry::*;
 pub use self::proof_list_index::*;
 pub use self::proof_map_index::*;
@@ -31,14 +33,19 @@ mod blockchain;
 mod db;
 mod entry;
 mod fork;
+mod iter_chunk;
 mod key_set_index;
 mod list_index;
+mod long_key_map_index;
+mod long_list_index;
+mod long_map_index;
 mod map_index;
-mod pair_iter;
+mod primitives;
 mod proof_entry;
 mod proof_list_index;
 mod proof_map_index;
 mod proof_map_index_next;
+mod range_iter;
 mod raw_proof_map_index;
 mod temporarydb;
 mod value_set_index;
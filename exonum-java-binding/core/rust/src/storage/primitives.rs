@@ -0,0 +1,109 @@
+// Copyright 2020 The Exonum Team
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+//! Encoding of the `long` keys and values of the primitive-specialized indexes.
+//!
+//! The values are encoded as 8 bytes in little-endian order, as `i64` values in MerkleDB.
+//! The keys are encoded as 8 bytes in big-endian order with the sign bit flipped, so that
+//! the lexicographical order of the encoded keys matches the numeric order of the keys.
+
+use jni::{
+    sys::{jint, jlong, jlongArray, jsize},
+    JNIEnv,
+};
+
+use JniResult;
+
+/// The size of an encoded `long` key or value in bytes.
+pub const LONG_SIZE: usize = 8;
+
+const SIGN_BIT: u64 = 1 << 63;
+
+/// Encodes a `long` value.
+pub fn encode_value(value: jlong) -> [u8; LONG_SIZE] {
+    value.to_le_bytes()
+}
+
+/// Decodes a `long` value. Panics if the value does not have the size of an encoded `long`.
+pub fn decode_value(value: &[u8]) -> jlong {
+    jlong::from_le_bytes(to_array(value))
+}
+
+/// Encodes a `long` key.
+pub fn encode_key(key: jlong) -> [u8; LONG_SIZE] {
+    (key as u64 ^ SIGN_BIT).to_be_bytes()
+}
+
+/// Decodes a `long` key. Panics if the key does not have the size of an encoded `long`.
+pub fn decode_key(key: &[u8]) -> jlong {
+    (u64::from_be_bytes(to_array(key)) ^ SIGN_BIT) as jlong
+}
+
+fn to_array(bytes: &[u8]) -> [u8; LONG_SIZE] {
+    assert_eq!(
+        bytes.len(),
+        LONG_SIZE,
+        "Invalid size of an encoded long: {}",
+        bytes.len()
+    );
+    let mut array = [0; LONG_SIZE];
+    array.copy_from_slice(bytes);
+    array
+}
+
+/// Takes the next chunk of at most `max_items` numbers from the iterator and converts it into
+/// a Java array (`long[]`). A chunk that has fewer than `max_items` numbers signals
+/// that the iterator is exhausted.
+pub fn next_longs_chunk<I>(env: &JNIEnv, iter: &mut I, max_items: jint) -> JniResult<jlongArray>
+where
+    I: Iterator<Item = jlong>,
+{
+    let chunk: Vec<jlong> = iter.take(max_items as usize).collect();
+    let array = env.new_long_array(chunk.len() as jsize)?;
+    env.set_long_array_region(array, 0, &chunk)?;
+    Ok(array)
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    #[test]
+    fn value_round_trip() {
+        for &value in &[0, 1, -1, jlong::min_value(), jlong::max_value()] {
+            assert_eq!(decode_value(&encode_value(value)), value);
+        }
+    }
+
+    #[test]
+    fn key_round_trip() {
+        for &key in &[0, 1, -1, jlong::min_value(), jlong::max_value()] {
+            assert_eq!(decode_key(&encode_key(key)), key);
+        }
+    }
+
+    #[test]
+    fn keys_preserve_order() {
+        let keys = [jlong::min_value(), -256, -1, 0, 1, 255, 256, jlong::max_value()];
+        for pair in keys.windows(2) {
+            assert!(encode_key(pair[0]) < encode_key(pair[1]));
+        }
+    }
+
+    #[test]
+    #[should_panic(expected = "Invalid size of an encoded long: 4")]
+    fn decode_invalid_value() {
+        decode_value(&[0; 4]);
+    }
+}
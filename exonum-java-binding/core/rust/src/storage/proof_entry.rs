@@ -15,7 +15,7 @@
 use exonum_merkledb::{access::FromAccess, Fork, ObjectHash, ProofEntry, Snapshot};
 use jni::{
     objects::{JClass, JObject, JString},
-    sys::{jboolean, jbyteArray},
+    sys::{jboolean, jbyteArray, jlongArray},
     JNIEnv,
 };
 
@@ -43,7 +43,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofEntryIn
     let res = panic::catch_unwind(|| {
         let name = utils::convert_to_string(&env, name)?;
         Ok(handle::to_handle(
-            match handle::cast_handle::<View>(view_handle).get() {
+            match handle::cast_handle_ref::<View>(view_handle).get() {
                 ViewRef::Snapshot(snapshot) => {
                     IndexType::SnapshotIndex(Index::from_access(snapshot, name.into()).unwrap())
                 }
@@ -66,6 +66,16 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofEntryIn
     handle::drop_handle::<IndexType>(&env, entry_handle);
 }
 
+/// Destroys the underlying `Entry` objects with the given handles and frees memory.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofEntryIndexProxy_nativeFreeAll(
+    env: JNIEnv,
+    _: JClass,
+    entry_handles: jlongArray,
+) {
+    handle::drop_handles::<IndexType>(&env, entry_handles);
+}
+
 /// Returns the value or null pointer if it is absent.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofEntryIndexProxy_nativeGet(
@@ -74,7 +84,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofEntryIn
     entry_handle: Handle,
 ) -> jbyteArray {
     let res = panic::catch_unwind(|| {
-        let val = match *handle::cast_handle::<IndexType>(entry_handle) {
+        let val = match *handle::cast_handle_ref::<IndexType>(entry_handle) {
             IndexType::SnapshotIndex(ref entry) => entry.get(),
             IndexType::ForkIndex(ref entry) => entry.get(),
         };
@@ -94,7 +104,7 @@ pub extern "C" fn Java_com_exonum_binding_core_storage_indices_ProofEntryIndexPr
     entry_handle: Handle,
 ) -> jboolean {
     let res = panic::catch_unwind(|| {
-        Ok(match *handle::cast_handle::<IndexType>(entry_handle) {
+        Ok(match *handle::cast_handle_ref::<IndexType>(entry_handle) {
             IndexType::SnapshotIndex(ref entry) => entry.exists(),
             IndexType::ForkIndex(ref entry) => entry.exists(),
         } as jboolean)
@@ -112,7 +122,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofEntryIn
     let res = panic::catch_unwind(|| {
         utils::convert_hash(
             &env,
-            &match *handle::cast_handle::<IndexType>(entry_handle) {
+            &match *handle::cast_handle_ref::<IndexType>(entry_handle) {
                 IndexType::SnapshotIndex(ref entry) => entry.object_hash(),
                 IndexType::ForkIndex(ref entry) => entry.object_hash(),
             },
@@ -19,12 +19,15 @@ use exonum::merkledb::{
 };
 use jni::{
     objects::{JClass, JObject, JString},
-    sys::{jboolean, jbyteArray, jint, jlong},
+    sys::{jboolean, jbyteArray, jint, jlong, jlongArray, jobjectArray},
     JNIEnv,
 };
 
 use handle::{self, Handle};
-use storage::db::{Value, View, ViewRef};
+use storage::{
+    db::{Value, View, ViewRef},
+    iter_chunk,
+};
 use utils;
 
 type Index<T> = ProofListIndex<T, Value>;
@@ -46,7 +49,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListInd
     let res = panic::catch_unwind(|| {
         let address = utils::convert_to_index_address(&env, name, id_in_group)?;
         Ok(handle::to_handle(
-            match handle::cast_handle::<View>(view_handle).get() {
+            match handle::cast_handle_ref::<View>(view_handle).get() {
                 ViewRef::Snapshot(snapshot) => {
                     IndexType::SnapshotIndex(Index::from_access(snapshot, address).unwrap())
                 }
@@ -69,6 +72,16 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListInd
     handle::drop_handle::<IndexType>(&env, list_handle);
 }
 
+/// Destroys the underlying `ProofListIndex` objects with the given handles and frees memory.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListIndexProxy_nativeFreeAll(
+    env: JNIEnv,
+    _: JClass,
+    list_handles: jlongArray,
+) {
+    handle::drop_handles::<IndexType>(&env, list_handles);
+}
+
 /// Returns the value by index. Null pointer is returned if value is not found.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListIndexProxy_nativeGet(
@@ -78,7 +91,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListInd
     index: jlong,
 ) -> jbyteArray {
     let res = panic::catch_unwind(|| {
-        let val = match *handle::cast_handle::<IndexType>(list_handle) {
+        let val = match *handle::cast_handle_ref::<IndexType>(list_handle) {
             IndexType::SnapshotIndex(ref list) => list.get(index as u64),
             IndexType::ForkIndex(ref list) => list.get(index as u64),
         };
@@ -90,6 +103,26 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListInd
     utils::unwrap_exc_or(&env, res, ptr::null_mut())
 }
 
+/// Returns the values in the range `[from, to)` of the list.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListIndexProxy_nativeGetRange(
+    env: JNIEnv,
+    _: JObject,
+    list_handle: Handle,
+    from: jlong,
+    to: jlong,
+) -> jobjectArray {
+    let res = panic::catch_unwind(|| {
+        let (from, len) = (from as u64, (to - from) as usize);
+        let values: Vec<Value> = match *handle::cast_handle_ref::<IndexType>(list_handle) {
+            IndexType::SnapshotIndex(ref list) => list.iter_from(from).take(len).collect(),
+            IndexType::ForkIndex(ref list) => list.iter_from(from).take(len).collect(),
+        };
+        utils::rust_arrays_to_java(&env, values.iter())
+    });
+    utils::unwrap_exc_or(&env, res, ptr::null_mut())
+}
+
 /// Returns the last value or null pointer if the list is empty.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListIndexProxy_nativeGetLast(
@@ -98,7 +131,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListInd
     list_handle: Handle,
 ) -> jbyteArray {
     let res = panic::catch_unwind(|| {
-        let val = match *handle::cast_handle::<IndexType>(list_handle) {
+        let val = match *handle::cast_handle_ref::<IndexType>(list_handle) {
             IndexType::SnapshotIndex(ref list) => list.last(),
             IndexType::ForkIndex(ref list) => list.last(),
         };
@@ -110,6 +143,27 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListInd
     utils::unwrap_exc_or(&env, res, ptr::null_mut())
 }
 
+/// Appends all the `values` to the list.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListIndexProxy_nativeAddAll(
+    env: JNIEnv,
+    _: JObject,
+    list_handle: Handle,
+    values: jobjectArray,
+) {
+    let res = panic::catch_unwind(|| match *handle::cast_handle::<IndexType>(list_handle) {
+        IndexType::SnapshotIndex(_) => {
+            panic!("Unable to modify snapshot.");
+        }
+        IndexType::ForkIndex(ref mut list) => {
+            let values = utils::java_byte_arrays_to_rust(&env, values)?;
+            list.extend(values);
+            Ok(())
+        }
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
 /// Removes the last element from a list and returns it, or null pointer if it is empty.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListIndexProxy_nativeRemoveLast(
@@ -158,7 +212,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListInd
     list_handle: Handle,
 ) -> jboolean {
     let res = panic::catch_unwind(|| {
-        Ok(match *handle::cast_handle::<IndexType>(list_handle) {
+        Ok(match *handle::cast_handle_ref::<IndexType>(list_handle) {
             IndexType::SnapshotIndex(ref list) => list.is_empty(),
             IndexType::ForkIndex(ref list) => list.is_empty(),
         } as jboolean)
@@ -178,7 +232,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListInd
 }
 
 fn get_list_length(list_handle: Handle) -> u64 {
-    match *handle::cast_handle::<IndexType>(list_handle) {
+    match *handle::cast_handle_ref::<IndexType>(list_handle) {
         IndexType::SnapshotIndex(ref list) => list.len(),
         IndexType::ForkIndex(ref list) => list.len(),
     }
@@ -193,7 +247,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListInd
 ) -> jint {
     let res = panic::catch_unwind(|| {
         Ok(i32::from(
-            match *handle::cast_handle::<IndexType>(list_handle) {
+            match *handle::cast_handle_ref::<IndexType>(list_handle) {
                 IndexType::SnapshotIndex(ref list) => list.height(),
                 IndexType::ForkIndex(ref list) => list.height(),
             },
@@ -210,7 +264,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListInd
     list_handle: Handle,
 ) -> jbyteArray {
     let res = panic::catch_unwind(|| {
-        let hash = match *handle::cast_handle::<IndexType>(list_handle) {
+        let hash = match *handle::cast_handle_ref::<IndexType>(list_handle) {
             IndexType::SnapshotIndex(ref list) => list.object_hash(),
             IndexType::ForkIndex(ref list) => list.object_hash(),
         };
@@ -229,7 +283,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListInd
     index: jlong,
 ) -> jbyteArray {
     let res = panic::catch_unwind(|| {
-        let proof = match *handle::cast_handle::<IndexType>(list_handle) {
+        let proof = match *handle::cast_handle_ref::<IndexType>(list_handle) {
             IndexType::SnapshotIndex(ref list) => list.get_proof(index as u64),
             IndexType::ForkIndex(ref list) => list.get_proof(index as u64),
         };
@@ -249,7 +303,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListInd
     to: jlong,
 ) -> jbyteArray {
     let res = panic::catch_unwind(|| {
-        let proof = match *handle::cast_handle::<IndexType>(list_handle) {
+        let proof = match *handle::cast_handle_ref::<IndexType>(list_handle) {
             IndexType::SnapshotIndex(ref list) => list.get_range_proof(from as u64..to as u64),
             IndexType::ForkIndex(ref list) => list.get_range_proof(from as u64..to as u64),
         };
@@ -267,7 +321,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListInd
 ) -> Handle {
     let res = panic::catch_unwind(|| {
         Ok(handle::to_handle(
-            match *handle::cast_handle::<IndexType>(list_handle) {
+            match *handle::cast_handle_ref::<IndexType>(list_handle) {
                 IndexType::SnapshotIndex(ref list) => list.iter(),
                 IndexType::ForkIndex(ref list) => list.iter(),
             },
@@ -286,7 +340,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListInd
 ) -> Handle {
     let res = panic::catch_unwind(|| {
         Ok(handle::to_handle(
-            match *handle::cast_handle::<IndexType>(list_handle) {
+            match *handle::cast_handle_ref::<IndexType>(list_handle) {
                 IndexType::SnapshotIndex(ref list) => list.iter_from(index_from as u64),
                 IndexType::ForkIndex(ref list) => list.iter_from(index_from as u64),
             },
@@ -357,19 +411,19 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListInd
     utils::unwrap_exc_or_default(&env, res)
 }
 
-/// Returns next value from the iterator. Returns null pointer when iteration is finished.
+/// Returns the next chunk of elements from the iterator.
+/// Returns an empty array when iteration is finished.
 #[no_mangle]
-pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListIndexProxy_nativeIterNext(
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofListIndexProxy_nativeIterNextChunk(
     env: JNIEnv,
     _: JObject,
     iter_handle: Handle,
-) -> jbyteArray {
+    max_items: jint,
+    max_bytes: jint,
+) -> jobjectArray {
     let res = panic::catch_unwind(|| {
         let iter = handle::cast_handle::<Iter<Value>>(iter_handle);
-        match iter.next() {
-            Some(val) => env.byte_array_from_slice(&val),
-            None => Ok(ptr::null_mut()),
-        }
+        iter_chunk::next_chunk(&env, iter, max_items, max_bytes)
     });
     utils::unwrap_exc_or(&env, res, ptr::null_mut())
 }
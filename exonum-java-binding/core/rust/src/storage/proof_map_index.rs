@@ -21,8 +21,8 @@ use exonum_merkledb::{
 };
 use exonum_proto::ProtobufConvert;
 use jni::{
-    objects::{GlobalRef, JClass, JMethodID, JObject, JString},
-    sys::{jboolean, jbyteArray, jobject, jobjectArray, JNI_TRUE},
+    objects::{JClass, JObject, JString},
+    sys::{jboolean, jbyteArray, jint, jlongArray, jobjectArray, JNI_TRUE},
     JNIEnv,
 };
 use protobuf::Message;
@@ -31,7 +31,8 @@ use JniResult;
 use handle::{self, Handle};
 use storage::{
     db::{Key, Value, View, ViewRef},
-    PairIter,
+    iter_chunk,
+    range_iter::{self, RangeIter},
 };
 use utils;
 
@@ -48,16 +49,14 @@ where
     Hashed(ProofMapIndex<T, Key, Value>),
 }
 
-const MAP_ENTRY_INTERNAL_FQN: &str = "com/exonum/binding/core/storage/indices/MapEntryInternal";
-
 enum IndexType {
     SnapshotIndex(Index<&'static dyn Snapshot>),
     ForkIndex(Index<&'static Fork>),
 }
 
 enum Iter<'a> {
-    Raw(PairIter<IndexIter<'a, RawKey, Value>>),
-    Hashed(PairIter<IndexIter<'a, Key, Value>>),
+    Raw(RangeIter<IndexIter<'a, RawKey, Value>>),
+    Hashed(RangeIter<IndexIter<'a, Key, Value>>),
 }
 
 enum KeysIter<'a> {
@@ -109,7 +108,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapInde
         let address = utils::convert_to_index_address(&env, name, id_in_group)?;
         let key_is_hashed = key_hashing == JNI_TRUE;
         Ok(handle::to_handle(
-            match handle::cast_handle::<View>(view_handle).get() {
+            match handle::cast_handle_ref::<View>(view_handle).get() {
                 ViewRef::Snapshot(snapshot) => {
                     let index = if key_is_hashed {
                         ProofMapIndex::<_, _, _, Hashed>::from_access(snapshot, address)
@@ -148,6 +147,16 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapInde
     handle::drop_handle::<IndexType>(&env, map_handle);
 }
 
+/// Destroys the underlying `ProofMapIndex` objects with the given handles and frees memory.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapIndexProxy_nativeFreeAll(
+    env: JNIEnv,
+    _: JClass,
+    map_handles: jlongArray,
+) {
+    handle::drop_handles::<IndexType>(&env, map_handles);
+}
+
 /// Returns the object hash of the proof map or default hash value if it is empty.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapIndexProxy_nativeGetIndexHash(
@@ -156,7 +165,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapInde
     map_handle: Handle,
 ) -> jbyteArray {
     let res = panic::catch_unwind(|| {
-        let hash = match *handle::cast_handle::<IndexType>(map_handle) {
+        let hash = match *handle::cast_handle_ref::<IndexType>(map_handle) {
             IndexType::SnapshotIndex(ref index) => match index {
                 Index::Raw(map) => map.object_hash(),
                 Index::Hashed(map) => map.object_hash(),
@@ -181,7 +190,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapInde
 ) -> jbyteArray {
     let res = panic::catch_unwind(|| {
         let key = env.convert_byte_array(key)?;
-        let val = match *handle::cast_handle::<IndexType>(map_handle) {
+        let val = match *handle::cast_handle_ref::<IndexType>(map_handle) {
             IndexType::SnapshotIndex(ref index) => match index {
                 Index::Raw(map) => map.get(&key.to_raw()),
                 Index::Hashed(map) => map.get(&key),
@@ -209,7 +218,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapInde
 ) -> jboolean {
     let res = panic::catch_unwind(|| {
         let key = env.convert_byte_array(key)?;
-        Ok(match *handle::cast_handle::<IndexType>(map_handle) {
+        Ok(match *handle::cast_handle_ref::<IndexType>(map_handle) {
             IndexType::SnapshotIndex(ref index) => match index {
                 Index::Raw(map) => map.contains(&key.to_raw()),
                 Index::Hashed(map) => map.contains(&key),
@@ -223,6 +232,56 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapInde
     utils::unwrap_exc_or_default(&env, res)
 }
 
+/// Returns the values identified by the `keys`, in the order of the keys. The returned array
+/// contains null pointers in place of the keys that have no value.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapIndexProxy_nativeGetMulti(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+    keys: jobjectArray,
+) -> jobjectArray {
+    let res = panic::catch_unwind(|| {
+        let keys = convert_to_keys(&env, keys)?;
+        let values: Vec<Option<Value>> = match *handle::cast_handle_ref::<IndexType>(map_handle) {
+            IndexType::SnapshotIndex(ref index) => match index {
+                Index::Raw(map) => keys.iter().map(|key| map.get(&key.to_raw())).collect(),
+                Index::Hashed(map) => keys.iter().map(|key| map.get(key)).collect(),
+            },
+            IndexType::ForkIndex(ref index) => match index {
+                Index::Raw(map) => keys.iter().map(|key| map.get(&key.to_raw())).collect(),
+                Index::Hashed(map) => keys.iter().map(|key| map.get(key)).collect(),
+            },
+        };
+        utils::optional_rust_arrays_to_java(&env, values.into_iter())
+    });
+    utils::unwrap_exc_or(&env, res, ptr::null_mut())
+}
+
+/// Returns `true` if the map contains values for all of the specified keys.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapIndexProxy_nativeContainsAll(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+    keys: jobjectArray,
+) -> jboolean {
+    let res = panic::catch_unwind(|| {
+        let keys = convert_to_keys(&env, keys)?;
+        Ok(match *handle::cast_handle_ref::<IndexType>(map_handle) {
+            IndexType::SnapshotIndex(ref index) => match index {
+                Index::Raw(map) => keys.iter().all(|key| map.contains(&key.to_raw())),
+                Index::Hashed(map) => keys.iter().all(|key| map.contains(key)),
+            },
+            IndexType::ForkIndex(ref index) => match index {
+                Index::Raw(map) => keys.iter().all(|key| map.contains(&key.to_raw())),
+                Index::Hashed(map) => keys.iter().all(|key| map.contains(key)),
+            },
+        } as jboolean)
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
 /// Returns proof that is serialized in protobuf.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapIndexProxy_nativeGetProof(
@@ -233,7 +292,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapInde
 ) -> jbyteArray {
     let res = panic::catch_unwind(|| {
         let key = env.convert_byte_array(key)?;
-        let proof_proto = match *handle::cast_handle::<IndexType>(map_handle) {
+        let proof_proto = match *handle::cast_handle_ref::<IndexType>(map_handle) {
             IndexType::SnapshotIndex(ref index) => match index {
                 Index::Raw(ref map) => map.get_proof(key.to_raw()).to_pb(),
                 Index::Hashed(ref map) => map.get_proof(key).to_pb(),
@@ -259,7 +318,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapInde
 ) -> jbyteArray {
     let res = panic::catch_unwind(|| {
         let keys = convert_to_keys(&env, keys)?;
-        let proof_proto = match *handle::cast_handle::<IndexType>(map_handle) {
+        let proof_proto = match *handle::cast_handle_ref::<IndexType>(map_handle) {
             IndexType::SnapshotIndex(ref index) => match index {
                 Index::Raw(ref map) => map.get_multiproof(convert_keys(keys)).to_pb(),
                 Index::Hashed(ref map) => map.get_multiproof(keys).to_pb(),
@@ -283,14 +342,14 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapInde
     map_handle: Handle,
 ) -> Handle {
     let res = panic::catch_unwind(|| {
-        let iter = match *handle::cast_handle::<IndexType>(map_handle) {
+        let iter = match *handle::cast_handle_ref::<IndexType>(map_handle) {
             IndexType::SnapshotIndex(ref index) => match index {
-                Index::Raw(ref map) => Iter::Raw(create_pair_iter(&env, map.iter())?),
-                Index::Hashed(ref map) => Iter::Hashed(create_pair_iter(&env, map.iter())?),
+                Index::Raw(ref map) => Iter::Raw(RangeIter::unbounded(map.iter())),
+                Index::Hashed(ref map) => Iter::Hashed(RangeIter::unbounded(map.iter())),
             },
             IndexType::ForkIndex(ref index) => match index {
-                Index::Raw(ref map) => Iter::Raw(create_pair_iter(&env, map.iter())?),
-                Index::Hashed(ref map) => Iter::Hashed(create_pair_iter(&env, map.iter())?),
+                Index::Raw(ref map) => Iter::Raw(RangeIter::unbounded(map.iter())),
+                Index::Hashed(ref map) => Iter::Hashed(RangeIter::unbounded(map.iter())),
             },
         };
         Ok(handle::to_handle(iter))
@@ -306,7 +365,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapInde
     map_handle: Handle,
 ) -> Handle {
     let res = panic::catch_unwind(|| {
-        let keys_iter = match handle::cast_handle::<IndexType>(map_handle) {
+        let keys_iter = match handle::cast_handle_ref::<IndexType>(map_handle) {
             IndexType::SnapshotIndex(index) => match index {
                 Index::Raw(map) => KeysIter::Raw(map.keys()),
                 Index::Hashed(map) => KeysIter::Hashed(map.keys()),
@@ -329,7 +388,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapInde
     map_handle: Handle,
 ) -> Handle {
     let res = panic::catch_unwind(|| {
-        let values = match *handle::cast_handle::<IndexType>(map_handle) {
+        let values = match *handle::cast_handle_ref::<IndexType>(map_handle) {
             IndexType::SnapshotIndex(ref index) => match index {
                 Index::Raw(map) => map.values(),
                 Index::Hashed(map) => map.values(),
@@ -344,24 +403,30 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapInde
     utils::unwrap_exc_or_default(&env, res)
 }
 
-/// Returns the pointer to the iterator over a map keys and values starting at the given key.
+/// Returns the pointer to the iterator over the map keys and values in the range
+/// `[from, to)`. The range has no upper bound if `to` is null.
+///
+/// The upper bound must only be used with a map that does not hash keys, because
+/// the entries of a map with hashed keys are ordered by key hashes.
 #[no_mangle]
-pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapIndexProxy_nativeCreateIterFrom(
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapIndexProxy_nativeCreateEntriesIterRange(
     env: JNIEnv,
     _: JObject,
     map_handle: Handle,
-    key: jbyteArray,
+    from: jbyteArray,
+    to: jbyteArray,
 ) -> Handle {
     let res = panic::catch_unwind(|| {
-        let key = env.convert_byte_array(key)?;
-        let iter = match *handle::cast_handle::<IndexType>(map_handle) {
+        let from = env.convert_byte_array(from)?;
+        let to = range_iter::upper_bound_from_java(&env, to)?;
+        let iter = match *handle::cast_handle_ref::<IndexType>(map_handle) {
             IndexType::SnapshotIndex(ref index) => match index {
-                Index::Raw(map) => Iter::Raw(create_pair_iter(&env, map.iter_from(&key.to_raw()))?),
-                Index::Hashed(map) => Iter::Hashed(create_pair_iter(&env, map.iter_from(&key))?),
+                Index::Raw(map) => Iter::Raw(RangeIter::new(map.iter_from(&from.to_raw()), to)),
+                Index::Hashed(map) => Iter::Hashed(RangeIter::new(map.iter_from(&from), to)),
             },
             IndexType::ForkIndex(ref index) => match index {
-                Index::Raw(map) => Iter::Raw(create_pair_iter(&env, map.iter_from(&key.to_raw()))?),
-                Index::Hashed(map) => Iter::Hashed(create_pair_iter(&env, map.iter_from(&key))?),
+                Index::Raw(map) => Iter::Raw(RangeIter::new(map.iter_from(&from.to_raw()), to)),
+                Index::Hashed(map) => Iter::Hashed(RangeIter::new(map.iter_from(&from), to)),
             },
         };
         Ok(handle::to_handle(iter))
@@ -379,7 +444,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapInde
 ) -> Handle {
     let res = panic::catch_unwind(|| {
         let key = env.convert_byte_array(key)?;
-        let iter = match *handle::cast_handle::<IndexType>(map_handle) {
+        let iter = match *handle::cast_handle_ref::<IndexType>(map_handle) {
             IndexType::SnapshotIndex(ref index) => match index {
                 Index::Raw(map) => KeysIter::Raw(map.keys_from(&key.to_raw())),
                 Index::Hashed(map) => KeysIter::Hashed(map.keys_from(&key)),
@@ -394,6 +459,36 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapInde
     utils::unwrap_exc_or_default(&env, res)
 }
 
+/// Returns the smallest key of the map that is greater than or equal to the given key.
+/// Null pointer is returned if there is no such key. Panics if the map uses hashed keys,
+/// because its keys are ordered by their hashes.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapIndexProxy_nativeCeilingKey(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+    key: jbyteArray,
+) -> jbyteArray {
+    let res = panic::catch_unwind(|| {
+        let key = env.convert_byte_array(key)?;
+        let ceiling_key = match *handle::cast_handle_ref::<IndexType>(map_handle) {
+            IndexType::SnapshotIndex(ref index) => match index {
+                Index::Raw(map) => map.keys_from(&key.to_raw()).next(),
+                Index::Hashed(_) => panic!("Ceiling key is not supported by a hashed proof map"),
+            },
+            IndexType::ForkIndex(ref index) => match index {
+                Index::Raw(map) => map.keys_from(&key.to_raw()).next(),
+                Index::Hashed(_) => panic!("Ceiling key is not supported by a hashed proof map"),
+            },
+        };
+        match ceiling_key {
+            Some(ceiling_key) => env.byte_array_from_slice(&ceiling_key),
+            None => Ok(ptr::null_mut()),
+        }
+    });
+    utils::unwrap_exc_or(&env, res, ptr::null_mut())
+}
+
 /// Returns the pointer to the iterator over map values starting at the given key.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapIndexProxy_nativeValuesFrom(
@@ -404,7 +499,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapInde
 ) -> Handle {
     let res = panic::catch_unwind(|| {
         let key = env.convert_byte_array(key)?;
-        let values = match *handle::cast_handle::<IndexType>(map_handle) {
+        let values = match *handle::cast_handle_ref::<IndexType>(map_handle) {
             IndexType::SnapshotIndex(ref index) => match index {
                 Index::Raw(map) => map.values_from(&key.to_raw()),
                 Index::Hashed(map) => map.values_from(&key),
@@ -445,6 +540,109 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapInde
     utils::unwrap_exc_or_default(&env, res)
 }
 
+/// Sets `value` identified by the `key` into the index. Returns true if the index
+/// did not contain the `key` before.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapIndexProxy_nativePutAndCheckNew(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+    key: jbyteArray,
+    value: jbyteArray,
+) -> jboolean {
+    let res = panic::catch_unwind(|| match *handle::cast_handle::<IndexType>(map_handle) {
+        IndexType::SnapshotIndex(_) => {
+            panic!("Unable to modify snapshot.");
+        }
+        IndexType::ForkIndex(ref mut index) => {
+            let key = env.convert_byte_array(key)?;
+            let value = env.convert_byte_array(value)?;
+            let is_new = match index {
+                Index::Raw(map) => {
+                    let key = key.to_raw();
+                    let is_new = !map.contains(&key);
+                    map.put(&key, value);
+                    is_new
+                }
+                Index::Hashed(map) => {
+                    let is_new = !map.contains(&key);
+                    map.put(&key, value);
+                    is_new
+                }
+            };
+            Ok(is_new as jboolean)
+        }
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Puts all the `values` identified by the corresponding `keys` into the index.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapIndexProxy_nativePutAll(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+    keys: jobjectArray,
+    values: jobjectArray,
+) {
+    let res = panic::catch_unwind(|| match *handle::cast_handle::<IndexType>(map_handle) {
+        IndexType::SnapshotIndex(_) => {
+            panic!("Unable to modify snapshot.");
+        }
+        IndexType::ForkIndex(ref mut index) => {
+            let keys = convert_to_keys(&env, keys)?;
+            let values = utils::java_byte_arrays_to_rust(&env, values)?;
+            assert_eq!(keys.len(), values.len(), "Keys and values must have the same length");
+            match index {
+                Index::Raw(map) => {
+                    for (key, value) in keys.iter().zip(values) {
+                        map.put(&key.to_raw(), value);
+                    }
+                }
+                Index::Hashed(map) => {
+                    for (key, value) in keys.iter().zip(values) {
+                        map.put(key, value);
+                    }
+                }
+            }
+            Ok(())
+        }
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
+/// Puts the `values` identified by the corresponding `keys` into the index, and removes
+/// the values identified by the keys which correspond to `null` values.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapIndexProxy_nativeWriteBatch(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+    keys: jobjectArray,
+    values: jobjectArray,
+) {
+    let res = panic::catch_unwind(|| match *handle::cast_handle::<IndexType>(map_handle) {
+        IndexType::SnapshotIndex(_) => {
+            panic!("Unable to modify snapshot.");
+        }
+        IndexType::ForkIndex(ref mut index) => {
+            let keys = convert_to_keys(&env, keys)?;
+            let values = utils::optional_java_byte_arrays_to_rust(&env, values)?;
+            assert_eq!(keys.len(), values.len(), "Keys and values must have the same length");
+            for (key, value) in keys.iter().zip(values) {
+                match (&mut *index, value) {
+                    (Index::Raw(map), Some(value)) => map.put(&key.to_raw(), value),
+                    (Index::Raw(map), None) => map.remove(&key.to_raw()),
+                    (Index::Hashed(map), Some(value)) => map.put(key, value),
+                    (Index::Hashed(map), None) => map.remove(key),
+                }
+            }
+            Ok(())
+        }
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
 /// Removes value identified by the `key` from the index.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapIndexProxy_nativeRemove(
@@ -469,6 +667,44 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapInde
     utils::unwrap_exc_or_default(&env, res)
 }
 
+/// Removes value identified by the `key` from the index. Returns true if the index
+/// contained the `key`.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapIndexProxy_nativeRemoveAndCheckPresent(
+    env: JNIEnv,
+    _: JObject,
+    map_handle: Handle,
+    key: jbyteArray,
+) -> jboolean {
+    let res = panic::catch_unwind(|| match *handle::cast_handle::<IndexType>(map_handle) {
+        IndexType::SnapshotIndex(_) => {
+            panic!("Unable to modify snapshot.");
+        }
+        IndexType::ForkIndex(ref mut index) => {
+            let key = env.convert_byte_array(key)?;
+            let is_present = match index {
+                Index::Raw(map) => {
+                    let key = key.to_raw();
+                    let is_present = map.contains(&key);
+                    if is_present {
+                        map.remove(&key);
+                    }
+                    is_present
+                }
+                Index::Hashed(map) => {
+                    let is_present = map.contains(&key);
+                    if is_present {
+                        map.remove(&key);
+                    }
+                    is_present
+                }
+            };
+            Ok(is_present as jboolean)
+        }
+    });
+    utils::unwrap_exc_or_default(&env, res)
+}
+
 /// Removes all entries of the map.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapIndexProxy_nativeClear(
@@ -491,38 +727,21 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapInde
     utils::unwrap_exc_or_default(&env, res)
 }
 
-/// Returns the next value from the iterator. Returns null pointer when iteration is finished.
+/// Returns the next chunk of entries from the iterator, with keys and values interleaved.
+/// Returns an empty array when iteration is finished.
 #[no_mangle]
-pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapIndexProxy_nativeEntriesIterNext(
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapIndexProxy_nativeEntriesIterNextChunk(
     env: JNIEnv,
     _: JObject,
     iter_handle: Handle,
-) -> jobject {
-    let res = panic::catch_unwind(|| {
-        let iterWrapper = handle::cast_handle::<Iter>(iter_handle);
-
-        let result = match iterWrapper {
-            Iter::Raw(ref mut wrapper) => wrapper.iter.next().map(|(arr, val)| {
-                create_element(
-                    &env,
-                    &arr[..],
-                    &val,
-                    &wrapper.element_class,
-                    wrapper.constructor_id,
-                )
-            }),
-            Iter::Hashed(ref mut wrapper) => wrapper.iter.next().map(|(key, val)| {
-                create_element(
-                    &env,
-                    key.as_slice(),
-                    &val,
-                    &wrapper.element_class,
-                    wrapper.constructor_id,
-                )
-            }),
-        };
-
-        result.or(Some(Ok(ptr::null_mut()))).unwrap()
+    max_items: jint,
+    max_bytes: jint,
+) -> jobjectArray {
+    let res = panic::catch_unwind(|| match *handle::cast_handle::<Iter>(iter_handle) {
+        Iter::Raw(ref mut iter) => iter_chunk::next_pairs_chunk(&env, iter, max_items, max_bytes),
+        Iter::Hashed(ref mut iter) => {
+            iter_chunk::next_pairs_chunk(&env, iter, max_items, max_bytes)
+        }
     });
     utils::unwrap_exc_or(&env, res, ptr::null_mut())
 }
@@ -537,21 +756,19 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapInde
     handle::drop_handle::<Iter>(&env, iter_handle);
 }
 
-/// Returns the next value from the keys-iterator. Returns null pointer when iteration is finished.
+/// Returns the next chunk of keys from the keys-iterator.
+/// Returns an empty array when iteration is finished.
 #[no_mangle]
-pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapIndexProxy_nativeKeysIterNext(
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapIndexProxy_nativeKeysIterNextChunk(
     env: JNIEnv,
     _: JObject,
     iter_handle: Handle,
-) -> jbyteArray {
-    let res = panic::catch_unwind(|| {
-        let array = match *handle::cast_handle::<KeysIter>(iter_handle) {
-            KeysIter::Raw(ref mut iter) => iter.next().map(|val| env.byte_array_from_slice(&val)),
-            KeysIter::Hashed(ref mut iter) => {
-                iter.next().map(|val| env.byte_array_from_slice(&val))
-            }
-        };
-        array.or(Some(Ok(ptr::null_mut()))).unwrap()
+    max_items: jint,
+    max_bytes: jint,
+) -> jobjectArray {
+    let res = panic::catch_unwind(|| match *handle::cast_handle::<KeysIter>(iter_handle) {
+        KeysIter::Raw(ref mut iter) => iter_chunk::next_chunk(&env, iter, max_items, max_bytes),
+        KeysIter::Hashed(ref mut iter) => iter_chunk::next_chunk(&env, iter, max_items, max_bytes),
     });
     utils::unwrap_exc_or(&env, res, ptr::null_mut())
 }
@@ -566,19 +783,19 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapInde
     handle::drop_handle::<KeysIter>(&env, iter_handle);
 }
 
-/// Return next value from the values-iterator. Returns null pointer when iteration is finished.
+/// Returns the next chunk of values from the values-iterator.
+/// Returns an empty array when iteration is finished.
 #[no_mangle]
-pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapIndexProxy_nativeValuesIterNext(
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ProofMapIndexProxy_nativeValuesIterNextChunk(
     env: JNIEnv,
     _: JObject,
     iter_handle: Handle,
-) -> jbyteArray {
+    max_items: jint,
+    max_bytes: jint,
+) -> jobjectArray {
     let res = panic::catch_unwind(|| {
         let iter = handle::cast_handle::<Values<Value>>(iter_handle);
-        match iter.next() {
-            Some(val) => env.byte_array_from_slice(&val),
-            None => Ok(ptr::null_mut()),
-        }
+        iter_chunk::next_chunk(&env, iter, max_items, max_bytes)
     });
     utils::unwrap_exc_or(&env, res, ptr::null_mut())
 }
@@ -609,23 +826,3 @@ fn convert_to_keys(env: &JNIEnv, array: jobjectArray) -> JniResult<Vec<Key>> {
 fn convert_keys(keys: Vec<Key>) -> Vec<RawKey> {
     keys.into_iter().map(|key| key.to_raw()).collect()
 }
-
-// Creates element for PairIter.
-fn create_element(
-    env: &JNIEnv,
-    key: &[u8],
-    value: &[u8],
-    class: &GlobalRef,
-    constructor: JMethodID,
-) -> JniResult<jobject> {
-    let key: JObject = env.byte_array_from_slice(key)?.into();
-    let value: JObject = env.byte_array_from_slice(value)?.into();
-    Ok(env
-        .new_object_unchecked(class, constructor, &[key.into(), value.into()])?
-        .into_inner())
-}
-
-// Creates PairIter for corresponding iterator and map entry.
-fn create_pair_iter<I: Iterator>(env: &JNIEnv, iter: I) -> JniResult<PairIter<I>> {
-    PairIter::new(&env, iter, MAP_ENTRY_INTERNAL_FQN)
-}
@@ -0,0 +1,108 @@
+// Copyright 2020 The Exonum Team
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+//! An iterator over a key range of an index.
+
+use jni::{sys::jbyteArray, JNIEnv};
+
+use storage::db::Key;
+use JniResult;
+
+/// An iterator over the index entries that stops at the first entry with the key
+/// greater than or equal to the (exclusive) upper bound, if the bound is set.
+///
+/// The keys are compared lexicographically, in the same order as the index
+/// iterators return them.
+pub struct RangeIter<I> {
+    iter: I,
+    upper_bound: Option<Key>,
+    finished: bool,
+}
+
+impl<I> RangeIter<I> {
+    /// Creates an iterator over the entries of `iter` with the keys below `upper_bound`.
+    pub fn new(iter: I, upper_bound: Option<Key>) -> Self {
+        RangeIter {
+            iter,
+            upper_bound,
+            finished: false,
+        }
+    }
+
+    /// Creates an iterator over all the entries of `iter`.
+    pub fn unbounded(iter: I) -> Self {
+        Self::new(iter, None)
+    }
+}
+
+impl<I, K, V> Iterator for RangeIter<I>
+where
+    I: Iterator<Item = (K, V)>,
+    K: AsRef<[u8]>,
+{
+    type Item = (K, V);
+
+    fn next(&mut self) -> Option<Self::Item> {
+        if self.finished {
+            return None;
+        }
+        let (key, value) = self.iter.next()?;
+        match self.upper_bound {
+            Some(ref bound) if key.as_ref() >= bound.as_slice() => {
+                self.finished = true;
+                None
+            }
+            _ => Some((key, value)),
+        }
+    }
+}
+
+/// Converts the upper bound of a key range passed from Java, which is `null` if the range
+/// is not bounded.
+pub fn upper_bound_from_java(env: &JNIEnv, upper_bound: jbyteArray) -> JniResult<Option<Key>> {
+    if upper_bound.is_null() {
+        Ok(None)
+    } else {
+        env.convert_byte_array(upper_bound).map(Some)
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    fn entries() -> Vec<(Vec<u8>, u8)> {
+        vec![(vec![1], 1), (vec![1, 2], 2), (vec![2], 3), (vec![3], 4)]
+    }
+
+    #[test]
+    fn unbounded_iter_returns_all_entries() {
+        let iter = RangeIter::unbounded(entries().into_iter());
+        assert_eq!(iter.collect::<Vec<_>>(), entries());
+    }
+
+    #[test]
+    fn bounded_iter_stops_at_upper_bound() {
+        let iter = RangeIter::new(entries().into_iter(), Some(vec![2]));
+        let values: Vec<u8> = iter.map(|(_, v)| v).collect();
+        assert_eq!(values, vec![1, 2]);
+    }
+
+    #[test]
+    fn bounded_iter_is_empty_if_first_key_is_above_bound() {
+        let mut iter = RangeIter::new(entries().into_iter(), Some(vec![0, 1]));
+        assert_eq!(iter.next(), None);
+        assert_eq!(iter.next(), None);
+    }
+}
@@ -16,7 +16,7 @@ use std::{panic, ptr};
 
 use exonum::merkledb::{
     access::FromAccess,
-    indexes::proof_map::{Iter as IndexIter, Keys, Values, PROOF_MAP_KEY_SIZE},
+    indexes::proof_map::{Keys, Values, PROOF_MAP_KEY_SIZE},
     Fork, ObjectHash, RawProofMapIndex, Snapshot,
 };
 use jni::{
@@ -27,24 +27,17 @@ use jni::{
 use JniResult;
 
 use handle::{self, Handle};
-use storage::{
-    db::{Value, View, ViewRef},
-    PairIter,
-};
+use storage::db::{Value, View, ViewRef};
 use utils;
 
 type Key = [u8; PROOF_MAP_KEY_SIZE];
 type Index<T> = RawProofMapIndex<T, Key, Value>;
 
-const JAVA_ENTRY_FQN: &str = "com/exonum/binding/core/storage/indices/MapEntryInternal";
-
 enum IndexType {
     SnapshotIndex(Index<&'static dyn Snapshot>),
     ForkIndex(Index<&'static Fork>),
 }
 
-type Iter<'a> = PairIter<IndexIter<'a, Key, Value>>;
-
 /// Returns a pointer to the created `RawProofMapIndex` object.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_RawProofMapIndexProxy_nativeCreate(
@@ -57,7 +50,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_RawProofMapI
     let res = panic::catch_unwind(|| {
         let address = utils::convert_to_index_address(&env, name, id_in_group)?;
         Ok(handle::to_handle(
-            match handle::cast_handle::<View>(view_handle).get() {
+            match handle::cast_handle_ref::<View>(view_handle).get() {
                 ViewRef::Snapshot(snapshot) => {
                     IndexType::SnapshotIndex(Index::from_access(snapshot, address).unwrap())
                 }
@@ -88,7 +81,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_RawProofMapI
     map_handle: Handle,
 ) -> jbyteArray {
     let res = panic::catch_unwind(|| {
-        let hash = match *handle::cast_handle::<IndexType>(map_handle) {
+        let hash = match *handle::cast_handle_ref::<IndexType>(map_handle) {
             IndexType::SnapshotIndex(ref map) => map.object_hash(),
             IndexType::ForkIndex(ref map) => map.object_hash(),
         };
@@ -107,7 +100,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_RawProofMapI
 ) -> jbyteArray {
     let res = panic::catch_unwind(|| {
         let key = convert_to_key(&env, key)?;
-        let val = match *handle::cast_handle::<IndexType>(map_handle) {
+        let val = match *handle::cast_handle_ref::<IndexType>(map_handle) {
             IndexType::SnapshotIndex(ref map) => map.get(&key),
             IndexType::ForkIndex(ref map) => map.get(&key),
         };
@@ -129,7 +122,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_RawProofMapI
 ) -> jboolean {
     let res = panic::catch_unwind(|| {
         let key = convert_to_key(&env, key)?;
-        Ok(match *handle::cast_handle::<IndexType>(map_handle) {
+        Ok(match *handle::cast_handle_ref::<IndexType>(map_handle) {
             IndexType::SnapshotIndex(ref map) => map.contains(&key),
             IndexType::ForkIndex(ref map) => map.contains(&key),
         } as jboolean)
@@ -147,7 +140,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_RawProofMapI
 ) -> jobject {
     let res = panic::catch_unwind(|| {
         let key = convert_to_key(&env, key)?;
-        let proof = match *handle::cast_handle::<IndexType>(map_handle) {
+        let proof = match *handle::cast_handle_ref::<IndexType>(map_handle) {
             IndexType::SnapshotIndex(ref map) => map.get_proof(key),
             IndexType::ForkIndex(ref map) => map.get_proof(key),
         };
@@ -166,7 +159,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_RawProofMapI
 ) -> jobject {
     let res = panic::catch_unwind(|| {
         let keys = utils::java_arrays_to_rust(&env, keys, convert_to_key)?;
-        let proof = match *handle::cast_handle::<IndexType>(map_handle) {
+        let proof = match *handle::cast_handle_ref::<IndexType>(map_handle) {
             IndexType::SnapshotIndex(ref map) => map.get_multiproof(keys),
             IndexType::ForkIndex(ref map) => map.get_multiproof(keys),
         };
@@ -174,25 +167,6 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_RawProofMapI
     });
     utils::unwrap_exc_or(&env, res, ptr::null_mut())
 }
-
-/// Returns the pointer to the iterator over a map keys and values.
-#[no_mangle]
-pub extern "system" fn Java_com_exonum_binding_core_storage_indices_RawProofMapIndexProxy_nativeCreateEntriesIter(
-    env: JNIEnv,
-    _: JObject,
-    map_handle: Handle,
-) -> Handle {
-    let res = panic::catch_unwind(|| {
-        let iter = match *handle::cast_handle::<IndexType>(map_handle) {
-            IndexType::SnapshotIndex(ref map) => map.iter(),
-            IndexType::ForkIndex(ref map) => map.iter(),
-        };
-        let iter = Iter::new(&env, iter, JAVA_ENTRY_FQN)?;
-        Ok(handle::to_handle(iter))
-    });
-    utils::unwrap_exc_or_default(&env, res)
-}
-
 /// Returns the pointer to the iterator over map keys.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_RawProofMapIndexProxy_nativeCreateKeysIter(
@@ -202,7 +176,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_RawProofMapI
 ) -> Handle {
     let res = panic::catch_unwind(|| {
         Ok(handle::to_handle(
-            match *handle::cast_handle::<IndexType>(map_handle) {
+            match *handle::cast_handle_ref::<IndexType>(map_handle) {
                 IndexType::SnapshotIndex(ref map) => map.keys(),
                 IndexType::ForkIndex(ref map) => map.keys(),
             },
@@ -220,7 +194,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_RawProofMapI
 ) -> Handle {
     let res = panic::catch_unwind(|| {
         Ok(handle::to_handle(
-            match *handle::cast_handle::<IndexType>(map_handle) {
+            match *handle::cast_handle_ref::<IndexType>(map_handle) {
                 IndexType::SnapshotIndex(ref map) => map.values(),
                 IndexType::ForkIndex(ref map) => map.values(),
             },
@@ -228,27 +202,6 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_RawProofMapI
     });
     utils::unwrap_exc_or_default(&env, res)
 }
-
-/// Returns the pointer to the iterator over a map keys and values starting at the given key.
-#[no_mangle]
-pub extern "system" fn Java_com_exonum_binding_core_storage_indices_RawProofMapIndexProxy_nativeCreateIterFrom(
-    env: JNIEnv,
-    _: JObject,
-    map_handle: Handle,
-    key: jbyteArray,
-) -> Handle {
-    let res = panic::catch_unwind(|| {
-        let key = convert_to_key(&env, key)?;
-        let iter = match *handle::cast_handle::<IndexType>(map_handle) {
-            IndexType::SnapshotIndex(ref map) => map.iter_from(&key),
-            IndexType::ForkIndex(ref map) => map.iter_from(&key),
-        };
-        let iter = Iter::new(&env, iter, JAVA_ENTRY_FQN)?;
-        Ok(handle::to_handle(iter))
-    });
-    utils::unwrap_exc_or_default(&env, res)
-}
-
 /// Returns the pointer to the iterator over map keys starting at the given key.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_RawProofMapIndexProxy_nativeKeysFrom(
@@ -260,7 +213,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_RawProofMapI
     let res = panic::catch_unwind(|| {
         let key = convert_to_key(&env, key)?;
         Ok(handle::to_handle(
-            match *handle::cast_handle::<IndexType>(map_handle) {
+            match *handle::cast_handle_ref::<IndexType>(map_handle) {
                 IndexType::SnapshotIndex(ref map) => map.keys_from(&key),
                 IndexType::ForkIndex(ref map) => map.keys_from(&key),
             },
@@ -280,7 +233,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_RawProofMapI
     let res = panic::catch_unwind(|| {
         let key = convert_to_key(&env, key)?;
         Ok(handle::to_handle(
-            match *handle::cast_handle::<IndexType>(map_handle) {
+            match *handle::cast_handle_ref::<IndexType>(map_handle) {
                 IndexType::SnapshotIndex(ref map) => map.values_from(&key),
                 IndexType::ForkIndex(ref map) => map.values_from(&key),
             },
@@ -351,44 +304,6 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_RawProofMapI
     });
     utils::unwrap_exc_or_default(&env, res)
 }
-
-/// Returns the next value from the iterator. Returns null pointer when iteration is finished.
-#[no_mangle]
-pub extern "system" fn Java_com_exonum_binding_core_storage_indices_RawProofMapIndexProxy_nativeEntriesIterNext(
-    env: JNIEnv,
-    _: JObject,
-    iter_handle: Handle,
-) -> jobject {
-    let res = panic::catch_unwind(|| {
-        let iterWrapper = handle::cast_handle::<Iter>(iter_handle);
-        match iterWrapper.iter.next() {
-            Some(val) => {
-                let key: JObject = env.byte_array_from_slice(&val.0)?.into();
-                let value: JObject = env.byte_array_from_slice(&val.1)?.into();
-                Ok(env
-                    .new_object_unchecked(
-                        &iterWrapper.element_class,
-                        iterWrapper.constructor_id,
-                        &[key.into(), value.into()],
-                    )?
-                    .into_inner())
-            }
-            None => Ok(ptr::null_mut()),
-        }
-    });
-    utils::unwrap_exc_or(&env, res, ptr::null_mut())
-}
-
-/// Destroys the underlying `RawProofMapIndex` iterator object and frees memory.
-#[no_mangle]
-pub extern "system" fn Java_com_exonum_binding_core_storage_indices_RawProofMapIndexProxy_nativeEntriesIterFree(
-    env: JNIEnv,
-    _: JObject,
-    iter_handle: Handle,
-) {
-    handle::drop_handle::<Iter>(&env, iter_handle);
-}
-
 /// Returns the next value from the keys-iterator. Returns null pointer when iteration is finished.
 #[no_mangle]
 pub extern "system" fn Java_com_exonum_binding_core_storage_indices_RawProofMapIndexProxy_nativeKeysIterNext(
@@ -21,14 +21,14 @@ use exonum_merkledb::{
 };
 use jni::{
     objects::{JClass, JObject, JString},
-    sys::{jboolean, jbyteArray, jobject},
+    sys::{jboolean, jbyteArray, jint, jlongArray, jobjectArray},
     JNIEnv,
 };
 
 use handle::{self, Handle};
 use storage::{
     db::{Value, View, ViewRef},
-    PairIter,
+    iter_chunk,
 };
 use utils;
 
@@ -39,10 +39,7 @@ enum IndexType {
     ForkIndex(Index<&'static Fork>),
 }
 
-type Iter<'a> = PairIter<IndexIter<'a, Value>>;
-
-const JAVA_ENTRY_FQN: &str =
-    "com/exonum/binding/core/storage/indices/ValueSetIndexProxy$EntryInternal";
+type Iter<'a> = IndexIter<'a, Value>;
 
 /// Returns pointer to the created `ValueSetIndex` object.
 #[no_mangle]
@@ -56,7 +53,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ValueSetInde
     let res = panic::catch_unwind(|| {
         let address = utils::convert_to_index_address(&env, name, id_in_group)?;
         Ok(handle::to_handle(
-            match handle::cast_handle::<View>(view_handle).get() {
+            match handle::cast_handle_ref::<View>(view_handle).get() {
                 ViewRef::Snapshot(snapshot) => {
                     IndexType::SnapshotIndex(Index::from_access(snapshot, address).unwrap())
                 }
@@ -79,6 +76,16 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ValueSetInde
     handle::drop_handle::<IndexType>(&env, set_handle);
 }
 
+/// Destroys the underlying `ValueSetIndex` objects with the given handles and frees memory.
+#[no_mangle]
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ValueSetIndexProxy_nativeFreeAll(
+    env: JNIEnv,
+    _: JClass,
+    set_handles: jlongArray,
+) {
+    handle::drop_handles::<IndexType>(&env, set_handles);
+}
+
 /// Returns `true` if the set contains the specified value.
 #[no_mangle]
 pub extern "C" fn Java_com_exonum_binding_core_storage_indices_ValueSetIndexProxy_nativeContains(
@@ -123,11 +130,10 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ValueSetInde
     set_handle: Handle,
 ) -> Handle {
     let res = panic::catch_unwind(|| {
-        let iter = match *handle::cast_handle::<IndexType>(set_handle) {
+        let iter = match *handle::cast_handle_ref::<IndexType>(set_handle) {
             IndexType::SnapshotIndex(ref set) => set.iter(),
             IndexType::ForkIndex(ref set) => set.iter(),
         };
-        let iter = Iter::new(&env, iter, JAVA_ENTRY_FQN)?;
         Ok(handle::to_handle(iter))
     });
     utils::unwrap_exc_or_default(&env, res)
@@ -143,11 +149,10 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ValueSetInde
 ) -> Handle {
     let res = panic::catch_unwind(|| {
         let from = utils::convert_to_hash(&env, from)?;
-        let iter = match *handle::cast_handle::<IndexType>(set_handle) {
+        let iter = match *handle::cast_handle_ref::<IndexType>(set_handle) {
             IndexType::SnapshotIndex(ref set) => set.iter_from(&from),
             IndexType::ForkIndex(ref set) => set.iter_from(&from),
         };
-        let iter = Iter::new(&env, iter, JAVA_ENTRY_FQN)?;
         Ok(handle::to_handle(iter))
     });
     utils::unwrap_exc_or_default(&env, res)
@@ -162,7 +167,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ValueSetInde
 ) -> Handle {
     let res = panic::catch_unwind(|| {
         Ok(handle::to_handle(
-            match *handle::cast_handle::<IndexType>(set_handle) {
+            match *handle::cast_handle_ref::<IndexType>(set_handle) {
                 IndexType::SnapshotIndex(ref set) => set.hashes(),
                 IndexType::ForkIndex(ref set) => set.hashes(),
             },
@@ -182,7 +187,7 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ValueSetInde
     let res = panic::catch_unwind(|| {
         let from = utils::convert_to_hash(&env, from)?;
         Ok(handle::to_handle(
-            match *handle::cast_handle::<IndexType>(set_handle) {
+            match *handle::cast_handle_ref::<IndexType>(set_handle) {
                 IndexType::SnapshotIndex(ref set) => set.hashes_from(&from),
                 IndexType::ForkIndex(ref set) => set.hashes_from(&from),
             },
@@ -273,29 +278,20 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ValueSetInde
     utils::unwrap_exc_or_default(&env, res)
 }
 
-/// Returns next value from the iterator. Returns null pointer when iteration is finished.
+/// Returns the next chunk of entries from the iterator, with value hashes and values
+/// interleaved.
+/// Returns an empty array when iteration is finished.
 #[no_mangle]
-pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ValueSetIndexProxy_nativeIteratorNext(
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ValueSetIndexProxy_nativeIteratorNextChunk(
     env: JNIEnv,
     _: JObject,
     iter_handle: Handle,
-) -> jobject {
+    max_items: jint,
+    max_bytes: jint,
+) -> jobjectArray {
     let res = panic::catch_unwind(|| {
-        let iterWrapper = handle::cast_handle::<Iter>(iter_handle);
-        match iterWrapper.iter.next() {
-            Some(val) => {
-                let hash: JObject = utils::convert_hash(&env, &val.0)?.into();
-                let value: JObject = env.byte_array_from_slice(&val.1)?.into();
-                Ok(env
-                    .new_object_unchecked(
-                        &iterWrapper.element_class,
-                        iterWrapper.constructor_id,
-                        &[hash.into(), value.into()],
-                    )?
-                    .into_inner())
-            }
-            None => Ok(ptr::null_mut()),
-        }
+        let iter = handle::cast_handle::<Iter>(iter_handle);
+        iter_chunk::next_pairs_chunk(&env, iter, max_items, max_bytes)
     });
     utils::unwrap_exc_or(&env, res, ptr::null_mut())
 }
@@ -310,19 +306,19 @@ pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ValueSetInde
     handle::drop_handle::<Iter>(&env, iter_handle);
 }
 
-/// Returns next value from the hash-iterator. Returns null pointer when iteration is finished.
+/// Returns the next chunk of value hashes from the hash-iterator.
+/// Returns an empty array when iteration is finished.
 #[no_mangle]
-pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ValueSetIndexProxy_nativeHashIteratorNext(
+pub extern "system" fn Java_com_exonum_binding_core_storage_indices_ValueSetIndexProxy_nativeHashIteratorNextChunk(
     env: JNIEnv,
     _: JObject,
     iter_handle: Handle,
-) -> jbyteArray {
+    max_items: jint,
+    max_bytes: jint,
+) -> jobjectArray {
     let res = panic::catch_unwind(|| {
         let iter = handle::cast_handle::<Hashes>(iter_handle);
-        match iter.next() {
-            Some(val) => utils::convert_hash(&env, &val),
-            None => Ok(ptr::null_mut()),
-        }
+        iter_chunk::next_chunk(&env, iter, max_items, max_bytes)
     });
     utils::unwrap_exc_or(&env, res, ptr::null_mut())
 }
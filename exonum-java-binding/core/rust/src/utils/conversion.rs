@@ -15,8 +15,10 @@
 use exonum::crypto::Hash;
 use exonum_merkledb::IndexAddress;
 use exonum_proto::ProtobufConvert;
+use jni::objects::JByteBuffer;
 use jni::objects::JString;
-use jni::sys::{jbyteArray, jobjectArray};
+use jni::objects::JObject;
+use jni::sys::{jbyteArray, jint, jobjectArray, jsize};
 use jni::JNIEnv;
 use protobuf::Message;
 use JniResult;
@@ -89,3 +91,72 @@ where
     }
     Ok(result)
 }
+
+/// Converts array of Java bytes arrays (`byte[][]`) to the vector of Rust byte vectors.
+pub fn java_byte_arrays_to_rust(env: &JNIEnv, array: jobjectArray) -> JniResult<Vec<Vec<u8>>> {
+    java_arrays_to_rust(env, array, |env, array| env.convert_byte_array(array))
+}
+
+/// Converts array of Java bytes arrays (`byte[][]`), which may contain `null` elements,
+/// to the vector of optional Rust byte vectors. `null` elements are converted into `None`.
+pub fn optional_java_byte_arrays_to_rust(
+    env: &JNIEnv,
+    array: jobjectArray,
+) -> JniResult<Vec<Option<Vec<u8>>>> {
+    java_arrays_to_rust(env, array, |env, array| {
+        if array.is_null() {
+            Ok(None)
+        } else {
+            env.convert_byte_array(array).map(Some)
+        }
+    })
+}
+
+/// Converts a sequence of Rust byte arrays into a Java array of byte arrays (`byte[][]`).
+pub fn rust_arrays_to_java<I, B>(env: &JNIEnv, arrays: I) -> JniResult<jobjectArray>
+where
+    I: ExactSizeIterator<Item = B>,
+    B: AsRef<[u8]>,
+{
+    optional_rust_arrays_to_java(env, arrays.map(Some))
+}
+
+/// Converts a sequence of optional Rust byte arrays into a Java array of byte arrays
+/// (`byte[][]`). `None` elements are converted into `null`.
+pub fn optional_rust_arrays_to_java<I, B>(env: &JNIEnv, arrays: I) -> JniResult<jobjectArray>
+where
+    I: ExactSizeIterator<Item = Option<B>>,
+    B: AsRef<[u8]>,
+{
+    let result = env.new_object_array(arrays.len() as jsize, "[B", JObject::null())?;
+    for (i, array) in arrays.enumerate() {
+        if let Some(array) = array {
+            let java_array = env.auto_local(env.byte_array_from_slice(array.as_ref())?.into());
+            env.set_object_array_element(result, i as jsize, java_array.as_obj())?;
+        }
+    }
+    Ok(result)
+}
+
+/// Returns a slice of the memory of a direct `java.nio.ByteBuffer` of the given length,
+/// starting at the given offset. The bounds must be checked by the Java code.
+///
+/// The slice is valid while the buffer is reachable in Java.
+pub fn direct_buffer_slice<'a>(
+    env: &JNIEnv,
+    buffer: JByteBuffer,
+    offset: jint,
+    length: jint,
+) -> JniResult<&'a mut [u8]> {
+    let bytes = env.get_direct_buffer_address(buffer)?;
+    let start = offset as usize;
+    let end = start + length as usize;
+    assert!(
+        end <= bytes.len(),
+        "Range [{}, {}) is out of the buffer bounds ({})",
+        start,
+        end,
+        bytes.len()
+    );
+    Ok(&mut bytes[start..end])
+}
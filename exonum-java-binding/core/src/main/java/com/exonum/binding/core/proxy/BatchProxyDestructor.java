@@ -0,0 +1,144 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.proxy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.base.MoreObjects;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * A clean action that destroys a batch of native proxies of the same type with a single
+ * invocation of the destructor function.
+ *
+ * <p>The batch keeps the values of the native handles rather than the handles themselves;
+ * the handles added to the batch become invalid once it is {@linkplain #isDestroyed() destroyed}.
+ *
+ * <p>This class is not thread-safe.
+ *
+ * @see Cleaner#addNativeProxy
+ */
+final class BatchProxyDestructor implements CleanAction<Class<?>> {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final Class<?> proxyClass;
+  private final Consumer<long[]> batchDestructorFunction;
+  /**
+   * The values of the native handles in this batch; the handles removed from the batch
+   * are replaced with {@link NativeHandle#INVALID_NATIVE_HANDLE}.
+   */
+  private long[] handles;
+  private int size;
+  private int numRemoved;
+  private boolean destroyed;
+
+  BatchProxyDestructor(Class<?> proxyClass, Consumer<long[]> batchDestructorFunction) {
+    this.proxyClass = checkNotNull(proxyClass);
+    this.batchDestructorFunction = checkNotNull(batchDestructorFunction);
+    handles = new long[INITIAL_CAPACITY];
+    size = 0;
+    numRemoved = 0;
+    destroyed = false;
+  }
+
+  /**
+   * Adds a native proxy to this batch. The native handle becomes invalid once this batch
+   * is destroyed.
+   */
+  void add(NativeHandle nativeHandle) {
+    checkState(!destroyed, "The batch is destroyed: %s", this);
+    if (size == handles.length) {
+      handles = Arrays.copyOf(handles, size * 2);
+    }
+    handles[size++] = nativeHandle.get();
+    nativeHandle.addToBatch(this);
+  }
+
+  /**
+   * Removes the value of the closed native handle from this batch, so that its native object
+   * is not destroyed with the batch. The handles added last are found faster.
+   */
+  void remove(long nativeHandle) {
+    for (int i = size - 1; i >= 0; i--) {
+      if (handles[i] == nativeHandle) {
+        handles[i] = NativeHandle.INVALID_NATIVE_HANDLE;
+        numRemoved++;
+        return;
+      }
+    }
+  }
+
+  /** Returns true if the native proxies of this batch are destroyed. */
+  boolean isDestroyed() {
+    return destroyed;
+  }
+
+  /**
+   * Passes the values of the native handles in this batch to the batch destructor function,
+   * so that the handles can no longer be accessed.
+   *
+   * <p>This method is idempotent.
+   */
+  @Override
+  public void clean() {
+    if (destroyed) {
+      return;
+    }
+
+    destroyed = true;
+
+    long[] valid = handles;
+    int numValid = size;
+    if (numRemoved != 0) {
+      // Skip the native handles closed before the batch
+      valid = new long[size - numRemoved];
+      numValid = 0;
+      for (int i = 0; i < size; i++) {
+        if (handles[i] != NativeHandle.INVALID_NATIVE_HANDLE) {
+          valid[numValid++] = handles[i];
+        }
+      }
+    }
+    handles = null;
+
+    if (numValid == 0) {
+      return;
+    }
+    if (numValid < valid.length) {
+      valid = Arrays.copyOf(valid, numValid);
+    }
+    batchDestructorFunction.accept(valid);
+  }
+
+  @Override
+  public Optional<Class<?>> resourceType() {
+    return Optional.of(proxyClass);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("proxyClass", proxyClass)
+        .add("numProxies", size - numRemoved)
+        .add("destroyed", destroyed)
+        .toString();
+  }
+}
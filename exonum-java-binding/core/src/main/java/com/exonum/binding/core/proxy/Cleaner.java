@@ -16,14 +16,27 @@
 
 package com.exonum.binding.core.proxy;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.base.MoreObjects;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -37,9 +50,24 @@ import org.apache.logging.log4j.Logger;
  * <p>The context might have a description of its origin so that it can be identified
  * for a particular context.
  *
+ * <p>An <em>arena</em> context, created with {@link #newArena(String)}, destroys the native
+ * proxies of the same type, registered with {@link #addNativeProxy}, in a single batch,
+ * making a single native call instead of one call per proxy. It is suitable for short-lived
+ * contexts in which many proxies are created (e.g., a context of a transaction execution).
+ *
+ * <p>A clean action may also be performed before the context is closed, either explicitly,
+ * with {@link #release(CleanAction)}, or once the object using the resource becomes
+ * unreachable, if it is registered with {@link #releaseWhenUnreachable(CleanAction, Object)}.
+ *
  * <p>All method arguments are non-null by default.
  *
- * <p>This class is not thread-safe.
+ * <p>This class is not thread-safe, unless the context is created with
+ * {@link #newConcurrent(String)}, so that the proxies used by several threads (e.g., the indexes
+ * of a {@linkplain com.exonum.binding.core.storage.database.Snapshot snapshot}) can register
+ * their clean actions. The clean actions are performed by the thread closing the context;
+ * the clean actions of the unreachable objects are performed by the threads that register
+ * new clean actions, so that a context used by a single thread performs all of them
+ * in that thread.
  *
  * @see <a href="https://github.com/exonum/exonum-java-binding/wiki/Native-peers-management-approaches">
  *   Discussion of various approaches to the management of native peers</a>
@@ -59,6 +87,24 @@ public final class Cleaner implements AutoCloseable {
 
   private final Deque<CleanAction<?>> registeredCleanActions;
   private final String description;
+  private final boolean arena;
+  /**
+   * The lock guarding the state of this context: a reentrant lock if the context
+   * is concurrent; or a lock that does nothing otherwise.
+   */
+  private final Lock lock;
+  /**
+   * The batches of native proxies that accept new proxies, by the type of proxy.
+   * Always empty if this context is not an arena.
+   */
+  private final Map<Class<?>, BatchProxyDestructor> openBatches;
+  /** The queue of the references to the objects that became unreachable. */
+  private final ReferenceQueue<Object> unreachableObjects;
+  /**
+   * The references to the objects using the resources of the registered clean actions,
+   * by the clean actions, for the actions to be performed once the objects become unreachable.
+   */
+  private final Map<CleanAction<?>, ObjectReference> objectReferences;
   private boolean closed;
 
   /**
@@ -75,14 +121,55 @@ public final class Cleaner implements AutoCloseable {
    *                    and is included in {@link #toString()}
    */
   public Cleaner(String description) {
+    this(description, false, false);
+  }
+
+  private Cleaner(String description, boolean arena, boolean concurrent) {
     registeredCleanActions = new ArrayDeque<>();
     this.description = checkNotNull(description);
+    this.arena = arena;
+    lock = concurrent ? new ReentrantLock() : NoOpLock.INSTANCE;
+    openBatches = new HashMap<>();
+    unreachableObjects = new ReferenceQueue<>();
+    objectReferences = new IdentityHashMap<>();
     closed = false;
   }
 
+  /**
+   * Creates a new arena cleaner, which destroys the native proxies of the same type
+   * in batches.
+   *
+   * @param description a description of this context, which describes its origin
+   *                    and is included in {@link #toString()}
+   * @see #addNativeProxy(NativeHandle, Class, LongConsumer, Consumer)
+   */
+  public static Cleaner newArena(String description) {
+    return new Cleaner(description, true, false);
+  }
+
+  /**
+   * Creates a new concurrent cleaner, which may be used by several threads at once.
+   *
+   * @param description a description of this context, which describes its origin
+   *                    and is included in {@link #toString()}
+   */
+  public static Cleaner newConcurrent(String description) {
+    return new Cleaner(description, false, true);
+  }
+
   /** Returns true if this cleaner is closed. */
   public boolean isClosed() {
-    return closed;
+    lock.lock();
+    try {
+      return closed;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Returns true if this cleaner is an arena, destroying the native proxies in batches. */
+  public boolean isArena() {
+    return arena;
   }
 
   /**
@@ -94,30 +181,84 @@ public final class Cleaner implements AutoCloseable {
    * @throws IllegalStateException if it’s attempted to add a clean action to a closed context
    */
   public void add(CleanAction<?> cleanAction) {
-    if (closed) {
-      // To avoid possible leaks, perform the clean action before throwing IllegalStateException.
-      Throwable cleanActionError = null;
-      try {
-        cleanAction.clean();
-      } catch (Throwable t) {
-        logCleanActionFailure(cleanAction, t);
-        cleanActionError = t;
-      }
+    lock.lock();
+    try {
+      if (closed) {
+        // To avoid possible leaks, perform the clean action before throwing IllegalStateException.
+        Throwable cleanActionError = null;
+        try {
+          cleanAction.clean();
+        } catch (Throwable t) {
+          logCleanActionFailure(cleanAction, t);
+          cleanActionError = t;
+        }
 
-      String message = String.format("Cannot register a clean action (%s) in a closed context",
-          cleanAction);
-      RuntimeException e = new IllegalStateException(message);
-      if (cleanActionError != null) {
-        e.addSuppressed(cleanActionError);
+        String message = String.format("Cannot register a clean action (%s) in a closed context",
+            cleanAction);
+        RuntimeException e = new IllegalStateException(message);
+        if (cleanActionError != null) {
+          e.addSuppressed(cleanActionError);
+        }
+        throw e;
       }
-      throw e;
+
+      releaseUnreachable();
+
+      registeredCleanActions.push(cleanAction);
+
+      // As this class is used to automatically (from the user perspective) manage resources,
+      // we log if there is an unusually high number of resource cleaners.
+      logIfTooManyCleaners();
+    } finally {
+      lock.unlock();
     }
+  }
 
-    registeredCleanActions.push(cleanAction);
+  /**
+   * Registers a destructor of a native proxy with this context.
+   *
+   * <p>If this context is an arena, the native proxy is added to a batch of proxies
+   * of the same type, which are destroyed with a single invocation of the batch destructor
+   * function. The batch accepts proxies until this context is closed, including those
+   * registered after other clean actions, hence the proxies may be destroyed after
+   * the clean actions registered after them. Therefore, the batched native proxies must depend
+   * only on the objects destroyed after the first proxy of their batch (e.g., the database
+   * access they are created with), and not on the resources of the other clean actions.
+   * Otherwise, registers a {@link ProxyDestructor} of the native proxy.
+   *
+   * @param nativeHandle a handle to the native object
+   * @param proxyClass a class of the proxy
+   * @param destructorFunction a function destroying a single native object
+   * @param batchDestructorFunction a function destroying the native objects with
+   *     the given handles
+   * @throws IllegalStateException if it’s attempted to add a native proxy to a closed context
+   */
+  public void addNativeProxy(NativeHandle nativeHandle, Class<?> proxyClass,
+      LongConsumer destructorFunction, Consumer<long[]> batchDestructorFunction) {
+    lock.lock();
+    try {
+      checkNotNull(nativeHandle, "nativeHandle");
+      checkNotNull(proxyClass, "proxyClass");
+      checkNotNull(destructorFunction, "destructorFunction");
+      checkNotNull(batchDestructorFunction, "batchDestructorFunction");
+      if (!arena || closed) {
+        add(new ProxyDestructor(nativeHandle, proxyClass, destructorFunction));
+        return;
+      }
+
+      releaseUnreachable();
 
-    // As this class is used to automatically (from the user perspective) manage resources,
-    // we log if there is an unusually high number of resource cleaners.
-    logIfTooManyCleaners();
+      BatchProxyDestructor batch = openBatches.get(proxyClass);
+      if (batch == null) {
+        batch = new BatchProxyDestructor(proxyClass, batchDestructorFunction);
+        registeredCleanActions.push(batch);
+        openBatches.put(proxyClass, batch);
+        logIfTooManyCleaners();
+      }
+      batch.add(nativeHandle);
+    } finally {
+      lock.unlock();
+    }
   }
 
   private void logIfTooManyCleaners() {
@@ -157,36 +298,129 @@ public final class Cleaner implements AutoCloseable {
    */
   @Override
   public void close() throws CloseFailuresException {
-    if (closed) {
-      return;
-    }
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
 
-    closed = true;
+      closed = true;
+      openBatches.clear();
+      objectReferences.clear();
+
+      // Currently only the number of failures is recorded. If extra context is needed,
+      // the clean actions might be included as well.
+      List<Throwable> suppressedExceptions = new ArrayList<>();
+      while (!registeredCleanActions.isEmpty()) {
+        CleanAction cleanAction = registeredCleanActions.pop();
+        // Try to perform the operation.
+        try {
+          cleanAction.clean();
+        } catch (Throwable t) {
+          // Record the failure
+          suppressedExceptions.add(t);
+          // Log the details
+          logCleanActionFailure(cleanAction, t);
+        }
+      }
 
-    // Currently only the number of failures is recorded. If extra context is needed,
-    // the clean actions might be included as well.
-    List<Throwable> suppressedExceptions = new ArrayList<>();
-    while (!registeredCleanActions.isEmpty()) {
-      CleanAction cleanAction = registeredCleanActions.pop();
-      // Try to perform the operation.
+      // If there have been any failures, throw an exception with a detailed error message.
+      if (!suppressedExceptions.isEmpty()) {
+        String message = String.format("%d exception(s) occurred when closing this context (%s), "
+            + "see the log messages above or the list of suppressed exceptions",
+            suppressedExceptions.size(), this);
+        CloseFailuresException e = new CloseFailuresException(message);
+        suppressedExceptions.forEach(e::addSuppressed);
+        throw e;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Performs the registered clean action before this context is closed, and unregisters it,
+   * so that the resources it cleans are released early. The clean actions registered last
+   * are found faster.
+   *
+   * <p>If this context is closed, this method has no effect, because the clean action
+   * has already been performed.
+   *
+   * @param cleanAction a clean action registered with this context
+   * @throws IllegalArgumentException if the clean action has not been registered
+   *     with this context, or has already been released
+   * @throws IllegalStateException if the clean action failed; it is unregistered nevertheless
+   */
+  public void release(CleanAction<?> cleanAction) {
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      boolean registered = registeredCleanActions.removeFirstOccurrence(cleanAction);
+      checkArgument(registered, "The clean action (%s) is not registered in this context (%s)",
+          cleanAction, this);
+      ObjectReference objectReference = objectReferences.remove(cleanAction);
+      if (objectReference != null) {
+        objectReference.clear();
+      }
       try {
         cleanAction.clean();
-      } catch (Throwable t) {
-        // Record the failure
-        suppressedExceptions.add(t);
-        // Log the details
-        logCleanActionFailure(cleanAction, t);
+      } catch (Exception e) {
+        logCleanActionFailure(cleanAction, e);
+        throw new IllegalStateException("Failed to perform the clean action " + cleanAction, e);
       }
+    } finally {
+      lock.unlock();
     }
+  }
 
-    // If there have been any failures, throw an exception with a detailed error message.
-    if (!suppressedExceptions.isEmpty()) {
-      String message = String.format("%d exception(s) occurred when closing this context (%s), "
-          + "see the log messages above or the list of suppressed exceptions",
-          suppressedExceptions.size(), this);
-      CloseFailuresException e = new CloseFailuresException(message);
-      suppressedExceptions.forEach(e::addSuppressed);
-      throw e;
+  /**
+   * Makes the registered clean action be performed before this context is closed,
+   * once the given object becomes unreachable, so that the resources that it uses
+   * are released early if the object is abandoned. The action is performed when
+   * a new clean action is registered with this context after the object has been
+   * collected by the garbage collector.
+   *
+   * <p>The clean action must not refer to the object, otherwise, the object
+   * never becomes unreachable.
+   *
+   * <p>If this context is closed, this method has no effect.
+   *
+   * @param cleanAction a clean action registered with this context
+   * @param object an object using the resource that the clean action releases
+   */
+  public void releaseWhenUnreachable(CleanAction<?> cleanAction, Object object) {
+    lock.lock();
+    try {
+      checkNotNull(cleanAction, "cleanAction");
+      checkNotNull(object, "object");
+      if (closed) {
+        return;
+      }
+      objectReferences.put(cleanAction,
+          new ObjectReference(object, unreachableObjects, cleanAction));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Performs the clean actions of the objects that became unreachable.
+   */
+  private void releaseUnreachable() {
+    Reference<?> reference;
+    while ((reference = unreachableObjects.poll()) != null) {
+      CleanAction<?> cleanAction = ((ObjectReference) reference).cleanAction;
+      // Skip the actions already released
+      if (objectReferences.remove(cleanAction) != null) {
+        registeredCleanActions.removeFirstOccurrence(cleanAction);
+        try {
+          cleanAction.clean();
+        } catch (Exception e) {
+          logCleanActionFailure(cleanAction, e);
+        }
+      }
     }
   }
 
@@ -206,7 +440,12 @@ public final class Cleaner implements AutoCloseable {
    * Returns the number of the registered clean actions.
    */
   public int getNumRegisteredActions() {
-    return registeredCleanActions.size();
+    lock.lock();
+    try {
+      return registeredCleanActions.size();
+    } finally {
+      lock.unlock();
+    }
   }
 
   /**
@@ -215,15 +454,66 @@ public final class Cleaner implements AutoCloseable {
    */
   @Override
   public String toString() {
-    String hash = Integer.toHexString(System.identityHashCode(this));
-    MoreObjects.ToStringHelper sb = MoreObjects.toStringHelper(this);
-    sb.add("hash", hash);
-    if (!description.isEmpty()) {
-      sb.add("description", description);
+    lock.lock();
+    try {
+      String hash = Integer.toHexString(System.identityHashCode(this));
+      MoreObjects.ToStringHelper sb = MoreObjects.toStringHelper(this);
+      sb.add("hash", hash);
+      if (!description.isEmpty()) {
+        sb.add("description", description);
+      }
+      if (arena) {
+        sb.add("arena", true);
+      }
+      return sb
+          .add("numRegisteredActions", getNumRegisteredActions())
+          .add("closed", closed)
+          .toString();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * A lock of the contexts used by a single thread, which does not synchronize anything.
+   */
+  private enum NoOpLock implements Lock {
+    INSTANCE;
+
+    @Override
+    public void lock() {}
+
+    @Override
+    public void lockInterruptibly() {}
+
+    @Override
+    public boolean tryLock() {
+      return true;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) {
+      return true;
+    }
+
+    @Override
+    public void unlock() {}
+
+    @Override
+    public Condition newCondition() {
+      throw new UnsupportedOperationException("Conditions are not supported");
+    }
+  }
+
+  /**
+   * A reference to an object using the resource of a clean action.
+   */
+  private static final class ObjectReference extends PhantomReference<Object> {
+    final CleanAction<?> cleanAction;
+
+    ObjectReference(Object object, ReferenceQueue<Object> queue, CleanAction<?> cleanAction) {
+      super(object, queue);
+      this.cleanAction = cleanAction;
     }
-    return sb
-        .add("numRegisteredActions", getNumRegisteredActions())
-        .add("closed", closed)
-        .toString();
   }
 }
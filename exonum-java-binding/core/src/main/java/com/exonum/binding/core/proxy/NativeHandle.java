@@ -19,6 +19,7 @@ package com.exonum.binding.core.proxy;
 import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.base.MoreObjects;
+import javax.annotation.Nullable;
 
 /**
  * An implementation-specific handle to the native object. Once closed, can no longer be accessed.
@@ -32,7 +33,18 @@ public final class NativeHandle implements AutoCloseable {
 
   private final long nativeHandle;
 
-  private boolean isValid;
+  /**
+   * Whether this handle is valid. Volatile, because the handles of the proxies
+   * of a snapshot may be used by several threads.
+   */
+  private volatile boolean isValid;
+
+  /**
+   * The batch destroying the native object, if this handle is registered in an arena
+   * {@link Cleaner}; this handle is no longer valid once the batch is destroyed.
+   */
+  @Nullable
+  private BatchProxyDestructor batch;
 
   /**
    * Creates new native handle. Validates it's state not allowing to create nullptr handle.
@@ -69,15 +81,26 @@ public final class NativeHandle implements AutoCloseable {
   }
 
   private void checkValid() {
-    checkState(isValid, "This handle is not valid: %s", this);
+    checkState(isValid(), "This handle is not valid: %s", this);
   }
 
   final boolean isValid() {
-    return isValid;
+    return isValid && (batch == null || !batch.isDestroyed());
+  }
+
+  /**
+   * Registers the batch destroying the native object of this handle.
+   */
+  void addToBatch(BatchProxyDestructor batch) {
+    checkState(this.batch == null, "This handle is already in a batch: %s", this);
+    this.batch = batch;
   }
 
   private void invalidate() {
     isValid = false;
+    if (batch != null) {
+      batch.remove(nativeHandle);
+    }
   }
 
   @Override
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.runtime;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.exonum.binding.core.proxy.Cleaner;
+import com.exonum.binding.core.proxy.CloseFailuresException;
+import com.exonum.binding.core.service.BlockCommittedEvent;
+import com.exonum.binding.core.service.BlockCommittedEventImpl;
+import com.exonum.binding.core.storage.database.Snapshot;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Dispatches the block commit events to the {@code afterCommit} handlers of the services,
+ * either sequentially, in the calling thread, or concurrently, on a bounded pool of threads,
+ * according to the {@linkplain AfterCommitSettings settings}.
+ *
+ * <p>Each handler receives its own snapshot proxy with its own cleaner, so that the native proxies
+ * it creates are destroyed as soon as it completes. The proxies share the native snapshot,
+ * which is safe because the native code reads it and the indexes created with it through shared
+ * references only (see {@link Snapshot}).
+ *
+ * <p>The dispatch completes when all handlers complete. The exceptions thrown by the handlers
+ * are logged and not propagated. Once the dispatcher is closed, the events are no longer
+ * dispatched.
+ *
+ * <p>This class is thread-safe.
+ */
+final class AfterCommitDispatcher implements AutoCloseable {
+
+  private static final Logger logger = LogManager.getLogger(AfterCommitDispatcher.class);
+
+  private final AfterCommitSettings settings;
+  private final long deadlineNanos;
+  /** The executor of the handlers; or {@code null} if they run in the calling thread. */
+  @Nullable
+  private final ExecutorService executor;
+  private final Map<String, AfterCommitStatistics> statistics = new ConcurrentHashMap<>();
+  /**
+   * The lock guarding the submission of the handlers and the shutdown of the executor,
+   * so that the handlers are never submitted to a shut down executor.
+   */
+  private final Object lock = new Object();
+  /** Whether this dispatcher is closed. Accessed holding the {@link #lock}. */
+  private boolean closed;
+
+  AfterCommitDispatcher(AfterCommitSettings settings) {
+    this.settings = checkNotNull(settings);
+    this.deadlineNanos = settings.getServiceDeadline().toNanos();
+    int parallelism = settings.getParallelism();
+    if (parallelism == 1) {
+      this.executor = null;
+    } else {
+      this.executor = Executors.newFixedThreadPool(parallelism, new ThreadFactoryBuilder()
+          .setNameFormat("after-commit-%d")
+          .setDaemon(true)
+          .build());
+    }
+  }
+
+  /**
+   * Invokes the {@code afterCommit} handlers of the given services, and waits for their
+   * completion.
+   *
+   * @param services the services to notify
+   * @param event the block commit event; its snapshot must remain valid until this method
+   *     completes
+   */
+  void dispatch(Collection<ServiceWrapper> services, BlockCommittedEvent event) {
+    long snapshotHandle = event.getSnapshot().getAccessNativeHandle();
+    if (executor == null) {
+      if (isClosed()) {
+        logger.warn("The dispatcher is closed, the services are not notified of {}", event);
+        return;
+      }
+      for (ServiceWrapper service : services) {
+        invokeHandlerWithOwnSnapshot(service, snapshotHandle, event, false);
+      }
+    } else {
+      dispatchConcurrently(services, snapshotHandle, event);
+    }
+  }
+
+  private void dispatchConcurrently(Collection<ServiceWrapper> services, long snapshotHandle,
+      BlockCommittedEvent event) {
+    List<Handler> handlers = new ArrayList<>(services.size());
+    synchronized (lock) {
+      if (closed) {
+        logger.warn("The dispatcher is closed, the services are not notified of {}", event);
+        return;
+      }
+      for (ServiceWrapper service : services) {
+        Handler handler = new Handler();
+        handler.future = executor.submit(() -> handler.run(service, snapshotHandle, event));
+        handlers.add(handler);
+      }
+    }
+    // Await the handlers without holding the lock, so that the dispatcher can be closed,
+    // interrupting them
+    for (Handler handler : handlers) {
+      handler.awaitCompletion();
+    }
+  }
+
+  /**
+   * Invokes the handler of the service with its own snapshot, based on the given native snapshot.
+   */
+  private void invokeHandlerWithOwnSnapshot(ServiceWrapper service, long snapshotHandle,
+      BlockCommittedEvent event, boolean interruptible) {
+    try (Cleaner cleaner = new Cleaner("afterCommit of " + service.getName())) {
+      Snapshot snapshot = Snapshot.newInstance(snapshotHandle, false, cleaner);
+      BlockCommittedEvent serviceEvent = BlockCommittedEventImpl.valueOf(snapshot,
+          event.getValidatorId(), event.getHeight());
+      invokeHandler(service, serviceEvent, interruptible);
+    } catch (CloseFailuresException e) {
+      logger.error("Failed to destroy the native proxies created in the afterCommit handler "
+          + "of service {}", service.getName(), e);
+    }
+  }
+
+  private void invokeHandler(ServiceWrapper service, BlockCommittedEvent event,
+      boolean interruptible) {
+    String name = service.getName();
+    long start = System.nanoTime();
+    try {
+      service.afterCommit(event);
+    } catch (Exception e) {
+      // Log, but do not re-throw either immediately or later
+      logger.error("Service {} threw an exception in its afterCommit handler of {}",
+          name, event, e);
+    } finally {
+      if (interruptible) {
+        // Clear the interrupt status, which the dispatcher might have set after the deadline
+        Thread.interrupted();
+      }
+      long nanos = System.nanoTime() - start;
+      boolean deadlineMissed = nanos > deadlineNanos;
+      if (deadlineMissed) {
+        logger.warn("The afterCommit handler of service {} took {} ms, exceeding the deadline "
+            + "of {} ms", name, NANOSECONDS.toMillis(nanos),
+            settings.getServiceDeadline().toMillis());
+      }
+      statistics.computeIfAbsent(name, n -> new AfterCommitStatistics())
+          .recordInvocation(nanos, deadlineMissed);
+    }
+  }
+
+  /**
+   * Returns the statistics of the handlers, by the names of the services that handled
+   * at least one event.
+   */
+  Map<String, AfterCommitStatistics> getStatistics() {
+    return ImmutableMap.copyOf(statistics);
+  }
+
+  private boolean isClosed() {
+    synchronized (lock) {
+      return closed;
+    }
+  }
+
+  /**
+   * Stops the threads running the handlers. If it is invoked during a dispatch, the running
+   * handlers are interrupted, and the dispatch completes once they complete.
+   */
+  @Override
+  public void close() {
+    synchronized (lock) {
+      closed = true;
+      if (executor != null) {
+        // Cancel the handlers that have not started, so that the dispatch does not await them
+        for (Runnable handler : executor.shutdownNow()) {
+          ((Future<?>) handler).cancel(false);
+        }
+      }
+    }
+  }
+
+  /**
+   * A handler running in the executor.
+   */
+  private final class Handler {
+    final CountDownLatch done = new CountDownLatch(1);
+    volatile long startNanos;
+    volatile boolean started;
+    Future<?> future;
+
+    void run(ServiceWrapper service, long snapshotHandle, BlockCommittedEvent event) {
+      startNanos = System.nanoTime();
+      started = true;
+      try {
+        invokeHandlerWithOwnSnapshot(service, snapshotHandle, event, true);
+      } finally {
+        done.countDown();
+      }
+    }
+
+    /**
+     * Waits for the completion of the handler, interrupting it if it exceeds the deadline.
+     * The handler is awaited even if it exceeds the deadline, because it uses the snapshot
+     * which is destroyed after the dispatch. A handler that has not started when
+     * the dispatcher is closed is not awaited.
+     */
+    void awaitCompletion() {
+      boolean interrupted = false;
+      boolean cancelled = false;
+      try {
+        while (true) {
+          try {
+            if (cancelled) {
+              done.await();
+              return;
+            }
+            if (!started && future.isCancelled()) {
+              // The dispatcher is closed before the handler started
+              return;
+            }
+            long timeout = started
+                ? startNanos + deadlineNanos - System.nanoTime()
+                : deadlineNanos;
+            if (done.await(timeout, NANOSECONDS)) {
+              return;
+            }
+            if (started && System.nanoTime() - startNanos > deadlineNanos) {
+              // Request the handler to stop
+              future.cancel(true);
+              cancelled = true;
+            }
+          } catch (InterruptedException e) {
+            // The handler must be awaited regardless; restore the interrupt status afterwards
+            interrupted = true;
+          }
+        }
+      } finally {
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+}
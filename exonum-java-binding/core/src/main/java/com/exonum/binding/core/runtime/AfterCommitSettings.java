@@ -0,0 +1,75 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.runtime;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.auto.value.AutoValue;
+import java.time.Duration;
+
+/**
+ * The settings of the dispatch of the block commit events to the
+ * {@linkplain com.exonum.binding.core.service.Service#afterCommit(
+ * com.exonum.binding.core.service.BlockCommittedEvent) afterCommit} handlers of the services.
+ *
+ * @see ServiceRuntime#afterCommit(com.exonum.binding.core.service.BlockCommittedEvent)
+ */
+@AutoValue
+public abstract class AfterCommitSettings {
+
+  /** The default deadline of a handler. */
+  public static final Duration DEFAULT_SERVICE_DEADLINE = Duration.ofSeconds(1);
+
+  /**
+   * Returns the maximum number of the handlers that run concurrently. If it is equal to one,
+   * the handlers run sequentially, in the thread notifying of the block commit.
+   */
+  public abstract int getParallelism();
+
+  /**
+   * Returns the time in which the handler of each service is expected to complete.
+   * The handlers that do not complete in time are reported in the log and in the
+   * {@linkplain AfterCommitStatistics statistics}; when the handlers run concurrently,
+   * such a handler is also interrupted. The dispatch waits for the completion
+   * of all handlers nevertheless, because the database snapshot passed to them
+   * is destroyed when it completes.
+   */
+  public abstract Duration getServiceDeadline();
+
+  /**
+   * Returns the default settings: the handlers run sequentially, with the
+   * {@linkplain #DEFAULT_SERVICE_DEADLINE default deadline}.
+   */
+  public static AfterCommitSettings defaultSettings() {
+    return newInstance(1, DEFAULT_SERVICE_DEADLINE);
+  }
+
+  /**
+   * Creates new settings.
+   *
+   * @param parallelism the maximum number of the handlers that run concurrently; must be positive.
+   *     When it is greater than one, each handler receives its own database snapshot
+   * @param serviceDeadline the time in which the handler of each service is expected to complete;
+   *     must be positive
+   */
+  public static AfterCommitSettings newInstance(int parallelism, Duration serviceDeadline) {
+    checkArgument(parallelism > 0, "parallelism must be positive, but was %s", parallelism);
+    checkArgument(!serviceDeadline.isNegative() && !serviceDeadline.isZero(),
+        "serviceDeadline must be positive, but was %s", serviceDeadline);
+    return new AutoValue_AfterCommitSettings(parallelism, serviceDeadline);
+  }
+}
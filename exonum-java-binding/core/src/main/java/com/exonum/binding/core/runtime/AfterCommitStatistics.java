@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.runtime;
+
+import com.google.common.base.MoreObjects;
+import java.time.Duration;
+
+/**
+ * The statistics of the {@code afterCommit} handler of a service: the number of its invocations,
+ * their latency, and the number of invocations that exceeded the
+ * {@linkplain AfterCommitSettings#getServiceDeadline() deadline}.
+ *
+ * <p>This class is thread-safe.
+ */
+public final class AfterCommitStatistics {
+
+  private long invocationCount;
+  private long deadlineMissCount;
+  private long totalNanos;
+  private long maxNanos;
+
+  AfterCommitStatistics() {}
+
+  /**
+   * Records an invocation of the handler.
+   *
+   * @param nanos the duration of the invocation in nanoseconds
+   * @param deadlineMissed whether the invocation exceeded the deadline
+   */
+  synchronized void recordInvocation(long nanos, boolean deadlineMissed) {
+    invocationCount++;
+    if (deadlineMissed) {
+      deadlineMissCount++;
+    }
+    totalNanos += nanos;
+    maxNanos = Math.max(maxNanos, nanos);
+  }
+
+  /**
+   * Returns the number of invocations of the handler.
+   */
+  public synchronized long getInvocationCount() {
+    return invocationCount;
+  }
+
+  /**
+   * Returns the number of invocations of the handler that exceeded the deadline.
+   */
+  public synchronized long getDeadlineMissCount() {
+    return deadlineMissCount;
+  }
+
+  /**
+   * Returns the total duration of the invocations of the handler.
+   */
+  public synchronized Duration getTotalTime() {
+    return Duration.ofNanos(totalNanos);
+  }
+
+  /**
+   * Returns the maximum duration of an invocation of the handler.
+   */
+  public synchronized Duration getMaxTime() {
+    return Duration.ofNanos(maxNanos);
+  }
+
+  /**
+   * Returns the average duration of an invocation of the handler; or zero if it
+   * was not invoked.
+   */
+  public synchronized Duration getAverageTime() {
+    return (invocationCount == 0) ? Duration.ZERO : Duration.ofNanos(totalNanos / invocationCount);
+  }
+
+  @Override
+  public synchronized String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("invocationCount", invocationCount)
+        .add("deadlineMissCount", deadlineMissCount)
+        .add("averageTime", getAverageTime())
+        .add("maxTime", getMaxTime())
+        .toString();
+  }
+}
@@ -36,6 +36,7 @@ public final class FrameworkModule extends AbstractModule {
   private final Path serviceArtifactsDir;
   private final int serviceWebServerPort;
   private final ImmutableMap<String, Class<?>> dependencyReferenceClasses;
+  private final AfterCommitSettings afterCommitSettings;
 
   /**
    * Creates a framework module with the given configuration.
@@ -48,9 +49,27 @@ public final class FrameworkModule extends AbstractModule {
    */
   public FrameworkModule(Path serviceArtifactsDir, int serviceWebServerPort,
       Map<String, Class<?>> dependencyReferenceClasses) {
+    this(serviceArtifactsDir, serviceWebServerPort, dependencyReferenceClasses,
+        AfterCommitSettings.defaultSettings());
+  }
+
+  /**
+   * Creates a framework module with the given configuration.
+   *
+   * @param serviceArtifactsDir the directory in which administrators place and from which
+   *     the service runtime loads service artifacts
+   * @param serviceWebServerPort the port for the web server on which endpoints of Exonum services
+   *     will be mounted
+   * @param dependencyReferenceClasses the reference classes from framework-provided dependencies
+   * @param afterCommitSettings the settings of the dispatch of the block commit events
+   *     to the services
+   */
+  public FrameworkModule(Path serviceArtifactsDir, int serviceWebServerPort,
+      Map<String, Class<?>> dependencyReferenceClasses, AfterCommitSettings afterCommitSettings) {
     this.serviceArtifactsDir = serviceArtifactsDir;
     this.serviceWebServerPort = serviceWebServerPort;
     this.dependencyReferenceClasses = ImmutableMap.copyOf(dependencyReferenceClasses);
+    this.afterCommitSettings = afterCommitSettings;
   }
 
   @Override
@@ -65,6 +84,7 @@ public final class FrameworkModule extends AbstractModule {
         .toInstance(serviceArtifactsDir);
     bind(Integer.class).annotatedWith(named(SERVICE_WEB_SERVER_PORT))
         .toInstance(serviceWebServerPort);
+    bind(AfterCommitSettings.class).toInstance(afterCommitSettings);
 
     bind(AccessFactory.class).toInstance(AccessProxyFactory.getInstance());
     // todo: Consider providing an implementation of a Node —
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.runtime;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * A decoder of the protobuf transaction arguments. It parses the messages with the
+ * {@link Parser} of the message type, obtained once, instead of a reflective invocation
+ * of {@code parseFrom} per message.
+ *
+ * <p>The messages are parsed with aliasing enabled, so that their {@code bytes} fields
+ * share the serialized arguments instead of copying them. Hence the serialized arguments
+ * must not be modified after they are decoded.
+ *
+ * <p>This class is thread-safe.
+ *
+ * @param <MessageT> the type of the protobuf message
+ */
+final class ProtobufArgumentsDecoder<MessageT extends MessageLite> {
+
+  private final Parser<? extends MessageT> parser;
+
+  private ProtobufArgumentsDecoder(Parser<? extends MessageT> parser) {
+    this.parser = checkNotNull(parser);
+  }
+
+  /**
+   * Creates a decoder of the messages of the given type.
+   *
+   * @param messageType the type of the protobuf message; must have a public static
+   *     {@code getDefaultInstance} method, as the generated message classes do
+   * @throws IllegalArgumentException if the message type is not valid
+   */
+  @SuppressWarnings("unchecked") // The parser of MessageT parses MessageT
+  static <MessageT extends MessageLite> ProtobufArgumentsDecoder<MessageT> forType(
+      Class<MessageT> messageType) {
+    // The lookup class must be the message class to satisfy the linkage constraints
+    // if the message class is loaded by several classloaders (see ProtobufReflectiveSerializer)
+    MethodHandles.Lookup lookup = MethodHandles.publicLookup()
+        .in(messageType);
+    MessageT defaultInstance;
+    try {
+      MethodHandle getDefaultInstance = lookup.findStatic(messageType, "getDefaultInstance",
+          MethodType.methodType(messageType));
+      defaultInstance = (MessageT) getDefaultInstance.invoke();
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new IllegalArgumentException("Invalid message: cannot find public static "
+          + "getDefaultInstance method in " + messageType, e);
+    } catch (Throwable t) {
+      throw new IllegalArgumentException("Failed to get the default instance of " + messageType,
+          t);
+    }
+    Parser<? extends MessageT> parser = (Parser<? extends MessageT>)
+        defaultInstance.getParserForType();
+    return new ProtobufArgumentsDecoder<>(parser);
+  }
+
+  /**
+   * Decodes the message from the serialized arguments.
+   *
+   * @param arguments the serialized message; must not be modified afterwards
+   * @throws IllegalArgumentException if the arguments are not a valid message
+   */
+  MessageT decode(byte[] arguments) {
+    CodedInputStream input = CodedInputStream.newInstance(arguments);
+    input.enableAliasing(true);
+    try {
+      MessageT message = parser.parseFrom(input, ExtensionRegistryLite.getEmptyRegistry());
+      input.checkLastTagWas(0);
+      return message;
+    } catch (InvalidProtocolBufferException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+}
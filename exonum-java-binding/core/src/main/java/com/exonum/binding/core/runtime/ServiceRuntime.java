@@ -32,16 +32,20 @@ import com.exonum.core.messages.Runtime.ErrorKind;
 import com.exonum.core.messages.Runtime.InstanceStatus;
 import com.exonum.core.messages.Runtime.InstanceStatus.Simple;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import javax.annotation.Nullable;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -56,6 +60,13 @@ import org.apache.logging.log4j.Logger;
  * is instantiated (during bootstrap) and it is used by the native runtime only in a single-threaded
  * context, hence thread-safety isn't <em>strictly</em> required, but rather provided to avoid
  * possible errors if it is ever accessed by other objects.
+ *
+ * <p>The lifecycle operations (deploying artifacts, adding, activating and stopping services,
+ * shutdown) are mutually exclusive. The active services are kept in an immutable registry,
+ * which these operations replace; the operations with the active services (transaction
+ * execution, {@code afterTransactions} and {@code afterCommit}) read the current registry
+ * without locking, hence they never wait for the lifecycle operations. An operation that
+ * started before a service was stopped completes with that service.
  */
 @Singleton
 public final class ServiceRuntime implements AutoCloseable {
@@ -68,17 +79,15 @@ public final class ServiceRuntime implements AutoCloseable {
   private final ServicesFactory servicesFactory;
   private final RuntimeTransport runtimeTransport;
   private final Path artifactsDir;
+  private final AfterCommitDispatcher afterCommitDispatcher;
   /**
-   * The active services indexed by their name. It is stored in a sorted map that offers
-   * the same iteration order on all nodes with the same services, which is useful
-   * for logging purposes.
+   * The registry of the active services. It is replaced by the lifecycle operations
+   * holding the {@link #lock}, and read without locking.
    */
-  private final SortedMap<String, ServiceWrapper> services = new TreeMap<>();
+  private volatile ServiceRegistry services = ServiceRegistry.EMPTY;
   /**
-   * Same active services, indexed by their numeric identifier.
-   * @see ServiceInstanceSpec#getId()
+   * The lock of the lifecycle operations.
    */
-  private final Map<Integer, ServiceWrapper> servicesById = new HashMap<>();
   private final Object lock = new Object();
 
   private Node node;
@@ -92,14 +101,33 @@ public final class ServiceRuntime implements AutoCloseable {
    * @param artifactsDir the directory in which administrators place and from which
    *     the service runtime loads service artifacts; may not exist at instantiation time
    */
+  public ServiceRuntime(ServiceLoader serviceLoader, ServicesFactory servicesFactory,
+      RuntimeTransport runtimeTransport, Path artifactsDir) {
+    this(serviceLoader, servicesFactory, runtimeTransport, artifactsDir,
+        AfterCommitSettings.defaultSettings());
+  }
+
+  /**
+   * Creates a new Java service runtime.
+   *
+   * @param serviceLoader a loader of service artifacts
+   * @param servicesFactory the factory of services
+   * @param runtimeTransport a web server providing transport to Java services
+   * @param artifactsDir the directory in which administrators place and from which
+   *     the service runtime loads service artifacts; may not exist at instantiation time
+   * @param afterCommitSettings the settings of the dispatch of the block commit events
+   *     to the services
+   */
   @Inject
   public ServiceRuntime(ServiceLoader serviceLoader, ServicesFactory servicesFactory,
       RuntimeTransport runtimeTransport,
-      @Named(FrameworkModule.SERVICE_RUNTIME_ARTIFACTS_DIRECTORY) Path artifactsDir) {
+      @Named(FrameworkModule.SERVICE_RUNTIME_ARTIFACTS_DIRECTORY) Path artifactsDir,
+      AfterCommitSettings afterCommitSettings) {
     this.serviceLoader = checkNotNull(serviceLoader);
     this.servicesFactory = checkNotNull(servicesFactory);
     this.runtimeTransport = checkNotNull(runtimeTransport);
     this.artifactsDir = checkNotNull(artifactsDir);
+    this.afterCommitDispatcher = new AfterCommitDispatcher(afterCommitSettings);
   }
 
   /**
@@ -306,8 +334,9 @@ public final class ServiceRuntime implements AutoCloseable {
   private ServiceWrapper createServiceInstance(ServiceInstanceSpec instanceSpec) {
     // Check no such service in the runtime
     String name = instanceSpec.getName();
-    checkArgument(!findService(name).isPresent(),
-        "Service with name '%s' already created: %s", name, services.get(name));
+    Optional<ServiceWrapper> existingService = findService(name);
+    checkArgument(!existingService.isPresent(),
+        "Service with name '%s' already created: %s", name, existingService.orElse(null));
 
     // Find the service definition
     ServiceArtifactId artifactId = instanceSpec.getArtifactId();
@@ -320,19 +349,11 @@ public final class ServiceRuntime implements AutoCloseable {
   }
 
   private void registerService(ServiceWrapper service) {
-    String name = service.getName();
-    services.put(name, service);
-
-    int id = service.getId();
-    servicesById.put(id, service);
+    services = services.withService(service);
   }
 
   private void unRegisterService(ServiceWrapper service) {
-    String name = service.getName();
-    services.remove(name);
-
-    int id = service.getId();
-    servicesById.remove(id);
+    services = services.withoutService(service);
   }
 
   /**
@@ -360,7 +381,8 @@ public final class ServiceRuntime implements AutoCloseable {
    *     is defined, or empty string if it is defined in the service directly (implicit interface)
    * @param txId the transaction type identifier
    * @param arguments the serialized transaction arguments
-   * @param fork a native fork object
+   * @param fork a native fork object. If it has the write-back cache enabled, the cache
+   *     is flushed once the service has executed the transaction
    * @param callerServiceId the id of the caller service if transaction is invoked by other
    *     service. Currently only applicable to invocations of Configure interface methods
    * @param txMessageHash the hash of the transaction message
@@ -376,23 +398,24 @@ public final class ServiceRuntime implements AutoCloseable {
   public void executeTransaction(int serviceId, String interfaceName, int txId,
       byte[] arguments, Fork fork, int callerServiceId, HashCode txMessageHash,
       PublicKey authorPublicKey) {
-    synchronized (lock) {
-      ServiceWrapper service = getServiceById(serviceId);
-      String serviceName = service.getName();
-      TransactionContext context = TransactionContext.builder()
-          .fork(fork)
-          .txMessageHash(txMessageHash)
-          .authorPk(authorPublicKey)
-          .serviceName(serviceName)
-          .serviceId(serviceId)
-          .build();
-      try {
-        service.executeTransaction(interfaceName, txId, arguments, callerServiceId, context);
-      } catch (Exception e) {
-        logger.info("Transaction execution failed (service={}, txId={}, txMessageHash={})",
-            service.getName(), txId, context.getTransactionMessageHash(), e);
-        throw e;
-      }
+    ServiceWrapper service = getServiceById(serviceId);
+    String serviceName = service.getName();
+    TransactionContext context = TransactionContext.builder()
+        .fork(fork)
+        .txMessageHash(txMessageHash)
+        .authorPk(authorPublicKey)
+        .serviceName(serviceName)
+        .serviceId(serviceId)
+        .build();
+    try {
+      service.executeTransaction(interfaceName, txId, arguments, callerServiceId, context);
+      // Write the buffered changes before the result is decided, so that a failure to write
+      // them fails the transaction
+      fork.flushWriteBackCaches();
+    } catch (Exception e) {
+      logger.info("Transaction execution failed (service={}, txId={}, txMessageHash={})",
+          service.getName(), txId, context.getTransactionMessageHash(), e);
+      throw e;
     }
   }
 
@@ -409,45 +432,33 @@ public final class ServiceRuntime implements AutoCloseable {
    * @throws IllegalArgumentException if any argument is not valid (e.g., unknown service)
    */
   public void afterTransactions(int serviceId, Fork fork) {
-    synchronized (lock) {
-      ServiceWrapper service = getServiceById(serviceId);
-      try {
-        service.afterTransactions(fork);
-      } catch (Exception e) {
-        logger.error("Service {} threw exception in afterTransactions."
-            + " Any changes will be rolled-back", service.getName(), e);
-        throw e;
-      }
+    ServiceWrapper service = getServiceById(serviceId);
+    try {
+      service.afterTransactions(fork);
+    } catch (Exception e) {
+      logger.error("Service {} threw exception in afterTransactions."
+          + " Any changes will be rolled-back", service.getName(), e);
+      throw e;
     }
   }
 
   /**
-   * Notifies the services in the runtime of the block commit event.
+   * Notifies the services in the runtime of the block commit event. The services are notified
+   * sequentially or concurrently, depending on the {@link AfterCommitSettings}; each service
+   * receives its own snapshot, based on the snapshot of the given event.
+   * This method returns when all services complete the handling of the event.
+   * The exceptions thrown by the services are logged and not propagated.
    */
   public void afterCommit(BlockCommittedEvent event) {
-    synchronized (lock) {
-      for (ServiceWrapper service : services.values()) {
-        try {
-          // todo: [ECR-3436] BCE carries a Snapshot which is based on a cleaner, which gets
-          //   re-used by all services. If the total number of native proxies they create is large,
-          //   that may result in excessive memory usage. Some ways to solve this:
-          //   1. Take a handle, create a fresh snapshot for each service — but will need hacks
-          //   to destroy the native peer once.
-          //   2. Support Snapshot copying with new cleaners — but that breaks index de-duplication
-          //   (though for snapshots that mustn't be an issue).
-          //   -
-          //   As a side note, 'excessive memory usage' may occur in any *single* transaction/
-          //   read request/service life-cycle method, it just has higher probability when
-          //   we invoke a number of such 'foreign' (to framework) methods with no intermediate
-          //   clean-up.
-          service.afterCommit(event);
-        } catch (Exception e) {
-          // Log, but do not re-throw either immediately or later
-          logger.error("Service {} threw an exception in its afterCommit handler of {}",
-              service.getName(), event, e);
-        }
-      }
-    }
+    afterCommitDispatcher.dispatch(services.getServices(), event);
+  }
+
+  /**
+   * Returns the statistics of the {@code afterCommit} handlers of the services,
+   * by the service names.
+   */
+  public Map<String, AfterCommitStatistics> getAfterCommitStatistics() {
+    return afterCommitDispatcher.getStatistics();
   }
 
   /**
@@ -468,6 +479,9 @@ public final class ServiceRuntime implements AutoCloseable {
         // Clear the services
         clearServices();
 
+        // Stop the threads notifying the services of the block commit events
+        afterCommitDispatcher.close();
+
         // Finally, when no service classes remain in use, unload the service artifacts
         unloadArtifacts();
 
@@ -499,8 +513,7 @@ public final class ServiceRuntime implements AutoCloseable {
   }
 
   private void clearServices() {
-    services.clear();
-    servicesById.clear();
+    services = ServiceRegistry.EMPTY;
   }
 
   private void unloadArtifacts() {
@@ -519,20 +532,15 @@ public final class ServiceRuntime implements AutoCloseable {
     shutdown();
   }
 
-  private ServiceWrapper getServiceById(Integer serviceId) {
-    checkActiveService(serviceId);
-    return servicesById.get(serviceId);
-  }
-
-  /** Checks that the service with the given id is started in this runtime. */
-  private void checkActiveService(Integer serviceId) {
-    checkArgument(servicesById.containsKey(serviceId),
-        "No service with id=%s in the Java runtime", serviceId);
+  private ServiceWrapper getServiceById(int serviceId) {
+    ServiceWrapper service = services.findById(serviceId);
+    checkArgument(service != null, "No service with id=%s in the Java runtime", serviceId);
+    return service;
   }
 
   /** Checks that the service with the given id is not active in this runtime. */
-  private void checkStoppedService(Integer serviceId) {
-    ServiceWrapper activeService = servicesById.get(serviceId);
+  private void checkStoppedService(int serviceId) {
+    ServiceWrapper activeService = services.findById(serviceId);
     checkArgument(activeService == null,
         "Service with id=%s should be stopped, but actually active. "
             + "Found active service instance: %s", serviceId, activeService);
@@ -540,6 +548,67 @@ public final class ServiceRuntime implements AutoCloseable {
 
   @VisibleForTesting
   Optional<ServiceWrapper> findService(String name) {
-    return Optional.ofNullable(services.get(name));
+    return Optional.ofNullable(services.findByName(name));
+  }
+
+  /**
+   * An immutable registry of the active services. The registry is replaced with a modified
+   * copy when a service is added or removed.
+   */
+  private static final class ServiceRegistry {
+
+    static final ServiceRegistry EMPTY =
+        new ServiceRegistry(ImmutableSortedMap.of(), ImmutableMap.of());
+
+    /**
+     * The active services indexed by their name. It is stored in a sorted map that offers
+     * the same iteration order on all nodes with the same services, which is useful
+     * for logging purposes.
+     */
+    final ImmutableSortedMap<String, ServiceWrapper> servicesByName;
+    /**
+     * Same active services, indexed by their numeric identifier.
+     * @see ServiceInstanceSpec#getId()
+     */
+    final ImmutableMap<Integer, ServiceWrapper> servicesById;
+
+    private ServiceRegistry(SortedMap<String, ServiceWrapper> servicesByName,
+        Map<Integer, ServiceWrapper> servicesById) {
+      this.servicesByName = ImmutableSortedMap.copyOfSorted(servicesByName);
+      this.servicesById = ImmutableMap.copyOf(servicesById);
+    }
+
+    /** Returns a copy of this registry with the given service added. */
+    ServiceRegistry withService(ServiceWrapper service) {
+      SortedMap<String, ServiceWrapper> byName = new TreeMap<>(servicesByName);
+      byName.put(service.getName(), service);
+      Map<Integer, ServiceWrapper> byId = new HashMap<>(servicesById);
+      byId.put(service.getId(), service);
+      return new ServiceRegistry(byName, byId);
+    }
+
+    /** Returns a copy of this registry with the given service removed. */
+    ServiceRegistry withoutService(ServiceWrapper service) {
+      SortedMap<String, ServiceWrapper> byName = new TreeMap<>(servicesByName);
+      byName.remove(service.getName());
+      Map<Integer, ServiceWrapper> byId = new HashMap<>(servicesById);
+      byId.remove(service.getId());
+      return new ServiceRegistry(byName, byId);
+    }
+
+    @Nullable
+    ServiceWrapper findByName(String name) {
+      return servicesByName.get(name);
+    }
+
+    @Nullable
+    ServiceWrapper findById(int id) {
+      return servicesById.get(id);
+    }
+
+    /** Returns the active services in the order of their names. */
+    Collection<ServiceWrapper> getServices() {
+      return servicesByName.values();
+    }
   }
 }
@@ -230,8 +230,11 @@ public class ServiceRuntimeAdapter {
       long forkNativeHandle, int callerServiceId, byte[] txMessageHash, byte[] authorPublicKey)
       throws CloseFailuresException {
 
-    try (Cleaner cleaner = new Cleaner("executeTransaction")) {
+    // Use an arena as a transaction usually creates several indexes, destroyed at once
+    try (Cleaner cleaner = Cleaner.newArena("executeTransaction")) {
       Fork fork = accessFactory.createFork(forkNativeHandle, cleaner);
+      // Cache the map entries, as a transaction often accesses the same keys several times
+      fork.enableWriteBackCache();
       HashCode hash = HashCode.fromBytes(txMessageHash);
       PublicKey authorPk = PublicKey.fromBytes(authorPublicKey);
 
@@ -19,7 +19,6 @@ package com.exonum.binding.core.runtime;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.stream.Collectors.toMap;
 
-import com.exonum.binding.common.serialization.Serializer;
 import com.exonum.binding.common.serialization.StandardSerializers;
 import com.exonum.binding.core.transaction.Transaction;
 import com.exonum.binding.core.transaction.TransactionContext;
@@ -31,6 +30,7 @@ import java.lang.invoke.MethodHandles.Lookup;
 import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Finds and validates transaction methods in a service.
@@ -101,11 +101,14 @@ final class TransactionExtractor {
             + " But second parameter type was: %s", secondParameter.getName()));
   }
 
+  @SuppressWarnings("unchecked") // The protobuf argument type is checked
   private static TransactionMethod toTransactionMethod(Method method, Lookup lookup) {
-    Serializer<?> argumentsSerializer = StandardSerializers.bytes();
-    Class parameterType = method.getParameterTypes()[0];
+    Function<byte[], ?> argumentsDecoder = StandardSerializers.bytes()::fromBytes;
+    Class<?> parameterType = method.getParameterTypes()[0];
     if (isProtobufArgument(parameterType)) {
-      argumentsSerializer = StandardSerializers.protobuf(parameterType);
+      ProtobufArgumentsDecoder<?> protobufDecoder = ProtobufArgumentsDecoder
+          .forType((Class<? extends MessageLite>) parameterType);
+      argumentsDecoder = protobufDecoder::decode;
     }
     MethodHandle methodHandle;
     try {
@@ -114,7 +117,7 @@ final class TransactionExtractor {
       throw new IllegalArgumentException(
           String.format("Couldn't access method %s", method.getName()), e);
     }
-    return new TransactionMethod(methodHandle, argumentsSerializer);
+    return new TransactionMethod(methodHandle, argumentsDecoder);
   }
 
   /**
@@ -22,20 +22,61 @@ import com.exonum.binding.core.service.Service;
 import com.exonum.binding.core.transaction.ExecutionException;
 import com.exonum.binding.core.transaction.TransactionContext;
 import com.google.inject.Inject;
+import java.util.Arrays;
 import java.util.Map;
+import javax.annotation.Nullable;
 
 /**
  * Stores ids of transaction methods and their method handles of a corresponding service.
+ *
+ * <p>The transaction methods are stored in a table indexed by the transaction id,
+ * if the ids are non-negative and not too sparse; otherwise — in an array sorted by the id,
+ * in which they are found with a binary search. Neither requires boxing the id.
  */
 final class TransactionInvoker {
+
+  /**
+   * The maximum size of the table of transaction methods indexed by the id.
+   */
+  private static final int MAX_DIRECT_TABLE_SIZE = 1024;
+
   private final Service service;
-  private final Map<Integer, TransactionMethod> transactionMethods;
+  /**
+   * The sorted ids of the transaction methods; or {@code null} if the methods are indexed
+   * by the id.
+   */
+  @Nullable
+  private final int[] transactionIds;
+  /**
+   * The transaction methods, either indexed by the id (with {@code null} for absent ids)
+   * or in the order of {@link #transactionIds}.
+   */
+  private final TransactionMethod[] transactionMethods;
 
   @Inject
   TransactionInvoker(Service service) {
     this.service = service;
-    this.transactionMethods =
+    Map<Integer, TransactionMethod> methods =
         TransactionExtractor.extractTransactionMethods(service.getClass());
+    int[] ids = methods.keySet().stream()
+        .mapToInt(Integer::intValue)
+        .sorted()
+        .toArray();
+    boolean direct = ids.length == 0
+        || (ids[0] >= 0 && ids[ids.length - 1] < MAX_DIRECT_TABLE_SIZE);
+    if (direct) {
+      int size = (ids.length == 0) ? 0 : ids[ids.length - 1] + 1;
+      this.transactionIds = null;
+      this.transactionMethods = new TransactionMethod[size];
+      for (int id : ids) {
+        transactionMethods[id] = methods.get(id);
+      }
+    } else {
+      this.transactionIds = ids;
+      this.transactionMethods = Arrays.stream(ids)
+          .mapToObj(methods::get)
+          .toArray(TransactionMethod[]::new);
+    }
   }
 
   /**
@@ -53,9 +94,20 @@ final class TransactionInvoker {
    *     the transaction method, it is wrapped as cause
    */
   void invokeTransaction(int transactionId, byte[] arguments, TransactionContext context) {
-    checkArgument(transactionMethods.containsKey(transactionId),
+    TransactionMethod transactionMethod = findTransactionMethod(transactionId);
+    checkArgument(transactionMethod != null,
         "No method with transaction id (%s)", transactionId);
-    TransactionMethod transactionMethod = transactionMethods.get(transactionId);
     transactionMethod.invoke(service, arguments, context);
   }
+
+  @Nullable
+  private TransactionMethod findTransactionMethod(int transactionId) {
+    if (transactionIds == null) {
+      return (0 <= transactionId && transactionId < transactionMethods.length)
+          ? transactionMethods[transactionId]
+          : null;
+    }
+    int index = Arrays.binarySearch(transactionIds, transactionId);
+    return (index >= 0) ? transactionMethods[index] : null;
+  }
 }
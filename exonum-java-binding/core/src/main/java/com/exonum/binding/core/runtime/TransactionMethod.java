@@ -16,33 +16,58 @@
 
 package com.exonum.binding.core.runtime;
 
-import com.exonum.binding.common.serialization.Serializer;
 import com.exonum.binding.core.service.Service;
 import com.exonum.binding.core.transaction.ExecutionException;
 import com.exonum.binding.core.transaction.TransactionContext;
 import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
 import java.lang.invoke.WrongMethodTypeException;
+import java.util.function.Function;
 
 /**
  * A proxy of a transaction method. This class implements argument resolution,
  * conversion, and invocation of a transaction method.
+ *
+ * <p>The method handle is adapted to the {@linkplain #INVOKER_TYPE invoker type} once,
+ * so that the transaction method is invoked with {@link MethodHandle#invokeExact},
+ * which, unlike {@link MethodHandle#invoke}, needs no type conversion on each invocation.
  */
 class TransactionMethod {
+
+  /**
+   * The type of the method handles invoking the transaction methods:
+   * {@code (Service, Object, TransactionContext)void}.
+   */
+  private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class,
+      Service.class, Object.class, TransactionContext.class);
+
   private final MethodHandle methodHandle;
-  private final Serializer<?> argumentsSerializer;
+  private final Function<byte[], ?> argumentsDecoder;
 
-  TransactionMethod(MethodHandle methodHandle, Serializer<?> argumentsSerializer) {
-    this.methodHandle = methodHandle;
-    this.argumentsSerializer = argumentsSerializer;
+  /**
+   * Creates a transaction method.
+   *
+   * @param methodHandle a handle of the transaction method, accepting the service instance,
+   *     the transaction arguments and the transaction context
+   * @param argumentsDecoder a function converting the serialized transaction arguments
+   *     into the arguments of the transaction method; throws {@link IllegalArgumentException}
+   *     if the arguments are not valid
+   * @throws WrongMethodTypeException if the method handle cannot be adapted to accept
+   *     the service instance, the arguments and the context
+   */
+  TransactionMethod(MethodHandle methodHandle, Function<byte[], ?> argumentsDecoder) {
+    this.methodHandle = methodHandle.asType(INVOKER_TYPE);
+    this.argumentsDecoder = argumentsDecoder;
   }
 
   void invoke(Service targetService, byte[] arguments, TransactionContext context) {
-    Object argumentsObject = serializeArguments(arguments);
+    Object argumentsObject = decodeArguments(arguments);
     try {
-      methodHandle.invoke(targetService, argumentsObject, context);
+      methodHandle.invokeExact(targetService, argumentsObject, context);
     } catch (WrongMethodTypeException | ClassCastException invocationException) {
       // Invocation-specific exceptions are thrown as is — they are not thrown
-      // from the _transaction method_, but from framework code (see mh#invoke spec).
+      // from the _transaction method_, but from framework code (see mh#invokeExact
+      // and mh#asType spec).
       throw invocationException;
     } catch (ExecutionException serviceException) {
       // 'Service-defined' transaction exceptions
@@ -53,7 +78,7 @@ class TransactionMethod {
     }
   }
 
-  private Object serializeArguments(byte[] arguments) {
-    return argumentsSerializer.fromBytes(arguments);
+  private Object decodeArguments(byte[] arguments) {
+    return argumentsDecoder.apply(arguments);
   }
 }
@@ -22,15 +22,22 @@ import com.exonum.binding.common.serialization.Serializer;
 import com.exonum.binding.core.proxy.AbstractNativeProxy;
 import com.exonum.binding.core.proxy.Cleaner;
 import com.exonum.binding.core.proxy.NativeHandle;
+import com.exonum.binding.core.storage.indices.CountedMapIndex;
 import com.exonum.binding.core.storage.indices.IndexAddress;
+import com.exonum.binding.core.storage.indices.IndexedMapIndex;
 import com.exonum.binding.core.storage.indices.KeySetIndexProxy;
 import com.exonum.binding.core.storage.indices.ListIndexProxy;
+import com.exonum.binding.core.storage.indices.LongKeyMapIndexProxy;
+import com.exonum.binding.core.storage.indices.LongListIndexProxy;
+import com.exonum.binding.core.storage.indices.LongMapIndexProxy;
 import com.exonum.binding.core.storage.indices.MapIndexProxy;
 import com.exonum.binding.core.storage.indices.ProofEntryIndexProxy;
 import com.exonum.binding.core.storage.indices.ProofListIndexProxy;
 import com.exonum.binding.core.storage.indices.ProofMapIndexProxy;
+import com.exonum.binding.core.storage.indices.SecondaryKey;
 import com.exonum.binding.core.storage.indices.StorageIndex;
 import com.exonum.binding.core.storage.indices.ValueSetIndexProxy;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
 
@@ -48,18 +55,30 @@ import java.util.function.Supplier;
  */
 public abstract class AbstractAccess extends AbstractNativeProxy implements Access {
 
-  private final OpenIndexRegistry indexRegistry = new OpenIndexRegistry();
+  private final OpenIndexRegistry indexRegistry;
   private final boolean canModify;
 
   /**
-   * Create a new access proxy.
+   * Create a new access proxy, confined to a single thread.
    *
    * @param nativeHandle a native handle: an implementation-specific reference to a native object
    * @param canModify if the access allows modifications
    */
   AbstractAccess(NativeHandle nativeHandle, boolean canModify) {
+    this(nativeHandle, canModify, new OpenIndexRegistry());
+  }
+
+  /**
+   * Create a new access proxy.
+   *
+   * @param nativeHandle a native handle: an implementation-specific reference to a native object
+   * @param canModify if the access allows modifications
+   * @param indexRegistry a registry of the indexes open with this access
+   */
+  AbstractAccess(NativeHandle nativeHandle, boolean canModify, OpenIndexRegistry indexRegistry) {
     super(nativeHandle);
     this.canModify = canModify;
+    this.indexRegistry = indexRegistry;
   }
 
   @SuppressWarnings("unchecked") // The compiler is correct: the cache is not type-safe: ECR-3387
@@ -102,6 +121,70 @@ public abstract class AbstractAccess extends AbstractNativeProxy implements Acce
         () -> MapIndexProxy.newInstance(address, this, keySerializer, valueSerializer));
   }
 
+  @SuppressWarnings("unchecked") // The compiler is correct: the cache is not type-safe: ECR-3387
+  @Override
+  public <K, V> CountedMapIndex<K, V> getCountedMap(IndexAddress address,
+      Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+    return findOrCreate(address, CountedMapIndex.class,
+        () -> CountedMapIndex.newInstance(
+            MapIndexProxy.newInstance(address, this, keySerializer, valueSerializer),
+            this));
+  }
+
+  @SuppressWarnings("unchecked") // The compiler is correct: the cache is not type-safe: ECR-3387
+  @Override
+  public <K, V> CountedMapIndex<K, V> getCountedProofMap(IndexAddress address,
+      Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+    return findOrCreate(address, CountedMapIndex.class,
+        () -> CountedMapIndex.newInstance(
+            ProofMapIndexProxy.newInstance(address, this, keySerializer, valueSerializer),
+            this));
+  }
+
+  @SuppressWarnings("unchecked") // The compiler is correct: the cache is not type-safe: ECR-3387
+  @Override
+  public <K, V> IndexedMapIndex<K, V> getIndexedMap(IndexAddress address,
+      Serializer<K> keySerializer, Serializer<V> valueSerializer,
+      List<? extends SecondaryKey<? super V, ?>> secondaryKeys) {
+    return findOrCreate(address, IndexedMapIndex.class,
+        () -> IndexedMapIndex.newInstance(
+            MapIndexProxy.newInstance(address, this, keySerializer, valueSerializer),
+            keySerializer, secondaryKeys, this));
+  }
+
+  @SuppressWarnings("unchecked") // The compiler is correct: the cache is not type-safe: ECR-3387
+  @Override
+  public <K, V> IndexedMapIndex<K, V> getIndexedProofMap(IndexAddress address,
+      Serializer<K> keySerializer, Serializer<V> valueSerializer,
+      List<? extends SecondaryKey<? super V, ?>> secondaryKeys) {
+    return findOrCreate(address, IndexedMapIndex.class,
+        () -> IndexedMapIndex.newInstance(
+            ProofMapIndexProxy.newInstance(address, this, keySerializer, valueSerializer),
+            keySerializer, secondaryKeys, this));
+  }
+
+  @Override
+  public LongListIndexProxy getLongList(IndexAddress address) {
+    return findOrCreate(address, LongListIndexProxy.class,
+        () -> LongListIndexProxy.newInstance(address, this));
+  }
+
+  @SuppressWarnings("unchecked") // The compiler is correct: the cache is not type-safe: ECR-3387
+  @Override
+  public <K> LongMapIndexProxy<K> getLongMap(IndexAddress address,
+      Serializer<K> keySerializer) {
+    return findOrCreate(address, LongMapIndexProxy.class,
+        () -> LongMapIndexProxy.newInstance(address, this, keySerializer));
+  }
+
+  @SuppressWarnings("unchecked") // The compiler is correct: the cache is not type-safe: ECR-3387
+  @Override
+  public <V> LongKeyMapIndexProxy<V> getLongKeyMap(IndexAddress address,
+      Serializer<V> valueSerializer) {
+    return findOrCreate(address, LongKeyMapIndexProxy.class,
+        () -> LongKeyMapIndexProxy.newInstance(address, this, valueSerializer));
+  }
+
   @SuppressWarnings("unchecked") // The compiler is correct: the cache is not type-safe: ECR-3387
   @Override
   public <E> KeySetIndexProxy<E> getKeySet(IndexAddress address, Serializer<E> serializer) {
@@ -123,25 +206,19 @@ public abstract class AbstractAccess extends AbstractNativeProxy implements Acce
         () -> ProofEntryIndexProxy.newInstance(address, this, serializer));
   }
 
-  private <T extends StorageIndex> T findOrCreate(IndexAddress address, Class<T> indexType,
-      Supplier<T> indexSupplier) {
-    return findOpenIndex(address, indexType)
-        .orElseGet(() -> createIndex(indexSupplier));
-  }
-
   /**
-   * Finds an open index by the given address and checks it has matching type.
+   * Finds an open index by the given address and checks it has matching type; or creates
+   * a new index and registers it, if no index with such address was open in this access.
    *
    * @param address the index address
    * @param indexType the requested index type
-   * @return an index with the given address; or {@code Optional.empty()} if no index
-   *     with such address was open in this access
+   * @param indexSupplier a factory of a new index
    * @throws IllegalArgumentException if the open index has a different type from the requested
    */
-  private <T extends StorageIndex> Optional<T> findOpenIndex(IndexAddress address,
-      Class<T> indexType) {
-    return indexRegistry.findIndex(address)
-        .map(index -> checkedCast(index, indexType));
+  private <T extends StorageIndex> T findOrCreate(IndexAddress address, Class<T> indexType,
+      Supplier<T> indexSupplier) {
+    StorageIndex index = indexRegistry.findOrRegister(address, indexSupplier);
+    return checkedCast(index, indexType);
   }
 
   /**
@@ -160,19 +237,6 @@ public abstract class AbstractAccess extends AbstractNativeProxy implements Acce
     return requestedIndexType.cast(cachedIndex);
   }
 
-  private <T extends StorageIndex> T createIndex(Supplier<T> indexSupplier) {
-    T newIndex = indexSupplier.get();
-    registerIndex(newIndex);
-    return newIndex;
-  }
-
-  /**
-   * Registers a new index created with this access.
-   */
-  private void registerIndex(StorageIndex index) {
-    indexRegistry.registerIndex(index);
-  }
-
   /**
    * Clears the registry of open indexes.
    *
@@ -188,6 +252,52 @@ public abstract class AbstractAccess extends AbstractNativeProxy implements Acce
     return canModify;
   }
 
+  /**
+   * Returns true if the map indexes created with this access keep their entries in a write-back
+   * cache. The cache buffers the changes and writes them to the database when this access
+   * {@linkplain #getCleaner() cleaner} is closed, or before they are read in other ways
+   * than by key (e.g., with iterators or proofs).
+   *
+   * @see Fork#enableWriteBackCache()
+   */
+  public boolean isWriteBackCacheEnabled() {
+    return false;
+  }
+
+  /**
+   * Registers the flush operation of the write-back cache of an index created with this access,
+   * so that the buffered changes can be written explicitly, before the indexes are closed.
+   *
+   * <p><strong>Warning:</strong> do not invoke this method from service code.
+   *
+   * @param flushOperation an operation writing the buffered changes to the database
+   * @throws UnsupportedOperationException if the write-back cache is not enabled
+   * @see Fork#flushWriteBackCaches()
+   */
+  public void registerWriteBackCache(Runnable flushOperation) {
+    throw new UnsupportedOperationException("The write-back cache is not enabled");
+  }
+
+  /**
+   * Returns the cache of the de-serialized values read from the indexes created with this access,
+   * if it is enabled.
+   *
+   * @see Snapshot#enableValueCache(int)
+   */
+  public Optional<DecodedValueCache> getValueCache() {
+    return Optional.empty();
+  }
+
+  /**
+   * Returns the filter of the keys of the indexes created with this access,
+   * if it is enabled.
+   *
+   * @see Snapshot#enableKeyFilters(KeyFilterCache)
+   */
+  public Optional<KeyFilter> getKeyFilter() {
+    return Optional.empty();
+  }
+
   @Override
   public long getAccessNativeHandle() {
     return super.getNativeHandle();
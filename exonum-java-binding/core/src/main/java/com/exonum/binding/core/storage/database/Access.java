@@ -19,14 +19,21 @@ package com.exonum.binding.core.storage.database;
 import com.exonum.binding.common.serialization.Serializer;
 import com.exonum.binding.common.serialization.StandardSerializers;
 import com.exonum.binding.core.proxy.Cleaner;
+import com.exonum.binding.core.storage.indices.CountedMapIndex;
 import com.exonum.binding.core.storage.indices.IndexAddress;
+import com.exonum.binding.core.storage.indices.IndexedMapIndex;
 import com.exonum.binding.core.storage.indices.KeySetIndexProxy;
 import com.exonum.binding.core.storage.indices.ListIndexProxy;
+import com.exonum.binding.core.storage.indices.LongKeyMapIndexProxy;
+import com.exonum.binding.core.storage.indices.LongListIndexProxy;
+import com.exonum.binding.core.storage.indices.LongMapIndexProxy;
 import com.exonum.binding.core.storage.indices.MapIndexProxy;
 import com.exonum.binding.core.storage.indices.ProofEntryIndexProxy;
 import com.exonum.binding.core.storage.indices.ProofListIndexProxy;
 import com.exonum.binding.core.storage.indices.ProofMapIndexProxy;
+import com.exonum.binding.core.storage.indices.SecondaryKey;
 import com.exonum.binding.core.storage.indices.ValueSetIndexProxy;
+import java.util.List;
 
 /**
  * Provides <em>access</em> to Exonum MerkleDB indexes. An access object corresponds to
@@ -132,6 +139,113 @@ public interface Access {
   <K, V> MapIndexProxy<K, V> getMap(IndexAddress address, Serializer<K> keySerializer,
       Serializer<V> valueSerializer);
 
+  /**
+   * Creates a new MapIndex that keeps track of the number of its entries.
+   * Once a map is accessed as a counted map, it must not be accessed as a regular map.
+   *
+   * @param address an index address in the MerkleDB
+   * @param keySerializer a serializer of keys
+   * @param valueSerializer a serializer of values
+   * @param <K> the type of keys in the map
+   * @param <V> the type of values in the map
+   * @throws IllegalStateException if this access is not valid
+   * @see #getMap(IndexAddress, Serializer, Serializer)
+   * @see StandardSerializers
+   */
+  <K, V> CountedMapIndex<K, V> getCountedMap(IndexAddress address, Serializer<K> keySerializer,
+      Serializer<V> valueSerializer);
+
+  /**
+   * Creates a new ProofMapIndex that keeps track of the number of its entries.
+   * Once a map is accessed as a counted map, it must not be accessed as a regular map.
+   *
+   * @param address an index address in the MerkleDB
+   * @param keySerializer a serializer of keys
+   * @param valueSerializer a serializer of values
+   * @param <K> the type of keys in the map
+   * @param <V> the type of values in the map
+   * @throws IllegalStateException if this access is not valid
+   * @see #getProofMap(IndexAddress, Serializer, Serializer)
+   * @see StandardSerializers
+   */
+  <K, V> CountedMapIndex<K, V> getCountedProofMap(IndexAddress address,
+      Serializer<K> keySerializer, Serializer<V> valueSerializer);
+
+  /**
+   * Creates a new MapIndex that maintains the secondary indexes of its values.
+   * Once a map is accessed as an indexed map, it must not be accessed as a regular map.
+   *
+   * @param address an index address in the MerkleDB
+   * @param keySerializer a serializer of keys
+   * @param valueSerializer a serializer of values
+   * @param secondaryKeys the secondary keys of the values, by which the map is indexed
+   * @param <K> the type of keys in the map
+   * @param <V> the type of values in the map
+   * @throws IllegalStateException if this access is not valid
+   * @throws IllegalArgumentException if the secondary keys have duplicate names
+   * @see #getMap(IndexAddress, Serializer, Serializer)
+   * @see StandardSerializers
+   */
+  <K, V> IndexedMapIndex<K, V> getIndexedMap(IndexAddress address, Serializer<K> keySerializer,
+      Serializer<V> valueSerializer, List<? extends SecondaryKey<? super V, ?>> secondaryKeys);
+
+  /**
+   * Creates a new ProofMapIndex that maintains the secondary indexes of its values.
+   * Once a map is accessed as an indexed map, it must not be accessed as a regular map.
+   *
+   * @param address an index address in the MerkleDB
+   * @param keySerializer a serializer of keys
+   * @param valueSerializer a serializer of values
+   * @param secondaryKeys the secondary keys of the values, by which the map is indexed
+   * @param <K> the type of keys in the map
+   * @param <V> the type of values in the map
+   * @throws IllegalStateException if this access is not valid
+   * @throws IllegalArgumentException if the secondary keys have duplicate names
+   * @see #getProofMap(IndexAddress, Serializer, Serializer)
+   * @see StandardSerializers
+   */
+  <K, V> IndexedMapIndex<K, V> getIndexedProofMap(IndexAddress address,
+      Serializer<K> keySerializer, Serializer<V> valueSerializer,
+      List<? extends SecondaryKey<? super V, ?>> secondaryKeys);
+
+  /**
+   * Creates a new list of {@code long} elements.
+   *
+   * @param address an index address in the MerkleDB
+   * @throws IllegalStateException if this access is not valid
+   * @see #getList(IndexAddress, Serializer)
+   */
+  LongListIndexProxy getLongList(IndexAddress address);
+
+  /**
+   * Creates a new map of keys to {@code long} values.
+   *
+   * @param address an index address in the MerkleDB
+   * @param keySerializer a serializer of keys
+   * @param <K> the type of keys in the map
+   * @throws IllegalStateException if this access is not valid
+   * @see #getMap(IndexAddress, Serializer, Serializer)
+   * @see StandardSerializers
+   */
+  <K> LongMapIndexProxy<K> getLongMap(IndexAddress address, Serializer<K> keySerializer);
+
+  /**
+   * Creates a new map of {@code long} keys to values.
+   *
+   * <p>The keys are stored in a format incompatible with
+   * {@link StandardSerializers#fixed64()}: the map at the given address must not be accessed
+   * as a {@linkplain #getMap(IndexAddress, Serializer, Serializer) map} of {@code Long} keys.
+   * See {@link LongKeyMapIndexProxy} for the format.
+   *
+   * @param address an index address in the MerkleDB
+   * @param valueSerializer a serializer of values
+   * @param <V> the type of values in the map
+   * @throws IllegalStateException if this access is not valid
+   * @see #getMap(IndexAddress, Serializer, Serializer)
+   * @see StandardSerializers
+   */
+  <V> LongKeyMapIndexProxy<V> getLongKeyMap(IndexAddress address, Serializer<V> valueSerializer);
+
   /**
    * Creates a new KeySet.
    *
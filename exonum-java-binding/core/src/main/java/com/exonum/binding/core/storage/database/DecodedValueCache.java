@@ -0,0 +1,172 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.database;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.exonum.binding.core.storage.indices.IndexAddress;
+import com.google.common.base.MoreObjects;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * A bounded cache of the de-serialized values read from the indexes of an immutable
+ * {@link Snapshot}. The values are identified by the index address and the serialized key
+ * of the value in the index. When the cache is full, the least recently used value is evicted.
+ *
+ * <p>As the values are shared between all reads of the same key, the indexes using
+ * this cache return the same instances of the values. Mutable values must not be modified.
+ *
+ * <p>This class is thread-safe. The values are loaded outside the lock, hence
+ * a value might be loaded several times if it is read by several threads at once.
+ *
+ * @see Snapshot#enableValueCache(int)
+ */
+public final class DecodedValueCache {
+
+  /** A marker of a value which is absent in the index. */
+  private static final Object ABSENT = new Object();
+
+  private final int maxSize;
+  private final Map<CacheKey, Object> values;
+  private long hitCount;
+  private long missCount;
+
+  DecodedValueCache(int maxSize) {
+    checkArgument(maxSize > 0, "maxSize must be positive, but was %s", maxSize);
+    this.maxSize = maxSize;
+    // Use the access order to evict the least recently used entries
+    this.values = new LinkedHashMap<CacheKey, Object>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<CacheKey, Object> eldest) {
+        return size() > DecodedValueCache.this.maxSize;
+      }
+    };
+  }
+
+  /**
+   * Returns the value with the given key in the index with the given address. If the value
+   * is not in the cache, loads it with the given function and puts into the cache.
+   *
+   * @param address the address of the index
+   * @param key the serialized key of the value in the index
+   * @param loader a function loading the value by its serialized key; returns {@code null}
+   *     if the index has no value with such key
+   * @param <V> the type of the value
+   * @return the value; or {@code null} if the index has no value with such key
+   */
+  @Nullable
+  @SuppressWarnings("unchecked") // The values of an index always have the same type
+  public <V> V get(IndexAddress address, byte[] key,
+      Function<? super byte[], ? extends V> loader) {
+    CacheKey cacheKey = new CacheKey(address, key);
+    synchronized (this) {
+      Object value = values.get(cacheKey);
+      if (value != null) {
+        hitCount++;
+        return (value == ABSENT) ? null : (V) value;
+      }
+      missCount++;
+    }
+    V loaded = loader.apply(key);
+    synchronized (this) {
+      values.put(cacheKey, (loaded == null) ? ABSENT : loaded);
+    }
+    return loaded;
+  }
+
+  /**
+   * Returns the number of reads of the values that were in the cache.
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns the number of reads of the values that were not in the cache, and have been loaded
+   * from the database.
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Returns the number of values in the cache.
+   */
+  public synchronized int size() {
+    return values.size();
+  }
+
+  /**
+   * Returns the maximum number of values in the cache.
+   */
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Removes all values from the cache.
+   */
+  synchronized void clear() {
+    values.clear();
+  }
+
+  @Override
+  public synchronized String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("size", size())
+        .add("maxSize", maxSize)
+        .add("hitCount", hitCount)
+        .add("missCount", missCount)
+        .toString();
+  }
+
+  private static final class CacheKey {
+    final IndexAddress address;
+    final byte[] key;
+    final int hash;
+
+    CacheKey(IndexAddress address, byte[] key) {
+      this.address = checkNotNull(address);
+      this.key = checkNotNull(key);
+      this.hash = 31 * address.hashCode() + Arrays.hashCode(key);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey that = (CacheKey) o;
+      return hash == that.hash
+          && Arrays.equals(key, that.key)
+          && address.equals(that.address);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
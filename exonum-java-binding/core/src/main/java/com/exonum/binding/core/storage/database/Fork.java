@@ -23,6 +23,10 @@ import com.exonum.binding.core.proxy.Cleaner;
 import com.exonum.binding.core.proxy.CloseFailuresException;
 import com.exonum.binding.core.proxy.NativeHandle;
 import com.exonum.binding.core.proxy.ProxyDestructor;
+import com.exonum.binding.core.storage.indices.MapIndexProxy;
+import com.exonum.binding.core.storage.indices.ProofMapIndexProxy;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A fork is a database access object, allowing both read and write operations.
@@ -35,6 +39,9 @@ import com.exonum.binding.core.proxy.ProxyDestructor;
  * the database state.
  *
  * <p>The Fork does not modify the index name upon <em>address resolution</em>.
+ *
+ * <p>This class is not thread-safe: the fork and the indexes created with it must be used
+ * by a single thread.
  */
 public final class Fork extends AbstractAccess {
 
@@ -56,6 +63,15 @@ public final class Fork extends AbstractAccess {
    * through this cleaner, any dependent objects.
    */
   private Cleaner indexCleaner;
+  /**
+   * Whether the map indexes created with this fork use a write-back cache.
+   */
+  private boolean writeBackCacheEnabled;
+  /**
+   * The flush operations of the write-back caches of the maps created with this fork
+   * that are not closed yet.
+   */
+  private final List<Runnable> writeBackCaches = new ArrayList<>();
 
   /**
    * Creates a new owning Fork proxy.
@@ -108,6 +124,57 @@ public final class Fork extends AbstractAccess {
     return indexCleaner;
   }
 
+  /**
+   * Enables the write-back cache of the map indexes ({@link MapIndexProxy} and
+   * {@link ProofMapIndexProxy}) created with this fork after this method is invoked.
+   *
+   * <p>Each map keeps the values read by key and buffers the changes, so that repeated
+   * operations with the same key do not access the database. The changes are written
+   * to the database in a single batch when the map is accessed in other ways
+   * than by key (e.g., with iterators or proofs), or when the indexes of this fork are closed
+   * — which happens when the fork {@linkplain #getCleaner() cleaner} is closed, before a
+   * {@linkplain #createCheckpoint() checkpoint} is created, the fork is
+   * {@linkplain #rollback() rolled back} or converted into a patch.
+   *
+   * <p>The values returned by the maps might be the same instances that were previously
+   * put into or read from them, therefore, mutable values must not be modified.
+   *
+   * <p>The cache is intended for operations that access the same keys several times,
+   * e.g., transaction execution. The framework {@linkplain #flushWriteBackCaches() flushes}
+   * the caches explicitly once the operation completes, so that a failure to write
+   * the changes fails the operation.
+   */
+  public void enableWriteBackCache() {
+    writeBackCacheEnabled = true;
+  }
+
+  @Override
+  public boolean isWriteBackCacheEnabled() {
+    return writeBackCacheEnabled;
+  }
+
+  @Override
+  public void registerWriteBackCache(Runnable flushOperation) {
+    checkState(writeBackCacheEnabled, "The write-back cache is not enabled");
+    writeBackCaches.add(checkNotNull(flushOperation));
+  }
+
+  /**
+   * Writes the changes buffered in the write-back caches of the maps created with this fork
+   * to the database. Unlike the flush when the indexes are closed, which remains as a safety
+   * net, the failures propagate to the caller as they are.
+   *
+   * <p>This operation is not intended to be used by services.
+   *
+   * @throws IllegalStateException if any map is not valid
+   * @see #enableWriteBackCache()
+   */
+  public void flushWriteBackCaches() {
+    for (Runnable cache : writeBackCaches) {
+      cache.run();
+    }
+  }
+
   /**
    * Converts this fork into a patch that can be merged into the database.
    * This method will close any resources registered with {@linkplain #getCleaner() its cleaner}
@@ -126,6 +193,7 @@ public final class Fork extends AbstractAccess {
         "This fork cannot be converted into patch");
 
     // Close all resources depending on this fork
+    writeBackCaches.clear();
     try {
       indexCleaner.close();
     } catch (CloseFailuresException e) {
@@ -196,6 +264,7 @@ public final class Fork extends AbstractAccess {
   private void closeDependentObjects() {
     // Clear the registry of opened indexes as they will be closed
     clearOpenIndexes();
+    writeBackCaches.clear();
 
     // Close the active collections (and any other dependent objects),
     // as rollback requires their invalidation
@@ -216,8 +285,8 @@ public final class Fork extends AbstractAccess {
   }
 
   private void replaceIndexCleaner() {
-    // Create a new cleaner for collections
-    indexCleaner = new Cleaner();
+    // Create a new cleaner for collections, destroying them in batches if the fork cleaner does
+    indexCleaner = forkCleaner.isArena() ? Cleaner.newArena("") : new Cleaner();
     // Register in the parent cleaner
     forkCleaner.add(indexCleaner::close);
   }
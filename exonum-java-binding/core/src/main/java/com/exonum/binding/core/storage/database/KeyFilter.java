@@ -0,0 +1,46 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.database;
+
+import com.exonum.binding.core.storage.indices.IndexAddress;
+import java.util.Iterator;
+import java.util.function.Supplier;
+
+/**
+ * A filter of the keys of the indexes created with a database access, which answers
+ * without a database lookup that an index does not contain a key.
+ *
+ * <p><strong>Warning:</strong> this interface is used by the index proxies; do not use it
+ * from service code.
+ *
+ * @see Snapshot#enableKeyFilters(KeyFilterCache)
+ */
+@FunctionalInterface
+public interface KeyFilter {
+
+  /**
+   * Returns false if the index with the given address definitely does not contain the key;
+   * true if it might contain the key, and the index must be queried.
+   *
+   * @param address the address of the index
+   * @param key the serialized key
+   * @param indexKeys a supplier of the iterator over all serialized keys of the index,
+   *     which is used to build the filter
+   */
+  boolean mightContain(IndexAddress address, byte[] key,
+      Supplier<? extends Iterator<byte[]>> indexKeys);
+}
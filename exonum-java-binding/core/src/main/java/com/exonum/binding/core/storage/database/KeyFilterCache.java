@@ -0,0 +1,185 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.database;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.exonum.binding.core.storage.indices.IndexAddress;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * A cache of approximate-membership filters (Bloom filters) of the keys of the indexes
+ * read with {@linkplain Snapshot snapshots}. When a key is absent in the filter of an index,
+ * the index definitely does not contain it; hence the negative answers of the
+ * {@code containsKey} operations are obtained without a database lookup. The false positive
+ * answers of the filter are resolved with a database lookup.
+ *
+ * <p>A filter is built lazily, on the first {@code containsKey} operation on the index,
+ * with two full traversals of its keys: the first one counts the keys to size the filter,
+ * and the second one puts them into the filter, so that the keys are not kept in memory.
+ * Each traversal reads all the keys of the index from the database, hence the first
+ * operation takes time proportional to the index size, and the filters pay off only
+ * for the indexes queried many times at the same height.
+ *
+ * <p>As the filters are valid for a certain database state, the cache keeps the filters built
+ * for the snapshots at a certain blockchain height. The cache may be shared by all
+ * the snapshots at the same height, so that the filter of each index is built once per block.
+ * Once a snapshot at a greater height uses the cache, the filters for the previous height
+ * are discarded; and the snapshots at the previous heights no longer use them, querying
+ * the database for each key instead.
+ *
+ * <p>The filters are only used for the indexes with the addresses specified on the cache
+ * creation: {@link com.exonum.binding.core.storage.indices.MapIndexProxy},
+ * {@link com.exonum.binding.core.storage.indices.ProofMapIndexProxy} and
+ * {@link com.exonum.binding.core.storage.indices.KeySetIndexProxy}. The filters are suitable
+ * for the indexes which are queried often, mostly for absent keys.
+ *
+ * <p>This class is thread-safe.
+ *
+ * @see Snapshot#enableKeyFilters(KeyFilterCache)
+ */
+public final class KeyFilterCache {
+
+  private final ImmutableSet<IndexAddress> filteredIndexes;
+  private final double falsePositiveRate;
+  @Nullable
+  private volatile HeightFilters filters;
+
+  private KeyFilterCache(ImmutableSet<IndexAddress> filteredIndexes, double falsePositiveRate) {
+    checkArgument(0.0 < falsePositiveRate && falsePositiveRate < 1.0,
+        "falsePositiveRate (%s) must be in range (0; 1)", falsePositiveRate);
+    this.filteredIndexes = filteredIndexes;
+    this.falsePositiveRate = falsePositiveRate;
+  }
+
+  /**
+   * Creates a new cache of the filters of the given indexes.
+   *
+   * @param filteredIndexes the addresses of the indexes to build the filters for
+   * @param falsePositiveRate the desired probability that a filter reports an absent key
+   *     as possibly present; must be in range (0; 1). The less the rate, the more memory
+   *     the filters use
+   * @throws IllegalArgumentException if the false positive rate is not in range (0; 1)
+   */
+  public static KeyFilterCache newInstance(Collection<IndexAddress> filteredIndexes,
+      double falsePositiveRate) {
+    return new KeyFilterCache(ImmutableSet.copyOf(filteredIndexes), falsePositiveRate);
+  }
+
+  /**
+   * Returns false if the index with the given address at the given height definitely does not
+   * contain the key; true if it might contain it. Builds the filter of the index
+   * if it is not yet built.
+   *
+   * @param height the blockchain height of the snapshot
+   * @param address the address of the index
+   * @param key the serialized key
+   * @param indexKeys a supplier of the iterator over all serialized keys of the index
+   */
+  boolean mightContain(long height, IndexAddress address, byte[] key,
+      Supplier<? extends Iterator<byte[]>> indexKeys) {
+    if (!filteredIndexes.contains(address)) {
+      return true;
+    }
+    HeightFilters heightFilters = getFilters(height);
+    if (heightFilters == null) {
+      // The snapshot is outdated
+      return true;
+    }
+    BloomFilter<byte[]> filter = heightFilters.filters.get(address);
+    if (filter == null) {
+      // Build the filter outside of the map, so that the threads accessing other filters
+      // do not wait for the index traversal. If several threads build the filter
+      // of the same index at once, the first one is kept.
+      BloomFilter<byte[]> newFilter = buildFilter(indexKeys);
+      filter = heightFilters.filters.putIfAbsent(address, newFilter);
+      if (filter == null) {
+        filter = newFilter;
+      }
+    }
+    return filter.mightContain(key);
+  }
+
+  @Nullable
+  private HeightFilters getFilters(long height) {
+    HeightFilters heightFilters = filters;
+    if (heightFilters == null || heightFilters.height < height) {
+      synchronized (this) {
+        heightFilters = filters;
+        if (heightFilters == null || heightFilters.height < height) {
+          heightFilters = new HeightFilters(height);
+          filters = heightFilters;
+        }
+      }
+    }
+    return (heightFilters.height == height) ? heightFilters : null;
+  }
+
+  private BloomFilter<byte[]> buildFilter(Supplier<? extends Iterator<byte[]>> indexKeys) {
+    // Count the keys first, as the filter size must be known in advance, and then put them
+    // in the filter in the second traversal, so that the keys are not kept in memory at once
+    long numKeys = 0;
+    Iterator<byte[]> keys = indexKeys.get();
+    while (keys.hasNext()) {
+      keys.next();
+      numKeys++;
+    }
+    BloomFilter<byte[]> filter = BloomFilter.create(Funnels.byteArrayFunnel(), numKeys,
+        falsePositiveRate);
+    indexKeys.get().forEachRemaining(filter::put);
+    return filter;
+  }
+
+  /**
+   * Returns the height of the cached filters; or -1 if the cache was never used.
+   */
+  public long getHeight() {
+    HeightFilters heightFilters = filters;
+    return (heightFilters == null) ? -1 : heightFilters.height;
+  }
+
+  @Override
+  public String toString() {
+    HeightFilters heightFilters = filters;
+    return MoreObjects.toStringHelper(this)
+        .add("filteredIndexes", filteredIndexes)
+        .add("falsePositiveRate", falsePositiveRate)
+        .add("height", getHeight())
+        .add("numFilters", (heightFilters == null) ? 0 : heightFilters.filters.size())
+        .toString();
+  }
+
+  private static final class HeightFilters {
+    final long height;
+    final Map<IndexAddress, BloomFilter<byte[]>> filters;
+
+    HeightFilters(long height) {
+      this.height = height;
+      this.filters = new ConcurrentHashMap<>();
+    }
+  }
+}
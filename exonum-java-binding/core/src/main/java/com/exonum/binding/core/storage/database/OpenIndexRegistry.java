@@ -23,16 +23,42 @@ import com.exonum.binding.core.storage.indices.StorageIndex;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * A registry of open {@linkplain com.exonum.binding.core.storage.indices indexes}. Allows
  * to de-duplicate the indexes created with the same (Access, name, prefix) tuple, which is
  * required to overcome the MerkleDB limitation which prevents creating several indexes
  * with the same address (name + prefix) using the same Fork.
+ *
+ * <p>The registry is scoped to a single access. The indexes must not be reused by other
+ * accesses, even if they are based on the same native fork (e.g., the forks passed to
+ * the subsequent transactions of a block): a native index keeps the changes made with it
+ * until it is destroyed, and the fork must get them back before it is flushed
+ * or rolled back by the core after each transaction.
  */
 class OpenIndexRegistry {
 
-  private final Map<IndexAddress, StorageIndex> indexes = new HashMap<>();
+  private final Map<IndexAddress, StorageIndex> indexes;
+
+  /**
+   * Creates a registry confined to a single thread.
+   */
+  OpenIndexRegistry() {
+    this(new HashMap<>());
+  }
+
+  private OpenIndexRegistry(Map<IndexAddress, StorageIndex> indexes) {
+    this.indexes = indexes;
+  }
+
+  /**
+   * Creates a registry that can be used by several threads concurrently.
+   */
+  static OpenIndexRegistry newConcurrent() {
+    return new OpenIndexRegistry(new ConcurrentHashMap<>());
+  }
 
   void registerIndex(StorageIndex index) {
     IndexAddress address = index.getAddress();
@@ -41,6 +67,25 @@ class OpenIndexRegistry {
         + "associated with index (%s): ", index, address, present);
   }
 
+  /**
+   * Returns the index registered with the given address; or creates a new index
+   * with the given factory and registers it, if there is none.
+   *
+   * <p>The factory may register other indexes (e.g., auxiliary indexes of the created one).
+   * In a concurrent registry, several threads may create an index with the same address
+   * at once; all of them get the index registered first, and the others are discarded.
+   */
+  StorageIndex findOrRegister(IndexAddress address,
+      Supplier<? extends StorageIndex> indexFactory) {
+    StorageIndex index = indexes.get(address);
+    if (index != null) {
+      return index;
+    }
+    StorageIndex newIndex = indexFactory.get();
+    StorageIndex present = indexes.putIfAbsent(address, newIndex);
+    return (present == null) ? newIndex : present;
+  }
+
   Optional<StorageIndex> findIndex(IndexAddress address) {
     return Optional.ofNullable(indexes.get(address));
   }
@@ -17,10 +17,18 @@
 package com.exonum.binding.core.storage.database;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 
+import com.exonum.binding.core.blockchain.Blockchain;
+import com.exonum.binding.core.proxy.CleanAction;
 import com.exonum.binding.core.proxy.Cleaner;
 import com.exonum.binding.core.proxy.NativeHandle;
 import com.exonum.binding.core.proxy.ProxyDestructor;
+import com.exonum.binding.core.storage.indices.MapIndexProxy;
+import com.exonum.binding.core.storage.indices.ProofEntryIndexProxy;
+import com.exonum.binding.core.storage.indices.ProofMapIndexProxy;
+import java.util.Optional;
+import javax.annotation.Nullable;
 
 /**
  * A snapshot is a read-only, immutable database access.
@@ -35,11 +43,29 @@ import com.exonum.binding.core.proxy.ProxyDestructor;
  *
  * <p>The Snapshot does not modify the index name upon <em>address resolution</em>.
  *
+ * <p>As the snapshot is read-only, it is safe to read it from several threads concurrently:
+ * the snapshot, the indexes created with it and their (parallel) streams may be used
+ * by several threads, provided that the snapshot {@linkplain #getCleaner() cleaner}
+ * is not closed until all the threads finish reading. The native code performs the read
+ * operations of the indexes through shared references to the native objects, and the Java
+ * proxies publish their native objects safely. The iterators of the indexes are not
+ * thread-safe and must not be shared, as they are advanced with each read.
+ *
  * @see Fork
  */
 public final class Snapshot extends AbstractAccess {
 
-  private final Cleaner cleaner;
+  /**
+   * A cleaner for objects depending on the snapshot, which may be used by several threads.
+   *
+   * <p>It is a "child" of the cleaner destroying the snapshot itself, so that the cleaners
+   * of the snapshots used by a single thread are not synchronized.
+   */
+  private final Cleaner indexCleaner;
+  @Nullable
+  private volatile DecodedValueCache valueCache;
+  @Nullable
+  private volatile KeyFilter keyFilter;
 
   /**
    * Creates a new owning Snapshot proxy.
@@ -75,12 +101,77 @@ public final class Snapshot extends AbstractAccess {
   }
 
   private Snapshot(NativeHandle nativeHandle, Cleaner cleaner) {
-    super(nativeHandle, false);
-    this.cleaner = cleaner;
+    super(nativeHandle, false, OpenIndexRegistry.newConcurrent());
+    indexCleaner = Cleaner.newConcurrent("");
+    // Register in the parent cleaner
+    cleaner.add(indexCleaner::close);
   }
 
   @Override
   public Cleaner getCleaner() {
-    return cleaner;
+    return indexCleaner;
+  }
+
+  /**
+   * Enables a cache of the de-serialized values, shared by the indexes created with this snapshot
+   * after this method is invoked. As the snapshot is immutable, the values read by key
+   * from {@link MapIndexProxy}, {@link ProofMapIndexProxy} and {@link ProofEntryIndexProxy}
+   * are de-serialized once and then are returned from the cache.
+   *
+   * <p>The values returned by the indexes are the same instances for all reads of the same key,
+   * including the reads from other indexes and threads using this snapshot. Therefore,
+   * mutable values (e.g., byte arrays) must not be modified: the modifications would be
+   * visible to all other readers of the value.
+   *
+   * <p>The cache is cleared when the snapshot {@linkplain #getCleaner() cleaner} is closed.
+   *
+   * @param maxSize the maximum number of values in the cache
+   * @throws IllegalArgumentException if maxSize is not positive
+   * @throws IllegalStateException if the cache is already enabled
+   * @see DecodedValueCache
+   */
+  public synchronized void enableValueCache(int maxSize) {
+    checkState(valueCache == null, "The value cache is already enabled: %s", valueCache);
+    DecodedValueCache cache = new DecodedValueCache(maxSize);
+    indexCleaner.add(CleanAction.from(cache::clear, DecodedValueCache.class));
+    valueCache = cache;
+  }
+
+  @Override
+  public Optional<DecodedValueCache> getValueCache() {
+    return Optional.ofNullable(valueCache);
+  }
+
+  /**
+   * Enables the filters of the index keys, which allow to answer the {@code containsKey}
+   * queries for absent keys without a database lookup, in the indexes created with this
+   * snapshot after this method is invoked. The filters are kept in the given cache,
+   * which may be shared with other snapshots at the same blockchain height.
+   *
+   * <p>The filters are built for the state at the blockchain height of this snapshot,
+   * which is read from the database. As the database changes only when a block is committed,
+   * all snapshots at the same height represent the same state. The cache keeps the filters
+   * of the latest height it was used with: if it is used with a snapshot at a greater
+   * height, the snapshots at the previous heights query the database without the filters.
+   *
+   * <p>The filter of an index is built on the first {@code containsKey} query,
+   * with two full traversals of the index keys, see {@link KeyFilterCache}.
+   *
+   * @param filters a cache of key filters
+   * @throws IllegalStateException if the filters are already enabled; or if there are
+   *     no blocks in the database, hence the height of this snapshot is unknown
+   * @see KeyFilterCache
+   */
+  public synchronized void enableKeyFilters(KeyFilterCache filters) {
+    checkNotNull(filters);
+    checkState(keyFilter == null, "The key filters are already enabled");
+    long height = Blockchain.newInstance(this).getHeight();
+    keyFilter = (address, key, indexKeys) -> filters.mightContain(height, address, key,
+        indexKeys);
+  }
+
+  @Override
+  public Optional<KeyFilter> getKeyFilter() {
+    return Optional.ofNullable(keyFilter);
   }
 }
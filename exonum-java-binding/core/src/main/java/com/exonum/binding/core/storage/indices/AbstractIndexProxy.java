@@ -17,19 +17,26 @@
 package com.exonum.binding.core.storage.indices;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 
-import com.exonum.binding.core.proxy.AbstractNativeProxy;
+import com.exonum.binding.core.proxy.Cleaner;
 import com.exonum.binding.core.proxy.NativeHandle;
 import com.exonum.binding.core.storage.database.AbstractAccess;
 import com.exonum.binding.core.storage.database.Fork;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
 
 /**
  * An abstract super class for proxies of all indices.
  *
  * <p>Each index is created with a database access, either an immutable Snapshot or
  * a read-write Fork. An index has a modification counter to detect when it is modified.
+ *
+ * <p>The native index is created lazily, on the first operation with the index, so that
+ * the indexes that are opened but not used do not require any native resources.
  */
-abstract class AbstractIndexProxy extends AbstractNativeProxy implements StorageIndex {
+abstract class AbstractIndexProxy implements StorageIndex {
 
   final AbstractAccess dbAccess;
 
@@ -40,21 +47,93 @@ abstract class AbstractIndexProxy extends AbstractNativeProxy implements Storage
 
   private final IndexAddress address;
 
+  /**
+   * The cleaner of the database access at the time this index was created. Once it is closed,
+   * this index can no longer be used.
+   */
+  private final Cleaner accessCleaner;
+
+  /**
+   * A factory of the native index; or {@code null} once the native index is created.
+   */
+  @Nullable
+  private Supplier<NativeHandle> nativeIndexFactory;
+
+  /**
+   * A handle to the native index; or {@code null} until the native index is created.
+   * Volatile, because the indexes of a snapshot may be used by several threads.
+   */
+  @Nullable
+  private volatile NativeHandle nativeHandle;
+
   /**
    * Creates a new index.
    *
-   * <p>Subclasses shall create a native object and pass a native handle to this constructor.
+   * <p>Subclasses shall pass a factory that creates a native object and registers
+   * its destructor in the access cleaner. The factory is invoked on the first access
+   * to the {@linkplain #getNativeHandle() native handle}.
    *
-   * @param nativeHandle a native handle of the created index
+   * @param nativeIndexFactory a factory of the native index
    * @param address the address of this index
    * @param access a database access from which the index has been created
    * @throws NullPointerException if any parameter is null
+   * @throws IllegalStateException if the access is not valid
    */
-  AbstractIndexProxy(NativeHandle nativeHandle, IndexAddress address, AbstractAccess access) {
-    super(nativeHandle);
+  AbstractIndexProxy(Supplier<NativeHandle> nativeIndexFactory, IndexAddress address,
+      AbstractAccess access) {
+    this.nativeIndexFactory = checkNotNull(nativeIndexFactory);
     this.address = checkNotNull(address);
     this.dbAccess = access;
+    this.accessCleaner = access.getCleaner();
     this.modCounter = ModificationCounter.forAccess(access);
+    // Check the access is valid
+    access.getAccessNativeHandle();
+  }
+
+  /**
+   * Returns a handle to the native index if it may be safely used to access the native object.
+   * Creates the native index on the first invocation.
+   *
+   * <p>The returned value shall only be passed as an argument to native methods.
+   *
+   * <p><strong>Warning:</strong> do not cache the return value, as you won't be able
+   * to catch use-after-free.
+   *
+   * @throws IllegalStateException if the native handle is invalid (closed or nullptr);
+   *     or if the native index is not yet created, and the access is no longer valid
+   */
+  final long getNativeHandle() {
+    NativeHandle handle = nativeHandle;
+    if (handle == null) {
+      handle = createNativeIndex();
+    }
+    return handle.get();
+  }
+
+  /**
+   * Creates the native index, if it is not yet created.
+   *
+   * @return a handle to the native index
+   * @throws IllegalStateException if the access is no longer valid
+   */
+  @CanIgnoreReturnValue
+  final synchronized NativeHandle createNativeIndex() {
+    if (nativeHandle == null) {
+      // The index must not be created if the indexes of its access have been destroyed
+      // (e.g., after a fork rollback), as they are no longer accessible
+      checkState(!accessCleaner.isClosed(), "The index (%s) can no longer be used: "
+          + "the access it was created with (%s) has been closed or rolled back", this, dbAccess);
+      nativeHandle = nativeIndexFactory.get();
+      nativeIndexFactory = null;
+    }
+    return nativeHandle;
+  }
+
+  /**
+   * Returns true if the native index has been created.
+   */
+  final boolean isNativeIndexCreated() {
+    return nativeHandle != null;
   }
 
   @Override
@@ -18,14 +18,17 @@ package com.exonum.binding.core.storage.indices;
 
 import static com.exonum.binding.core.storage.indices.StoragePreconditions.checkElementIndex;
 import static com.exonum.binding.core.storage.indices.StoragePreconditions.checkNoNulls;
+import static com.exonum.binding.core.storage.indices.StoragePreconditions.checkPositionIndexes;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import com.exonum.binding.common.serialization.CheckingSerializerDecorator;
 import com.exonum.binding.core.proxy.NativeHandle;
 import com.exonum.binding.core.storage.database.AbstractAccess;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -38,9 +41,9 @@ abstract class AbstractListIndexProxy<T> extends AbstractIndexProxy implements L
 
   final CheckingSerializerDecorator<T> serializer;
 
-  AbstractListIndexProxy(NativeHandle nativeHandle, IndexAddress address, AbstractAccess access,
-                         CheckingSerializerDecorator<T> userSerializer) {
-    super(nativeHandle, address, access);
+  AbstractListIndexProxy(Supplier<NativeHandle> nativeIndexFactory, IndexAddress address,
+      AbstractAccess access, CheckingSerializerDecorator<T> userSerializer) {
+    super(nativeIndexFactory, address, access);
     this.serializer = userSerializer;
   }
 
@@ -59,12 +62,11 @@ abstract class AbstractListIndexProxy<T> extends AbstractIndexProxy implements L
   }
 
   private void addAllUnchecked(Collection<? extends T> elements) {
-    // Cache the nativeHandle to avoid repeated 'isValid' checks.
-    // It's OK to do that during this call, as this class is not thread-safe.
-    long nativeHandle = getNativeHandle();
-    elements.stream()
+    // Serialize all the elements first so that they are added in a single native call
+    byte[][] dbElements = elements.stream()
         .map(serializer::toBytes)
-        .forEach((e) -> nativeAdd(nativeHandle, e));
+        .toArray(byte[][]::new);
+    nativeAddAll(getNativeHandle(), dbElements);
   }
 
   @Override
@@ -82,6 +84,17 @@ abstract class AbstractListIndexProxy<T> extends AbstractIndexProxy implements L
     return serializer.fromBytes(e);
   }
 
+  @Override
+  public final List<T> getRange(long from, long to) {
+    checkPositionIndexes(from, to, size());
+    byte[][] dbElements = nativeGetRange(getNativeHandle(), from, to);
+    List<T> elements = new ArrayList<>(dbElements.length);
+    for (byte[] e : dbElements) {
+      elements.add(serializer.fromBytes(e));
+    }
+    return elements;
+  }
+
   @Override
   public final T getLast() {
     byte[] e = nativeGetLast(getNativeHandle());
@@ -126,10 +139,10 @@ abstract class AbstractListIndexProxy<T> extends AbstractIndexProxy implements L
   }
 
   @Override
-  public final Iterator<T> iterator() {
+  public final CloseableIterator<T> iterator() {
     return StorageIterators.createIterator(
         nativeCreateIter(getNativeHandle()),
-        this::nativeIterNext,
+        this::nativeIterNextChunk,
         this::nativeIterFree,
         dbAccess,
         modCounter,
@@ -145,10 +158,14 @@ abstract class AbstractListIndexProxy<T> extends AbstractIndexProxy implements L
 
   abstract void nativeAdd(long nativeHandle, byte[] e);
 
+  abstract void nativeAddAll(long nativeHandle, byte[][] elements);
+
   abstract void nativeSet(long nativeHandle, long index, byte[] e);
 
   abstract byte[] nativeGet(long nativeHandle, long index);
 
+  abstract byte[][] nativeGetRange(long nativeHandle, long from, long to);
+
   abstract byte[] nativeGetLast(long nativeHandle);
 
   abstract byte[] nativeRemoveLast(long nativeHandle);
@@ -163,7 +180,7 @@ abstract class AbstractListIndexProxy<T> extends AbstractIndexProxy implements L
 
   abstract long nativeCreateIter(long nativeHandle);
 
-  abstract byte[] nativeIterNext(long iterNativeHandle);
+  abstract byte[][] nativeIterNextChunk(long iterNativeHandle, int maxElements, int maxBytes);
 
   abstract void nativeIterFree(long iterNativeHandle);
 }
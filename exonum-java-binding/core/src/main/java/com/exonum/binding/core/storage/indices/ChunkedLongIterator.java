@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.exonum.binding.core.proxy.AbstractNativeProxy;
+import com.exonum.binding.core.proxy.NativeHandle;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * An iterator over {@code long} elements of a collection (index) that requests the elements
+ * of the native iterator in chunks, without boxing them.
+ *
+ * <p>The chunk size grows as in {@link ChunkedStorageIterator}.
+ *
+ * <p>The iterator is fail-fast: it throws {@link ConcurrentModificationException}
+ * from {@link #nextLong()} if the collection has been modified since the iterator was created.
+ *
+ * <p>The iterator releases the native iterator as soon as it fetches the last chunk,
+ * or when it is {@linkplain #close() closed}. If the iterator is abandoned, the native
+ * iterator is released once the iterator becomes unreachable.
+ */
+final class ChunkedLongIterator extends AbstractNativeProxy
+    implements CloseableIterator.OfLong {
+
+  private static final long[] NO_ELEMENTS = new long[0];
+
+  private final NextLongChunkFunction nextChunkFunction;
+  private final Runnable releaseOperation;
+  private final ModificationCounter modificationCounter;
+  private final int initialModCount;
+
+  private long[] chunk = NO_ELEMENTS;
+  private int position = 0;
+  private int chunkSize = ChunkedStorageIterator.INITIAL_CHUNK_SIZE;
+  private boolean reachedEnd = false;
+  private boolean released = false;
+  private boolean closed = false;
+
+  /**
+   * Creates an iterator.
+   *
+   * @param nativeHandle nativeHandle of the native iterator
+   * @param nextChunkFunction a function to call to get the next chunk of elements
+   * @param releaseOperation an operation to call to release the native iterator
+   * @param modificationCounter a collection modification counter
+   */
+  ChunkedLongIterator(NativeHandle nativeHandle, NextLongChunkFunction nextChunkFunction,
+      Runnable releaseOperation, ModificationCounter modificationCounter) {
+    super(nativeHandle);
+    this.nextChunkFunction = checkNotNull(nextChunkFunction);
+    this.releaseOperation = checkNotNull(releaseOperation);
+    this.modificationCounter = modificationCounter;
+    this.initialModCount = modificationCounter.getCurrentValue();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws ConcurrentModificationException if the next chunk has to be fetched, but
+   *     the collection has been modified since this iterator was created
+   * @throws IllegalStateException if this iterator is closed
+   */
+  @Override
+  public boolean hasNext() {
+    checkState(!closed, "The iterator is closed");
+    if (position < chunk.length) {
+      return true;
+    }
+    if (reachedEnd) {
+      return false;
+    }
+    fetchNextChunk();
+    return position < chunk.length;
+  }
+
+  @Override
+  public long nextLong() {
+    checkNotModified();
+    if (!hasNext()) {
+      throw new NoSuchElementException("Reached the end of the underlying collection. "
+          + "Use #hasNext to check if you have reached the end of the collection.");
+    }
+    return chunk[position++];
+  }
+
+  private void fetchNextChunk() {
+    checkNotModified();
+    // The assignment keeps this iterator reachable, hence its native iterator alive,
+    // till the native call completes
+    chunk = nextChunkFunction.nextChunk(getNativeHandle(), chunkSize);
+    position = 0;
+    reachedEnd = chunk.length < chunkSize;
+    chunkSize = Math.min(chunkSize * 2, ChunkedStorageIterator.MAX_CHUNK_SIZE);
+    if (reachedEnd) {
+      release();
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    chunk = NO_ELEMENTS;
+    release();
+  }
+
+  private void release() {
+    if (!released) {
+      released = true;
+      releaseOperation.run();
+    }
+  }
+
+  private void checkNotModified() {
+    if (modificationCounter.isModifiedSince(initialModCount)) {
+      throw new ConcurrentModificationException("The source collection "
+          + "has been modified during iteration");
+    }
+  }
+
+  /**
+   * A function returning the next chunk of {@code long} elements of a native iterator.
+   */
+  @FunctionalInterface
+  interface NextLongChunkFunction {
+
+    /**
+     * Returns the next chunk of at most {@code maxItems} elements. The chunk has fewer
+     * elements only if the iterator is exhausted.
+     *
+     * @param iterNativeHandle a native handle of the iterator
+     * @param maxItems the maximum number of elements in the chunk
+     */
+    long[] nextChunk(long iterNativeHandle, int maxItems);
+  }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.exonum.binding.core.proxy.AbstractNativeProxy;
+import com.exonum.binding.core.proxy.NativeHandle;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * An iterator over a collection (index) that requests the items of the native iterator
+ * in chunks, so that a single native call returns several items.
+ *
+ * <p>The chunk size starts small, so that short scans (e.g., taking the first element)
+ * do not read ahead much, and doubles with each subsequent chunk up to
+ * {@link #MAX_CHUNK_SIZE} items or {@link #MAX_CHUNK_BYTES} bytes.
+ *
+ * <p>The iterator is fail-fast: it throws {@link ConcurrentModificationException}
+ * from {@link #next()} if the collection has been modified since the iterator was created,
+ * even if the next element has already been fetched.
+ *
+ * <p>The iterator releases the native iterator as soon as it fetches the last chunk,
+ * or when it is {@linkplain #close() closed}. If the iterator is abandoned, the native
+ * iterator is released once the iterator becomes unreachable.
+ *
+ * @param <E> the type of elements
+ */
+final class ChunkedStorageIterator<E> extends AbstractNativeProxy
+    implements CloseableIterator<E> {
+
+  /** The maximum number of elements in the first chunk. */
+  static final int INITIAL_CHUNK_SIZE = 16;
+
+  /** The maximum number of elements in a chunk. */
+  static final int MAX_CHUNK_SIZE = 1024;
+
+  /**
+   * The size of items in bytes, after reaching which the native iterator stops filling a chunk.
+   */
+  static final int MAX_CHUNK_BYTES = 64 * 1024;
+
+  private static final byte[][] NO_ITEMS = new byte[0][];
+
+  private final NextChunkFunction nextChunkFunction;
+  private final Runnable releaseOperation;
+  private final int itemsPerElement;
+  private final ElementDecoder<E> decoder;
+  private final ModificationCounter modificationCounter;
+  private final int initialModCount;
+
+  private byte[][] chunk = NO_ITEMS;
+  private int position = 0;
+  private int chunkSize = INITIAL_CHUNK_SIZE;
+  private boolean reachedEnd = false;
+  private boolean released = false;
+  private boolean closed = false;
+
+  /**
+   * Creates an iterator whose elements correspond to single items of the native iterator.
+   *
+   * @param nativeHandle nativeHandle of the native iterator
+   * @param nextChunkFunction a function to call to get the next chunk of items
+   * @param releaseOperation an operation to call to release the native iterator
+   * @param modificationCounter a collection modification counter
+   * @param decoder a function converting an item (usually, an array of bytes) into an element
+   */
+  static <E> ChunkedStorageIterator<E> ofItems(NativeHandle nativeHandle,
+      NextChunkFunction nextChunkFunction, Runnable releaseOperation,
+      ModificationCounter modificationCounter, Function<? super byte[], ? extends E> decoder) {
+    checkNotNull(decoder);
+    return new ChunkedStorageIterator<>(nativeHandle, nextChunkFunction, releaseOperation, 1,
+        (chunk, offset) -> decoder.apply(chunk[offset]), modificationCounter);
+  }
+
+  /**
+   * Creates an iterator whose elements correspond to pairs of items of the native iterator
+   * (e.g., keys and values).
+   *
+   * @param nativeHandle nativeHandle of the native iterator
+   * @param nextChunkFunction a function to call to get the next chunk of items, with the first
+   *     and the second items of the pairs interleaved
+   * @param releaseOperation an operation to call to release the native iterator
+   * @param modificationCounter a collection modification counter
+   * @param decoder a function converting a pair of items into an element
+   */
+  static <E> ChunkedStorageIterator<E> ofPairs(NativeHandle nativeHandle,
+      NextChunkFunction nextChunkFunction, Runnable releaseOperation,
+      ModificationCounter modificationCounter,
+      BiFunction<? super byte[], ? super byte[], ? extends E> decoder) {
+    checkNotNull(decoder);
+    return new ChunkedStorageIterator<>(nativeHandle, nextChunkFunction, releaseOperation, 2,
+        (chunk, offset) -> decoder.apply(chunk[offset], chunk[offset + 1]), modificationCounter);
+  }
+
+  private ChunkedStorageIterator(NativeHandle nativeHandle,
+      NextChunkFunction nextChunkFunction, Runnable releaseOperation, int itemsPerElement,
+      ElementDecoder<E> decoder, ModificationCounter modificationCounter) {
+    super(nativeHandle);
+    this.nextChunkFunction = checkNotNull(nextChunkFunction);
+    this.releaseOperation = checkNotNull(releaseOperation);
+    this.itemsPerElement = itemsPerElement;
+    this.decoder = decoder;
+    this.modificationCounter = modificationCounter;
+    this.initialModCount = modificationCounter.getCurrentValue();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws ConcurrentModificationException if the next chunk has to be fetched, but
+   *     the collection has been modified since this iterator was created
+   * @throws IllegalStateException if this iterator is closed
+   */
+  @Override
+  public boolean hasNext() {
+    checkState(!closed, "The iterator is closed");
+    if (position < chunk.length) {
+      return true;
+    }
+    if (reachedEnd) {
+      return false;
+    }
+    fetchNextChunk();
+    return position < chunk.length;
+  }
+
+  @Override
+  public E next() {
+    checkNotModified();
+    if (!hasNext()) {
+      throw new NoSuchElementException("Reached the end of the underlying collection. "
+          + "Use #hasNext to check if you have reached the end of the collection.");
+    }
+    E element = decoder.decode(chunk, position);
+    position += itemsPerElement;
+    return element;
+  }
+
+  private void fetchNextChunk() {
+    checkNotModified();
+    int maxItems = chunkSize * itemsPerElement;
+    // The assignment keeps this iterator reachable, hence its native iterator alive,
+    // till the native call completes
+    chunk = nextChunkFunction.nextChunk(getNativeHandle(), chunkSize, MAX_CHUNK_BYTES);
+    position = 0;
+    // The native iterator returns fewer items than requested only when it is exhausted,
+    // which saves the final call returning an empty chunk.
+    reachedEnd = chunk.length < maxItems && totalSize(chunk) < MAX_CHUNK_BYTES;
+    chunkSize = Math.min(chunkSize * 2, MAX_CHUNK_SIZE);
+    if (reachedEnd) {
+      // The remaining elements are already fetched: the native iterator is no longer needed
+      release();
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    chunk = NO_ITEMS;
+    release();
+  }
+
+  private void release() {
+    if (!released) {
+      released = true;
+      releaseOperation.run();
+    }
+  }
+
+  private static long totalSize(byte[][] items) {
+    long size = 0;
+    for (byte[] item : items) {
+      size += item.length;
+    }
+    return size;
+  }
+
+  private void checkNotModified() {
+    if (modificationCounter.isModifiedSince(initialModCount)) {
+      throw new ConcurrentModificationException("The source collection "
+          + "has been modified during iteration");
+    }
+  }
+
+  /**
+   * A function returning the next chunk of items of a native iterator.
+   */
+  @FunctionalInterface
+  interface NextChunkFunction {
+
+    /**
+     * Returns the next chunk of items. The chunk has at most {@code maxItems} elements
+     * (or pairs of items), and is filled till the total size of the items reaches
+     * {@code maxBytes}. It has fewer elements only if the iterator is exhausted,
+     * and is empty if there are no more items.
+     *
+     * @param iterNativeHandle a native handle of the iterator
+     * @param maxItems the maximum number of elements in the chunk
+     * @param maxBytes the size of items in bytes, after reaching which the chunk is returned
+     */
+    byte[][] nextChunk(long iterNativeHandle, int maxItems, int maxBytes);
+  }
+
+  @FunctionalInterface
+  private interface ElementDecoder<E> {
+    E decode(byte[][] chunk, int offset);
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import java.util.Iterator;
+import java.util.PrimitiveIterator;
+
+/**
+ * An iterator over an index that holds a native iterator, which can be released
+ * before the database access the index is created with is closed.
+ *
+ * <p>The native iterator is released automatically once the iterator reaches its end.
+ * If the iterator is not traversed to the end (e.g., when only the first elements
+ * are needed), it may be {@linkplain #close() closed} explicitly, for instance, in
+ * a try-with-resources statement. An iterator that is neither exhausted nor closed
+ * is released when the access is closed.
+ *
+ * @param <E> the type of elements
+ */
+public interface CloseableIterator<E> extends Iterator<E>, AutoCloseable {
+
+  /**
+   * Releases the native iterator. Once closed, this iterator can no longer be used.
+   *
+   * <p>This method is idempotent.
+   */
+  @Override
+  void close();
+
+  /**
+   * A closeable iterator over {@code long} elements.
+   */
+  interface OfLong extends CloseableIterator<Long>, PrimitiveIterator.OfLong {
+  }
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.exonum.binding.common.collect.MapEntry;
+import com.exonum.binding.common.serialization.StandardSerializers;
+import com.exonum.binding.core.storage.database.AbstractAccess;
+import com.exonum.binding.core.storage.database.Access;
+import com.google.common.base.MoreObjects;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A map that keeps track of the number of its entries, so that its {@linkplain #size() size}
+ * can be obtained in constant time.
+ *
+ * <p>The numbers of entries of all counted maps are stored in an auxiliary map of {@code long}
+ * values with a reserved name ({@code __exonum_java.counted_map_sizes}), which cannot
+ * collide with the names of the user indexes; the numbers are keyed by the addresses
+ * of the counted maps. The number is updated with each modification of the map in the same
+ * database access, hence it is consistent with the map contents. As the number is fully
+ * determined by the map contents, the auxiliary map is not Merkelized and does not affect
+ * the state hash.
+ *
+ * <p>The put and remove operations check if the map contains the key in the same native
+ * call that modifies the map, and update the number of entries with another call.
+ * The number of entries is read once per map proxy and then is kept in the proxy.
+ *
+ * <p>The map must be always modified through a counted map; otherwise, the number of entries
+ * will be incorrect. If the number of entries of a non-empty map is not recorded yet (e.g.,
+ * the map was populated as a regular map), it is counted with a full traversal of the map
+ * on the first modification, or on the first {@link #size()} query, once per map proxy.
+ *
+ * <p>The "destructive" methods of the map, i.e., the one that change the map contents,
+ * are specified to throw {@link UnsupportedOperationException} if
+ * the map has been created with a read-only database access.
+ *
+ * <p>All method arguments are non-null by default.
+ *
+ * <p>When the access goes out of scope, this map is destroyed. Subsequent use of the closed map
+ * is prohibited and will result in {@link IllegalStateException}.
+ *
+ * @param <K> the type of keys in this map
+ * @param <V> the type of values in this map
+ * @see Access#getCountedMap(IndexAddress, com.exonum.binding.common.serialization.Serializer,
+ *     com.exonum.binding.common.serialization.Serializer)
+ * @see Access#getCountedProofMap(IndexAddress,
+ *     com.exonum.binding.common.serialization.Serializer,
+ *     com.exonum.binding.common.serialization.Serializer)
+ */
+public final class CountedMapIndex<K, V> implements MapIndex<K, V> {
+
+  /**
+   * The name of the auxiliary map keeping the numbers of entries, without
+   * the reserved prefix.
+   */
+  static final String SIZES_NAME = "counted_map_sizes";
+
+  /** The value of the number of entries that is not known yet. */
+  private static final long UNKNOWN_SIZE = -1L;
+
+  private final MapIndex<K, V> map;
+  private final BiPredicate<K, V> putAndCheckNew;
+  private final Predicate<K> removeAndCheckPresent;
+  private final LongMapIndex<byte[]> sizes;
+  /** The key of the number of entries of this map in the {@link #sizes} map. */
+  private final byte[] sizeKey;
+  /**
+   * The number of entries of this map; or {@link #UNKNOWN_SIZE} if it is not known yet.
+   * Volatile, because the maps of a snapshot may be used by several threads.
+   */
+  private volatile long size;
+  /** Whether the number of entries is recorded in the {@link #sizes} map. */
+  private boolean sizeRecorded;
+
+  private CountedMapIndex(MapIndex<K, V> map, BiPredicate<K, V> putAndCheckNew,
+      Predicate<K> removeAndCheckPresent, LongMapIndex<byte[]> sizes) {
+    this.map = checkNotNull(map);
+    this.putAndCheckNew = checkNotNull(putAndCheckNew);
+    this.removeAndCheckPresent = checkNotNull(removeAndCheckPresent);
+    this.sizes = checkNotNull(sizes);
+    this.sizeKey = sizeKey(map.getAddress());
+    this.size = UNKNOWN_SIZE;
+    this.sizeRecorded = false;
+  }
+
+  /**
+   * Creates a new counted map.
+   *
+   * <p><strong>Warning:</strong> do not invoke this method from service code, use
+   * {@link Access#getCountedMap} or {@link Access#getCountedProofMap}.
+   *
+   * @param map a map to count the entries of; must be created with the given access
+   *     and must not be used directly
+   * @param access a database access
+   * @param <K> the type of keys in the map
+   * @param <V> the type of values in the map
+   * @throws IllegalStateException if the access is not valid
+   */
+  public static <K, V> CountedMapIndex<K, V> newInstance(MapIndexProxy<K, V> map,
+      AbstractAccess access) {
+    return new CountedMapIndex<>(map, map::putAndCheckNew, map::removeAndCheckPresent,
+        sizesMap(access));
+  }
+
+  /**
+   * Creates a new counted Merkelized map.
+   *
+   * <p><strong>Warning:</strong> do not invoke this method from service code, use
+   * {@link Access#getCountedProofMap}.
+   *
+   * @param map a map to count the entries of; must be created with the given access
+   *     and must not be used directly
+   * @param access a database access
+   * @param <K> the type of keys in the map
+   * @param <V> the type of values in the map
+   * @throws IllegalStateException if the access is not valid
+   */
+  public static <K, V> CountedMapIndex<K, V> newInstance(ProofMapIndexProxy<K, V> map,
+      AbstractAccess access) {
+    return new CountedMapIndex<>(map, map::putAndCheckNew, map::removeAndCheckPresent,
+        sizesMap(access));
+  }
+
+  private static LongMapIndex<byte[]> sizesMap(AbstractAccess access) {
+    return access.getLongMap(IndexAddress.reserved(SIZES_NAME), StandardSerializers.bytes());
+  }
+
+  /**
+   * Returns the key of the number of entries of the map with the given address: the name,
+   * followed by the zero byte and the id in group, if any. As the zero byte is not allowed
+   * in the names, the keys of distinct addresses are distinct.
+   */
+  private static byte[] sizeKey(IndexAddress mapAddress) {
+    ByteArrayOutputStream key = new ByteArrayOutputStream();
+    byte[] name = mapAddress.getName().getBytes(StandardCharsets.UTF_8);
+    key.write(name, 0, name.length);
+    mapAddress.getIdInGroup().ifPresent(id -> {
+      key.write(0);
+      key.write(id, 0, id.length);
+    });
+    return key.toByteArray();
+  }
+
+  /**
+   * Returns the number of entries in this map.
+   *
+   * <p>If the number of entries is not yet recorded, counts them, which requires
+   * a full traversal of the map; the counted number is kept in this proxy, so that
+   * the map is traversed at most once.
+   *
+   * @throws IllegalStateException if this map is not valid
+   */
+  public long size() {
+    long size = this.size;
+    if (size == UNKNOWN_SIZE) {
+      size = sizes.getOrDefault(sizeKey, UNKNOWN_SIZE);
+      sizeRecorded = (size != UNKNOWN_SIZE);
+      if (size == UNKNOWN_SIZE) {
+        size = countEntries();
+      }
+      this.size = size;
+    }
+    return size;
+  }
+
+  /**
+   * Records the number of entries if it is not yet recorded. Must be invoked
+   * <em>before</em> the map is modified, so that the subsequent change is counted once.
+   */
+  private void ensureSizeRecorded() {
+    if (!sizeRecorded) {
+      // The map might have been populated before it was counted
+      sizes.put(sizeKey, size());
+      sizeRecorded = true;
+    }
+  }
+
+  /**
+   * Adds the delta to the number of entries, which must be
+   * {@linkplain #ensureSizeRecorded() recorded} before the map was modified.
+   */
+  private void addToSize(long delta) {
+    size += delta;
+    sizes.put(sizeKey, size);
+  }
+
+  private long countEntries() {
+    long size = 0;
+    Iterator<K> keys = map.keys();
+    while (keys.hasNext()) {
+      keys.next();
+      size++;
+    }
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(K key) {
+    return map.containsKey(key);
+  }
+
+  @Override
+  public boolean containsAll(Collection<? extends K> keys) {
+    return map.containsAll(keys);
+  }
+
+  @Override
+  public void put(K key, V value) {
+    ensureSizeRecorded();
+    if (putAndCheckNew.test(key, value)) {
+      addToSize(1);
+    }
+  }
+
+  @Override
+  public void putAll(Map<? extends K, ? extends V> sourceMap) {
+    ensureSizeRecorded();
+    // Distinct key objects (e.g., arrays) might have the same serialized form and be put
+    // into a single entry, which is counted once
+    long numNew = 0;
+    for (Map.Entry<? extends K, ? extends V> entry : sourceMap.entrySet()) {
+      if (putAndCheckNew.test(entry.getKey(), entry.getValue())) {
+        numNew++;
+      }
+    }
+    if (numNew != 0) {
+      addToSize(numNew);
+    }
+  }
+
+  @Override
+  public V get(K key) {
+    return map.get(key);
+  }
+
+  @Override
+  public List<V> getAll(Collection<? extends K> keys) {
+    return map.getAll(keys);
+  }
+
+  @Override
+  public void remove(K key) {
+    ensureSizeRecorded();
+    if (removeAndCheckPresent.test(key)) {
+      addToSize(-1);
+    }
+  }
+
+  @Override
+  public Iterator<K> keys() {
+    return map.keys();
+  }
+
+  @Override
+  public Iterator<V> values() {
+    return map.values();
+  }
+
+  @Override
+  public Iterator<MapEntry<K, V>> entries() {
+    return map.entries();
+  }
+
+  @Override
+  public Iterator<K> keys(K from) {
+    return map.keys(from);
+  }
+
+  @Override
+  public Iterator<MapEntry<K, V>> entries(K from, K toExclusive) {
+    return map.entries(from, toExclusive);
+  }
+
+  @Override
+  public Iterator<MapEntry<K, V>> entriesWithPrefix(byte[] prefix) {
+    return map.entriesWithPrefix(prefix);
+  }
+
+  @Override
+  public Stream<MapEntry<K, V>> stream() {
+    return map.stream();
+  }
+
+  @Override
+  public void clear() {
+    map.clear();
+    size = 0;
+    sizes.put(sizeKey, size);
+    sizeRecorded = true;
+  }
+
+  /**
+   * Returns true if this map has no entries.
+   *
+   * @throws IllegalStateException if this map is not valid
+   */
+  @Override
+  public boolean isEmpty() {
+    return map.isEmpty();
+  }
+
+  @Override
+  public IndexAddress getAddress() {
+    return map.getAddress();
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("map", map)
+        .toString();
+  }
+}
@@ -41,7 +41,8 @@ public final class IndexAddress {
    * Creates an address of an individual index.
    *
    * @param name the name of the index: a alphanumeric non-empty identifier of the index
-   *     in the MerkleDB: [a-zA-Z0-9_.]
+   *     in the MerkleDB: [a-zA-Z0-9_.]. The names starting with {@code __exonum_java.}
+   *     are reserved
    */
   public static IndexAddress valueOf(String name) {
     return new IndexAddress(checkIndexName(name), null);
@@ -52,7 +53,8 @@ public final class IndexAddress {
    * an <a href="package-summary.html#families">index group</a>.
    *
    * @param groupName the name of the index group: a alphanumeric non-empty identifier of the index
-   *     group in the MerkleDB: [a-zA-Z0-9_.]
+   *     group in the MerkleDB: [a-zA-Z0-9_.]. The names starting with {@code __exonum_java.}
+   *     are reserved
    * @param idInGroup the id of the index in group. See a
    *     <a href="package-summary.html#families-limitations">caveat</a> on index identifiers.
    */
@@ -60,6 +62,17 @@ public final class IndexAddress {
     return new IndexAddress(checkIndexName(groupName), checkIdInGroup(idInGroup));
   }
 
+  /**
+   * Creates an address of an individual index used internally by the framework, which name
+   * starts with the {@linkplain StoragePreconditions#RESERVED_NAME_PREFIX reserved prefix}.
+   *
+   * @param name the name of the index without the reserved prefix
+   */
+  static IndexAddress reserved(String name) {
+    return new IndexAddress(StoragePreconditions.RESERVED_NAME_PREFIX + checkIndexName(name),
+        null);
+  }
+
   private IndexAddress(String name, @Nullable byte[] idInGroup) {
     this.name = name;
     this.idInGroup = idInGroup;
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.exonum.binding.common.hash.HashCode;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * A memoized index hash of a {@linkplain HashableIndex hashable index}. The hash is loaded once,
+ * and re-loaded only if the index is modified, as detected by its modification counter.
+ *
+ * <p>As the indexes are de-duplicated per database access, the hash of an index of a snapshot
+ * is loaded at most once for all the users of this index.
+ *
+ * <p>The hash may be read by several threads if the index is based on a snapshot, which is never
+ * modified. Indexes based on a fork are confined to a single thread.
+ */
+final class IndexHashCache {
+
+  private final ModificationCounter modCounter;
+  @Nullable
+  private volatile HashCode indexHash;
+  private int indexHashModCount;
+
+  IndexHashCache(ModificationCounter modCounter) {
+    this.modCounter = checkNotNull(modCounter);
+  }
+
+  /**
+   * Returns the index hash. Loads it with the given function if it is not yet loaded,
+   * or if the index has been modified since it was loaded.
+   *
+   * @param loader a function loading the index hash from the database
+   */
+  HashCode get(Supplier<HashCode> loader) {
+    HashCode hash = indexHash;
+    if (hash != null && !modCounter.isModifiedSince(indexHashModCount)) {
+      return hash;
+    }
+    hash = checkNotNull(loader.get());
+    indexHashModCount = modCounter.getCurrentValue();
+    indexHash = hash;
+    return hash;
+  }
+}
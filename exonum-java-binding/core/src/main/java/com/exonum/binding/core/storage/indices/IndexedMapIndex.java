@@ -0,0 +1,268 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.exonum.binding.common.collect.MapEntry;
+import com.exonum.binding.common.serialization.Serializer;
+import com.exonum.binding.common.serialization.StandardSerializers;
+import com.exonum.binding.core.storage.database.AbstractAccess;
+import com.exonum.binding.core.storage.database.Access;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+
+/**
+ * A map that maintains {@linkplain SecondaryIndex secondary indexes} of its values,
+ * allowing to find the map keys by the {@linkplain SecondaryKey secondary keys}
+ * of the values.
+ *
+ * <p>Each secondary index is stored in an auxiliary map with the address of this map,
+ * which name has the {@value #SECONDARY_INDEX_INFIX} infix followed by the name
+ * of the secondary key (e.g., "wallets.by_owner_name"). The secondary indexes are updated
+ * with each modification of the map in the same database access, hence they are consistent
+ * with the map contents. As the secondary indexes are fully determined by the map contents,
+ * they are not Merkelized and do not affect the state hash.
+ *
+ * <p>The put and remove operations read the previous value to update the secondary indexes,
+ * which requires an extra read.
+ *
+ * <p>The map must be always modified through an indexed map with the same secondary keys;
+ * otherwise, the secondary indexes will be inconsistent with the map.
+ *
+ * <p>The "destructive" methods of the map, i.e., the one that change the map contents,
+ * are specified to throw {@link UnsupportedOperationException} if
+ * the map has been created with a read-only database access.
+ *
+ * <p>All method arguments are non-null by default.
+ *
+ * <p>When the access goes out of scope, this map is destroyed. Subsequent use of the closed map
+ * is prohibited and will result in {@link IllegalStateException}.
+ *
+ * @param <K> the type of keys in this map
+ * @param <V> the type of values in this map
+ * @see Access#getIndexedMap(IndexAddress, Serializer, Serializer, List)
+ * @see Access#getIndexedProofMap(IndexAddress, Serializer, Serializer, List)
+ */
+public final class IndexedMapIndex<K, V> implements MapIndex<K, V> {
+
+  /**
+   * The infix of the names of the auxiliary maps storing the secondary indexes.
+   */
+  public static final String SECONDARY_INDEX_INFIX = ".by_";
+
+  private final MapIndex<K, V> map;
+  private final Serializer<K> keySerializer;
+  private final ImmutableMap<SecondaryKey<? super V, ?>, SecondaryIndex<?, K>> secondaryIndexes;
+
+  private IndexedMapIndex(MapIndex<K, V> map, Serializer<K> keySerializer,
+      ImmutableMap<SecondaryKey<? super V, ?>, SecondaryIndex<?, K>> secondaryIndexes) {
+    this.map = map;
+    this.keySerializer = keySerializer;
+    this.secondaryIndexes = secondaryIndexes;
+  }
+
+  /**
+   * Creates a new indexed map.
+   *
+   * <p><strong>Warning:</strong> do not invoke this method from service code, use
+   * {@link Access#getIndexedMap} or {@link Access#getIndexedProofMap}.
+   *
+   * @param map a map to index; must be created with the given access
+   *     and must not be used directly
+   * @param keySerializer a serializer of the map keys
+   * @param secondaryKeys the secondary keys of the map values
+   * @param access a database access
+   * @param <K> the type of keys in the map
+   * @param <V> the type of values in the map
+   * @throws IllegalStateException if the access is not valid
+   * @throws IllegalArgumentException if the secondary keys have duplicate names
+   */
+  public static <K, V> IndexedMapIndex<K, V> newInstance(MapIndex<K, V> map,
+      Serializer<K> keySerializer, List<? extends SecondaryKey<? super V, ?>> secondaryKeys,
+      AbstractAccess access) {
+    checkNotNull(keySerializer);
+    ImmutableMap.Builder<SecondaryKey<? super V, ?>, SecondaryIndex<?, K>> secondaryIndexes =
+        ImmutableMap.builder();
+    long numDistinctNames = secondaryKeys.stream()
+        .map(SecondaryKey::getName)
+        .distinct()
+        .count();
+    checkArgument(numDistinctNames == secondaryKeys.size(),
+        "Secondary keys have duplicate names: %s", secondaryKeys);
+    for (SecondaryKey<? super V, ?> secondaryKey : secondaryKeys) {
+      IndexAddress indexAddress = secondaryIndexAddress(map.getAddress(), secondaryKey);
+      MapIndex<byte[], byte[]> entries = access.getMap(indexAddress, StandardSerializers.bytes(),
+          StandardSerializers.bytes());
+      secondaryIndexes.put(secondaryKey,
+          new SecondaryIndex<>(secondaryKey, keySerializer, entries));
+    }
+    return new IndexedMapIndex<>(map, keySerializer, secondaryIndexes.build());
+  }
+
+  private static IndexAddress secondaryIndexAddress(IndexAddress mapAddress,
+      SecondaryKey<?, ?> secondaryKey) {
+    String name = mapAddress.getName() + SECONDARY_INDEX_INFIX + secondaryKey.getName();
+    return mapAddress.getIdInGroup()
+        .map(id -> IndexAddress.valueOf(name, id))
+        .orElseGet(() -> IndexAddress.valueOf(name));
+  }
+
+  /**
+   * Returns the secondary index by the given secondary key.
+   *
+   * @param secondaryKey a secondary key declared for this map; must be the same instance
+   *     as passed on the map creation
+   * @param <SK> the type of the secondary key
+   * @throws IllegalArgumentException if the secondary key is not declared for this map
+   */
+  @SuppressWarnings("unchecked") // The index corresponds to the key, hence has the same type
+  public <SK> SecondaryIndex<SK, K> getSecondaryIndex(SecondaryKey<? super V, SK> secondaryKey) {
+    SecondaryIndex<?, K> index = secondaryIndexes.get(secondaryKey);
+    checkArgument(index != null, "Unknown secondary key (%s), the map (%s) has: %s",
+        secondaryKey, this, secondaryIndexes.keySet());
+    return (SecondaryIndex<SK, K>) index;
+  }
+
+  @Override
+  public boolean containsKey(K key) {
+    return map.containsKey(key);
+  }
+
+  @Override
+  public boolean containsAll(Collection<? extends K> keys) {
+    return map.containsAll(keys);
+  }
+
+  @Override
+  public void put(K key, V value) {
+    V previous = map.get(key);
+    map.put(key, value);
+    updateSecondaryIndexes(key, previous, value);
+  }
+
+  @Override
+  public V get(K key) {
+    return map.get(key);
+  }
+
+  @Override
+  public List<V> getAll(Collection<? extends K> keys) {
+    return map.getAll(keys);
+  }
+
+  @Override
+  public void remove(K key) {
+    V previous = map.get(key);
+    if (previous != null) {
+      map.remove(key);
+      updateSecondaryIndexes(key, previous, null);
+    }
+  }
+
+  private void updateSecondaryIndexes(K key, @Nullable V previous, @Nullable V value) {
+    byte[] dbKey = keySerializer.toBytes(key);
+    for (Map.Entry<SecondaryKey<? super V, ?>, SecondaryIndex<?, K>> e
+        : secondaryIndexes.entrySet()) {
+      updateSecondaryIndex(e.getKey(), e.getValue(), dbKey, previous, value);
+    }
+  }
+
+  @SuppressWarnings("unchecked") // The index corresponds to the key, hence has the same type
+  private static <V, SK> void updateSecondaryIndex(SecondaryKey<? super V, SK> secondaryKey,
+      SecondaryIndex<?, ?> index, byte[] dbKey, @Nullable V previous, @Nullable V value) {
+    SecondaryIndex<SK, ?> secondaryIndex = (SecondaryIndex<SK, ?>) index;
+    SK previousKey = (previous == null) ? null : secondaryKey.extract(previous);
+    SK newKey = (value == null) ? null : secondaryKey.extract(value);
+    if (Objects.equals(previousKey, newKey)) {
+      return;
+    }
+    if (previousKey != null) {
+      secondaryIndex.remove(previousKey, dbKey);
+    }
+    if (newKey != null) {
+      secondaryIndex.add(newKey, dbKey);
+    }
+  }
+
+  @Override
+  public Iterator<K> keys() {
+    return map.keys();
+  }
+
+  @Override
+  public Iterator<V> values() {
+    return map.values();
+  }
+
+  @Override
+  public Iterator<MapEntry<K, V>> entries() {
+    return map.entries();
+  }
+
+  @Override
+  public Iterator<K> keys(K from) {
+    return map.keys(from);
+  }
+
+  @Override
+  public Iterator<MapEntry<K, V>> entries(K from, K toExclusive) {
+    return map.entries(from, toExclusive);
+  }
+
+  @Override
+  public Iterator<MapEntry<K, V>> entriesWithPrefix(byte[] prefix) {
+    return map.entriesWithPrefix(prefix);
+  }
+
+  @Override
+  public Stream<MapEntry<K, V>> stream() {
+    return map.stream();
+  }
+
+  @Override
+  public void clear() {
+    map.clear();
+    secondaryIndexes.values().forEach(SecondaryIndex::clear);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return map.isEmpty();
+  }
+
+  @Override
+  public IndexAddress getAddress() {
+    return map.getAddress();
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("map", map)
+        .add("secondaryKeys", secondaryIndexes.keySet())
+        .toString();
+  }
+}
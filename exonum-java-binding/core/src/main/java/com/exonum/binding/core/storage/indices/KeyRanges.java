@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.primitives.UnsignedBytes;
+import java.math.BigInteger;
+import java.util.Arrays;
+import javax.annotation.Nullable;
+
+/**
+ * Utilities for key ranges of the indices. The keys are compared lexicographically,
+ * as unsigned byte strings, in the same order as the index iterators return them.
+ */
+final class KeyRanges {
+
+  /**
+   * Returns the smallest key that is greater than all the keys starting with the given prefix:
+   * the exclusive upper bound of the range of such keys. Returns {@code null} if there is no
+   * such key, i.e., if the prefix is empty or consists of {@code 0xFF} bytes only.
+   *
+   * @param prefix a key prefix
+   */
+  @Nullable
+  static byte[] prefixUpperBound(byte[] prefix) {
+    checkNotNull(prefix, "prefix");
+    for (int i = prefix.length - 1; i >= 0; i--) {
+      if (prefix[i] != (byte) 0xFF) {
+        byte[] upperBound = Arrays.copyOf(prefix, i + 1);
+        upperBound[i]++;
+        return upperBound;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns a key in the middle of the range [{@code from}, {@code toExclusive}): a key
+   * that is greater than {@code from} and less than {@code toExclusive}. The keys are treated
+   * as fractions in base 256, with {@code null} upper bound corresponding to one.
+   * Returns {@code null} if there is no such key of the given length.
+   *
+   * @param from the lower bound of the range, inclusive
+   * @param toExclusive the upper bound of the range, exclusive; or {@code null} if
+   *     the range is not bounded
+   * @param length the length of the returned key; must not be less than the lengths
+   *     of the bounds
+   */
+  @Nullable
+  static byte[] midpoint(byte[] from, @Nullable byte[] toExclusive, int length) {
+    checkArgument(from.length <= length, "from (%s) is longer than the key length (%s)",
+        from.length, length);
+    checkArgument(toExclusive == null || toExclusive.length <= length,
+        "toExclusive (%s) is longer than the key length (%s)",
+        (toExclusive == null) ? 0 : toExclusive.length, length);
+    BigInteger lower = toFraction(from, length);
+    BigInteger upper = (toExclusive == null)
+        ? BigInteger.ONE.shiftLeft(Byte.SIZE * length)
+        : toFraction(toExclusive, length);
+    BigInteger mid = lower.add(upper).shiftRight(1);
+    if (mid.compareTo(lower) <= 0) {
+      return null;
+    }
+    return fromFraction(mid, length);
+  }
+
+  /** Returns the fraction numerator corresponding to the key padded with zeros. */
+  private static BigInteger toFraction(byte[] key, int length) {
+    return new BigInteger(1, Arrays.copyOf(key, length));
+  }
+
+  private static byte[] fromFraction(BigInteger fraction, int length) {
+    byte[] bytes = fraction.toByteArray();
+    // Remove the sign byte, or add the leading zeros
+    byte[] key = new byte[length];
+    int numBytes = Math.min(bytes.length, length);
+    System.arraycopy(bytes, bytes.length - numBytes, key, length - numBytes, numBytes);
+    return key;
+  }
+
+  /**
+   * Compares the keys lexicographically, as unsigned byte strings.
+   */
+  static int compare(byte[] key1, byte[] key2) {
+    return UnsignedBytes.lexicographicalComparator().compare(key1, key2);
+  }
+
+  private KeyRanges() {}
+}
@@ -21,13 +21,14 @@ import com.exonum.binding.common.serialization.Serializer;
 import com.exonum.binding.common.serialization.StandardSerializers;
 import com.exonum.binding.core.proxy.Cleaner;
 import com.exonum.binding.core.proxy.NativeHandle;
-import com.exonum.binding.core.proxy.ProxyDestructor;
 import com.exonum.binding.core.storage.database.AbstractAccess;
 import com.exonum.binding.core.storage.database.Access;
+import com.exonum.binding.core.storage.database.KeyFilter;
 import com.exonum.binding.core.util.LibraryLoader;
-import java.util.Iterator;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import javax.annotation.Nullable;
@@ -48,7 +49,10 @@ import javax.annotation.Nullable;
  *
  * <p>All method arguments are non-null by default.
  *
- * <p>This class is not thread-safe and and its instances shall not be shared between threads.
+ * <p>This class is not thread-safe and its instances shall not be shared between threads,
+ * unless they are created with a
+ * {@linkplain com.exonum.binding.core.storage.database.Snapshot snapshot}, which allows
+ * concurrent reads.
  *
  * <p>When the access goes out of scope, this set is destroyed. Subsequent use of the closed set
  * is prohibited and will result in {@link IllegalStateException}.
@@ -69,6 +73,8 @@ public final class KeySetIndexProxy<E> extends AbstractIndexProxy implements Ite
       Spliterator.NONNULL | Spliterator.ORDERED;
 
   private final CheckingSerializerDecorator<E> serializer;
+  @Nullable
+  private final KeyFilter keyFilter;
 
   /**
    * Creates a new key set proxy.
@@ -89,9 +95,8 @@ public final class KeySetIndexProxy<E> extends AbstractIndexProxy implements Ite
       IndexAddress address, AbstractAccess access, Serializer<E> serializer) {
     CheckingSerializerDecorator<E> s = CheckingSerializerDecorator.from(serializer);
 
-    NativeHandle setNativeHandle = createNativeSet(address, access);
-
-    return new KeySetIndexProxy<>(setNativeHandle, address, access, s);
+    return new KeySetIndexProxy<>(() -> createNativeSet(address, access), address, access,
+        s);
   }
 
   private static NativeHandle createNativeSet(IndexAddress address, AbstractAccess access) {
@@ -101,15 +106,16 @@ public final class KeySetIndexProxy<E> extends AbstractIndexProxy implements Ite
     NativeHandle setNativeHandle = new NativeHandle(handle);
 
     Cleaner cleaner = access.getCleaner();
-    ProxyDestructor.newRegistered(cleaner, setNativeHandle, KeySetIndexProxy.class,
-        KeySetIndexProxy::nativeFree);
+    cleaner.addNativeProxy(setNativeHandle, KeySetIndexProxy.class, KeySetIndexProxy::nativeFree,
+        KeySetIndexProxy::nativeFreeAll);
     return setNativeHandle;
   }
 
-  private KeySetIndexProxy(NativeHandle nativeHandle, IndexAddress address, AbstractAccess access,
-                           CheckingSerializerDecorator<E> serializer) {
-    super(nativeHandle, address, access);
+  private KeySetIndexProxy(Supplier<NativeHandle> nativeIndexFactory, IndexAddress address,
+                           AbstractAccess access, CheckingSerializerDecorator<E> serializer) {
+    super(nativeIndexFactory, address, access);
     this.serializer = serializer;
+    this.keyFilter = access.getKeyFilter().orElse(null);
   }
 
   /**
@@ -145,6 +151,10 @@ public final class KeySetIndexProxy<E> extends AbstractIndexProxy implements Ite
    */
   public boolean contains(E e) {
     byte[] dbElement = serializer.toBytes(e);
+    if (keyFilter != null
+        && !keyFilter.mightContain(getAddress(), dbElement, this::serializedElements)) {
+      return false;
+    }
     return nativeContains(getNativeHandle(), dbElement);
   }
 
@@ -155,25 +165,42 @@ public final class KeySetIndexProxy<E> extends AbstractIndexProxy implements Ite
    * @throws IllegalStateException if this set is not valid 
    */
   @Override
-  public Iterator<E> iterator() {
+  public CloseableIterator<E> iterator() {
     return StorageIterators.createIterator(
         nativeCreateIterator(getNativeHandle()),
-        this::nativeIteratorNext,
+        this::nativeIteratorNextChunk,
         this::nativeIteratorFree,
         dbAccess,
         modCounter,
         serializer::fromBytes);
   }
 
+  /**
+   * Returns an iterator over the elements of this set as they are stored in the database,
+   * without de-serializing them.
+   */
+  private CloseableIterator<byte[]> serializedElements() {
+    return StorageIterators.createIterator(
+        nativeCreateIterator(getNativeHandle()),
+        this::nativeIteratorNextChunk,
+        this::nativeIteratorFree,
+        dbAccess,
+        modCounter,
+        Function.identity());
+  }
+
   /**
    * Returns a stream of the set elements. The elements are ordered lexicographically.
+   * Closing the stream releases the native iterator, if the stream is not traversed to the end.
    *
    * @throws IllegalStateException if this set is not valid
    */
   public Stream<E> stream() {
+    CloseableIterator<E> iterator = iterator();
     return StreamSupport.stream(
-        Spliterators.spliteratorUnknownSize(iterator(), streamCharacteristics()),
-        false);
+        Spliterators.spliteratorUnknownSize(iterator, streamCharacteristics()),
+        false)
+        .onClose(iterator::close);
   }
 
   private int streamCharacteristics() {
@@ -208,11 +235,14 @@ public final class KeySetIndexProxy<E> extends AbstractIndexProxy implements Ite
 
   private native long nativeCreateIterator(long nativeHandle);
 
-  private native byte[] nativeIteratorNext(long iterNativeHandle);
+  private native byte[][] nativeIteratorNextChunk(long iterNativeHandle, int maxKeys,
+      int maxBytes);
 
   private native void nativeIteratorFree(long iterNativeHandle);
 
   private native void nativeRemove(long nativeHandle, byte[] e);
 
   private static native void nativeFree(long nativeHandle);
+
+  private static native void nativeFreeAll(long[] nativeHandles);
 }
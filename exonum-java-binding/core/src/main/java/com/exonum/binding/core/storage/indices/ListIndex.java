@@ -16,8 +16,12 @@
 
 package com.exonum.binding.core.storage.indices;
 
+import static com.exonum.binding.core.storage.indices.StoragePreconditions.checkPositionIndexes;
+
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.stream.Stream;
 
@@ -80,6 +84,27 @@ public interface ListIndex<T> extends StorageIndex, Iterable<T> {
    */
   T get(long index);
 
+  /**
+   * Returns the elements in the range [from, to) of the list, in the order of their indices.
+   * Equivalent to a sequence of individual {@link #get} operations,
+   * but may be implemented more efficiently.
+   *
+   * @param from the index of the first element to return
+   * @param to the index after the last element to return
+   * @return a list of elements in the given range; empty if {@code from == to}
+   * @throws IndexOutOfBoundsException if the range is not valid, i.e., unless
+   *     {@code 0 <= from <= to <= size()}
+   * @throws IllegalStateException if this list is not valid
+   */
+  default List<T> getRange(long from, long to) {
+    checkPositionIndexes(from, to, size());
+    List<T> elements = new ArrayList<>(Math.toIntExact(to - from));
+    for (long i = from; i < to; i++) {
+      elements.add(get(i));
+    }
+    return elements;
+  }
+
   /**
    * Returns the last element of the list.
    *
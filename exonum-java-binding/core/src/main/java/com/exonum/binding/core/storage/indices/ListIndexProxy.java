@@ -21,10 +21,10 @@ import com.exonum.binding.common.serialization.Serializer;
 import com.exonum.binding.common.serialization.StandardSerializers;
 import com.exonum.binding.core.proxy.Cleaner;
 import com.exonum.binding.core.proxy.NativeHandle;
-import com.exonum.binding.core.proxy.ProxyDestructor;
 import com.exonum.binding.core.storage.database.AbstractAccess;
 import com.exonum.binding.core.storage.database.Access;
 import com.exonum.binding.core.util.LibraryLoader;
+import java.util.function.Supplier;
 import javax.annotation.Nullable;
 
 /**
@@ -39,7 +39,10 @@ import javax.annotation.Nullable;
  *
  * <p>All method arguments are non-null by default.
  *
- * <p>This class is not thread-safe and and its instances shall not be shared between threads.
+ * <p>This class is not thread-safe and its instances shall not be shared between threads,
+ * unless they are created with a
+ * {@linkplain com.exonum.binding.core.storage.database.Snapshot snapshot}, which allows
+ * concurrent reads.
  *
  * <p>When the access goes out of scope, this list is destroyed. Subsequent use of the closed list
  * is prohibited and will result in {@link IllegalStateException}.
@@ -72,9 +75,8 @@ public final class ListIndexProxy<E> extends AbstractListIndexProxy<E> implement
       IndexAddress address, AbstractAccess access, Serializer<E> serializer) {
     CheckingSerializerDecorator<E> s = CheckingSerializerDecorator.from(serializer);
 
-    NativeHandle listNativeHandle = createNativeList(address, access);
-
-    return new ListIndexProxy<>(listNativeHandle, address, access, s);
+    return new ListIndexProxy<>(() -> createNativeList(address, access), address, access,
+        s);
   }
 
   private static NativeHandle createNativeList(IndexAddress address, AbstractAccess access) {
@@ -84,14 +86,14 @@ public final class ListIndexProxy<E> extends AbstractListIndexProxy<E> implement
     NativeHandle listNativeHandle = new NativeHandle(handle);
 
     Cleaner cleaner = access.getCleaner();
-    ProxyDestructor.newRegistered(cleaner, listNativeHandle, ListIndexProxy.class,
-        ListIndexProxy::nativeFree);
+    cleaner.addNativeProxy(listNativeHandle, ListIndexProxy.class, ListIndexProxy::nativeFree,
+        ListIndexProxy::nativeFreeAll);
     return listNativeHandle;
   }
 
-  private ListIndexProxy(NativeHandle nativeHandle, IndexAddress address, AbstractAccess access,
-                         CheckingSerializerDecorator<E> serializer) {
-    super(nativeHandle, address, access, serializer);
+  private ListIndexProxy(Supplier<NativeHandle> nativeIndexFactory, IndexAddress address,
+                         AbstractAccess access, CheckingSerializerDecorator<E> serializer) {
+    super(nativeIndexFactory, address, access, serializer);
   }
 
   private static native long nativeCreate(String name, @Nullable byte[] idInGroup,
@@ -99,15 +101,23 @@ public final class ListIndexProxy<E> extends AbstractListIndexProxy<E> implement
 
   private static native void nativeFree(long nativeHandle);
 
+  private static native void nativeFreeAll(long[] nativeHandles);
+
   @Override
   native void nativeAdd(long nativeHandle, byte[] e);
 
+  @Override
+  native void nativeAddAll(long nativeHandle, byte[][] elements);
+
   @Override
   native void nativeSet(long nativeHandle, long index, byte[] e);
 
   @Override
   native byte[] nativeGet(long nativeHandle, long index);
 
+  @Override
+  native byte[][] nativeGetRange(long nativeHandle, long from, long to);
+
   @Override
   native byte[] nativeGetLast(long nativeHandle);
 
@@ -130,7 +140,7 @@ public final class ListIndexProxy<E> extends AbstractListIndexProxy<E> implement
   native long nativeCreateIter(long nativeHandle);
 
   @Override
-  native byte[] nativeIterNext(long iterNativeHandle);
+  native byte[][] nativeIterNextChunk(long iterNativeHandle, int maxElements, int maxBytes);
 
   @Override
   native void nativeIterFree(long iterNativeHandle);
@@ -18,9 +18,11 @@ package com.exonum.binding.core.storage.indices;
 
 import static com.exonum.binding.core.storage.indices.StoragePreconditions.checkPositionIndex;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.annotations.VisibleForTesting;
 import java.util.ConcurrentModificationException;
+import java.util.List;
 import java.util.Spliterator;
 import java.util.function.Consumer;
 
@@ -42,6 +44,10 @@ class ListSpliterator<ElementT> implements Spliterator<ElementT> {
   @VisibleForTesting
   static final int MIN_SPLITTABLE_SIZE = 2;
 
+  /** The maximum number of elements to read at once in {@link #forEachRemaining}. */
+  @VisibleForTesting
+  static final int FOR_EACH_CHUNK_SIZE = 256;
+
   private final ListIndex<ElementT> list;
 
   /** An index of the next element to read. */
@@ -76,12 +82,6 @@ class ListSpliterator<ElementT> implements Spliterator<ElementT> {
     this.initialCounterValue = initialCounterValue;
   }
 
-  //  todo: can add forEachRemaining and AbstractListIndexProxy#forEachInRange to list that
-  //    can avoid performing repetitive operation per each get:
-  //    - a check for modifications of the source list
-  //    - getNativeHandle
-  //    - size checks (a native call to size): [ECR-2817]
-
   @Override
   public boolean tryAdvance(Consumer<? super ElementT> action) {
     bindOrCheckModifications();
@@ -95,6 +95,28 @@ class ListSpliterator<ElementT> implements Spliterator<ElementT> {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Reads the elements from the list in chunks, using {@link ListIndex#getRange},
+   * to avoid the per-element overhead of {@link #tryAdvance}: a check for modifications
+   * of the source list, a size check and a native call.
+   */
+  @Override
+  public void forEachRemaining(Consumer<? super ElementT> action) {
+    checkNotNull(action);
+    while (true) {
+      bindOrCheckModifications();
+      if (nextIndex >= fence) {
+        return;
+      }
+      long chunkEnd = Math.min(nextIndex + FOR_EACH_CHUNK_SIZE, fence);
+      List<ElementT> chunk = list.getRange(nextIndex, chunkEnd);
+      nextIndex = chunkEnd;
+      chunk.forEach(action);
+    }
+  }
+
   @Override
   public Spliterator<ElementT> trySplit() {
     bindOrCheckModifications();
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import java.util.Iterator;
+import java.util.PrimitiveIterator;
+
+/**
+ * A map of {@code long} keys to values. Unlike {@code MapIndex<Long, V>}, it accepts and returns
+ * primitive keys, and does not box them or allocate arrays for their serialized form.
+ * It suits the maps keyed by heights or other sequence numbers.
+ *
+ * <p>The keys are stored as 8 bytes in big-endian order with the sign bit flipped. Such encoding
+ * preserves the order: the keys are iterated in their numeric order, with negative keys going
+ * before non-negative ones.
+ *
+ * <p>The "destructive" methods of the map, i.e., the one that change the map contents,
+ * are specified to throw {@link UnsupportedOperationException} if
+ * the map has been created with a read-only database view.
+ *
+ * <p>This interface prohibits null values.
+ *
+ * @param <V> the type of values in this map
+ * @see MapIndex
+ */
+public interface LongKeyMapIndex<V> extends StorageIndex {
+
+  /**
+   * Returns true if this map contains a mapping for the specified key.
+   *
+   * @throws IllegalStateException if this map is not valid
+   */
+  boolean containsKey(long key);
+
+  /**
+   * Returns the value associated with the specified key,
+   * or {@code null} if there is no mapping for the key.
+   *
+   * @param key a storage key
+   * @throws IllegalStateException if this map is not valid
+   */
+  V get(long key);
+
+  /**
+   * Puts a new key-value pair into the map. If this map already contains
+   * a mapping for the specified key, overwrites the old value with the specified value.
+   *
+   * @param key a storage key
+   * @param value a storage value to associate with the key
+   * @throws IllegalStateException if this map is not valid
+   * @throws IllegalArgumentException if some property of the value prevents it
+   *                                  from being stored in this map
+   * @throws UnsupportedOperationException if this map is read-only
+   */
+  void put(long key, V value);
+
+  /**
+   * Removes the value mapped to the specified key from the map.
+   * If there is no such mapping, has no effect.
+   *
+   * @param key a storage key
+   * @throws IllegalStateException if this map is not valid
+   * @throws UnsupportedOperationException if this map is read-only
+   */
+  void remove(long key);
+
+  /**
+   * Returns an iterator over the map keys in ascending order.
+   *
+   * @throws IllegalStateException if this map is not valid
+   */
+  PrimitiveIterator.OfLong keys();
+
+  /**
+   * Returns an iterator over the map keys starting at the given key, inclusive,
+   * in ascending order. The map does not have to contain the key.
+   *
+   * @param from the first key to include
+   * @throws IllegalStateException if this map is not valid
+   */
+  PrimitiveIterator.OfLong keys(long from);
+
+  /**
+   * Returns an iterator over the map values. The values are ordered by their keys
+   * in ascending order.
+   *
+   * @throws IllegalStateException if this map is not valid
+   */
+  Iterator<V> values();
+
+  /**
+   * Removes all of the key-value pairs from the map.
+   *
+   * @throws IllegalStateException if this map is not valid
+   * @throws UnsupportedOperationException if this map is read-only
+   */
+  void clear();
+
+  /**
+   * Returns true if this map has no entries.
+   *
+   * @throws IllegalStateException if this map is not valid
+   */
+  default boolean isEmpty() {
+    return !keys().hasNext();
+  }
+}
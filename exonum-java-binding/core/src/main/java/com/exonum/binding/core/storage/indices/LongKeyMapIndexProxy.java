@@ -0,0 +1,207 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import com.exonum.binding.common.serialization.CheckingSerializerDecorator;
+import com.exonum.binding.common.serialization.Serializer;
+import com.exonum.binding.common.serialization.StandardSerializers;
+import com.exonum.binding.core.proxy.Cleaner;
+import com.exonum.binding.core.proxy.NativeHandle;
+import com.exonum.binding.core.storage.database.AbstractAccess;
+import com.exonum.binding.core.storage.database.Access;
+import com.exonum.binding.core.util.LibraryLoader;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * A map index proxy of {@code long} keys to values.
+ *
+ * <p>The keys are stored in the database as 8 bytes in big-endian order with the sign bit
+ * flipped, so that the iteration order of the keys matches their numeric order, including
+ * the negative keys. This format differs from the little-endian format of
+ * {@link StandardSerializers#fixed64()}, therefore, a map of {@code Long} keys created with
+ * {@link Access#getMap(IndexAddress, Serializer, Serializer)} and that serializer cannot read
+ * the entries of this map, and vice versa. The same address must not be used with both.
+ *
+ * <p>The "destructive" methods of the map, i.e., the one that change the map contents,
+ * are specified to throw {@link UnsupportedOperationException} if
+ * the map has been created with a read-only database access.
+ *
+ * <p>All method arguments are non-null by default.
+ *
+ * <p>This class is not thread-safe and its instances shall not be shared between threads,
+ * unless they are created with a
+ * {@linkplain com.exonum.binding.core.storage.database.Snapshot snapshot}, which allows
+ * concurrent reads.
+ *
+ * <p>When the access goes out of scope, this map is destroyed. Subsequent use of the closed map
+ * is prohibited and will result in {@link IllegalStateException}.
+ *
+ * @param <V> the type of values in this map
+ * @see Access
+ */
+public final class LongKeyMapIndexProxy<V> extends AbstractIndexProxy
+    implements LongKeyMapIndex<V> {
+
+  static {
+    LibraryLoader.load();
+  }
+
+  private final CheckingSerializerDecorator<V> valueSerializer;
+
+  /**
+   * Creates a new LongKeyMapIndexProxy.
+   *
+   * <p><strong>Warning:</strong> do not invoke this method from service code, use
+   * {@link Access#getLongKeyMap(IndexAddress, Serializer)}.
+   *
+   * @param address an index address
+   * @param access a database access. Must be valid.
+   *             If an access is read-only, "destructive" operations are not permitted.
+   * @param valueSerializer a serializer of values
+   * @param <V> the type of values in the map
+   * @throws IllegalStateException if the access is not valid
+   * @throws IllegalArgumentException if the name is empty
+   * @see StandardSerializers
+   */
+  public static <V> LongKeyMapIndexProxy<V> newInstance(IndexAddress address,
+      AbstractAccess access, Serializer<V> valueSerializer) {
+    CheckingSerializerDecorator<V> vs = CheckingSerializerDecorator.from(valueSerializer);
+
+    return new LongKeyMapIndexProxy<>(() -> createNativeMap(address, access), address,
+        access, vs);
+  }
+
+  private static NativeHandle createNativeMap(IndexAddress address, AbstractAccess access) {
+    long accessNativeHandle = access.getAccessNativeHandle();
+    long handle = nativeCreate(address.getName(), address.getIdInGroup().orElse(null),
+        accessNativeHandle);
+    NativeHandle mapNativeHandle = new NativeHandle(handle);
+
+    Cleaner cleaner = access.getCleaner();
+    cleaner.addNativeProxy(mapNativeHandle, LongKeyMapIndexProxy.class,
+        LongKeyMapIndexProxy::nativeFree, LongKeyMapIndexProxy::nativeFreeAll);
+    return mapNativeHandle;
+  }
+
+  private LongKeyMapIndexProxy(Supplier<NativeHandle> nativeIndexFactory, IndexAddress address,
+      AbstractAccess access, CheckingSerializerDecorator<V> valueSerializer) {
+    super(nativeIndexFactory, address, access);
+    this.valueSerializer = valueSerializer;
+  }
+
+  @Override
+  public boolean containsKey(long key) {
+    return nativeContainsKey(getNativeHandle(), key);
+  }
+
+  @Override
+  public V get(long key) {
+    byte[] dbValue = nativeGet(getNativeHandle(), key);
+    return (dbValue == null) ? null : valueSerializer.fromBytes(dbValue);
+  }
+
+  @Override
+  public void put(long key, V value) {
+    notifyModified();
+    byte[] dbValue = valueSerializer.toBytes(value);
+    nativePut(getNativeHandle(), key, dbValue);
+  }
+
+  @Override
+  public void remove(long key) {
+    notifyModified();
+    nativeRemove(getNativeHandle(), key);
+  }
+
+  @Override
+  public CloseableIterator.OfLong keys() {
+    return createKeysIterator(nativeCreateKeysIter(getNativeHandle()));
+  }
+
+  @Override
+  public CloseableIterator.OfLong keys(long from) {
+    return createKeysIterator(nativeKeysFrom(getNativeHandle(), from));
+  }
+
+  private CloseableIterator.OfLong createKeysIterator(long iterNativeHandle) {
+    return StorageIterators.createLongIterator(
+        iterNativeHandle,
+        this::nativeKeysIterNextChunk,
+        this::nativeKeysIterFree,
+        dbAccess,
+        modCounter
+    );
+  }
+
+  @Override
+  public CloseableIterator<V> values() {
+    return StorageIterators.createIterator(
+        nativeCreateValuesIter(getNativeHandle()),
+        this::nativeValuesIterNextChunk,
+        this::nativeValuesIterFree,
+        dbAccess,
+        modCounter,
+        valueSerializer::fromBytes
+    );
+  }
+
+  @Override
+  public void clear() {
+    notifyModified();
+    nativeClear(getNativeHandle());
+  }
+
+  @Override
+  public boolean isEmpty() {
+    try (CloseableIterator.OfLong keys = keys()) {
+      return !keys.hasNext();
+    }
+  }
+
+  private static native long nativeCreate(String name, @Nullable byte[] idInGroup,
+      long accessNativeHandle);
+
+  private static native void nativeFree(long nativeHandle);
+
+  private static native void nativeFreeAll(long[] nativeHandles);
+
+  private native boolean nativeContainsKey(long nativeHandle, long key);
+
+  private native byte[] nativeGet(long nativeHandle, long key);
+
+  private native void nativePut(long nativeHandle, long key, byte[] value);
+
+  private native void nativeRemove(long nativeHandle, long key);
+
+  private native void nativeClear(long nativeHandle);
+
+  private native long nativeCreateKeysIter(long nativeHandle);
+
+  private native long nativeKeysFrom(long nativeHandle, long from);
+
+  private native long[] nativeKeysIterNextChunk(long iterNativeHandle, int maxKeys);
+
+  private native void nativeKeysIterFree(long iterNativeHandle);
+
+  private native long nativeCreateValuesIter(long nativeHandle);
+
+  private native byte[][] nativeValuesIterNextChunk(long iterNativeHandle, int maxValues,
+      int maxBytes);
+
+  private native void nativeValuesIterFree(long iterNativeHandle);
+}
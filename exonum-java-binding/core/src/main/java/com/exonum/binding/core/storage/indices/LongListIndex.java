@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.stream.LongStream;
+
+/**
+ * A list of {@code long} elements. Unlike {@code ListIndex<Long>}, it accepts and returns
+ * primitive values, and does not box them or allocate arrays for their serialized form.
+ *
+ * <p>The elements are stored as 8 bytes in little-endian order, the same as
+ * {@link com.exonum.binding.common.serialization.StandardSerializers#fixed64()} would
+ * serialize them; hence the list is interchangeable with {@code ListIndex<Long>}
+ * using that serializer.
+ *
+ * <p>The "destructive" methods of the list, i.e., those that change its contents,
+ * are specified to throw {@link UnsupportedOperationException} if
+ * this list has been created with a read-only database view.
+ *
+ * <p>When the corresponding view goes out of scope, this list is destroyed. Subsequent use
+ * of the closed list is prohibited and will result in {@link IllegalStateException}.
+ *
+ * @see ListIndex
+ */
+public interface LongListIndex extends StorageIndex {
+
+  /**
+   * Adds a new element to the end of the list.
+   *
+   * @param e an element to append to the list
+   * @throws IllegalStateException if this list is not valid
+   * @throws UnsupportedOperationException if this list is read-only
+   */
+  void add(long e);
+
+  /**
+   * Adds all the elements from the specified array to this list.
+   *
+   * @param elements elements to add to this list
+   * @throws IllegalStateException if this list is not valid
+   * @throws UnsupportedOperationException if this list is read-only
+   */
+  void addAll(long[] elements);
+
+  /**
+   * Replaces the element at the given index of the list with the specified element.
+   *
+   * @param index an index of the element to replace
+   * @param e an element to add
+   * @throws IndexOutOfBoundsException if the index is invalid
+   * @throws IllegalStateException if this list is not valid
+   * @throws UnsupportedOperationException if this list is read-only
+   */
+  void set(long index, long e);
+
+  /**
+   * Returns the element at the given index.
+   *
+   * @param index an index of the element to return
+   * @return an element at the given index
+   * @throws IndexOutOfBoundsException if index is invalid
+   * @throws IllegalStateException if this list is not valid
+   */
+  long get(long index);
+
+  /**
+   * Returns the last element of the list.
+   *
+   * @return the last element of the list
+   * @throws NoSuchElementException if the list is empty
+   * @throws IllegalStateException if this list is not valid
+   */
+  long getLast();
+
+  /**
+   * Removes the last element of the list and returns it.
+   *
+   * @return the last element of the list.
+   * @throws NoSuchElementException if the list is empty
+   * @throws IllegalStateException if this list is not valid
+   * @throws UnsupportedOperationException if this list is read-only
+   */
+  long removeLast();
+
+  /**
+   * Truncates the list, reducing its size to {@code newSize}.
+   *
+   * <p>If {@code newSize < size()}, keeps the first {@code newSize} elements, removing the rest.
+   * If {@code newSize >= size()}, has no effect.
+   *
+   * @param newSize the maximum number of elements to keep
+   * @throws IllegalArgumentException if the new size is negative
+   * @throws IllegalStateException if this list is not valid
+   * @throws UnsupportedOperationException if this list is read-only
+   */
+  void truncate(long newSize);
+
+  /**
+   * Clears the list.
+   *
+   * @throws IllegalStateException if this list is not valid
+   * @throws UnsupportedOperationException if this list is read-only
+   */
+  void clear();
+
+  /**
+   * Returns true if the list has no elements.
+   *
+   * @throws IllegalStateException if this list is not valid
+   */
+  boolean isEmpty();
+
+  /**
+   * Returns the number of elements in the list.
+   *
+   * @throws IllegalStateException if this list is not valid
+   */
+  long size();
+
+  /**
+   * Returns an iterator over the elements of the list.
+   *
+   * <p>Any destructive operation on the same {@link com.exonum.binding.core.storage.database.Fork}
+   * this list is based on will invalidate the iterator.
+   *
+   * @throws IllegalStateException if this list is not valid
+   */
+  PrimitiveIterator.OfLong iterator();
+
+  /**
+   * Returns a stream of the elements of the list. The stream is sequential.
+   *
+   * @throws IllegalStateException if this list is not valid
+   */
+  LongStream stream();
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static com.exonum.binding.core.storage.indices.StoragePreconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.exonum.binding.core.proxy.Cleaner;
+import com.exonum.binding.core.proxy.NativeHandle;
+import com.exonum.binding.core.storage.database.AbstractAccess;
+import com.exonum.binding.core.storage.database.Access;
+import com.exonum.binding.core.util.LibraryLoader;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+import javax.annotation.Nullable;
+
+/**
+ * A list index proxy of {@code long} elements.
+ *
+ * <p>The "destructive" methods of the list, i.e., those that change its contents,
+ * are specified to throw {@link UnsupportedOperationException} if
+ * this list has been created with a read-only database access.
+ *
+ * <p>This class is not thread-safe and its instances shall not be shared between threads,
+ * unless they are created with a
+ * {@linkplain com.exonum.binding.core.storage.database.Snapshot snapshot}, which allows
+ * concurrent reads.
+ *
+ * <p>When the access goes out of scope, this list is destroyed. Subsequent use of the closed list
+ * is prohibited and will result in {@link IllegalStateException}.
+ *
+ * @see Access
+ */
+public final class LongListIndexProxy extends AbstractIndexProxy implements LongListIndex {
+
+  static {
+    LibraryLoader.load();
+  }
+
+  /**
+   * Creates a new LongListIndexProxy.
+   *
+   * <p><strong>Warning:</strong> do not invoke this method from service code, use
+   * {@link Access#getLongList(IndexAddress)}.
+   *
+   * @param address an index address
+   * @param access a database access. Must be valid.
+   *             If an access is read-only, "destructive" operations are not permitted.
+   * @throws IllegalStateException if the access is not valid
+   * @throws IllegalArgumentException if the name is empty
+   */
+  public static LongListIndexProxy newInstance(IndexAddress address, AbstractAccess access) {
+    return new LongListIndexProxy(() -> createNativeList(address, access), address, access);
+  }
+
+  private static NativeHandle createNativeList(IndexAddress address, AbstractAccess access) {
+    long accessNativeHandle = access.getAccessNativeHandle();
+    long handle = nativeCreate(address.getName(), address.getIdInGroup().orElse(null),
+        accessNativeHandle);
+    NativeHandle listNativeHandle = new NativeHandle(handle);
+
+    Cleaner cleaner = access.getCleaner();
+    cleaner.addNativeProxy(listNativeHandle, LongListIndexProxy.class,
+        LongListIndexProxy::nativeFree, LongListIndexProxy::nativeFreeAll);
+    return listNativeHandle;
+  }
+
+  private LongListIndexProxy(Supplier<NativeHandle> nativeIndexFactory, IndexAddress address,
+      AbstractAccess access) {
+    super(nativeIndexFactory, address, access);
+  }
+
+  @Override
+  public void add(long e) {
+    notifyModified();
+    nativeAdd(getNativeHandle(), e);
+  }
+
+  @Override
+  public void addAll(long[] elements) {
+    checkNotNull(elements);
+    notifyModified();
+    nativeAddAll(getNativeHandle(), elements);
+  }
+
+  @Override
+  public void set(long index, long e) {
+    checkElementIndex(index, size());
+    notifyModified();
+    nativeSet(getNativeHandle(), index, e);
+  }
+
+  @Override
+  public long get(long index) {
+    checkElementIndex(index, size());
+    return nativeGet(getNativeHandle(), index);
+  }
+
+  @Override
+  public long getLast() {
+    long size = size();
+    if (size == 0) {
+      throw new NoSuchElementException("List is empty");
+    }
+    return nativeGet(getNativeHandle(), size - 1);
+  }
+
+  @Override
+  public long removeLast() {
+    notifyModified();
+    if (isEmpty()) {
+      throw new NoSuchElementException("List is empty");
+    }
+    return nativeRemoveLast(getNativeHandle());
+  }
+
+  @Override
+  public void truncate(long newSize) {
+    checkArgument(newSize >= 0, "New size must be non-negative: %s", newSize);
+    notifyModified();
+    nativeTruncate(getNativeHandle(), newSize);
+  }
+
+  @Override
+  public void clear() {
+    notifyModified();
+    nativeClear(getNativeHandle());
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return nativeIsEmpty(getNativeHandle());
+  }
+
+  @Override
+  public long size() {
+    return nativeSize(getNativeHandle());
+  }
+
+  @Override
+  public CloseableIterator.OfLong iterator() {
+    return StorageIterators.createLongIterator(
+        nativeCreateIter(getNativeHandle()),
+        this::nativeIterNextChunk,
+        this::nativeIterFree,
+        dbAccess,
+        modCounter);
+  }
+
+  @Override
+  public LongStream stream() {
+    long size = size();
+    CloseableIterator.OfLong iterator = iterator();
+    Spliterator.OfLong spliterator = Spliterators.spliterator(iterator, size,
+        Spliterator.ORDERED | Spliterator.SIZED);
+    return StreamSupport.longStream(spliterator, false)
+        .onClose(iterator::close);
+  }
+
+  private static native long nativeCreate(String name, @Nullable byte[] idInGroup,
+      long accessNativeHandle);
+
+  private static native void nativeFree(long nativeHandle);
+
+  private static native void nativeFreeAll(long[] nativeHandles);
+
+  private native void nativeAdd(long nativeHandle, long e);
+
+  private native void nativeAddAll(long nativeHandle, long[] elements);
+
+  private native void nativeSet(long nativeHandle, long index, long e);
+
+  private native long nativeGet(long nativeHandle, long index);
+
+  private native long nativeRemoveLast(long nativeHandle);
+
+  private native void nativeTruncate(long nativeHandle, long newSize);
+
+  private native void nativeClear(long nativeHandle);
+
+  private native boolean nativeIsEmpty(long nativeHandle);
+
+  private native long nativeSize(long nativeHandle);
+
+  private native long nativeCreateIter(long nativeHandle);
+
+  private native long[] nativeIterNextChunk(long iterNativeHandle, int maxElements);
+
+  private native void nativeIterFree(long iterNativeHandle);
+}
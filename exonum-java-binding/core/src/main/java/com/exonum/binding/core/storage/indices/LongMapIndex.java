@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import java.util.Iterator;
+import java.util.PrimitiveIterator;
+
+/**
+ * A map of keys to {@code long} values. Unlike {@code MapIndex<K, Long>}, it accepts and returns
+ * primitive values, and does not box them or allocate arrays for their serialized form.
+ * It suits counters and balances.
+ *
+ * <p>The values are stored as 8 bytes in little-endian order, the same as
+ * {@link com.exonum.binding.common.serialization.StandardSerializers#fixed64()} would
+ * serialize them; hence the map is interchangeable with {@code MapIndex<K, Long>}
+ * using that serializer.
+ *
+ * <p>The "destructive" methods of the map, i.e., the one that change the map contents,
+ * are specified to throw {@link UnsupportedOperationException} if
+ * the map has been created with a read-only database view.
+ *
+ * <p>This interface prohibits null keys.
+ *
+ * @param <K> the type of keys in this map
+ * @see MapIndex
+ */
+public interface LongMapIndex<K> extends StorageIndex {
+
+  /**
+   * Returns true if this map contains a mapping for the specified key.
+   *
+   * @throws IllegalStateException if this map is not valid
+   */
+  boolean containsKey(K key);
+
+  /**
+   * Returns the value associated with the specified key, or {@code defaultValue}
+   * if there is no mapping for the key.
+   *
+   * @param key a storage key
+   * @param defaultValue the value to return if there is no mapping for the key
+   * @throws IllegalStateException if this map is not valid
+   */
+  long getOrDefault(K key, long defaultValue);
+
+  /**
+   * Puts a new key-value pair into the map. If this map already contains
+   * a mapping for the specified key, overwrites the old value with the specified value.
+   *
+   * @param key a storage key
+   * @param value a storage value to associate with the key
+   * @throws IllegalStateException if this map is not valid
+   * @throws UnsupportedOperationException if this map is read-only
+   */
+  void put(K key, long value);
+
+  /**
+   * Adds the delta to the value associated with the specified key, and returns the new value.
+   * If there is no mapping for the key, the value is considered to be zero.
+   *
+   * @param key a storage key
+   * @param delta a delta to add to the value; may be negative
+   * @return the new value associated with the key
+   * @throws ArithmeticException if the result overflows a long; the map is not modified
+   *     in this case
+   * @throws IllegalStateException if this map is not valid
+   * @throws UnsupportedOperationException if this map is read-only
+   */
+  long addAndGet(K key, long delta);
+
+  /**
+   * Removes the value mapped to the specified key from the map.
+   * If there is no such mapping, has no effect.
+   *
+   * @param key a storage key
+   * @throws IllegalStateException if this map is not valid
+   * @throws UnsupportedOperationException if this map is read-only
+   */
+  void remove(K key);
+
+  /**
+   * Returns an iterator over the map keys. The keys are ordered in lexicographical order.
+   *
+   * @throws IllegalStateException if this map is not valid
+   */
+  Iterator<K> keys();
+
+  /**
+   * Returns an iterator over the map values. The values are ordered in lexicographical order of
+   * <em>keys</em>.
+   *
+   * @throws IllegalStateException if this map is not valid
+   */
+  PrimitiveIterator.OfLong values();
+
+  /**
+   * Removes all of the key-value pairs from the map.
+   *
+   * @throws IllegalStateException if this map is not valid
+   * @throws UnsupportedOperationException if this map is read-only
+   */
+  void clear();
+
+  /**
+   * Returns true if this map has no entries.
+   *
+   * @throws IllegalStateException if this map is not valid
+   */
+  default boolean isEmpty() {
+    return !keys().hasNext();
+  }
+}
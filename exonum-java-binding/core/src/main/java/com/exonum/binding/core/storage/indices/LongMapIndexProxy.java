@@ -0,0 +1,199 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import com.exonum.binding.common.serialization.CheckingSerializerDecorator;
+import com.exonum.binding.common.serialization.Serializer;
+import com.exonum.binding.common.serialization.StandardSerializers;
+import com.exonum.binding.core.proxy.Cleaner;
+import com.exonum.binding.core.proxy.NativeHandle;
+import com.exonum.binding.core.storage.database.AbstractAccess;
+import com.exonum.binding.core.storage.database.Access;
+import com.exonum.binding.core.util.LibraryLoader;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * A map index proxy of keys to {@code long} values.
+ *
+ * <p>The "destructive" methods of the map, i.e., the one that change the map contents,
+ * are specified to throw {@link UnsupportedOperationException} if
+ * the map has been created with a read-only database access.
+ *
+ * <p>All method arguments are non-null by default.
+ *
+ * <p>This class is not thread-safe and its instances shall not be shared between threads,
+ * unless they are created with a
+ * {@linkplain com.exonum.binding.core.storage.database.Snapshot snapshot}, which allows
+ * concurrent reads.
+ *
+ * <p>When the access goes out of scope, this map is destroyed. Subsequent use of the closed map
+ * is prohibited and will result in {@link IllegalStateException}.
+ *
+ * @param <K> the type of keys in this map
+ * @see Access
+ */
+public final class LongMapIndexProxy<K> extends AbstractIndexProxy implements LongMapIndex<K> {
+
+  static {
+    LibraryLoader.load();
+  }
+
+  private final CheckingSerializerDecorator<K> keySerializer;
+
+  /**
+   * Creates a new LongMapIndexProxy.
+   *
+   * <p><strong>Warning:</strong> do not invoke this method from service code, use
+   * {@link Access#getLongMap(IndexAddress, Serializer)}.
+   *
+   * @param address an index address
+   * @param access a database access. Must be valid.
+   *             If an access is read-only, "destructive" operations are not permitted.
+   * @param keySerializer a serializer of keys
+   * @param <K> the type of keys in the map
+   * @throws IllegalStateException if the access is not valid
+   * @throws IllegalArgumentException if the name is empty
+   * @see StandardSerializers
+   */
+  public static <K> LongMapIndexProxy<K> newInstance(IndexAddress address,
+      AbstractAccess access, Serializer<K> keySerializer) {
+    CheckingSerializerDecorator<K> ks = CheckingSerializerDecorator.from(keySerializer);
+
+    return new LongMapIndexProxy<>(() -> createNativeMap(address, access), address,
+        access, ks);
+  }
+
+  private static NativeHandle createNativeMap(IndexAddress address, AbstractAccess access) {
+    long accessNativeHandle = access.getAccessNativeHandle();
+    long handle = nativeCreate(address.getName(), address.getIdInGroup().orElse(null),
+        accessNativeHandle);
+    NativeHandle mapNativeHandle = new NativeHandle(handle);
+
+    Cleaner cleaner = access.getCleaner();
+    cleaner.addNativeProxy(mapNativeHandle, LongMapIndexProxy.class, LongMapIndexProxy::nativeFree,
+        LongMapIndexProxy::nativeFreeAll);
+    return mapNativeHandle;
+  }
+
+  private LongMapIndexProxy(Supplier<NativeHandle> nativeIndexFactory, IndexAddress address,
+      AbstractAccess access, CheckingSerializerDecorator<K> keySerializer) {
+    super(nativeIndexFactory, address, access);
+    this.keySerializer = keySerializer;
+  }
+
+  @Override
+  public boolean containsKey(K key) {
+    byte[] dbKey = keySerializer.toBytes(key);
+    return nativeContainsKey(getNativeHandle(), dbKey);
+  }
+
+  @Override
+  public long getOrDefault(K key, long defaultValue) {
+    byte[] dbKey = keySerializer.toBytes(key);
+    return nativeGetOrDefault(getNativeHandle(), dbKey, defaultValue);
+  }
+
+  @Override
+  public void put(K key, long value) {
+    notifyModified();
+    byte[] dbKey = keySerializer.toBytes(key);
+    nativePut(getNativeHandle(), dbKey, value);
+  }
+
+  @Override
+  public long addAndGet(K key, long delta) {
+    notifyModified();
+    byte[] dbKey = keySerializer.toBytes(key);
+    return nativeAddAndGet(getNativeHandle(), dbKey, delta);
+  }
+
+  @Override
+  public void remove(K key) {
+    notifyModified();
+    byte[] dbKey = keySerializer.toBytes(key);
+    nativeRemove(getNativeHandle(), dbKey);
+  }
+
+  @Override
+  public CloseableIterator<K> keys() {
+    return StorageIterators.createIterator(
+        nativeCreateKeysIter(getNativeHandle()),
+        this::nativeKeysIterNextChunk,
+        this::nativeKeysIterFree,
+        dbAccess,
+        modCounter,
+        keySerializer::fromBytes
+    );
+  }
+
+  @Override
+  public CloseableIterator.OfLong values() {
+    return StorageIterators.createLongIterator(
+        nativeCreateValuesIter(getNativeHandle()),
+        this::nativeValuesIterNextChunk,
+        this::nativeValuesIterFree,
+        dbAccess,
+        modCounter
+    );
+  }
+
+  @Override
+  public void clear() {
+    notifyModified();
+    nativeClear(getNativeHandle());
+  }
+
+  @Override
+  public boolean isEmpty() {
+    try (CloseableIterator<K> keys = keys()) {
+      return !keys.hasNext();
+    }
+  }
+
+  private static native long nativeCreate(String name, @Nullable byte[] idInGroup,
+      long accessNativeHandle);
+
+  private static native void nativeFree(long nativeHandle);
+
+  private static native void nativeFreeAll(long[] nativeHandles);
+
+  private native boolean nativeContainsKey(long nativeHandle, byte[] key);
+
+  private native long nativeGetOrDefault(long nativeHandle, byte[] key, long defaultValue);
+
+  private native void nativePut(long nativeHandle, byte[] key, long value);
+
+  private native long nativeAddAndGet(long nativeHandle, byte[] key, long delta);
+
+  private native void nativeRemove(long nativeHandle, byte[] key);
+
+  private native void nativeClear(long nativeHandle);
+
+  private native long nativeCreateKeysIter(long nativeHandle);
+
+  private native byte[][] nativeKeysIterNextChunk(long iterNativeHandle, int maxKeys,
+      int maxBytes);
+
+  private native void nativeKeysIterFree(long iterNativeHandle);
+
+  private native long nativeCreateValuesIter(long nativeHandle);
+
+  private native long[] nativeValuesIterNextChunk(long iterNativeHandle, int maxValues);
+
+  private native void nativeValuesIterFree(long iterNativeHandle);
+}
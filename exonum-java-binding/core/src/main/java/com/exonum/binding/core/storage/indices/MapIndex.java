@@ -17,8 +17,15 @@
 package com.exonum.binding.core.storage.indices;
 
 import com.exonum.binding.common.collect.MapEntry;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A MapIndex is an index that maps keys to values. A map cannot contain duplicate keys;
@@ -42,6 +49,24 @@ public interface MapIndex<K, V> extends StorageIndex {
    */
   boolean containsKey(K key);
 
+  /**
+   * Returns true if this map contains a mapping for each of the specified keys.
+   * Equivalent to a sequence of individual {@link #containsKey} operations,
+   * but may be implemented more efficiently.
+   *
+   * @param keys the storage keys to check
+   * @throws NullPointerException if the passed collection is null or contains a null key
+   * @throws IllegalStateException if this map is not valid
+   */
+  default boolean containsAll(Collection<? extends K> keys) {
+    for (K key : keys) {
+      if (!containsKey(key)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * Puts a new key-value pair into the map. If this map already contains
    * a mapping for the specified key, overwrites the old value with the specified value.
@@ -83,6 +108,25 @@ public interface MapIndex<K, V> extends StorageIndex {
    */
   V get(K key);
 
+  /**
+   * Returns the values associated with the specified keys, in the order of the keys.
+   * Equivalent to a sequence of individual {@link #get} operations,
+   * but may be implemented more efficiently.
+   *
+   * @param keys the storage keys
+   * @return a list of values mapped to the specified keys; the list contains {@code null}
+   *         at the positions of keys that have no mapping
+   * @throws NullPointerException if the passed collection is null or contains a null key
+   * @throws IllegalStateException if this map is not valid
+   */
+  default List<V> getAll(Collection<? extends K> keys) {
+    List<V> values = new ArrayList<>(keys.size());
+    for (K key : keys) {
+      values.add(get(key));
+    }
+    return values;
+  }
+
   /**
    * Removes the value mapped to the specified key from the map.
    * If there is no such mapping, has no effect.
@@ -116,6 +160,58 @@ public interface MapIndex<K, V> extends StorageIndex {
    */
   Iterator<MapEntry<K, V>> entries();
 
+  /**
+   * Returns an iterator over the map keys starting at the given key, inclusive.
+   * The map does not have to contain the key: the iteration starts at the first key
+   * that is greater than or equal to it. The keys are ordered in lexicographical order.
+   *
+   * @param from the first key to include
+   * @throws IllegalStateException if this map is not valid
+   */
+  Iterator<K> keys(K from);
+
+  /**
+   * Returns an iterator over the map entries with the keys in the range
+   * [{@code from}, {@code toExclusive}). The entries are ordered by keys in lexicographical
+   * order. If {@code from} is not less than {@code toExclusive}, the iterator is empty.
+   *
+   * <p>Unlike filtering {@link #entries()}, this method does not read the entries outside
+   * the range.
+   *
+   * @param from the lower bound of the range of keys, inclusive
+   * @param toExclusive the upper bound of the range of keys, exclusive
+   * @throws IllegalStateException if this map is not valid
+   */
+  Iterator<MapEntry<K, V>> entries(K from, K toExclusive);
+
+  /**
+   * Returns an iterator over the map entries whose keys, in their binary (serialized) form,
+   * start with the given prefix. The entries are ordered by keys in lexicographical order.
+   * An empty prefix corresponds to all entries of this map.
+   *
+   * <p>Unlike filtering {@link #entries()}, this method does not read the entries outside
+   * the range of keys with the prefix.
+   *
+   * @param prefix the prefix of the serialized keys
+   * @throws IllegalStateException if this map is not valid
+   */
+  Iterator<MapEntry<K, V>> entriesWithPrefix(byte[] prefix);
+
+  /**
+   * Returns a stream of the map entries. The entries are ordered by keys in lexicographical
+   * order.
+   *
+   * <p>Implementations may support parallel traversal of the stream if this map
+   * has been created with a read-only database view. The default implementation
+   * does not split the traversal.
+   *
+   * @throws IllegalStateException if this map is not valid
+   */
+  default Stream<MapEntry<K, V>> stream() {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(entries(),
+        Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT), false);
+  }
+
   /**
    * Removes all of the key-value pairs from the map.
    * The map will be empty after this method returns.
@@ -129,8 +225,8 @@ public interface MapIndex<K, V> extends StorageIndex {
    * Returns true if this map has no entries.
    *
    * <p>Note: there is no {@code size()} method because
-   * implementations of MapIndex do not currently track
-   * the number of entries.
+   * most implementations of MapIndex do not track
+   * the number of entries. Use {@link CountedMapIndex} if the number of entries is needed.
    */
   default boolean isEmpty() {
     return !keys().hasNext();
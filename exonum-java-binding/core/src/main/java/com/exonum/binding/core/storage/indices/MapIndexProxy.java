@@ -16,18 +16,30 @@
 
 package com.exonum.binding.core.storage.indices;
 
+import static com.exonum.binding.core.storage.indices.StoragePreconditions.checkDirectBuffer;
+import static com.google.common.base.Preconditions.checkArgument;
+
 import com.exonum.binding.common.collect.MapEntry;
 import com.exonum.binding.common.serialization.CheckingSerializerDecorator;
 import com.exonum.binding.common.serialization.Serializer;
 import com.exonum.binding.common.serialization.StandardSerializers;
 import com.exonum.binding.core.proxy.Cleaner;
 import com.exonum.binding.core.proxy.NativeHandle;
-import com.exonum.binding.core.proxy.ProxyDestructor;
 import com.exonum.binding.core.storage.database.AbstractAccess;
 import com.exonum.binding.core.storage.database.Access;
+import com.exonum.binding.core.storage.database.DecodedValueCache;
+import com.exonum.binding.core.storage.database.KeyFilter;
+import com.exonum.binding.core.storage.database.Snapshot;
 import com.exonum.binding.core.util.LibraryLoader;
-import java.util.Iterator;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.annotation.Nullable;
 
 /**
@@ -42,7 +54,10 @@ import javax.annotation.Nullable;
  *
  * <p>All method arguments are non-null by default.
  *
- * <p>This class is not thread-safe and its instances shall not be shared between threads.
+ * <p>This class is not thread-safe and its instances shall not be shared between threads,
+ * unless they are created with a
+ * {@linkplain com.exonum.binding.core.storage.database.Snapshot snapshot}, which allows
+ * concurrent reads.
  *
  * <p>When the access goes out of scope, this map is destroyed. Subsequent use of the closed map
  * is prohibited and will result in {@link IllegalStateException}.
@@ -59,6 +74,12 @@ public final class MapIndexProxy<K, V> extends AbstractIndexProxy implements Map
 
   private final CheckingSerializerDecorator<K> keySerializer;
   private final CheckingSerializerDecorator<V> valueSerializer;
+  @Nullable
+  private final WriteBackMapCache<V> cache;
+  @Nullable
+  private final DecodedValueCache valueCache;
+  @Nullable
+  private final KeyFilter keyFilter;
 
   /**
    * Creates a new MapIndexProxy.
@@ -83,9 +104,8 @@ public final class MapIndexProxy<K, V> extends AbstractIndexProxy implements Map
     CheckingSerializerDecorator<K> ks = CheckingSerializerDecorator.from(keySerializer);
     CheckingSerializerDecorator<V> vs = CheckingSerializerDecorator.from(valueSerializer);
 
-    NativeHandle mapNativeHandle = createNativeMap(address, access);
-
-    return new MapIndexProxy<>(mapNativeHandle, address, access, ks, vs);
+    return new MapIndexProxy<>(() -> createNativeMap(address, access), address, access,
+        ks, vs);
   }
 
   private static NativeHandle createNativeMap(IndexAddress address, AbstractAccess access) {
@@ -95,25 +115,62 @@ public final class MapIndexProxy<K, V> extends AbstractIndexProxy implements Map
     NativeHandle mapNativeHandle = new NativeHandle(handle);
 
     Cleaner cleaner = access.getCleaner();
-    ProxyDestructor.newRegistered(cleaner, mapNativeHandle, MapIndexProxy.class,
-        MapIndexProxy::nativeFree);
+    cleaner.addNativeProxy(mapNativeHandle, MapIndexProxy.class, MapIndexProxy::nativeFree,
+        MapIndexProxy::nativeFreeAll);
     return mapNativeHandle;
   }
 
-  private MapIndexProxy(NativeHandle nativeHandle, IndexAddress address, AbstractAccess access,
+  private MapIndexProxy(Supplier<NativeHandle> nativeIndexFactory, IndexAddress address,
+                        AbstractAccess access,
                         CheckingSerializerDecorator<K> keySerializer,
                         CheckingSerializerDecorator<V> valueSerializer) {
-    super(nativeHandle, address, access);
+    super(nativeIndexFactory, address, access);
     this.keySerializer = keySerializer;
     this.valueSerializer = valueSerializer;
+    if (access.isWriteBackCacheEnabled()) {
+      // Create the native map before the cache, so that the cache is flushed
+      // before the native map is destroyed
+      createNativeIndex();
+    }
+    this.cache = WriteBackMapCache.forAccess(access, valueSerializer, this::writeBatch);
+    this.valueCache = access.getValueCache().orElse(null);
+    this.keyFilter = access.getKeyFilter().orElse(null);
+  }
+
+  private void writeBatch(byte[][] keys, byte[][] values) {
+    nativeWriteBatch(getNativeHandle(), keys, values);
+  }
+
+  /**
+   * Writes the changes buffered in the cache, if any, to the native map.
+   */
+  private void flushCache() {
+    if (cache != null) {
+      cache.flush();
+    }
   }
 
   @Override
   public boolean containsKey(K key) {
     byte[] dbKey = keySerializer.toBytes(key);
+    if (cache != null) {
+      loadIntoCache(dbKey);
+      return cache.hasValue(dbKey);
+    }
+    if (keyFilter != null
+        && !keyFilter.mightContain(getAddress(), dbKey, this::serializedKeys)) {
+      return false;
+    }
     return nativeContainsKey(getNativeHandle(), dbKey);
   }
 
+  @Override
+  public boolean containsAll(Collection<? extends K> keys) {
+    flushCache();
+    byte[][] dbKeys = keysToArray(keys);
+    return nativeContainsAll(getNativeHandle(), dbKeys);
+  }
+
   @Override
   public void put(K key, V value) {
     notifyModified();
@@ -123,37 +180,208 @@ public final class MapIndexProxy<K, V> extends AbstractIndexProxy implements Map
   @Override
   public void putAll(Map<? extends K, ? extends V> sourceMap) {
     notifyModified();
-    long nativeHandle = getNativeHandle();
+    if (cache != null) {
+      cache.flush();
+      cache.clear();
+    }
+    int size = sourceMap.size();
+    byte[][] dbKeys = new byte[size][];
+    byte[][] dbValues = new byte[size][];
+    int i = 0;
     for (Map.Entry<? extends K, ? extends V> entry : sourceMap.entrySet()) {
-      putInternal(nativeHandle, entry.getKey(), entry.getValue());
+      dbKeys[i] = keySerializer.toBytes(entry.getKey());
+      dbValues[i] = valueSerializer.toBytes(entry.getValue());
+      i++;
     }
+    nativePutAll(getNativeHandle(), dbKeys, dbValues);
   }
 
   private void putInternal(long thisNativeHandle, K key, V value) {
     byte[] dbKey = keySerializer.toBytes(key);
     byte[] dbValue = valueSerializer.toBytes(value);
-    nativePut(thisNativeHandle, dbKey, dbValue);
+    if (cache != null) {
+      cache.put(dbKey, dbValue, value);
+    } else {
+      nativePut(thisNativeHandle, dbKey, dbValue);
+    }
   }
 
   @Override
   public V get(K key) {
     byte[] dbKey = keySerializer.toBytes(key);
-    byte[] dbValue = nativeGet(getNativeHandle(), dbKey);
+    if (cache != null) {
+      loadIntoCache(dbKey);
+      return cache.get(dbKey);
+    }
+    long nativeHandle = getNativeHandle();
+    if (valueCache != null) {
+      return valueCache.get(getAddress(), dbKey, k -> getInternal(nativeHandle, k));
+    }
+    return getInternal(nativeHandle, dbKey);
+  }
+
+  @Nullable
+  private V getInternal(long nativeHandle, byte[] dbKey) {
+    byte[] dbValue = nativeGet(nativeHandle, dbKey);
     return (dbValue == null) ? null : valueSerializer.fromBytes(dbValue);
   }
 
+  private void loadIntoCache(byte[] dbKey) {
+    // Get the handle even if the value is cached to check that this map is valid
+    long nativeHandle = getNativeHandle();
+    if (!cache.contains(dbKey)) {
+      byte[] dbValue = nativeGet(nativeHandle, dbKey);
+      cache.putClean(dbKey, dbValue);
+    }
+  }
+
+  @Override
+  public List<V> getAll(Collection<? extends K> keys) {
+    flushCache();
+    byte[][] dbKeys = keysToArray(keys);
+    byte[][] dbValues = nativeGetMulti(getNativeHandle(), dbKeys);
+    List<V> values = new ArrayList<>(dbValues.length);
+    for (byte[] dbValue : dbValues) {
+      values.add((dbValue == null) ? null : valueSerializer.fromBytes(dbValue));
+    }
+    return values;
+  }
+
+  /**
+   * Reads the serialized value associated with the specified serialized key into the buffer.
+   *
+   * <p>Unlike {@link #get(Object)}, this method passes the key and the value to the native code
+   * in direct buffers, without copying them into new arrays. Combined with
+   * {@link Serializer#writeTo} and {@link Serializer#readFrom} and reused buffers, it allows
+   * to read values without allocations.
+   *
+   * <p>If the value does not fit in the remaining space of the buffer, it is not written
+   * and the buffer is not modified. The returned size of the value allows to retry with
+   * a larger buffer.
+   *
+   * @param key a direct buffer containing the serialized key between its position and limit;
+   *     the position of the buffer is not changed
+   * @param valueBuffer a direct buffer to write the serialized value into, starting
+   *     at its position; if the value is written, the position is advanced by its size
+   * @return the size of the serialized value in bytes; or -1 if this map contains no mapping
+   *     for the key
+   * @throws IllegalArgumentException if any of the buffers is not direct, or the value buffer
+   *     is read-only
+   * @throws IllegalStateException if this map is not valid
+   * @see #putSerialized(ByteBuffer, ByteBuffer)
+   */
+  public int getSerialized(ByteBuffer key, ByteBuffer valueBuffer) {
+    checkDirectBuffer(key);
+    checkDirectBuffer(valueBuffer);
+    checkArgument(!valueBuffer.isReadOnly(), "Value buffer must be writable");
+    flushCache();
+    int valueOffset = valueBuffer.position();
+    int valueSize = nativeGetIntoBuffer(getNativeHandle(), key, key.position(), key.remaining(),
+        valueBuffer, valueOffset, valueBuffer.remaining());
+    if (0 <= valueSize && valueSize <= valueBuffer.remaining()) {
+      valueBuffer.position(valueOffset + valueSize);
+    }
+    return valueSize;
+  }
+
+  /**
+   * Puts the serialized key-value pair into the map. If this map already contains
+   * a mapping for the specified key, overwrites the old value with the specified value.
+   *
+   * <p>Unlike {@link #put(Object, Object)}, this method passes the key and the value to
+   * the native code in direct buffers, without copying them into new arrays.
+   *
+   * @param key a direct buffer containing the serialized key between its position and limit;
+   *     the position of the buffer is not changed
+   * @param value a direct buffer containing the serialized value between its position and limit;
+   *     the position of the buffer is advanced to its limit
+   * @throws IllegalArgumentException if any of the buffers is not direct
+   * @throws IllegalStateException if this map is not valid
+   * @throws UnsupportedOperationException if this map is read-only
+   * @see #getSerialized(ByteBuffer, ByteBuffer)
+   */
+  public void putSerialized(ByteBuffer key, ByteBuffer value) {
+    checkDirectBuffer(key);
+    checkDirectBuffer(value);
+    notifyModified();
+    if (cache != null) {
+      cache.flush();
+      cache.clear();
+    }
+    nativePutFromBuffer(getNativeHandle(), key, key.position(), key.remaining(),
+        value, value.position(), value.remaining());
+    value.position(value.limit());
+  }
+
+  private byte[][] keysToArray(Collection<? extends K> keys) {
+    return keys.stream()
+        .map(keySerializer::toBytes)
+        .toArray(byte[][]::new);
+  }
+
   @Override
   public void remove(K key) {
     notifyModified();
+    long nativeHandle = getNativeHandle();
+    byte[] dbKey = keySerializer.toBytes(key);
+    if (cache != null) {
+      cache.remove(dbKey);
+    } else {
+      nativeRemove(nativeHandle, dbKey);
+    }
+  }
+
+  /**
+   * Puts the value into this map, and returns true if this map did not contain the key.
+   * Unless the write-back cache is enabled, checks the key and puts the value with a single
+   * native call.
+   *
+   * @throws IllegalStateException if this map is not valid
+   * @throws UnsupportedOperationException if this map is read-only
+   * @see CountedMapIndex
+   */
+  boolean putAndCheckNew(K key, V value) {
+    notifyModified();
+    long nativeHandle = getNativeHandle();
+    byte[] dbKey = keySerializer.toBytes(key);
+    byte[] dbValue = valueSerializer.toBytes(value);
+    if (cache != null) {
+      loadIntoCache(dbKey);
+      boolean isNew = !cache.hasValue(dbKey);
+      cache.put(dbKey, dbValue, value);
+      return isNew;
+    }
+    return nativePutAndCheckNew(nativeHandle, dbKey, dbValue);
+  }
+
+  /**
+   * Removes the value from this map, and returns true if this map contained the key.
+   * Unless the write-back cache is enabled, checks the key and removes the value with a single
+   * native call.
+   *
+   * @throws IllegalStateException if this map is not valid
+   * @throws UnsupportedOperationException if this map is read-only
+   * @see CountedMapIndex
+   */
+  boolean removeAndCheckPresent(K key) {
+    notifyModified();
+    long nativeHandle = getNativeHandle();
     byte[] dbKey = keySerializer.toBytes(key);
-    nativeRemove(getNativeHandle(), dbKey);
+    if (cache != null) {
+      loadIntoCache(dbKey);
+      boolean isPresent = cache.hasValue(dbKey);
+      cache.remove(dbKey);
+      return isPresent;
+    }
+    return nativeRemoveAndCheckPresent(nativeHandle, dbKey);
   }
 
   @Override
-  public Iterator<K> keys() {
+  public CloseableIterator<K> keys() {
+    flushCache();
     return StorageIterators.createIterator(
         nativeCreateKeysIter(getNativeHandle()),
-        this::nativeKeysIterNext,
+        this::nativeKeysIterNextChunk,
         this::nativeKeysIterFree,
         dbAccess,
         modCounter,
@@ -161,11 +389,28 @@ public final class MapIndexProxy<K, V> extends AbstractIndexProxy implements Map
     );
   }
 
+  /**
+   * Returns an iterator over the keys of this map as they are stored in the database,
+   * without de-serializing them.
+   */
+  private CloseableIterator<byte[]> serializedKeys() {
+    flushCache();
+    return StorageIterators.createIterator(
+        nativeCreateKeysIter(getNativeHandle()),
+        this::nativeKeysIterNextChunk,
+        this::nativeKeysIterFree,
+        dbAccess,
+        modCounter,
+        Function.identity()
+    );
+  }
+
   @Override
-  public Iterator<V> values() {
+  public CloseableIterator<V> values() {
+    flushCache();
     return StorageIterators.createIterator(
         nativeCreateValuesIter(getNativeHandle()),
-        this::nativeValuesIterNext,
+        this::nativeValuesIterNextChunk,
         this::nativeValuesIterFree,
         dbAccess,
         modCounter,
@@ -174,49 +419,167 @@ public final class MapIndexProxy<K, V> extends AbstractIndexProxy implements Map
   }
 
   @Override
-  public Iterator<MapEntry<K, V>> entries() {
-    return StorageIterators.createIterator(
+  public CloseableIterator<MapEntry<K, V>> entries() {
+    flushCache();
+    return StorageIterators.createPairIterator(
         nativeCreateEntriesIter(getNativeHandle()),
-        this::nativeEntriesIterNext,
+        this::nativeEntriesIterNextChunk,
         this::nativeEntriesIterFree,
         dbAccess,
         modCounter,
-        (entry) -> entry.toMapEntry(entry, keySerializer, valueSerializer)
+        (key, value) -> MapEntry.valueOf(keySerializer.fromBytes(key),
+            valueSerializer.fromBytes(value))
+    );
+  }
+
+  @Override
+  public CloseableIterator<K> keys(K from) {
+    byte[] dbFrom = keySerializer.toBytes(from);
+    flushCache();
+    return StorageIterators.createIterator(
+        nativeKeysFrom(getNativeHandle(), dbFrom),
+        this::nativeKeysIterNextChunk,
+        this::nativeKeysIterFree,
+        dbAccess,
+        modCounter,
+        keySerializer::fromBytes
+    );
+  }
+
+  @Override
+  public CloseableIterator<MapEntry<K, V>> entries(K from, K toExclusive) {
+    byte[] dbFrom = keySerializer.toBytes(from);
+    byte[] dbTo = keySerializer.toBytes(toExclusive);
+    return entriesInRange(dbFrom, dbTo);
+  }
+
+  @Override
+  public CloseableIterator<MapEntry<K, V>> entriesWithPrefix(byte[] prefix) {
+    byte[] upperBound = KeyRanges.prefixUpperBound(prefix);
+    return entriesInRange(prefix, upperBound);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>If this map is created with a {@link Snapshot}, the stream supports parallel
+   * traversal: it is split into the ranges of keys, each traversed with a separate
+   * native iterator. The snapshot cleaner must not be closed till the traversal completes.
+   *
+   * <p>Closing the stream releases the native iterators, if the stream is not traversed
+   * to the end.
+   */
+  @Override
+  public Stream<MapEntry<K, V>> stream() {
+    flushCache();
+    boolean splittable = dbAccess instanceof Snapshot;
+    MapSpliterator<MapEntry<K, V>> spliterator = new MapSpliterator<>(
+        new MapSpliterator.RangeSource<MapEntry<K, V>>() {
+          @Override
+          public CloseableIterator<MapEntry<K, V>> entries() {
+            return MapIndexProxy.this.entries();
+          }
+
+          @Override
+          public CloseableIterator<MapEntry<K, V>> entries(byte[] from,
+              @Nullable byte[] toExclusive) {
+            return entriesInRange(from, toExclusive);
+          }
+
+          @Override
+          @Nullable
+          public byte[] ceilingKey(byte[] key) {
+            return nativeCeilingKey(getNativeHandle(), key);
+          }
+        }, 0, splittable);
+    return StreamSupport.stream(spliterator, false)
+        .onClose(spliterator::close);
+  }
+
+  private CloseableIterator<MapEntry<K, V>> entriesInRange(byte[] from,
+      @Nullable byte[] toExclusive) {
+    flushCache();
+    return StorageIterators.createPairIterator(
+        nativeCreateEntriesIterRange(getNativeHandle(), from, toExclusive),
+        this::nativeEntriesIterNextChunk,
+        this::nativeEntriesIterFree,
+        dbAccess,
+        modCounter,
+        (key, value) -> MapEntry.valueOf(keySerializer.fromBytes(key),
+            valueSerializer.fromBytes(value))
     );
   }
 
   private native long nativeCreateEntriesIter(long nativeHandle);
 
-  private native MapEntryInternal nativeEntriesIterNext(long iterNativeHandle);
+  private native byte[] nativeCeilingKey(long nativeHandle, byte[] key);
+
+  private native long nativeCreateEntriesIterRange(long nativeHandle, byte[] from,
+      @Nullable byte[] toExclusive);
+
+  private native byte[][] nativeEntriesIterNextChunk(long iterNativeHandle, int maxEntries,
+      int maxBytes);
 
   private native void nativeEntriesIterFree(long iterNativeHandle);
 
   @Override
   public void clear() {
     notifyModified();
+    if (cache != null) {
+      cache.clear();
+    }
     nativeClear(getNativeHandle());
   }
 
+  @Override
+  public boolean isEmpty() {
+    try (CloseableIterator<K> keys = keys()) {
+      return !keys.hasNext();
+    }
+  }
+
   private static native long nativeCreate(String name, @Nullable byte[] idInGroup,
       long accessNativeHandle);
 
   private native boolean nativeContainsKey(long nativeHandle, byte[] key);
 
+  private native boolean nativeContainsAll(long nativeHandle, byte[][] keys);
+
   private native void nativePut(long nativeHandle, byte[] key, byte[] value);
 
+  private native void nativePutAll(long nativeHandle, byte[][] keys, byte[][] values);
+
+  private native void nativeWriteBatch(long nativeHandle, byte[][] keys, byte[][] values);
+
   private native byte[] nativeGet(long nativeHandle, byte[] key);
 
+  private native int nativeGetIntoBuffer(long nativeHandle, ByteBuffer key, int keyOffset,
+      int keySize, ByteBuffer valueBuffer, int valueOffset, int maxValueSize);
+
+  private native void nativePutFromBuffer(long nativeHandle, ByteBuffer key, int keyOffset,
+      int keySize, ByteBuffer value, int valueOffset, int valueSize);
+
+  private native byte[][] nativeGetMulti(long nativeHandle, byte[][] keys);
+
   private native void nativeRemove(long nativeHandle, byte[] key);
 
+  private native boolean nativePutAndCheckNew(long nativeHandle, byte[] key, byte[] value);
+
+  private native boolean nativeRemoveAndCheckPresent(long nativeHandle, byte[] key);
+
   private native long nativeCreateKeysIter(long nativeHandle);
 
-  private native byte[] nativeKeysIterNext(long iterNativeHandle);
+  private native long nativeKeysFrom(long nativeHandle, byte[] from);
+
+  private native byte[][] nativeKeysIterNextChunk(long iterNativeHandle, int maxKeys,
+      int maxBytes);
 
   private native void nativeKeysIterFree(long iterNativeHandle);
 
   private native long nativeCreateValuesIter(long nativeHandle);
 
-  private native byte[] nativeValuesIterNext(long iterNativeHandle);
+  private native byte[][] nativeValuesIterNextChunk(long iterNativeHandle, int maxValues,
+      int maxBytes);
 
   private native void nativeValuesIterFree(long iterNativeHandle);
 
@@ -224,4 +587,6 @@ public final class MapIndexProxy<K, V> extends AbstractIndexProxy implements Map
 
   private static native void nativeFree(long nativeHandle);
 
+  private static native void nativeFreeAll(long[] nativeHandles);
+
 }
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+
+/**
+ * A spliterator over the entries of a map index that splits on ranges of the serialized keys.
+ * Each range is traversed with its own native iterator, which starts at the beginning
+ * of the range.
+ *
+ * <p>To split a range, the spliterator finds the first key in the range, and then probes
+ * the midpoints between that key and the end of the range with native seeks, till it finds
+ * a midpoint that has some keys after it. Therefore, both parts of a split range are non-empty,
+ * even if the keys are not distributed evenly. The size of the ranges is unknown,
+ * and is estimated as a half of the estimate of the range they were split from.
+ *
+ * <p>Only the spliterators over immutable maps (i.e., created with a Snapshot) split.
+ * The spliterators split by the same map can be traversed in parallel; the cleaner
+ * of the map access must not be closed till the traversal completes.
+ *
+ * <p>This spliterator is late-binding: it creates the native iterator on the first traversal.
+ * Once the traversal starts, it no longer splits. The native iterators are released
+ * when they are exhausted, or when the spliterator they were split from is
+ * {@linkplain #close() closed}.
+ *
+ * @param <EntryT> the type of map entries
+ */
+class MapSpliterator<EntryT> implements Spliterator<EntryT> {
+
+  /** The maximum number of probes of the midpoints of a range to split it. */
+  @VisibleForTesting
+  static final int MAX_SPLIT_PROBES = 32;
+
+  private static final int ANY_CHARACTERISTICS = NONNULL | ORDERED | DISTINCT;
+
+  private final RangeSource<EntryT> source;
+  private final int keySize;
+  private final boolean splittable;
+  private final int characteristics;
+  /** The iterators created by this spliterator and the spliterators split from it. */
+  private final List<CloseableIterator<EntryT>> openIterators;
+
+  /** The lower bound of the range, inclusive; or {@code null} if the range is not bounded. */
+  @Nullable
+  private byte[] from;
+  /** The upper bound of the range, exclusive; or {@code null} if the range is not bounded. */
+  @Nullable
+  private byte[] toExclusive;
+  private long estimatedSize;
+  @Nullable
+  private CloseableIterator<EntryT> iterator;
+
+  /**
+   * Creates a spliterator over all the entries of the map.
+   *
+   * @param source a map which entries to traverse
+   * @param keySize the size of the serialized keys of the map, if it is fixed;
+   *     or zero if the keys are of variable size
+   * @param immutable whether the map is immutable; only the spliterators over immutable maps
+   *     split
+   */
+  MapSpliterator(RangeSource<EntryT> source, int keySize, boolean immutable) {
+    this(source, keySize, immutable, new ArrayList<>(), null, null, Long.MAX_VALUE);
+  }
+
+  private MapSpliterator(RangeSource<EntryT> source, int keySize, boolean immutable,
+      List<CloseableIterator<EntryT>> openIterators, @Nullable byte[] from,
+      @Nullable byte[] toExclusive, long estimatedSize) {
+    this.source = checkNotNull(source);
+    this.keySize = keySize;
+    this.splittable = immutable;
+    this.characteristics = immutable ? ANY_CHARACTERISTICS | IMMUTABLE : ANY_CHARACTERISTICS;
+    this.openIterators = openIterators;
+    this.from = from;
+    this.toExclusive = toExclusive;
+    this.estimatedSize = estimatedSize;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super EntryT> action) {
+    checkNotNull(action);
+    CloseableIterator<EntryT> it = bind();
+    if (it.hasNext()) {
+      action.accept(it.next());
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super EntryT> action) {
+    checkNotNull(action);
+    bind().forEachRemaining(action);
+  }
+
+  private CloseableIterator<EntryT> bind() {
+    if (iterator == null) {
+      if (from == null && toExclusive == null) {
+        iterator = source.entries();
+      } else {
+        iterator = source.entries(lowerBound(), toExclusive);
+      }
+      synchronized (openIterators) {
+        openIterators.add(iterator);
+      }
+    }
+    return iterator;
+  }
+
+  /**
+   * Closes the native iterators created by this spliterator and the spliterators
+   * split from it. Must not be called till their traversal completes.
+   */
+  void close() {
+    synchronized (openIterators) {
+      openIterators.forEach(CloseableIterator::close);
+      openIterators.clear();
+    }
+  }
+
+  @Override
+  @Nullable
+  public Spliterator<EntryT> trySplit() {
+    if (!splittable || iterator != null) {
+      return null;
+    }
+    byte[] firstKey = ceilingKeyInRange(lowerBound());
+    if (firstKey == null) {
+      // The range is empty
+      estimatedSize = 0;
+      return null;
+    }
+    int midpointSize = (keySize == 0) ? variableMidpointSize(firstKey) : keySize;
+    for (int i = 0; i < MAX_SPLIT_PROBES; i++) {
+      byte[] mid = KeyRanges.midpoint(firstKey, toExclusive, midpointSize);
+      if (mid == null) {
+        return null;
+      }
+      if (ceilingKeyInRange(mid) != null) {
+        // Both [from, mid) and [mid, toExclusive) have keys: split on mid
+        estimatedSize >>>= 1;
+        Spliterator<EntryT> prefix = new MapSpliterator<>(source, keySize, splittable,
+            openIterators, from, mid, estimatedSize);
+        from = mid;
+        return prefix;
+      }
+      // The range [mid, toExclusive) has no keys: exclude it and probe the remaining part
+      toExclusive = mid;
+    }
+    return null;
+  }
+
+  private byte[] lowerBound() {
+    return (from == null) ? new byte[keySize] : from;
+  }
+
+  /**
+   * Returns the smallest key of the map in the range [{@code key}, {@code toExclusive});
+   * or {@code null} if there is no such key.
+   */
+  @Nullable
+  private byte[] ceilingKeyInRange(byte[] key) {
+    byte[] ceilingKey = source.ceilingKey(key);
+    if (ceilingKey == null
+        || (toExclusive != null && KeyRanges.compare(ceilingKey, toExclusive) >= 0)) {
+      return null;
+    }
+    return ceilingKey;
+  }
+
+  /**
+   * Returns the size of the midpoints of the variable-size keys: one byte longer
+   * than the first key, so that there are keys between it and its successors.
+   */
+  private int variableMidpointSize(byte[] firstKey) {
+    return Math.max(firstKey.length + 1, (toExclusive == null) ? 0 : toExclusive.length);
+  }
+
+  @Override
+  public long estimateSize() {
+    return estimatedSize;
+  }
+
+  @Override
+  public int characteristics() {
+    return characteristics;
+  }
+
+  /**
+   * A map which entries can be traversed by ranges of the serialized keys.
+   *
+   * @param <EntryT> the type of map entries
+   */
+  interface RangeSource<EntryT> {
+
+    /**
+     * Returns an iterator over all the map entries.
+     */
+    CloseableIterator<EntryT> entries();
+
+    /**
+     * Returns an iterator over the map entries in the given range.
+     *
+     * @param from the first key of the range, inclusive
+     * @param toExclusive the upper bound of the range, exclusive; or {@code null} if
+     *     the range is not bounded
+     */
+    CloseableIterator<EntryT> entries(byte[] from, @Nullable byte[] toExclusive);
+
+    /**
+     * Returns the smallest key of the map that is greater than or equal to the given key;
+     * or {@code null} if there is no such key.
+     */
+    @Nullable
+    byte[] ceilingKey(byte[] key);
+  }
+}
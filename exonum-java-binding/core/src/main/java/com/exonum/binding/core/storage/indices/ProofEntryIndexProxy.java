@@ -24,14 +24,16 @@ import com.exonum.binding.common.serialization.Serializer;
 import com.exonum.binding.common.serialization.StandardSerializers;
 import com.exonum.binding.core.proxy.Cleaner;
 import com.exonum.binding.core.proxy.NativeHandle;
-import com.exonum.binding.core.proxy.ProxyDestructor;
 import com.exonum.binding.core.storage.database.AbstractAccess;
 import com.exonum.binding.core.storage.database.Access;
+import com.exonum.binding.core.storage.database.DecodedValueCache;
 import com.exonum.binding.core.storage.database.Fork;
 import com.exonum.binding.core.storage.database.Snapshot;
 import com.exonum.binding.core.util.LibraryLoader;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
 
 /**
  * An Entry is a database index that can contain no or a single value.
@@ -43,7 +45,8 @@ import java.util.Optional;
  *
  * <p>All method arguments are non-null by default.
  *
- * <p>This class is not thread-safe and and its instances shall not be shared between threads.
+ * <p>This class is not thread-safe and its instances shall not be shared between threads,
+ * unless they are created with a {@link Snapshot}, which allows concurrent reads.
  *
  * <p>When the access goes out of scope, this entry is destroyed. Subsequent use of the closed entry
  * is prohibited and will result in {@link IllegalStateException}.
@@ -58,7 +61,13 @@ public final class ProofEntryIndexProxy<T> extends AbstractIndexProxy implements
     LibraryLoader.load();
   }
 
+  /** The key of the entry value in the value cache. */
+  private static final byte[] VALUE_CACHE_KEY = new byte[0];
+
   private final CheckingSerializerDecorator<T> serializer;
+  @Nullable
+  private final DecodedValueCache valueCache;
+  private final IndexHashCache indexHash;
 
   /**
    * Creates a new Entry.
@@ -85,9 +94,8 @@ public final class ProofEntryIndexProxy<T> extends AbstractIndexProxy implements
         "Groups of Entries are not supported, use a ProofMapIndex instead");
     CheckingSerializerDecorator<E> s = CheckingSerializerDecorator.from(serializer);
 
-    NativeHandle entryNativeHandle = createNativeEntry(address.getName(), access);
-
-    return new ProofEntryIndexProxy<>(entryNativeHandle, address, access, s);
+    return new ProofEntryIndexProxy<>(() -> createNativeEntry(address.getName(), access),
+        address, access, s);
   }
 
   private static NativeHandle createNativeEntry(String name, AbstractAccess access) {
@@ -96,15 +104,17 @@ public final class ProofEntryIndexProxy<T> extends AbstractIndexProxy implements
     NativeHandle entryNativeHandle = new NativeHandle(handle);
 
     Cleaner cleaner = access.getCleaner();
-    ProxyDestructor.newRegistered(cleaner, entryNativeHandle, ProofEntryIndexProxy.class,
-        ProofEntryIndexProxy::nativeFree);
+    cleaner.addNativeProxy(entryNativeHandle, ProofEntryIndexProxy.class,
+        ProofEntryIndexProxy::nativeFree, ProofEntryIndexProxy::nativeFreeAll);
     return entryNativeHandle;
   }
 
-  private ProofEntryIndexProxy(NativeHandle nativeHandle, IndexAddress address,
+  private ProofEntryIndexProxy(Supplier<NativeHandle> nativeIndexFactory, IndexAddress address,
       AbstractAccess access, CheckingSerializerDecorator<T> serializer) {
-    super(nativeHandle, address, access);
+    super(nativeIndexFactory, address, access);
     this.serializer = serializer;
+    this.valueCache = access.getValueCache().orElse(null);
+    this.indexHash = new IndexHashCache(modCounter);
   }
 
   /**
@@ -139,11 +149,20 @@ public final class ProofEntryIndexProxy<T> extends AbstractIndexProxy implements
    * @throws IllegalArgumentException if the supplied serializer cannot decode the value
    */
   public T get() {
-    byte[] value = nativeGet(getNativeHandle());
+    long nativeHandle = getNativeHandle();
+    T value = (valueCache != null)
+        ? valueCache.get(getAddress(), VALUE_CACHE_KEY, k -> getInternal(nativeHandle))
+        : getInternal(nativeHandle);
     if (value == null) {
       throw new NoSuchElementException("No value in this entry");
     }
-    return serializer.fromBytes(value);
+    return value;
+  }
+
+  @Nullable
+  private T getInternal(long nativeHandle) {
+    byte[] value = nativeGet(nativeHandle);
+    return (value == null) ? null : serializer.fromBytes(value);
   }
 
   /**
@@ -157,7 +176,8 @@ public final class ProofEntryIndexProxy<T> extends AbstractIndexProxy implements
    */
   @Override
   public HashCode getIndexHash() {
-    return HashCode.fromBytes(nativeGetIndexHash(getNativeHandle()));
+    long nativeHandle = getNativeHandle();
+    return indexHash.get(() -> HashCode.fromBytes(nativeGetIndexHash(nativeHandle)));
   }
 
   /**
@@ -209,4 +229,6 @@ public final class ProofEntryIndexProxy<T> extends AbstractIndexProxy implements
   private native void nativeRemove(long nativeHandle);
 
   private static native void nativeFree(long nativeHandle);
+
+  private static native void nativeFreeAll(long[] nativeHandles);
 }
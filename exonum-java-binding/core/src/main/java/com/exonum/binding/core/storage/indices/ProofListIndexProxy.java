@@ -24,11 +24,11 @@ import com.exonum.binding.common.serialization.Serializer;
 import com.exonum.binding.common.serialization.StandardSerializers;
 import com.exonum.binding.core.proxy.Cleaner;
 import com.exonum.binding.core.proxy.NativeHandle;
-import com.exonum.binding.core.proxy.ProxyDestructor;
 import com.exonum.binding.core.storage.database.AbstractAccess;
 import com.exonum.binding.core.storage.database.Access;
 import com.exonum.binding.core.util.LibraryLoader;
 import com.google.protobuf.InvalidProtocolBufferException;
+import java.util.function.Supplier;
 import javax.annotation.Nullable;
 
 /**
@@ -44,7 +44,10 @@ import javax.annotation.Nullable;
  *
  * <p>All method arguments are non-null by default.
  *
- * <p>This class is not thread-safe and and its instances shall not be shared between threads.
+ * <p>This class is not thread-safe and its instances shall not be shared between threads,
+ * unless they are created with a
+ * {@linkplain com.exonum.binding.core.storage.database.Snapshot snapshot}, which allows
+ * concurrent reads.
  *
  * <p>When the access goes out of scope, this list is destroyed. Subsequent use of the closed list
  * is prohibited and will result in {@link IllegalStateException}.
@@ -59,6 +62,8 @@ public final class ProofListIndexProxy<E> extends AbstractListIndexProxy<E>
     LibraryLoader.load();
   }
 
+  private final IndexHashCache indexHash;
+
   /**
    * Creates a new ProofListIndexProxy.
    *
@@ -78,9 +83,7 @@ public final class ProofListIndexProxy<E> extends AbstractListIndexProxy<E>
       IndexAddress address, AbstractAccess access, Serializer<E> serializer) {
     CheckingSerializerDecorator<E> s = CheckingSerializerDecorator.from(serializer);
 
-    NativeHandle listNativeHandle = createNativeList(address, access);
-
-    return new ProofListIndexProxy<>(listNativeHandle, address,
+    return new ProofListIndexProxy<>(() -> createNativeList(address, access), address,
         access, s);
   }
 
@@ -91,17 +94,18 @@ public final class ProofListIndexProxy<E> extends AbstractListIndexProxy<E>
     NativeHandle listNativeHandle = new NativeHandle(handle);
 
     Cleaner cleaner = access.getCleaner();
-    ProxyDestructor.newRegistered(cleaner, listNativeHandle, ProofListIndexProxy.class,
-        ProofListIndexProxy::nativeFree);
+    cleaner.addNativeProxy(listNativeHandle, ProofListIndexProxy.class,
+        ProofListIndexProxy::nativeFree, ProofListIndexProxy::nativeFreeAll);
     return listNativeHandle;
   }
 
   private static native long nativeCreate(String name, @Nullable byte[] idInGroup,
       long accessNativeHandle);
 
-  private ProofListIndexProxy(NativeHandle nativeHandle, IndexAddress address,
+  private ProofListIndexProxy(Supplier<NativeHandle> nativeIndexFactory, IndexAddress address,
       AbstractAccess access, CheckingSerializerDecorator<E> serializer) {
-    super(nativeHandle, address, access, serializer);
+    super(nativeIndexFactory, address, access, serializer);
+    this.indexHash = new IndexHashCache(modCounter);
   }
 
   /**
@@ -149,22 +153,31 @@ public final class ProofListIndexProxy<E> extends AbstractListIndexProxy<E>
 
   @Override
   public HashCode getIndexHash() {
-    return HashCode.fromBytes(nativeGetIndexHash(getNativeHandle()));
+    long nativeHandle = getNativeHandle();
+    return indexHash.get(() -> HashCode.fromBytes(nativeGetIndexHash(nativeHandle)));
   }
 
   private native byte[] nativeGetIndexHash(long nativeHandle);
 
   private static native void nativeFree(long nativeHandle);
 
+  private static native void nativeFreeAll(long[] nativeHandles);
+
   @Override
   native void nativeAdd(long nativeHandle, byte[] e);
 
+  @Override
+  native void nativeAddAll(long nativeHandle, byte[][] elements);
+
   @Override
   native void nativeSet(long nativeHandle, long index, byte[] e);
 
   @Override
   native byte[] nativeGet(long nativeHandle, long index);
 
+  @Override
+  native byte[][] nativeGetRange(long nativeHandle, long from, long to);
+
   @Override
   native byte[] nativeGetLast(long nativeHandle);
 
@@ -187,7 +200,7 @@ public final class ProofListIndexProxy<E> extends AbstractListIndexProxy<E>
   native long nativeCreateIter(long nativeHandle);
 
   @Override
-  native byte[] nativeIterNext(long iterNativeHandle);
+  native byte[][] nativeIterNextChunk(long iterNativeHandle, int maxElements, int maxBytes);
 
   @Override
   native void nativeIterFree(long iterNativeHandle);
@@ -16,6 +16,7 @@
 
 package com.exonum.binding.core.storage.indices;
 
+import static com.exonum.binding.core.storage.indices.StoragePreconditions.PROOF_MAP_KEY_SIZE;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import com.exonum.binding.common.collect.MapEntry;
@@ -25,15 +26,22 @@ import com.exonum.binding.common.serialization.Serializer;
 import com.exonum.binding.common.serialization.StandardSerializers;
 import com.exonum.binding.core.proxy.Cleaner;
 import com.exonum.binding.core.proxy.NativeHandle;
-import com.exonum.binding.core.proxy.ProxyDestructor;
 import com.exonum.binding.core.storage.database.AbstractAccess;
 import com.exonum.binding.core.storage.database.Access;
+import com.exonum.binding.core.storage.database.DecodedValueCache;
+import com.exonum.binding.core.storage.database.KeyFilter;
+import com.exonum.binding.core.storage.database.Snapshot;
 import com.google.common.collect.Lists;
 import com.google.protobuf.InvalidProtocolBufferException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.annotation.Nullable;
 
 /**
@@ -74,7 +82,10 @@ import javax.annotation.Nullable;
  *
  * <p>All method arguments are non-null by default.
  *
- * <p>This class is not thread-safe and and its instances shall not be shared between threads.
+ * <p>This class is not thread-safe and its instances shall not be shared between threads,
+ * unless they are created with a
+ * {@linkplain com.exonum.binding.core.storage.database.Snapshot snapshot}, which allows
+ * concurrent reads.
  *
  * <p>When the access goes out of scope, this map is destroyed. Subsequent use of the closed map
  * is prohibited and will result in {@link IllegalStateException}.
@@ -88,6 +99,14 @@ public final class ProofMapIndexProxy<K, V> extends AbstractIndexProxy implement
 
   private final Serializer<K> keySerializer;
   private final CheckingSerializerDecorator<V> valueSerializer;
+  private final boolean keyHashing;
+  @Nullable
+  private final WriteBackMapCache<V> cache;
+  @Nullable
+  private final DecodedValueCache valueCache;
+  @Nullable
+  private final KeyFilter keyFilter;
+  private final IndexHashCache indexHash;
 
   /**
    * Creates a ProofMapIndexProxy.
@@ -142,10 +161,8 @@ public final class ProofMapIndexProxy<K, V> extends AbstractIndexProxy implement
     Serializer<K> ks = decorateKeySerializer(keySerializer, keyHashing);
     CheckingSerializerDecorator<V> vs = CheckingSerializerDecorator.from(valueSerializer);
 
-    NativeHandle mapNativeHandle = createNativeMap(address, access, keyHashing);
-
-    return new ProofMapIndexProxy<>(mapNativeHandle, address,
-        access, ks, vs);
+    return new ProofMapIndexProxy<>(() -> createNativeMap(address, access, keyHashing),
+        address, access, ks, vs, keyHashing);
   }
 
   private static <K> Serializer<K> decorateKeySerializer(
@@ -165,30 +182,82 @@ public final class ProofMapIndexProxy<K, V> extends AbstractIndexProxy implement
     NativeHandle mapNativeHandle = new NativeHandle(handle);
 
     Cleaner cleaner = access.getCleaner();
-    ProxyDestructor.newRegistered(cleaner, mapNativeHandle, ProofMapIndexProxy.class,
-        ProofMapIndexProxy::nativeFree);
+    cleaner.addNativeProxy(mapNativeHandle, ProofMapIndexProxy.class,
+        ProofMapIndexProxy::nativeFree, ProofMapIndexProxy::nativeFreeAll);
     return mapNativeHandle;
   }
 
   private static native long nativeCreate(String name, @Nullable byte[] idInGroup,
       long accessNativeHandle, boolean keyHashing);
 
-  private ProofMapIndexProxy(NativeHandle nativeHandle, IndexAddress address, AbstractAccess access,
+  private ProofMapIndexProxy(Supplier<NativeHandle> nativeIndexFactory, IndexAddress address,
+                             AbstractAccess access,
                              Serializer<K> keySerializer,
-                             CheckingSerializerDecorator<V> valueSerializer) {
-    super(nativeHandle, address, access);
+                             CheckingSerializerDecorator<V> valueSerializer,
+                             boolean keyHashing) {
+    super(nativeIndexFactory, address, access);
     this.keySerializer = keySerializer;
     this.valueSerializer = valueSerializer;
+    this.keyHashing = keyHashing;
+    if (access.isWriteBackCacheEnabled()) {
+      // Create the native map before the cache, so that the cache is flushed
+      // before the native map is destroyed
+      createNativeIndex();
+    }
+    this.cache = WriteBackMapCache.forAccess(access, valueSerializer, this::writeBatch);
+    this.valueCache = access.getValueCache().orElse(null);
+    this.keyFilter = access.getKeyFilter().orElse(null);
+    this.indexHash = new IndexHashCache(modCounter);
+  }
+
+  private void writeBatch(byte[][] keys, byte[][] values) {
+    nativeWriteBatch(getNativeHandle(), keys, values);
+  }
+
+  private native void nativeWriteBatch(long nativeHandle, byte[][] keys, byte[][] values);
+
+  /**
+   * Writes the changes buffered in the cache, if any, to the native map.
+   */
+  private void flushCache() {
+    if (cache != null) {
+      cache.flush();
+    }
   }
 
   @Override
   public boolean containsKey(K key) {
     byte[] dbKey = keySerializer.toBytes(key);
+    if (cache != null) {
+      loadIntoCache(dbKey);
+      return cache.hasValue(dbKey);
+    }
+    if (keyFilter != null
+        && !keyFilter.mightContain(getAddress(), dbKey, this::serializedKeys)) {
+      return false;
+    }
     return nativeContainsKey(getNativeHandle(), dbKey);
   }
 
   private native boolean nativeContainsKey(long nativeHandle, byte[] key);
 
+  /**
+   * {@inheritDoc}
+   *
+   * @param keys the proof map keys to check
+   * @throws IllegalStateException if this map is not valid
+   * @throws IllegalArgumentException if the size of any of the keys is not 32 bytes (in case of a
+   *     <a href="ProofMapIndexProxy.html#key-hashing">proof map that uses non-hashed keys</a>)
+   */
+  @Override
+  public boolean containsAll(Collection<? extends K> keys) {
+    flushCache();
+    byte[][] dbKeys = keysToArray(keys);
+    return nativeContainsAll(getNativeHandle(), dbKeys);
+  }
+
+  private native boolean nativeContainsAll(long nativeHandle, byte[][] keys);
+
   /**
    * {@inheritDoc}
    *
@@ -209,29 +278,89 @@ public final class ProofMapIndexProxy<K, V> extends AbstractIndexProxy implement
   @Override
   public void putAll(Map<? extends K, ? extends V> sourceMap) {
     notifyModified();
-    long nativeHandle = getNativeHandle();
+    if (cache != null) {
+      cache.flush();
+      cache.clear();
+    }
+    int size = sourceMap.size();
+    byte[][] dbKeys = new byte[size][];
+    byte[][] dbValues = new byte[size][];
+    int i = 0;
     for (Map.Entry<? extends K, ? extends V> entry : sourceMap.entrySet()) {
-      putInternal(nativeHandle, entry.getKey(), entry.getValue());
+      dbKeys[i] = keySerializer.toBytes(entry.getKey());
+      dbValues[i] = valueSerializer.toBytes(entry.getValue());
+      i++;
     }
+    nativePutAll(getNativeHandle(), dbKeys, dbValues);
   }
 
   private void putInternal(long nativeHandle, K key, V value) {
     byte[] dbKey = keySerializer.toBytes(key);
     byte[] dbValue = valueSerializer.toBytes(value);
-    nativePut(nativeHandle, dbKey, dbValue);
+    if (cache != null) {
+      cache.put(dbKey, dbValue, value);
+    } else {
+      nativePut(nativeHandle, dbKey, dbValue);
+    }
   }
 
   private native void nativePut(long nativeHandle, byte[] key, byte[] value);
 
+  private native void nativePutAll(long nativeHandle, byte[][] keys, byte[][] values);
+
   @Override
   public V get(K key) {
     byte[] dbKey = keySerializer.toBytes(key);
-    byte[] dbValue = nativeGet(getNativeHandle(), dbKey);
+    if (cache != null) {
+      loadIntoCache(dbKey);
+      return cache.get(dbKey);
+    }
+    long nativeHandle = getNativeHandle();
+    if (valueCache != null) {
+      return valueCache.get(getAddress(), dbKey, k -> getInternal(nativeHandle, k));
+    }
+    return getInternal(nativeHandle, dbKey);
+  }
+
+  @Nullable
+  private V getInternal(long nativeHandle, byte[] dbKey) {
+    byte[] dbValue = nativeGet(nativeHandle, dbKey);
     return (dbValue == null) ? null : valueSerializer.fromBytes(dbValue);
   }
 
   private native byte[] nativeGet(long nativeHandle, byte[] key);
 
+  private void loadIntoCache(byte[] dbKey) {
+    // Get the handle even if the value is cached to check that this map is valid
+    long nativeHandle = getNativeHandle();
+    if (!cache.contains(dbKey)) {
+      byte[] dbValue = nativeGet(nativeHandle, dbKey);
+      cache.putClean(dbKey, dbValue);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param keys the proof map keys
+   * @throws IllegalStateException if this map is not valid
+   * @throws IllegalArgumentException if the size of any of the keys is not 32 bytes (in case of a
+   *     <a href="ProofMapIndexProxy.html#key-hashing">proof map that uses non-hashed keys</a>)
+   */
+  @Override
+  public List<V> getAll(Collection<? extends K> keys) {
+    flushCache();
+    byte[][] dbKeys = keysToArray(keys);
+    byte[][] dbValues = nativeGetMulti(getNativeHandle(), dbKeys);
+    List<V> values = new ArrayList<>(dbValues.length);
+    for (byte[] dbValue : dbValues) {
+      values.add((dbValue == null) ? null : valueSerializer.fromBytes(dbValue));
+    }
+    return values;
+  }
+
+  private native byte[][] nativeGetMulti(long nativeHandle, byte[][] keys);
+
   /**
    * Returns a proof that there are values mapped to the specified keys or that there are no such
    * mappings.
@@ -276,6 +405,7 @@ public final class ProofMapIndexProxy<K, V> extends AbstractIndexProxy implement
 
   private MapProof getSingleKeyProof(K key) {
     byte[] dbKey = keySerializer.toBytes(key);
+    flushCache();
     byte[] proofMessage = nativeGetProof(getNativeHandle(), dbKey);
     return decodeProofMessage(proofMessage);
   }
@@ -284,6 +414,7 @@ public final class ProofMapIndexProxy<K, V> extends AbstractIndexProxy implement
 
   private MapProof getMultiKeyProof(Collection<? extends K> keys) {
     byte[][] dbKeys = keysToArray(keys);
+    flushCache();
     byte[] proofMessage = nativeGetMultiProof(getNativeHandle(), dbKeys);
     return decodeProofMessage(proofMessage);
   }
@@ -307,7 +438,9 @@ public final class ProofMapIndexProxy<K, V> extends AbstractIndexProxy implement
 
   @Override
   public HashCode getIndexHash() {
-    return HashCode.fromBytes(nativeGetIndexHash(getNativeHandle()));
+    flushCache();
+    long nativeHandle = getNativeHandle();
+    return indexHash.get(() -> HashCode.fromBytes(nativeGetIndexHash(nativeHandle)));
   }
 
   private native byte[] nativeGetIndexHash(long nativeHandle);
@@ -315,17 +448,72 @@ public final class ProofMapIndexProxy<K, V> extends AbstractIndexProxy implement
   @Override
   public void remove(K key) {
     notifyModified();
+    long nativeHandle = getNativeHandle();
     byte[] dbKey = keySerializer.toBytes(key);
-    nativeRemove(getNativeHandle(), dbKey);
+    if (cache != null) {
+      cache.remove(dbKey);
+    } else {
+      nativeRemove(nativeHandle, dbKey);
+    }
   }
 
   private native void nativeRemove(long nativeHandle, byte[] key);
 
+  /**
+   * Puts the value into this map, and returns true if this map did not contain the key.
+   * Unless the write-back cache is enabled, checks the key and puts the value with a single
+   * native call.
+   *
+   * @throws IllegalStateException if this map is not valid
+   * @throws UnsupportedOperationException if this map is read-only
+   * @see CountedMapIndex
+   */
+  boolean putAndCheckNew(K key, V value) {
+    notifyModified();
+    long nativeHandle = getNativeHandle();
+    byte[] dbKey = keySerializer.toBytes(key);
+    byte[] dbValue = valueSerializer.toBytes(value);
+    if (cache != null) {
+      loadIntoCache(dbKey);
+      boolean isNew = !cache.hasValue(dbKey);
+      cache.put(dbKey, dbValue, value);
+      return isNew;
+    }
+    return nativePutAndCheckNew(nativeHandle, dbKey, dbValue);
+  }
+
+  /**
+   * Removes the value from this map, and returns true if this map contained the key.
+   * Unless the write-back cache is enabled, checks the key and removes the value with a single
+   * native call.
+   *
+   * @throws IllegalStateException if this map is not valid
+   * @throws UnsupportedOperationException if this map is read-only
+   * @see CountedMapIndex
+   */
+  boolean removeAndCheckPresent(K key) {
+    notifyModified();
+    long nativeHandle = getNativeHandle();
+    byte[] dbKey = keySerializer.toBytes(key);
+    if (cache != null) {
+      loadIntoCache(dbKey);
+      boolean isPresent = cache.hasValue(dbKey);
+      cache.remove(dbKey);
+      return isPresent;
+    }
+    return nativeRemoveAndCheckPresent(nativeHandle, dbKey);
+  }
+
+  private native boolean nativePutAndCheckNew(long nativeHandle, byte[] key, byte[] value);
+
+  private native boolean nativeRemoveAndCheckPresent(long nativeHandle, byte[] key);
+
   @Override
-  public Iterator<K> keys() {
+  public CloseableIterator<K> keys() {
+    flushCache();
     return StorageIterators.createIterator(
         nativeCreateKeysIter(getNativeHandle()),
-        this::nativeKeysIterNext,
+        this::nativeKeysIterNextChunk,
         this::nativeKeysIterFree,
         dbAccess,
         modCounter,
@@ -333,17 +521,61 @@ public final class ProofMapIndexProxy<K, V> extends AbstractIndexProxy implement
     );
   }
 
+  /**
+   * Returns an iterator over the keys of this map as they are stored in the database,
+   * without de-serializing them.
+   */
+  private CloseableIterator<byte[]> serializedKeys() {
+    flushCache();
+    return StorageIterators.createIterator(
+        nativeCreateKeysIter(getNativeHandle()),
+        this::nativeKeysIterNextChunk,
+        this::nativeKeysIterFree,
+        dbAccess,
+        modCounter,
+        Function.identity()
+    );
+  }
+
   private native long nativeCreateKeysIter(long nativeHandle);
 
-  private native byte[] nativeKeysIterNext(long iterNativeHandle);
+  /**
+   * {@inheritDoc}
+   *
+   * <p>In a <a href="ProofMapIndexProxy.html#key-hashing">proof map that uses hashed keys</a>,
+   * the keys are ordered by their hashes, therefore, the iteration starts at the first key
+   * whose hash is greater than or equal to the hash of the given key.
+   *
+   * @throws IllegalArgumentException if the size of the key is not 32 bytes (in case of a
+   *     <a href="ProofMapIndexProxy.html#key-hashing">proof map that uses non-hashed keys</a>)
+   */
+  @Override
+  public CloseableIterator<K> keys(K from) {
+    byte[] dbFrom = keySerializer.toBytes(from);
+    flushCache();
+    return StorageIterators.createIterator(
+        nativeKeysFrom(getNativeHandle(), dbFrom),
+        this::nativeKeysIterNextChunk,
+        this::nativeKeysIterFree,
+        dbAccess,
+        modCounter,
+        keySerializer::fromBytes
+    );
+  }
+
+  private native long nativeKeysFrom(long nativeHandle, byte[] from);
+
+  private native byte[][] nativeKeysIterNextChunk(long iterNativeHandle, int maxKeys,
+      int maxBytes);
 
   private native void nativeKeysIterFree(long iterNativeHandle);
 
   @Override
-  public Iterator<V> values() {
+  public CloseableIterator<V> values() {
+    flushCache();
     return StorageIterators.createIterator(
         nativeCreateValuesIter(getNativeHandle()),
-        this::nativeValuesIterNext,
+        this::nativeValuesIterNextChunk,
         this::nativeValuesIterFree,
         dbAccess,
         modCounter,
@@ -353,35 +585,159 @@ public final class ProofMapIndexProxy<K, V> extends AbstractIndexProxy implement
 
   private native long nativeCreateValuesIter(long nativeHandle);
 
-  private native byte[] nativeValuesIterNext(long iterNativeHandle);
+  private native byte[][] nativeValuesIterNextChunk(long iterNativeHandle, int maxValues,
+      int maxBytes);
 
   private native void nativeValuesIterFree(long iterNativeHandle);
 
   @Override
-  public Iterator<MapEntry<K, V>> entries() {
-    return StorageIterators.createIterator(
+  public CloseableIterator<MapEntry<K, V>> entries() {
+    flushCache();
+    return StorageIterators.createPairIterator(
         nativeCreateEntriesIter(getNativeHandle()),
-        this::nativeEntriesIterNext,
+        this::nativeEntriesIterNextChunk,
         this::nativeEntriesIterFree,
         dbAccess,
         modCounter,
-        (entry) -> entry.toMapEntry(entry, keySerializer, valueSerializer)
+        (key, value) -> MapEntry.valueOf(keySerializer.fromBytes(key),
+            valueSerializer.fromBytes(value))
     );
   }
 
   private native long nativeCreateEntriesIter(long nativeHandle);
 
-  private native MapEntryInternal nativeEntriesIterNext(long iterNativeHandle);
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Range iteration is only supported by a
+   * <a href="ProofMapIndexProxy.html#key-hashing">proof map that uses non-hashed keys</a>,
+   * because the entries of a map with hashed keys are ordered by the key hashes.
+   *
+   * @throws IllegalArgumentException if the size of any of the keys is not 32 bytes
+   * @throws UnsupportedOperationException if this map uses hashed keys
+   */
+  @Override
+  public CloseableIterator<MapEntry<K, V>> entries(K from, K toExclusive) {
+    checkNoKeyHashing();
+    byte[] dbFrom = keySerializer.toBytes(from);
+    byte[] dbTo = keySerializer.toBytes(toExclusive);
+    return entriesInRange(dbFrom, dbTo);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Prefix iteration is only supported by a
+   * <a href="ProofMapIndexProxy.html#key-hashing">proof map that uses non-hashed keys</a>,
+   * because the entries of a map with hashed keys are ordered by the key hashes.
+   *
+   * @throws IllegalArgumentException if the prefix is longer than 32 bytes
+   * @throws UnsupportedOperationException if this map uses hashed keys
+   */
+  @Override
+  public CloseableIterator<MapEntry<K, V>> entriesWithPrefix(byte[] prefix) {
+    checkNoKeyHashing();
+    checkArgument(prefix.length <= PROOF_MAP_KEY_SIZE,
+        "Prefix (%s) is longer than the proof map key size (%s)", prefix.length,
+        PROOF_MAP_KEY_SIZE);
+    // Pad the bounds with zeros to the key size: the keys with the prefix are
+    // in the range [prefix, prefixUpperBound)
+    byte[] from = Arrays.copyOf(prefix, PROOF_MAP_KEY_SIZE);
+    byte[] upperBound = KeyRanges.prefixUpperBound(prefix);
+    byte[] to = (upperBound == null) ? null : Arrays.copyOf(upperBound, PROOF_MAP_KEY_SIZE);
+    return entriesInRange(from, to);
+  }
+
+  private void checkNoKeyHashing() {
+    if (keyHashing) {
+      throw new UnsupportedOperationException("Range iteration is not supported by "
+          + "a proof map with hashed keys, as its entries are ordered by the key hashes");
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>If this map is created with a {@link Snapshot} and
+   * <a href="ProofMapIndexProxy.html#key-hashing">uses non-hashed keys</a>, the stream supports
+   * parallel traversal: it is split into the ranges of keys, each traversed with a separate
+   * native iterator. The snapshot cleaner must not be closed till the traversal completes.
+   * The stream of a map with hashed keys does not split, because its entries are ordered
+   * by the key hashes.
+   *
+   * <p>Closing the stream releases the native iterators, if the stream is not traversed
+   * to the end.
+   */
+  @Override
+  public Stream<MapEntry<K, V>> stream() {
+    flushCache();
+    boolean splittable = !keyHashing && dbAccess instanceof Snapshot;
+    MapSpliterator<MapEntry<K, V>> spliterator = new MapSpliterator<>(
+        new MapSpliterator.RangeSource<MapEntry<K, V>>() {
+          @Override
+          public CloseableIterator<MapEntry<K, V>> entries() {
+            return ProofMapIndexProxy.this.entries();
+          }
+
+          @Override
+          public CloseableIterator<MapEntry<K, V>> entries(byte[] from,
+              @Nullable byte[] toExclusive) {
+            return entriesInRange(from, toExclusive);
+          }
+
+          @Override
+          @Nullable
+          public byte[] ceilingKey(byte[] key) {
+            return nativeCeilingKey(getNativeHandle(), key);
+          }
+        }, PROOF_MAP_KEY_SIZE, splittable);
+    return StreamSupport.stream(spliterator, false)
+        .onClose(spliterator::close);
+  }
+
+  private CloseableIterator<MapEntry<K, V>> entriesInRange(byte[] from,
+      @Nullable byte[] toExclusive) {
+    flushCache();
+    return StorageIterators.createPairIterator(
+        nativeCreateEntriesIterRange(getNativeHandle(), from, toExclusive),
+        this::nativeEntriesIterNextChunk,
+        this::nativeEntriesIterFree,
+        dbAccess,
+        modCounter,
+        (key, value) -> MapEntry.valueOf(keySerializer.fromBytes(key),
+            valueSerializer.fromBytes(value))
+    );
+  }
+
+  private native byte[] nativeCeilingKey(long nativeHandle, byte[] key);
+
+  private native long nativeCreateEntriesIterRange(long nativeHandle, byte[] from,
+      @Nullable byte[] toExclusive);
+
+  private native byte[][] nativeEntriesIterNextChunk(long iterNativeHandle, int maxEntries,
+      int maxBytes);
 
   private native void nativeEntriesIterFree(long iterNativeHandle);
 
   @Override
   public void clear() {
     notifyModified();
+    if (cache != null) {
+      cache.clear();
+    }
     nativeClear(getNativeHandle());
   }
 
+  @Override
+  public boolean isEmpty() {
+    try (CloseableIterator<K> keys = keys()) {
+      return !keys.hasNext();
+    }
+  }
+
   private native void nativeClear(long nativeHandle);
 
   private static native void nativeFree(long nativeHandle);
+
+  private static native void nativeFreeAll(long[] nativeHandles);
 }
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.exonum.binding.common.collect.MapEntry;
+import com.exonum.binding.common.serialization.Serializer;
+import com.google.common.collect.Iterators;
+import java.io.ByteArrayOutputStream;
+import java.util.Iterator;
+
+/**
+ * A secondary index of an {@link IndexedMapIndex}, which maps the secondary keys
+ * of the map values to the keys of the map. The secondary index is maintained
+ * by the map; it is read-only.
+ *
+ * <p>Several map keys may correspond to the same secondary key. The map keys with the same
+ * secondary key are ordered lexicographically.
+ *
+ * <p>The index is stored as a map of composite keys to the map keys. A composite key
+ * is the secondary key, encoded so that the lexicographical order of the secondary keys
+ * is preserved, followed by the map key. Hence, the map keys with a certain
+ * secondary key, or with the secondary keys in a certain range, are found with a single
+ * range scan.
+ *
+ * @param <SK> the type of secondary keys
+ * @param <K> the type of keys in the map
+ * @see IndexedMapIndex#getSecondaryIndex(SecondaryKey)
+ */
+public final class SecondaryIndex<SK, K> {
+
+  /** The escape byte of the zero byte in the encoded secondary key. */
+  private static final byte ESCAPED_ZERO = (byte) 0xFF;
+  /** The terminator of the encoded secondary key; is less than any escaped byte. */
+  private static final byte[] TERMINATOR = {0x00, 0x01};
+
+  private final SecondaryKey<?, SK> secondaryKey;
+  private final Serializer<K> keySerializer;
+  private final MapIndex<byte[], byte[]> entries;
+
+  SecondaryIndex(SecondaryKey<?, SK> secondaryKey, Serializer<K> keySerializer,
+      MapIndex<byte[], byte[]> entries) {
+    this.secondaryKey = checkNotNull(secondaryKey);
+    this.keySerializer = checkNotNull(keySerializer);
+    this.entries = checkNotNull(entries);
+  }
+
+  /**
+   * Returns the secondary key of this index.
+   */
+  public SecondaryKey<?, SK> getSecondaryKey() {
+    return secondaryKey;
+  }
+
+  /**
+   * Returns true if the map has any values with the given secondary key.
+   *
+   * @param secondaryKey a secondary key
+   * @throws IllegalStateException if the map is not valid
+   */
+  public boolean contains(SK secondaryKey) {
+    byte[] prefix = encodeSecondaryKey(secondaryKey);
+    Iterator<?> indexEntries = entries.entriesWithPrefix(prefix);
+    try {
+      return indexEntries.hasNext();
+    } finally {
+      close(indexEntries);
+    }
+  }
+
+  /**
+   * Returns an iterator over the map keys of the values with the given secondary key.
+   * The iterator may be closed to release the native iterator before it is exhausted.
+   *
+   * @param secondaryKey a secondary key
+   * @throws IllegalStateException if the map is not valid
+   */
+  public CloseableIterator<K> keys(SK secondaryKey) {
+    byte[] prefix = encodeSecondaryKey(secondaryKey);
+    return toMapKeys(entries.entriesWithPrefix(prefix));
+  }
+
+  /**
+   * Returns an iterator over the map keys of the values with the secondary keys in the range
+   * [{@code from}, {@code toExclusive}). The keys are ordered by the secondary keys first,
+   * in lexicographical order of their serialized form. The iterator may be closed to release
+   * the native iterator before it is exhausted.
+   *
+   * @param from the lower bound of the range of secondary keys, inclusive
+   * @param toExclusive the upper bound of the range of secondary keys, exclusive
+   * @throws IllegalStateException if the map is not valid
+   */
+  public CloseableIterator<K> keys(SK from, SK toExclusive) {
+    byte[] fromKey = encodeSecondaryKey(from);
+    byte[] toKey = encodeSecondaryKey(toExclusive);
+    return toMapKeys(entries.entries(fromKey, toKey));
+  }
+
+  private CloseableIterator<K> toMapKeys(Iterator<MapEntry<byte[], byte[]>> indexEntries) {
+    Iterator<K> mapKeys = Iterators.transform(indexEntries,
+        e -> keySerializer.fromBytes(e.getValue()));
+    return new CloseableIterator<K>() {
+      @Override
+      public boolean hasNext() {
+        return mapKeys.hasNext();
+      }
+
+      @Override
+      public K next() {
+        return mapKeys.next();
+      }
+
+      @Override
+      public void close() {
+        SecondaryIndex.close(indexEntries);
+      }
+    };
+  }
+
+  /**
+   * Closes the iterator over the index entries, if it holds a native iterator.
+   */
+  private static void close(Iterator<?> indexEntries) {
+    if (indexEntries instanceof CloseableIterator) {
+      ((CloseableIterator<?>) indexEntries).close();
+    }
+  }
+
+  /**
+   * Adds the map key with the given secondary key to this index.
+   */
+  void add(SK secondaryKey, byte[] mapKey) {
+    entries.put(compositeKey(secondaryKey, mapKey), mapKey);
+  }
+
+  /**
+   * Removes the map key with the given secondary key from this index.
+   */
+  void remove(SK secondaryKey, byte[] mapKey) {
+    entries.remove(compositeKey(secondaryKey, mapKey));
+  }
+
+  /**
+   * Removes all keys from this index.
+   */
+  void clear() {
+    entries.clear();
+  }
+
+  private byte[] compositeKey(SK secondaryKey, byte[] mapKey) {
+    byte[] encodedKey = encodeSecondaryKey(secondaryKey);
+    byte[] compositeKey = new byte[encodedKey.length + mapKey.length];
+    System.arraycopy(encodedKey, 0, compositeKey, 0, encodedKey.length);
+    System.arraycopy(mapKey, 0, compositeKey, encodedKey.length, mapKey.length);
+    return compositeKey;
+  }
+
+  private byte[] encodeSecondaryKey(SK secondaryKey) {
+    byte[] key = this.secondaryKey.getKeySerializer().toBytes(secondaryKey);
+    return encode(key);
+  }
+
+  /**
+   * Encodes the serialized secondary key so that no encoded key is a prefix of another,
+   * and the lexicographical order of the encoded keys matches the order of the keys:
+   * the zero bytes are escaped as {@code 00 FF}, and the key is terminated with {@code 00 01}.
+   */
+  static byte[] encode(byte[] key) {
+    ByteArrayOutputStream encoded = new ByteArrayOutputStream(key.length + TERMINATOR.length);
+    for (byte b : key) {
+      encoded.write(b);
+      if (b == 0) {
+        encoded.write(ESCAPED_ZERO);
+      }
+    }
+    encoded.write(TERMINATOR, 0, TERMINATOR.length);
+    return encoded.toByteArray();
+  }
+}
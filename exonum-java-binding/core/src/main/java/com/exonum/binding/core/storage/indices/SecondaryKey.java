@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.exonum.binding.common.serialization.Serializer;
+import com.google.common.base.MoreObjects;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * A declaration of a secondary key of the values of an {@link IndexedMapIndex}: the secondary
+ * index of the map allows to find the map keys by the secondary key of their values.
+ *
+ * <p>For example, a schema of wallets may declare a secondary key — the name of the wallet owner:
+ * <pre>{@code
+ * static final SecondaryKey<Wallet, String> OWNER_NAME =
+ *     SecondaryKey.of("owner_name", StandardSerializers.string(), Wallet::getOwnerName);
+ * }</pre>
+ *
+ * @param <V> the type of values in the map
+ * @param <SK> the type of the secondary key
+ * @see com.exonum.binding.core.storage.database.Access#getIndexedMap
+ */
+public final class SecondaryKey<V, SK> {
+
+  private final String name;
+  private final Serializer<SK> keySerializer;
+  private final Function<? super V, ? extends SK> keyExtractor;
+
+  private SecondaryKey(String name, Serializer<SK> keySerializer,
+      Function<? super V, ? extends SK> keyExtractor) {
+    checkArgument(!name.isEmpty(), "Empty name");
+    this.name = name;
+    this.keySerializer = checkNotNull(keySerializer);
+    this.keyExtractor = checkNotNull(keyExtractor);
+  }
+
+  /**
+   * Creates a secondary key.
+   *
+   * @param name the name of the secondary key, unique among the secondary keys of the map;
+   *     forms the name of the index storing the secondary index
+   * @param keySerializer a serializer of the secondary keys. The range scans
+   *     by the secondary keys follow the lexicographical order of their serialized form
+   * @param keyExtractor a function extracting the secondary key from the value;
+   *     may return {@code null} if the value has no secondary key, in which case it
+   *     is not indexed
+   * @param <V> the type of values in the map
+   * @param <SK> the type of the secondary key
+   */
+  public static <V, SK> SecondaryKey<V, SK> of(String name, Serializer<SK> keySerializer,
+      Function<? super V, ? extends SK> keyExtractor) {
+    return new SecondaryKey<>(name, keySerializer, keyExtractor);
+  }
+
+  /**
+   * Returns the name of this secondary key.
+   */
+  public String getName() {
+    return name;
+  }
+
+  Serializer<SK> getKeySerializer() {
+    return keySerializer;
+  }
+
+  /**
+   * Returns the secondary key of the value; or {@code null} if it has none.
+   */
+  @Nullable
+  SK extract(V value) {
+    return keyExtractor.apply(value);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("name", name)
+        .toString();
+  }
+}
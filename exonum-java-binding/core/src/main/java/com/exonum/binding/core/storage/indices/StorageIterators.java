@@ -20,50 +20,122 @@ import com.exonum.binding.core.proxy.Cleaner;
 import com.exonum.binding.core.proxy.NativeHandle;
 import com.exonum.binding.core.proxy.ProxyDestructor;
 import com.exonum.binding.core.storage.database.AbstractAccess;
-import com.google.common.collect.Iterators;
-import java.util.Iterator;
+import com.exonum.binding.core.storage.indices.ChunkedLongIterator.NextLongChunkFunction;
+import com.exonum.binding.core.storage.indices.ChunkedStorageIterator.NextChunkFunction;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.LongConsumer;
-import java.util.function.LongFunction;
 
+/**
+ * Factory methods of the iterators over indexes.
+ *
+ * <p>The native iterators are registered in the cleaner of the database access,
+ * and are released as soon as the iterators are exhausted or closed. The native iterators
+ * of the abandoned iterators are released once the iterators become unreachable
+ * (see {@link Cleaner#releaseWhenUnreachable}), without waiting for the access
+ * to be closed. As the iterators
+ * of a Snapshot may be created and released by the workers of a parallel stream,
+ * the cleaner is locked when an iterator is registered or released in it.
+ */
 final class StorageIterators {
 
   /**
    * Creates a new iterator over an index.
    *
-   * <p>The returned iterator is a {@link ConfigurableRustIter}
-   * wrapped in a {@link RustIterAdapter}.
+   * <p>The returned iterator is a {@link ChunkedStorageIterator} that fetches the items
+   * of the native iterator in chunks.
    *
    * @param nativeHandle nativeHandle of this iterator
-   * @param nextFunction a function to call to get the next item
+   * @param nextChunkFunction a function to call to get the next chunk of items
    * @param disposeOperation an operation to call to destroy the corresponding native iterator
    * @param collectionAccess a database access of the collection over which to iterate
    * @param modificationCounter a modification counter of the collection
-   * @param transformingFunction a function to apply to elements returned by native iterator
-   *                             (usually, to an array of bytes)
+   * @param transformingFunction a function to apply to items returned by native iterator
+   *                             (arrays of bytes)
    */
-  static <ElementT, NativeT> Iterator<ElementT> createIterator(
+  static <ElementT> CloseableIterator<ElementT> createIterator(
       long nativeHandle,
-      LongFunction<NativeT> nextFunction,
+      NextChunkFunction nextChunkFunction,
       LongConsumer disposeOperation,
       AbstractAccess collectionAccess,
       ModificationCounter modificationCounter,
-      Function<? super NativeT, ? extends ElementT> transformingFunction) {
+      Function<? super byte[], ? extends ElementT> transformingFunction) {
+    NativeHandle handle = new NativeHandle(nativeHandle);
+    Cleaner cleaner = collectionAccess.getCleaner();
+    ProxyDestructor destructor = registerIterator(handle, disposeOperation, cleaner);
+    ChunkedStorageIterator<ElementT> iterator = ChunkedStorageIterator.ofItems(handle,
+        nextChunkFunction, () -> cleaner.release(destructor), modificationCounter,
+        transformingFunction);
+    cleaner.releaseWhenUnreachable(destructor, iterator);
+    return iterator;
+  }
 
-    // Register the destructor first.
+  /**
+   * Creates a new iterator over an index whose elements are pairs of items
+   * of the native iterator (e.g., map entries).
+   *
+   * @param nativeHandle nativeHandle of this iterator
+   * @param nextChunkFunction a function to call to get the next chunk of items,
+   *     with the first and the second items of pairs interleaved
+   * @param disposeOperation an operation to call to destroy the corresponding native iterator
+   * @param collectionAccess a database access of the collection over which to iterate
+   * @param modificationCounter a modification counter of the collection
+   * @param transformingFunction a function to apply to pairs of items returned
+   *                             by native iterator
+   */
+  static <ElementT> CloseableIterator<ElementT> createPairIterator(
+      long nativeHandle,
+      NextChunkFunction nextChunkFunction,
+      LongConsumer disposeOperation,
+      AbstractAccess collectionAccess,
+      ModificationCounter modificationCounter,
+      BiFunction<? super byte[], ? super byte[], ? extends ElementT> transformingFunction) {
     NativeHandle handle = new NativeHandle(nativeHandle);
     Cleaner cleaner = collectionAccess.getCleaner();
-    cleaner.add(new ProxyDestructor(handle, RustIter.class, disposeOperation));
+    ProxyDestructor destructor = registerIterator(handle, disposeOperation, cleaner);
+    ChunkedStorageIterator<ElementT> iterator = ChunkedStorageIterator.ofPairs(handle,
+        nextChunkFunction, () -> cleaner.release(destructor), modificationCounter,
+        transformingFunction);
+    cleaner.releaseWhenUnreachable(destructor, iterator);
+    return iterator;
+  }
 
-    Iterator<NativeT> iterator = new RustIterAdapter<>(
-        new ConfigurableRustIter<>(
-            handle,
-            nextFunction,
-            modificationCounter
-        )
-    );
+  /**
+   * Creates a new iterator over {@code long} elements of an index.
+   *
+   * @param nativeHandle nativeHandle of this iterator
+   * @param nextChunkFunction a function to call to get the next chunk of elements
+   * @param disposeOperation an operation to call to destroy the corresponding native iterator
+   * @param collectionAccess a database access of the collection over which to iterate
+   * @param modificationCounter a modification counter of the collection
+   */
+  static CloseableIterator.OfLong createLongIterator(
+      long nativeHandle,
+      NextLongChunkFunction nextChunkFunction,
+      LongConsumer disposeOperation,
+      AbstractAccess collectionAccess,
+      ModificationCounter modificationCounter) {
+    NativeHandle handle = new NativeHandle(nativeHandle);
+    Cleaner cleaner = collectionAccess.getCleaner();
+    ProxyDestructor destructor = registerIterator(handle, disposeOperation, cleaner);
+    ChunkedLongIterator iterator = new ChunkedLongIterator(handle, nextChunkFunction,
+        () -> cleaner.release(destructor), modificationCounter);
+    cleaner.releaseWhenUnreachable(destructor, iterator);
+    return iterator;
+  }
 
-    return Iterators.transform(iterator, transformingFunction::apply);
+  /**
+   * Registers the destructor of the native iterator in the cleaner of the access.
+   *
+   * @return the registered destructor, which may be released before the cleaner is closed
+   */
+  private static ProxyDestructor registerIterator(NativeHandle handle,
+      LongConsumer disposeOperation, Cleaner cleaner) {
+    // Register the destructor first.
+    ProxyDestructor destructor = new ProxyDestructor(handle, ChunkedStorageIterator.class,
+        disposeOperation);
+    cleaner.add(destructor);
+    return destructor;
   }
 
   private StorageIterators() {}
@@ -20,23 +20,33 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 
 final class StoragePreconditions {
 
   static final int PROOF_MAP_KEY_SIZE = 32;
 
+  /**
+   * The prefix of the names of the indexes used internally by the framework
+   * (e.g., by the {@linkplain CountedMapIndex counted maps}).
+   */
+  static final String RESERVED_NAME_PREFIX = "__exonum_java.";
+
   /**
    * Checks that an index name is valid.
    *
    * @param name an index name
    * @return an unmodified name if it's valid
    * @throws NullPointerException if the name is null
-   * @throws IllegalArgumentException if the name has zero length
+   * @throws IllegalArgumentException if the name has zero length, or starts with
+   *     the {@linkplain #RESERVED_NAME_PREFIX reserved prefix}
    */
   @CanIgnoreReturnValue
   static String checkIndexName(String name) {
     checkArgument(!name.isEmpty(), "name is empty");
+    checkArgument(!name.startsWith(RESERVED_NAME_PREFIX),
+        "The names starting with %s are reserved: %s", RESERVED_NAME_PREFIX, name);
     return name;
   }
 
@@ -94,6 +104,20 @@ final class StoragePreconditions {
     return checkNotNull(value, "Storage value is null");
   }
 
+  /**
+   * Checks that a buffer is direct, i.e., can be accessed by the native code without copying.
+   *
+   * @param buffer a buffer
+   * @return an unmodified buffer if it's direct
+   * @throws NullPointerException if the buffer is null
+   * @throws IllegalArgumentException if the buffer is not direct
+   */
+  @CanIgnoreReturnValue
+  static ByteBuffer checkDirectBuffer(ByteBuffer buffer) {
+    checkArgument(buffer.isDirect(), "Buffer must be direct: %s", buffer);
+    return buffer;
+  }
+
   /**
    * Checks that the given collection does not contain null entries.
    *
@@ -138,6 +162,22 @@ final class StoragePreconditions {
     return index;
   }
 
+  /**
+   * Checks that the specified indices are valid positions of a range in a sequence:
+   * {@code 0 <= from <= to <= size}.
+   *
+   * @param from the index of the first element of the range
+   * @param to the index after the last element of the range
+   * @param size size of the sequence
+   * @throws IndexOutOfBoundsException if the indices do not form a valid range
+   */
+  static void checkPositionIndexes(long from, long to, long size) {
+    if (from < 0 || from > to || to > size) {
+      throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") must be a sub-range "
+          + "of [0, " + size + ")");
+    }
+  }
+
   /**
    * Checks that the first element index of the range is less than the index after
    * the last element.
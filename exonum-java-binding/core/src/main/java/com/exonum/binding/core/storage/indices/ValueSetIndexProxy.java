@@ -16,24 +16,19 @@
 
 package com.exonum.binding.core.storage.indices;
 
-import static com.exonum.binding.core.storage.indices.StoragePreconditions.checkStorageValue;
-import static com.google.common.base.Preconditions.checkNotNull;
-
 import com.exonum.binding.common.hash.HashCode;
 import com.exonum.binding.common.serialization.CheckingSerializerDecorator;
 import com.exonum.binding.common.serialization.Serializer;
 import com.exonum.binding.common.serialization.StandardSerializers;
 import com.exonum.binding.core.proxy.Cleaner;
 import com.exonum.binding.core.proxy.NativeHandle;
-import com.exonum.binding.core.proxy.ProxyDestructor;
 import com.exonum.binding.core.storage.database.AbstractAccess;
 import com.exonum.binding.core.storage.database.Access;
 import com.exonum.binding.core.util.LibraryLoader;
 import com.google.auto.value.AutoValue;
-import com.google.common.annotations.VisibleForTesting;
-import java.util.Iterator;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import javax.annotation.Nullable;
@@ -54,7 +49,10 @@ import javax.annotation.Nullable;
  *
  * <p>All method arguments are non-null by default.
  *
- * <p>This class is not thread-safe and and its instances shall not be shared between threads.
+ * <p>This class is not thread-safe and its instances shall not be shared between threads,
+ * unless they are created with a
+ * {@linkplain com.exonum.binding.core.storage.database.Snapshot snapshot}, which allows
+ * concurrent reads.
  *
  * <p>When the access goes out of scope, this set is destroyed. Subsequent use of the closed set
  * is prohibited and will result in {@link IllegalStateException}.
@@ -96,9 +94,7 @@ public final class ValueSetIndexProxy<E> extends AbstractIndexProxy
                                                       Serializer<E> serializer) {
     CheckingSerializerDecorator<E> s = CheckingSerializerDecorator.from(serializer);
 
-    NativeHandle setNativeHandle = createNativeSet(address, access);
-
-    return new ValueSetIndexProxy<>(setNativeHandle, address, access, s);
+    return new ValueSetIndexProxy<>(() -> createNativeSet(address, access), address, access, s);
   }
 
   private static NativeHandle createNativeSet(
@@ -109,14 +105,14 @@ public final class ValueSetIndexProxy<E> extends AbstractIndexProxy
     NativeHandle setNativeHandle = new NativeHandle(handle);
 
     Cleaner cleaner = access.getCleaner();
-    ProxyDestructor.newRegistered(cleaner, setNativeHandle, ValueSetIndexProxy.class,
-        ValueSetIndexProxy::nativeFree);
+    cleaner.addNativeProxy(setNativeHandle, ValueSetIndexProxy.class,
+        ValueSetIndexProxy::nativeFree, ValueSetIndexProxy::nativeFreeAll);
     return setNativeHandle;
   }
 
-  private ValueSetIndexProxy(NativeHandle nativeHandle, IndexAddress address, AbstractAccess access,
-                             CheckingSerializerDecorator<E> serializer) {
-    super(nativeHandle, address, access);
+  private ValueSetIndexProxy(Supplier<NativeHandle> nativeIndexFactory, IndexAddress address,
+                             AbstractAccess access, CheckingSerializerDecorator<E> serializer) {
+    super(nativeIndexFactory, address, access);
     this.serializer = serializer;
   }
 
@@ -174,10 +170,10 @@ public final class ValueSetIndexProxy<E> extends AbstractIndexProxy
    * @return an iterator over the hashes of the elements in this set
    * @throws IllegalStateException if this set is not valid
    */
-  public Iterator<HashCode> hashes() {
+  public CloseableIterator<HashCode> hashes() {
     return StorageIterators.createIterator(
         nativeCreateHashIterator(getNativeHandle()),
-        this::nativeHashIteratorNext,
+        this::nativeHashIteratorNextChunk,
         this::nativeHashIteratorFree,
         dbAccess,
         modCounter,
@@ -192,33 +188,36 @@ public final class ValueSetIndexProxy<E> extends AbstractIndexProxy
    * @throws IllegalStateException if this set is not valid
    */
   @Override
-  public Iterator<Entry<E>> iterator() {
-    return StorageIterators.createIterator(
+  public CloseableIterator<Entry<E>> iterator() {
+    return StorageIterators.createPairIterator(
         nativeCreateIterator(getNativeHandle()),
-        this::nativeIteratorNext,
+        this::nativeIteratorNextChunk,
         this::nativeIteratorFree,
         dbAccess,
         modCounter,
-        (e) -> Entry.fromInternal(e, serializer));
+        (hash, value) -> Entry.from(HashCode.fromBytes(hash), serializer.fromBytes(value)));
   }
 
   private native long nativeCreateIterator(long nativeHandle);
 
-  private native EntryInternal nativeIteratorNext(long iterNativeHandle);
+  private native byte[][] nativeIteratorNextChunk(long iterNativeHandle, int maxEntries,
+      int maxBytes);
 
   private native void nativeIteratorFree(long iterNativeHandle);
 
   /**
    * Returns a stream of the entries in this set. An entry is a hash-value pair.
-   * The entries are ordered by hashes lexicographically.
+   * The entries are ordered by hashes lexicographically. Closing the stream releases
+   * the native iterator, if the stream is not traversed to the end.
    *
    * @throws IllegalStateException if this set is not valid
    */
   public Stream<Entry<E>> stream() {
+    CloseableIterator<Entry<E>> iterator = iterator();
     return StreamSupport.stream(
-        Spliterators.spliteratorUnknownSize(iterator(), streamCharacteristics()),
+        Spliterators.spliteratorUnknownSize(iterator, streamCharacteristics()),
         false
-    );
+    ).onClose(iterator::close);
   }
 
   private int streamCharacteristics() {
@@ -257,32 +256,11 @@ public final class ValueSetIndexProxy<E> extends AbstractIndexProxy
       return getHash().hashCode();
     }
 
-    private static <E> Entry<E> fromInternal(EntryInternal e, Serializer<E> serializer) {
-      HashCode hash = HashCode.fromBytes(e.hash);
-      E value = serializer.fromBytes(e.value);
-      return from(hash, value);
-    }
-
-    @VisibleForTesting
     static <E> Entry<E> from(HashCode hash, E value) {
       return new AutoValue_ValueSetIndexProxy_Entry<>(hash, value);
     }
   }
 
-  /**
-   * An internal entry: native API.
-   */
-  private static class EntryInternal {
-    final byte[] hash;
-    final byte[] value;
-
-    @SuppressWarnings("unused")  // native API
-    private EntryInternal(byte[] hash, byte[] value) {
-      this.hash = checkNotNull(hash);
-      this.value = checkStorageValue(value);
-    }
-  }
-
   /**
    * Removes the element from this set. If it's not in the set, does nothing.
    *
@@ -322,8 +300,8 @@ public final class ValueSetIndexProxy<E> extends AbstractIndexProxy
 
   private native long nativeCreateHashIterator(long nativeHandle);
 
-  @Nullable
-  private native byte[] nativeHashIteratorNext(long iterNativeHandle);
+  private native byte[][] nativeHashIteratorNextChunk(long iterNativeHandle, int maxHashes,
+      int maxBytes);
 
   private native void nativeHashIteratorFree(long iterNativeHandle);
 
@@ -332,4 +310,6 @@ public final class ValueSetIndexProxy<E> extends AbstractIndexProxy
   private native void nativeRemoveByHash(long nativeHandle, byte[] elementHash);
 
   private static native void nativeFree(long nativeHandle);
+
+  private static native void nativeFreeAll(long[] nativeHandles);
 }
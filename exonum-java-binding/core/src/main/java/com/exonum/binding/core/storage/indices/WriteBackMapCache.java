@@ -0,0 +1,240 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.exonum.binding.common.serialization.Serializer;
+import com.exonum.binding.core.proxy.CleanAction;
+import com.exonum.binding.core.storage.database.AbstractAccess;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * A write-back cache of map entries. It keeps the values read from the map
+ * and the values written to it, and buffers the writes until they are {@linkplain #flush flushed}
+ * to the map in a single batch.
+ *
+ * <p>The entries are identified by the serialized keys, because the keys might not
+ * implement {@link Object#equals(Object)} (e.g., arrays). The values are kept serialized
+ * and are de-serialized once, on the first read. The serialized keys and values are copied
+ * on insertion, because they might be the arrays of the caller (e.g., if the map uses
+ * the bytes serializer), which can be modified after the operation.
+ *
+ * <p>The cache keeps at most {@link #MAX_ENTRIES} entries: when it is full,
+ * it is flushed and cleared.
+ *
+ * <p>This class is not thread-safe.
+ *
+ * @param <V> the type of values in the map
+ */
+final class WriteBackMapCache<V> {
+
+  /** The maximum number of entries in the cache. */
+  static final int MAX_ENTRIES = 4096;
+
+  private final Serializer<V> valueSerializer;
+  private final BatchWriter batchWriter;
+  private final Map<ByteBuffer, Entry<V>> entries = new HashMap<>();
+  private final List<ByteBuffer> dirtyKeys = new ArrayList<>();
+
+  /**
+   * Creates a cache for a map created with the given access, if the access has
+   * the {@linkplain AbstractAccess#isWriteBackCacheEnabled() write-back cache enabled}.
+   * The cache is flushed when the access flushes its caches explicitly; and, as a safety net,
+   * when the access cleaner is closed, which must happen before the map is destroyed.
+   *
+   * @param access a database access
+   * @param valueSerializer a serializer of the map values
+   * @param batchWriter a function writing the changes to the map
+   * @return a new cache; or {@code null} if the cache is not enabled
+   */
+  @Nullable
+  static <V> WriteBackMapCache<V> forAccess(AbstractAccess access, Serializer<V> valueSerializer,
+      BatchWriter batchWriter) {
+    if (!access.isWriteBackCacheEnabled()) {
+      return null;
+    }
+    WriteBackMapCache<V> cache = new WriteBackMapCache<>(valueSerializer, batchWriter);
+    access.registerWriteBackCache(cache::flush);
+    access.getCleaner().add(CleanAction.from(cache::flush, WriteBackMapCache.class));
+    return cache;
+  }
+
+  /**
+   * Creates a new empty cache.
+   *
+   * @param valueSerializer a serializer of the map values
+   * @param batchWriter a function writing the changes to the map
+   */
+  WriteBackMapCache(Serializer<V> valueSerializer, BatchWriter batchWriter) {
+    this.valueSerializer = checkNotNull(valueSerializer);
+    this.batchWriter = checkNotNull(batchWriter);
+  }
+
+  /**
+   * Returns true if the cache has an entry for the given key, either present in the map,
+   * or absent.
+   */
+  boolean contains(byte[] key) {
+    return entries.containsKey(ByteBuffer.wrap(key));
+  }
+
+  /**
+   * Returns true if the map has a value for the given key.
+   *
+   * @param key a serialized key; must be in the cache
+   */
+  boolean hasValue(byte[] key) {
+    return getEntry(key).dbValue != null;
+  }
+
+  /**
+   * Returns the value associated with the given key.
+   *
+   * @param key a serialized key; must be in the cache
+   * @return a value, or {@code null} if the map has no value for the key
+   */
+  @Nullable
+  V get(byte[] key) {
+    return getEntry(key).getValue(valueSerializer);
+  }
+
+  private Entry<V> getEntry(byte[] key) {
+    Entry<V> entry = entries.get(ByteBuffer.wrap(key));
+    return checkNotNull(entry, "No entry in the cache");
+  }
+
+  /**
+   * Puts a clean entry read from the map into the cache.
+   *
+   * @param key a serialized key
+   * @param dbValue a serialized value; or {@code null} if the map has no value for the key
+   */
+  void putClean(byte[] key, @Nullable byte[] dbValue) {
+    makeRoom();
+    entries.put(ByteBuffer.wrap(key.clone()), new Entry<>(dbValue, null, false));
+  }
+
+  /**
+   * Puts a value into the cache, deferring the write to the map until {@link #flush()}.
+   *
+   * @param key a serialized key
+   * @param dbValue a serialized value
+   * @param value a value
+   */
+  void put(byte[] key, byte[] dbValue, V value) {
+    putDirty(key, new Entry<>(dbValue.clone(), value, true));
+  }
+
+  /**
+   * Removes a value from the cache, deferring the removal from the map until {@link #flush()}.
+   *
+   * @param key a serialized key
+   */
+  void remove(byte[] key) {
+    putDirty(key, new Entry<>(null, null, true));
+  }
+
+  private void putDirty(byte[] key, Entry<V> entry) {
+    makeRoom();
+    ByteBuffer cacheKey = ByteBuffer.wrap(key.clone());
+    Entry<V> previous = entries.put(cacheKey, entry);
+    if (previous == null || !previous.dirty) {
+      dirtyKeys.add(cacheKey);
+    }
+  }
+
+  private void makeRoom() {
+    if (entries.size() >= MAX_ENTRIES) {
+      flush();
+      entries.clear();
+    }
+  }
+
+  /**
+   * Writes the pending changes to the map in a single batch. The entries remain
+   * in the cache.
+   */
+  void flush() {
+    int numChanges = dirtyKeys.size();
+    if (numChanges == 0) {
+      return;
+    }
+    byte[][] keys = new byte[numChanges][];
+    byte[][] values = new byte[numChanges][];
+    for (int i = 0; i < numChanges; i++) {
+      ByteBuffer key = dirtyKeys.get(i);
+      Entry<V> entry = entries.get(key);
+      keys[i] = key.array();
+      values[i] = entry.dbValue;
+      entry.dirty = false;
+    }
+    dirtyKeys.clear();
+    batchWriter.write(keys, values);
+  }
+
+  /**
+   * Removes all entries from the cache, discarding the pending changes.
+   */
+  void clear() {
+    entries.clear();
+    dirtyKeys.clear();
+  }
+
+  /**
+   * A function writing a batch of changes to the map.
+   */
+  @FunctionalInterface
+  interface BatchWriter {
+
+    /**
+     * Puts the values with the corresponding keys into the map; removes the values
+     * with the keys that correspond to {@code null} values.
+     *
+     * @param keys the serialized keys
+     * @param values the serialized values; {@code null} if the value must be removed
+     */
+    void write(byte[][] keys, byte[][] values);
+  }
+
+  private static final class Entry<V> {
+    /** A serialized value; or {@code null} if the map has no value. */
+    @Nullable final byte[] dbValue;
+    /** A de-serialized value; or {@code null} if it is not yet de-serialized or absent. */
+    @Nullable V value;
+    boolean dirty;
+
+    Entry(@Nullable byte[] dbValue, @Nullable V value, boolean dirty) {
+      this.dbValue = dbValue;
+      this.value = value;
+      this.dirty = dirty;
+    }
+
+    @Nullable
+    V getValue(Serializer<V> serializer) {
+      if (value == null && dbValue != null) {
+        value = serializer.fromBytes(dbValue);
+      }
+      return value;
+    }
+  }
+}
@@ -17,13 +17,26 @@
 package com.exonum.binding.core.proxy;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.aryEq;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 import com.google.common.testing.NullPointerTester;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import org.junit.jupiter.api.Test;
 import org.mockito.InOrder;
 
@@ -36,6 +49,7 @@ class CleanerTest {
   void testRejectsNull() {
     //TODO Consider rewriting this test to get rid of JUnit4 dependency through Guava Testing.
     NullPointerTester tester = new NullPointerTester();
+    tester.setDefault(NativeHandle.class, new NativeHandle(1L));
     tester.testAllPublicInstanceMethods(context);
   }
 
@@ -152,6 +166,103 @@ class CleanerTest {
     assertThat(r).contains("description=" + description);
   }
 
+  @Test
+  void releasePerformsActionAndUnregistersIt() throws Exception {
+    CleanAction a1 = mock(CleanAction.class);
+    CleanAction a2 = mock(CleanAction.class);
+    context.add(a1);
+    context.add(a2);
+
+    context.release(a1);
+
+    verify(a1).clean();
+    assertThat(context.getNumRegisteredActions()).isEqualTo(1);
+
+    // Check that the released action is not performed again on close
+    context.close();
+    verify(a1).clean();
+    verify(a2).clean();
+  }
+
+  @Test
+  void releaseUnregisteredActionFails() {
+    CleanAction action = mock(CleanAction.class);
+
+    assertThrows(IllegalArgumentException.class, () -> context.release(action));
+  }
+
+  @Test
+  void releaseThrowingActionUnregistersIt() throws Exception {
+    CleanAction action = mock(CleanAction.class);
+    doThrow(RuntimeException.class).when(action).clean();
+    context.add(action);
+
+    IllegalStateException e = assertThrows(IllegalStateException.class,
+        () -> context.release(action));
+
+    assertThat(e).hasCauseInstanceOf(RuntimeException.class);
+    assertThat(context.getNumRegisteredActions()).isZero();
+  }
+
+  @Test
+  void releaseAfterCloseHasNoEffect() throws Exception {
+    CleanAction action = mock(CleanAction.class);
+    context.add(action);
+    context.close();
+
+    context.release(action);
+
+    verify(action).clean();
+  }
+
+  @Test
+  void releaseWhenUnreachablePerformsActionOfUnreachableObject() throws Exception {
+    AtomicInteger numCleaned = new AtomicInteger();
+    CleanAction<?> action = numCleaned::incrementAndGet;
+    context.add(action);
+    context.releaseWhenUnreachable(action, new Object());
+
+    // The action is performed on a subsequent registration, once the object is collected
+    for (int i = 0; i < 100 && numCleaned.get() == 0; i++) {
+      System.gc();
+      Thread.sleep(10);
+      context.add(mock(CleanAction.class));
+    }
+
+    assertThat(numCleaned).hasValue(1);
+    // Check that the released action is not performed again on close
+    context.close();
+    assertThat(numCleaned).hasValue(1);
+  }
+
+  @Test
+  void releaseWhenUnreachableKeepsActionOfReachableObject() throws Exception {
+    CleanAction action = mock(CleanAction.class);
+    Object object = new Object();
+    context.add(action);
+    context.releaseWhenUnreachable(action, object);
+
+    System.gc();
+    context.add(mock(CleanAction.class));
+
+    verify(action, never()).clean();
+    assertThat(object).isNotNull();
+  }
+
+  @Test
+  void releaseWhenUnreachableHasNoEffectOnReleasedAction() throws Exception {
+    CleanAction action = mock(CleanAction.class);
+    context.add(action);
+    context.releaseWhenUnreachable(action, new Object());
+
+    context.release(action);
+    System.gc();
+    context.add(mock(CleanAction.class));
+    context.close();
+
+    verify(action).clean();
+  }
+
   @Test
   void numRegisteredActions() {
     int numActions = 3;
@@ -178,4 +289,175 @@ class CleanerTest {
     assertThat(context.getNumRegisteredActions())
         .isZero();
   }
+
+  @Test
+  void addNativeProxyToNonArenaRegistersProxyDestructor() throws Exception {
+    NativeHandle handle = new NativeHandle(1L);
+    LongConsumer destructor = mock(LongConsumer.class);
+    Consumer<long[]> batchDestructor = mock(Consumer.class);
+
+    context.addNativeProxy(handle, CloseableNativeProxy.class, destructor, batchDestructor);
+    context.close();
+
+    verify(destructor).accept(1L);
+    verify(batchDestructor, never()).accept(any());
+    assertThat(handle.isValid()).isFalse();
+  }
+
+  @Test
+  void arenaDestroysProxiesOfSameTypeInBatch() throws Exception {
+    Cleaner arena = Cleaner.newArena("test");
+    NativeHandle h1 = new NativeHandle(1L);
+    NativeHandle h2 = new NativeHandle(2L);
+    LongConsumer destructor = mock(LongConsumer.class);
+    Consumer<long[]> batchDestructor = mock(Consumer.class);
+
+    arena.addNativeProxy(h1, CloseableNativeProxy.class, destructor, batchDestructor);
+    arena.addNativeProxy(h2, CloseableNativeProxy.class, destructor, batchDestructor);
+
+    assertThat(arena.getNumRegisteredActions()).isEqualTo(1);
+
+    arena.close();
+
+    verify(batchDestructor).accept(aryEq(new long[] {1L, 2L}));
+    verify(destructor, never()).accept(anyLong());
+    assertThat(h1.isValid()).isFalse();
+    assertThat(h2.isValid()).isFalse();
+  }
+
+  @Test
+  void arenaGroupsProxiesByType() throws Exception {
+    Cleaner arena = Cleaner.newArena("test");
+    LongConsumer destructor = mock(LongConsumer.class);
+    Consumer<long[]> batchDestructor1 = mock(Consumer.class);
+    Consumer<long[]> batchDestructor2 = mock(Consumer.class);
+
+    arena.addNativeProxy(new NativeHandle(1L), CloseableNativeProxy.class, destructor,
+        batchDestructor1);
+    arena.addNativeProxy(new NativeHandle(2L), Cleaner.class, destructor, batchDestructor2);
+    arena.addNativeProxy(new NativeHandle(3L), CloseableNativeProxy.class, destructor,
+        batchDestructor1);
+
+    assertThat(arena.getNumRegisteredActions()).isEqualTo(2);
+
+    arena.close();
+
+    InOrder inOrder = inOrder(batchDestructor1, batchDestructor2);
+    inOrder.verify(batchDestructor2).accept(aryEq(new long[] {2L}));
+    inOrder.verify(batchDestructor1).accept(aryEq(new long[] {1L, 3L}));
+  }
+
+  @Test
+  void arenaKeepsBatchesOpenAcrossActions() throws Exception {
+    Cleaner arena = Cleaner.newArena("test");
+    LongConsumer destructor = mock(LongConsumer.class);
+    Consumer<long[]> batchDestructor1 = mock(Consumer.class);
+    Consumer<long[]> batchDestructor2 = mock(Consumer.class);
+    CleanAction action1 = mock(CleanAction.class);
+    CleanAction action2 = mock(CleanAction.class);
+
+    arena.addNativeProxy(new NativeHandle(1L), CloseableNativeProxy.class, destructor,
+        batchDestructor1);
+    arena.add(action1);
+    arena.addNativeProxy(new NativeHandle(2L), Cleaner.class, destructor, batchDestructor2);
+    arena.addNativeProxy(new NativeHandle(3L), CloseableNativeProxy.class, destructor,
+        batchDestructor1);
+    arena.add(action2);
+    arena.addNativeProxy(new NativeHandle(4L), Cleaner.class, destructor, batchDestructor2);
+
+    // Two batches and two actions
+    assertThat(arena.getNumRegisteredActions()).isEqualTo(4);
+
+    arena.close();
+
+    InOrder inOrder = inOrder(action1, action2, batchDestructor1, batchDestructor2);
+    inOrder.verify(action2).clean();
+    inOrder.verify(batchDestructor2).accept(aryEq(new long[] {2L, 4L}));
+    inOrder.verify(action1).clean();
+    inOrder.verify(batchDestructor1).accept(aryEq(new long[] {1L, 3L}));
+    verify(destructor, never()).accept(anyLong());
+  }
+
+  @Test
+  void arenaDestroysManyProxiesInBatch() throws Exception {
+    Cleaner arena = Cleaner.newArena("test");
+    LongConsumer destructor = mock(LongConsumer.class);
+    Consumer<long[]> batchDestructor = mock(Consumer.class);
+    int numProxies = 100;
+    List<NativeHandle> handles = new ArrayList<>();
+    long[] expected = new long[numProxies];
+    for (int i = 0; i < numProxies; i++) {
+      NativeHandle h = new NativeHandle(i + 1L);
+      arena.addNativeProxy(h, CloseableNativeProxy.class, destructor, batchDestructor);
+      handles.add(h);
+      expected[i] = i + 1L;
+    }
+
+    arena.close();
+
+    verify(batchDestructor).accept(aryEq(expected));
+    assertThat(handles).noneMatch(NativeHandle::isValid);
+  }
+
+  @Test
+  void arenaSkipsInvalidHandles() throws Exception {
+    Cleaner arena = Cleaner.newArena("test");
+    NativeHandle h1 = new NativeHandle(1L);
+    NativeHandle h2 = new NativeHandle(2L);
+    LongConsumer destructor = mock(LongConsumer.class);
+    Consumer<long[]> batchDestructor = mock(Consumer.class);
+    arena.addNativeProxy(h1, CloseableNativeProxy.class, destructor, batchDestructor);
+    arena.addNativeProxy(h2, CloseableNativeProxy.class, destructor, batchDestructor);
+
+    h1.close();
+    arena.close();
+
+    verify(batchDestructor).accept(aryEq(new long[] {2L}));
+  }
+
+  @Test
+  void addNativeProxyToClosedArenaDestroysIt() throws Exception {
+    Cleaner arena = Cleaner.newArena("test");
+    arena.close();
+    LongConsumer destructor = mock(LongConsumer.class);
+    Consumer<long[]> batchDestructor = mock(Consumer.class);
+
+    assertThrows(IllegalStateException.class,
+        () -> arena.addNativeProxy(new NativeHandle(1L), CloseableNativeProxy.class, destructor,
+            batchDestructor));
+
+    verify(destructor).accept(1L);
+  }
+
+  @Test
+  void concurrentAddFromSeveralThreads() throws Exception {
+    Cleaner context = Cleaner.newConcurrent("test");
+    int numThreads = 4;
+    int actionsPerThread = 100;
+    AtomicInteger numCleaned = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      for (int i = 0; i < numThreads; i++) {
+        executor.submit(() -> {
+          start.await();
+          for (int j = 0; j < actionsPerThread; j++) {
+            context.add(numCleaned::incrementAndGet);
+          }
+          return null;
+        });
+      }
+      start.countDown();
+      executor.shutdown();
+      assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(context.getNumRegisteredActions()).isEqualTo(numThreads * actionsPerThread);
+
+    context.close();
+
+    assertThat(numCleaned).hasValue(numThreads * actionsPerThread);
+  }
 }
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.exonum.binding.core.service.BlockCommittedEvent;
+import com.exonum.binding.core.storage.database.Snapshot;
+import com.google.common.collect.ImmutableList;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+class AfterCommitDispatcherTest {
+
+  private static final long SNAPSHOT_HANDLE = 0x0A;
+  private static final long HEIGHT = 10;
+  private static final Duration DEADLINE = Duration.ofSeconds(10);
+
+  private AfterCommitDispatcher dispatcher;
+
+  @AfterEach
+  void tearDown() {
+    if (dispatcher != null) {
+      dispatcher.close();
+    }
+  }
+
+  @Test
+  void sequentialDispatchInvokesHandlersInOrder() {
+    dispatcher = new AfterCommitDispatcher(AfterCommitSettings.newInstance(1, DEADLINE));
+    ServiceWrapper s1 = service("a");
+    ServiceWrapper s2 = service("b");
+    BlockCommittedEvent event = newEvent();
+
+    dispatcher.dispatch(ImmutableList.of(s1, s2), event);
+
+    InOrder inOrder = inOrder(s1, s2);
+    inOrder.verify(s1).afterCommit(any(BlockCommittedEvent.class));
+    inOrder.verify(s2).afterCommit(any(BlockCommittedEvent.class));
+  }
+
+  @Test
+  void sequentialDispatchPassesOwnSnapshotToEachService() {
+    dispatcher = new AfterCommitDispatcher(AfterCommitSettings.newInstance(1, DEADLINE));
+    ServiceWrapper s1 = service("a");
+    BlockCommittedEvent event = newEvent();
+
+    dispatcher.dispatch(ImmutableList.of(s1), event);
+
+    ArgumentCaptor<BlockCommittedEvent> ac = ArgumentCaptor.forClass(BlockCommittedEvent.class);
+    verify(s1).afterCommit(ac.capture());
+    BlockCommittedEvent serviceEvent = ac.getValue();
+    assertThat(serviceEvent.getHeight()).isEqualTo(HEIGHT);
+    assertThat(serviceEvent.getSnapshot()).isNotSameAs(event.getSnapshot());
+    // The snapshot of the service is closed once its handler completes
+    assertThat(serviceEvent.getSnapshot().getCleaner().isClosed()).isTrue();
+  }
+
+  @Test
+  void sequentialDispatchContinuesIfHandlerThrows() {
+    dispatcher = new AfterCommitDispatcher(AfterCommitSettings.newInstance(1, DEADLINE));
+    ServiceWrapper s1 = service("a");
+    ServiceWrapper s2 = service("b");
+    BlockCommittedEvent event = newEvent();
+    doThrow(RuntimeException.class).when(s1).afterCommit(any(BlockCommittedEvent.class));
+
+    dispatcher.dispatch(ImmutableList.of(s1, s2), event);
+
+    verify(s2).afterCommit(any(BlockCommittedEvent.class));
+  }
+
+  @Test
+  void recordsStatistics() {
+    dispatcher = new AfterCommitDispatcher(AfterCommitSettings.newInstance(1, DEADLINE));
+    ServiceWrapper s1 = service("a");
+    BlockCommittedEvent event = newEvent();
+
+    dispatcher.dispatch(ImmutableList.of(s1), event);
+    dispatcher.dispatch(ImmutableList.of(s1), event);
+
+    AfterCommitStatistics statistics = dispatcher.getStatistics().get("a");
+    assertThat(statistics.getInvocationCount()).isEqualTo(2);
+    assertThat(statistics.getDeadlineMissCount()).isZero();
+    assertThat(statistics.getMaxTime()).isLessThanOrEqualTo(statistics.getTotalTime());
+  }
+
+  @Test
+  void recordsDeadlineMisses() {
+    dispatcher = new AfterCommitDispatcher(
+        AfterCommitSettings.newInstance(1, Duration.ofNanos(1)));
+    ServiceWrapper s1 = service("a");
+    BlockCommittedEvent event = newEvent();
+    doAnswer(invocation -> {
+      TimeUnit.MILLISECONDS.sleep(1);
+      return null;
+    }).when(s1).afterCommit(any(BlockCommittedEvent.class));
+
+    dispatcher.dispatch(ImmutableList.of(s1), event);
+
+    AfterCommitStatistics statistics = dispatcher.getStatistics().get("a");
+    assertThat(statistics.getDeadlineMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  void concurrentDispatchRunsHandlersConcurrently() {
+    dispatcher = new AfterCommitDispatcher(AfterCommitSettings.newInstance(2, DEADLINE));
+    ServiceWrapper s1 = service("a");
+    ServiceWrapper s2 = service("b");
+    // Each handler waits for the other to start
+    CyclicBarrier barrier = new CyclicBarrier(2);
+    List<Snapshot> snapshots = new CopyOnWriteArrayList<>();
+    for (ServiceWrapper s : ImmutableList.of(s1, s2)) {
+      doAnswer(invocation -> {
+        BlockCommittedEvent serviceEvent = invocation.getArgument(0);
+        snapshots.add(serviceEvent.getSnapshot());
+        barrier.await(10, TimeUnit.SECONDS);
+        return null;
+      }).when(s).afterCommit(any(BlockCommittedEvent.class));
+    }
+
+    dispatcher.dispatch(ImmutableList.of(s1, s2), newEvent());
+
+    assertThat(barrier.isBroken()).isFalse();
+    assertThat(snapshots).hasSize(2);
+    assertThat(snapshots.get(0)).isNotSameAs(snapshots.get(1));
+  }
+
+  @Test
+  void concurrentDispatchPassesOwnSnapshotToEachService() {
+    dispatcher = new AfterCommitDispatcher(AfterCommitSettings.newInstance(2, DEADLINE));
+    ServiceWrapper s1 = service("a");
+    BlockCommittedEvent event = newEvent();
+
+    dispatcher.dispatch(ImmutableList.of(s1), event);
+
+    ArgumentCaptor<BlockCommittedEvent> ac = ArgumentCaptor.forClass(BlockCommittedEvent.class);
+    verify(s1).afterCommit(ac.capture());
+    BlockCommittedEvent serviceEvent = ac.getValue();
+    assertThat(serviceEvent.getHeight()).isEqualTo(HEIGHT);
+    assertThat(serviceEvent.getValidatorId()).isEqualTo(event.getValidatorId());
+    assertThat(serviceEvent.getSnapshot()).isNotSameAs(event.getSnapshot());
+    // The snapshot of the service is closed once its handler completes
+    Snapshot serviceSnapshot = serviceEvent.getSnapshot();
+    assertThat(serviceSnapshot.getCleaner().isClosed()).isTrue();
+  }
+
+  @Test
+  void concurrentDispatchInterruptsHandlerAfterDeadline() {
+    dispatcher = new AfterCommitDispatcher(
+        AfterCommitSettings.newInstance(2, Duration.ofMillis(10)));
+    ServiceWrapper s1 = service("a");
+    CountDownLatch neverReleased = new CountDownLatch(1);
+    AtomicBoolean interrupted = new AtomicBoolean();
+    doAnswer(invocation -> {
+      try {
+        neverReleased.await();
+      } catch (InterruptedException e) {
+        interrupted.set(true);
+      }
+      return null;
+    }).when(s1).afterCommit(any(BlockCommittedEvent.class));
+
+    dispatcher.dispatch(ImmutableList.of(s1), newEvent());
+
+    assertThat(interrupted).isTrue();
+    assertThat(dispatcher.getStatistics().get("a").getDeadlineMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  void closeDuringConcurrentDispatch() throws Exception {
+    dispatcher = new AfterCommitDispatcher(AfterCommitSettings.newInstance(2, DEADLINE));
+    ServiceWrapper s1 = service("a");
+    ServiceWrapper s2 = service("b");
+    // Not started, as both threads are busy
+    ServiceWrapper s3 = service("c");
+    CountDownLatch started = new CountDownLatch(2);
+    CountDownLatch neverReleased = new CountDownLatch(1);
+    for (ServiceWrapper s : ImmutableList.of(s1, s2)) {
+      doAnswer(invocation -> {
+        started.countDown();
+        neverReleased.await();
+        return null;
+      }).when(s).afterCommit(any(BlockCommittedEvent.class));
+    }
+    BlockCommittedEvent event = newEvent();
+    Thread dispatchThread = new Thread(
+        () -> dispatcher.dispatch(ImmutableList.of(s1, s2, s3), event));
+    dispatchThread.start();
+    assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+    dispatcher.close();
+
+    // The dispatch completes once the running handlers are interrupted
+    dispatchThread.join(TimeUnit.SECONDS.toMillis(10));
+    assertThat(dispatchThread.isAlive()).isFalse();
+    verify(s3, never()).afterCommit(any(BlockCommittedEvent.class));
+  }
+
+  @Test
+  void dispatchAfterCloseDoesNotNotifyServices() {
+    dispatcher = new AfterCommitDispatcher(AfterCommitSettings.newInstance(2, DEADLINE));
+    ServiceWrapper s1 = service("a");
+    dispatcher.close();
+
+    dispatcher.dispatch(ImmutableList.of(s1), newEvent());
+
+    verify(s1, never()).afterCommit(any(BlockCommittedEvent.class));
+  }
+
+  private static ServiceWrapper service(String name) {
+    ServiceWrapper service = mock(ServiceWrapper.class, name);
+    when(service.getName()).thenReturn(name);
+    return service;
+  }
+
+  private static BlockCommittedEvent newEvent() {
+    Snapshot snapshot = mock(Snapshot.class);
+    when(snapshot.getAccessNativeHandle()).thenReturn(SNAPSHOT_HANDLE);
+    BlockCommittedEvent event = mock(BlockCommittedEvent.class);
+    when(event.getSnapshot()).thenReturn(snapshot);
+    when(event.getValidatorId()).thenReturn(OptionalInt.of(1));
+    when(event.getHeight()).thenReturn(HEIGHT);
+    return event;
+  }
+}
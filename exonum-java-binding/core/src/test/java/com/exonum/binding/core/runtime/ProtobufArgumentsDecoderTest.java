@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.runtime;
+
+import static com.exonum.binding.test.Bytes.bytes;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.exonum.binding.core.storage.indices.TestProtoMessages.Id;
+import com.exonum.binding.core.storage.indices.TestProtoMessages.Point;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.junit.jupiter.api.Test;
+
+class ProtobufArgumentsDecoderTest {
+
+  @Test
+  void decode() {
+    ProtobufArgumentsDecoder<Point> decoder = ProtobufArgumentsDecoder.forType(Point.class);
+    Point point = Point.newBuilder()
+        .setX(1)
+        .setY(-2)
+        .build();
+
+    Point decoded = decoder.decode(point.toByteArray());
+
+    assertThat(decoded).isEqualTo(point);
+  }
+
+  @Test
+  void decodeEmptyMessage() {
+    ProtobufArgumentsDecoder<Id> decoder = ProtobufArgumentsDecoder.forType(Id.class);
+
+    Id decoded = decoder.decode(new byte[0]);
+
+    assertThat(decoded).isEqualTo(Id.getDefaultInstance());
+  }
+
+  @Test
+  void decodeInvalidMessage() {
+    ProtobufArgumentsDecoder<Point> decoder = ProtobufArgumentsDecoder.forType(Point.class);
+    // A field with a zero tag
+    byte[] invalidMessage = bytes(0x00, 0x01);
+
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+        () -> decoder.decode(invalidMessage));
+
+    assertThat(e).hasCauseInstanceOf(InvalidProtocolBufferException.class);
+  }
+
+  @Test
+  void decodeTruncatedMessage() {
+    ProtobufArgumentsDecoder<Id> decoder = ProtobufArgumentsDecoder.forType(Id.class);
+    byte[] message = Id.newBuilder()
+        .setId("some id")
+        .build()
+        .toByteArray();
+    byte[] truncated = new byte[message.length - 1];
+    System.arraycopy(message, 0, truncated, 0, truncated.length);
+
+    assertThrows(IllegalArgumentException.class, () -> decoder.decode(truncated));
+  }
+}
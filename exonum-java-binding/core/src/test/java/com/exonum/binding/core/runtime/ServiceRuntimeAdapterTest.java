@@ -26,6 +26,8 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.exonum.binding.common.crypto.PublicKey;
+import com.exonum.binding.common.hash.HashCode;
 import com.exonum.binding.core.proxy.Cleaner;
 import com.exonum.binding.core.proxy.CloseFailuresException;
 import com.exonum.binding.core.service.BlockCommittedEvent;
@@ -178,6 +180,28 @@ class ServiceRuntimeAdapterTest {
     verify(serviceRuntime).afterTransactions(serviceId, fork);
   }
 
+  @Test
+  void executeTransactionEnablesWriteBackCache() throws CloseFailuresException {
+    int serviceId = 1;
+    long forkHandle = 0x110b;
+    Cleaner cleaner = new Cleaner();
+    Fork fork = Fork.newInstance(forkHandle, false, cleaner);
+    when(accessFactory.createFork(eq(forkHandle), any(Cleaner.class)))
+        .thenReturn(fork);
+    String interfaceName = "";
+    int txId = 2;
+    byte[] arguments = bytes(1, 2);
+    byte[] txMessageHash = new byte[32];
+    byte[] authorPublicKey = new byte[32];
+
+    serviceRuntimeAdapter.executeTransaction(serviceId, interfaceName, txId, arguments,
+        forkHandle, 0, txMessageHash, authorPublicKey);
+
+    verify(serviceRuntime).executeTransaction(eq(serviceId), eq(interfaceName), eq(txId),
+        eq(arguments), eq(fork), eq(0), any(HashCode.class), any(PublicKey.class));
+    assertTrue(fork.isWriteBackCacheEnabled());
+  }
+
   @Test
   void afterCommit_ValidatorNode() throws CloseFailuresException {
     when(accessFactory.createSnapshot(eq(SNAPSHOT_HANDLE), any(Cleaner.class)))
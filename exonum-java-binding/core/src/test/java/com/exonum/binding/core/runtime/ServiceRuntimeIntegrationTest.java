@@ -23,6 +23,7 @@ import static java.util.Comparator.comparing;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -41,6 +42,7 @@ import com.exonum.binding.core.service.Configuration;
 import com.exonum.binding.core.service.Node;
 import com.exonum.binding.core.storage.database.Database;
 import com.exonum.binding.core.storage.database.Fork;
+import com.exonum.binding.core.storage.database.Snapshot;
 import com.exonum.binding.core.storage.database.TemporaryDb;
 import com.exonum.binding.core.transaction.TransactionContext;
 import com.exonum.core.messages.Runtime.InstanceMigration;
@@ -50,11 +52,16 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -558,6 +565,37 @@ class ServiceRuntimeIntegrationTest {
       }
     }
 
+    @Test
+    void executeTransactionFlushesWriteBackCachesAfterService() {
+      String interfaceName = DEFAULT_INTERFACE_NAME;
+      int txId = 1;
+      byte[] arguments = bytes(127);
+      Fork fork = mock(Fork.class);
+      int callerServiceId = 0;
+
+      serviceRuntime.executeTransaction(TEST_ID, interfaceName, txId, arguments, fork,
+          callerServiceId, TEST_HASH, TEST_PUBLIC_KEY);
+
+      InOrder inOrder = Mockito.inOrder(serviceWrapper, fork);
+      inOrder.verify(serviceWrapper).executeTransaction(eq(interfaceName), eq(txId),
+          eq(arguments), eq(callerServiceId), any(TransactionContext.class));
+      inOrder.verify(fork).flushWriteBackCaches();
+    }
+
+    @Test
+    void executeTransactionFlushFailurePropagated() {
+      int txId = 1;
+      byte[] arguments = bytes(127);
+      Fork fork = mock(Fork.class);
+      RuntimeException flushException = new IllegalStateException("Flush failure");
+      doThrow(flushException).when(fork).flushWriteBackCaches();
+
+      RuntimeException actual = assertThrows(flushException.getClass(),
+          () -> serviceRuntime.executeTransaction(TEST_ID, DEFAULT_INTERFACE_NAME, txId,
+              arguments, fork, 0, TEST_HASH, TEST_PUBLIC_KEY));
+      assertThat(actual).isSameAs(flushException);
+    }
+
     @Test
     void afterTransactionsSingleService() throws CloseFailuresException {
       try (Database database = TemporaryDb.newInstance();
@@ -588,24 +626,70 @@ class ServiceRuntimeIntegrationTest {
 
     @Test
     void afterCommitSingleService() {
-      BlockCommittedEvent event = mock(BlockCommittedEvent.class);
+      BlockCommittedEvent event = newBlockCommittedEvent();
 
       serviceRuntime.afterCommit(event);
 
-      verify(serviceWrapper).afterCommit(event);
+      verify(serviceWrapper).afterCommit(any(BlockCommittedEvent.class));
     }
 
     @Test
     void afterCommitSingleServiceThrowingException() {
-      BlockCommittedEvent event = mock(BlockCommittedEvent.class);
+      BlockCommittedEvent event = newBlockCommittedEvent();
       doThrow(RuntimeException.class).when(serviceWrapper)
-          .afterCommit(event);
+          .afterCommit(any(BlockCommittedEvent.class));
 
       // Notify of block commit event — the service runtime must swallow the exception
       serviceRuntime.afterCommit(event);
 
-      verify(serviceWrapper).afterCommit(event);
+      verify(serviceWrapper).afterCommit(any(BlockCommittedEvent.class));
     }
+
+    @Test
+    void afterCommitDoesNotWaitForLifecycleOperations() throws Exception {
+      ServiceArtifactId otherArtifactId = ServiceArtifactId
+          .newJavaId("com.acme/bar-service", "1.0.0");
+      CountDownLatch deployStarted = new CountDownLatch(1);
+      CountDownLatch deployMayComplete = new CountDownLatch(1);
+      when(serviceLoader.loadService(any(Path.class))).thenAnswer(invocation -> {
+        deployStarted.countDown();
+        deployMayComplete.await();
+        return LoadedServiceDefinition.newInstance(otherArtifactId, TestServiceModule::new);
+      });
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+        // Start a deploy, which holds the lifecycle lock until it is allowed to complete
+        Future<?> deploy = executor.submit(() -> {
+          serviceRuntime.deployArtifact(otherArtifactId, "bar-service.jar");
+          return null;
+        });
+        deployStarted.await();
+
+        // Notify of block commit event — it must not wait for the deploy
+        BlockCommittedEvent event = newBlockCommittedEvent();
+        assertTimeoutPreemptively(Duration.ofSeconds(10),
+            () -> serviceRuntime.afterCommit(event));
+        verify(serviceWrapper).afterCommit(any(BlockCommittedEvent.class));
+
+        deployMayComplete.countDown();
+        deploy.get();
+      } finally {
+        deployMayComplete.countDown();
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  /**
+   * Creates a block committed event with a snapshot proxy, which the runtime passes
+   * to each service as its own snapshot.
+   */
+  private static BlockCommittedEvent newBlockCommittedEvent() {
+    Snapshot snapshot = mock(Snapshot.class);
+    when(snapshot.getAccessNativeHandle()).thenReturn(0x0AL);
+    BlockCommittedEvent event = mock(BlockCommittedEvent.class);
+    when(event.getSnapshot()).thenReturn(snapshot);
+    return event;
   }
 
   private static byte[] anyConfiguration() {
@@ -666,8 +750,8 @@ class ServiceRuntimeIntegrationTest {
       ServiceWrapper service1 = services
           .iterator()
           .next();
-      BlockCommittedEvent event = mock(BlockCommittedEvent.class);
-      doThrow(RuntimeException.class).when(service1).afterCommit(event);
+      BlockCommittedEvent event = newBlockCommittedEvent();
+      doThrow(RuntimeException.class).when(service1).afterCommit(any(BlockCommittedEvent.class));
 
       // Notify the runtime of the block commit
       serviceRuntime.afterCommit(event);
@@ -676,7 +760,7 @@ class ServiceRuntimeIntegrationTest {
       // throwing an exception has not disrupted the notification process
       InOrder inOrder = Mockito.inOrder(services.toArray(new Object[0]));
       for (ServiceWrapper service : services) {
-        inOrder.verify(service).afterCommit(event);
+        inOrder.verify(service).afterCommit(any(BlockCommittedEvent.class));
       }
     }
   }
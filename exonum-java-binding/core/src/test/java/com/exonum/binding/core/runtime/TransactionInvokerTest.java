@@ -36,6 +36,8 @@ class TransactionInvokerTest {
 
   static final int TRANSACTION_ID = 1;
   static final int TRANSACTION_ID_2 = 2;
+  static final int NEGATIVE_TRANSACTION_ID = -10;
+  static final int LARGE_TRANSACTION_ID = Integer.MAX_VALUE - 1;
 
   private static final byte[] ARGUMENTS = new byte[0];
   @Mock
@@ -62,6 +64,36 @@ class TransactionInvokerTest {
         .contains(String.format("No method with transaction id (%s)", invalidTransactionId));
   }
 
+  @Test
+  void invokeNegativeTransactionId() {
+    TransactionInvoker invoker = new TransactionInvoker(new ValidService());
+    int invalidTransactionId = -1;
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+        () -> invoker.invokeTransaction(invalidTransactionId, ARGUMENTS, context));
+    assertThat(e.getMessage())
+        .contains(String.format("No method with transaction id (%s)", invalidTransactionId));
+  }
+
+  @Test
+  void invokeSparseIdsServiceTransaction() {
+    SparseIdsService service = spy(new SparseIdsService());
+    TransactionInvoker invoker = new TransactionInvoker(service);
+    invoker.invokeTransaction(NEGATIVE_TRANSACTION_ID, ARGUMENTS, context);
+    invoker.invokeTransaction(LARGE_TRANSACTION_ID, ARGUMENTS, context);
+
+    verify(service).transactionMethod(ARGUMENTS, context);
+    verify(service).transactionMethod2(ARGUMENTS, context);
+  }
+
+  @Test
+  void invokeSparseIdsServiceInvalidTransactionId() {
+    TransactionInvoker invoker = new TransactionInvoker(new SparseIdsService());
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+        () -> invoker.invokeTransaction(TRANSACTION_ID, ARGUMENTS, context));
+    assertThat(e.getMessage())
+        .contains(String.format("No method with transaction id (%s)", TRANSACTION_ID));
+  }
+
   @Test
   void invokeThrowingExecutionException() {
     ExecutionException e = new ExecutionException((byte) 0);
@@ -122,6 +154,17 @@ class TransactionInvokerTest {
     public void transactionMethod2(byte[] arguments, TransactionContext context) {}
   }
 
+  public static class SparseIdsService extends BasicService {
+
+    @Transaction(NEGATIVE_TRANSACTION_ID)
+    @SuppressWarnings("WeakerAccess") // Should be accessible
+    public void transactionMethod(byte[] arguments, TransactionContext context) {}
+
+    @Transaction(LARGE_TRANSACTION_ID)
+    @SuppressWarnings("WeakerAccess") // Should be accessible
+    public void transactionMethod2(byte[] arguments, TransactionContext context) {}
+  }
+
   public static class ThrowingAnyException extends BasicService {
     private final Exception exception;
 
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.database;
+
+import static com.exonum.binding.test.Bytes.bytes;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.exonum.binding.core.storage.indices.IndexAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DecodedValueCacheTest {
+
+  private static final IndexAddress ADDRESS_1 = IndexAddress.valueOf("index_1");
+  private static final IndexAddress ADDRESS_2 = IndexAddress.valueOf("index_2");
+
+  private DecodedValueCache cache;
+  private List<byte[]> loadedKeys;
+
+  @BeforeEach
+  void setUp() {
+    cache = new DecodedValueCache(2);
+    loadedKeys = new ArrayList<>();
+  }
+
+  @Test
+  void loadsValueOnMiss() {
+    String value = cache.get(ADDRESS_1, bytes(1), loader("v1"));
+
+    assertThat(value).isEqualTo("v1");
+    assertThat(loadedKeys).containsExactly(bytes(1));
+    assertThat(cache.getMissCount()).isEqualTo(1);
+    assertThat(cache.getHitCount()).isZero();
+  }
+
+  @Test
+  void returnsCachedValueOnHit() {
+    String value1 = cache.get(ADDRESS_1, bytes(1), loader("v1"));
+    String value2 = cache.get(ADDRESS_1, bytes(1), loader("other"));
+
+    assertThat(value2).isSameAs(value1);
+    assertThat(loadedKeys).hasSize(1);
+    assertThat(cache.getMissCount()).isEqualTo(1);
+    assertThat(cache.getHitCount()).isEqualTo(1);
+  }
+
+  @Test
+  void cachesAbsentValues() {
+    String value1 = cache.get(ADDRESS_1, bytes(1), loader(null));
+    String value2 = cache.get(ADDRESS_1, bytes(1), loader("other"));
+
+    assertThat(value1).isNull();
+    assertThat(value2).isNull();
+    assertThat(cache.getHitCount()).isEqualTo(1);
+  }
+
+  @Test
+  void distinguishesIndexes() {
+    cache.get(ADDRESS_1, bytes(1), loader("v1"));
+    String value = cache.get(ADDRESS_2, bytes(1), loader("v2"));
+
+    assertThat(value).isEqualTo("v2");
+    assertThat(cache.getMissCount()).isEqualTo(2);
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedValue() {
+    cache.get(ADDRESS_1, bytes(1), loader("v1"));
+    cache.get(ADDRESS_1, bytes(2), loader("v2"));
+    // Use the first value, so that the second is the least recently used
+    cache.get(ADDRESS_1, bytes(1), loader("v1"));
+
+    cache.get(ADDRESS_1, bytes(3), loader("v3"));
+
+    assertThat(cache.size()).isEqualTo(2);
+    cache.get(ADDRESS_1, bytes(1), loader("v1"));
+    assertThat(cache.getHitCount()).isEqualTo(2);
+    cache.get(ADDRESS_1, bytes(2), loader("v2"));
+    assertThat(cache.getMissCount()).isEqualTo(4);
+  }
+
+  @Test
+  void clear() {
+    cache.get(ADDRESS_1, bytes(1), loader("v1"));
+
+    cache.clear();
+
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  void rejectsNonPositiveMaxSize() {
+    assertThrows(IllegalArgumentException.class, () -> new DecodedValueCache(0));
+  }
+
+  private Function<byte[], String> loader(String value) {
+    return key -> {
+      loadedKeys.add(key);
+      return value;
+    };
+  }
+}
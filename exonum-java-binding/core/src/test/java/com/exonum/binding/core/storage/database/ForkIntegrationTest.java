@@ -27,7 +27,9 @@ import com.exonum.binding.core.proxy.Cleaner;
 import com.exonum.binding.core.proxy.CloseFailuresException;
 import com.exonum.binding.core.storage.indices.IndexAddress;
 import com.exonum.binding.core.storage.indices.ListIndex;
+import com.exonum.binding.core.storage.indices.MapIndex;
 import com.exonum.binding.test.RequiresNativeLibrary;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -276,7 +278,105 @@ class ForkIntegrationTest {
     }
   }
 
+  @Test
+  void writeBackCacheChangesAreWrittenOnMerge() throws Exception {
+    try (TemporaryDb db = TemporaryDb.newInstance();
+        Cleaner cleaner = new Cleaner("parent")) {
+      String mapName = "map";
+      Fork fork1 = db.createFork(cleaner);
+      newMap(mapName, fork1).put("k1", V1);
+      db.merge(fork1);
+
+      Fork fork2 = db.createFork(cleaner);
+      fork2.enableWriteBackCache();
+      MapIndex<String, String> map = newMap(mapName, fork2);
+      assertThat(map.get("k1")).isEqualTo(V1);
+      map.remove("k1");
+      map.put("k2", V1);
+      map.put("k2", V2);
+      assertThat(map.containsKey("k1")).isFalse();
+      assertThat(map.get("k2")).isEqualTo(V2);
+      db.merge(fork2);
+
+      Snapshot s = db.createSnapshot(cleaner);
+      MapIndex<String, String> map3 = newMap(mapName, s);
+      assertThat(map3.keys()).toIterable().containsExactly("k2");
+      assertThat(map3.get("k2")).isEqualTo(V2);
+    }
+  }
+
+  @Test
+  void writeBackCacheChangesAreVisibleToIterators() throws Exception {
+    try (TemporaryDb db = TemporaryDb.newInstance();
+        Cleaner cleaner = new Cleaner("parent")) {
+      Fork fork = db.createFork(cleaner);
+      fork.enableWriteBackCache();
+      MapIndex<String, String> map = newMap("map", fork);
+      map.put("k1", V1);
+      map.put("k2", V2);
+      map.remove("k1");
+
+      assertThat(map.keys()).toIterable().containsExactly("k2");
+    }
+  }
+
+  @Test
+  void writeBackCacheChangesAreCheckpointed() throws Exception {
+    try (TemporaryDb db = TemporaryDb.newInstance();
+        Cleaner cleaner = new Cleaner("parent")) {
+      String mapName = "map";
+      Fork fork = db.createFork(cleaner);
+      fork.enableWriteBackCache();
+      newMap(mapName, fork).put("k1", V1);
+
+      fork.createCheckpoint();
+
+      newMap(mapName, fork).put("k2", V2);
+
+      fork.rollback();
+
+      MapIndex<String, String> map = newMap(mapName, fork);
+      assertThat(map.get("k1")).isEqualTo(V1);
+      assertThat(map.containsKey("k2")).isFalse();
+    }
+  }
+
+  @Test
+  void writeBackCacheIteratorFailsIfMapModified() throws Exception {
+    try (TemporaryDb db = TemporaryDb.newInstance();
+        Cleaner cleaner = new Cleaner("parent")) {
+      Fork fork = db.createFork(cleaner);
+      fork.enableWriteBackCache();
+      MapIndex<String, String> map = newMap("map", fork);
+      map.put("k1", V1);
+      Iterator<String> it = map.keys();
+
+      map.put("k2", V2);
+
+      assertThrows(ConcurrentModificationException.class, it::next);
+    }
+  }
+
+  @Test
+  void writeBackCacheMapIsInvalidatedWhenParentCleanerClosed() throws Exception {
+    MapIndex<String, String> map;
+    try (TemporaryDb db = TemporaryDb.newInstance();
+        Cleaner cleaner = new Cleaner("parent")) {
+      Fork fork = db.createFork(cleaner);
+      fork.enableWriteBackCache();
+      map = newMap("map", fork);
+      map.put("k1", V1);
+    }
+
+    MapIndex<String, String> closedMap = map;
+    assertThrows(IllegalStateException.class, () -> closedMap.get("k1"));
+  }
+
   private static ListIndex<String> newList(String name, Access access) {
     return access.getList(IndexAddress.valueOf(name), string());
   }
+
+  private static MapIndex<String, String> newMap(String name, Access access) {
+    return access.getMap(IndexAddress.valueOf(name), string(), string());
+  }
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.database;
+
+import static com.exonum.binding.test.Bytes.bytes;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.exonum.binding.core.storage.indices.IndexAddress;
+import com.google.common.collect.ImmutableList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class KeyFilterCacheTest {
+
+  private static final IndexAddress FILTERED_ADDRESS = IndexAddress.valueOf("filtered");
+  private static final IndexAddress OTHER_ADDRESS = IndexAddress.valueOf("other");
+  private static final List<byte[]> KEYS = ImmutableList.of(bytes("k1"), bytes("k2"));
+  private static final byte[] ABSENT_KEY = bytes("absent");
+
+  private KeyFilterCache cache;
+  private int numKeysRequests;
+
+  @BeforeEach
+  void setUp() {
+    cache = KeyFilterCache.newInstance(ImmutableList.of(FILTERED_ADDRESS), 1e-6);
+    numKeysRequests = 0;
+  }
+
+  @Test
+  void mightContainPresentKeys() {
+    for (byte[] key : KEYS) {
+      assertThat(cache.mightContain(1L, FILTERED_ADDRESS, key, indexKeys())).isTrue();
+    }
+  }
+
+  @Test
+  void mightNotContainAbsentKey() {
+    assertThat(cache.mightContain(1L, FILTERED_ADDRESS, ABSENT_KEY, indexKeys())).isFalse();
+  }
+
+  @Test
+  void mightContainAnyKeyOfNotFilteredIndex() {
+    assertThat(cache.mightContain(1L, OTHER_ADDRESS, ABSENT_KEY, indexKeys())).isTrue();
+    assertThat(numKeysRequests).isZero();
+  }
+
+  @Test
+  void buildsFilterOncePerHeight() {
+    cache.mightContain(1L, FILTERED_ADDRESS, ABSENT_KEY, indexKeys());
+    int numRequestsToBuild = numKeysRequests;
+
+    cache.mightContain(1L, FILTERED_ADDRESS, bytes("k1"), indexKeys());
+
+    assertThat(numKeysRequests).isEqualTo(numRequestsToBuild);
+    assertThat(cache.getHeight()).isEqualTo(1L);
+  }
+
+  @Test
+  void buildsFilterInCountingAndFillingTraversals() {
+    cache.mightContain(1L, FILTERED_ADDRESS, ABSENT_KEY, indexKeys());
+
+    assertThat(numKeysRequests).isEqualTo(2);
+  }
+
+  @Test
+  void rebuildsFilterAtGreaterHeight() {
+    cache.mightContain(1L, FILTERED_ADDRESS, ABSENT_KEY, indexKeys());
+
+    List<byte[]> newKeys = ImmutableList.of(ABSENT_KEY);
+    boolean mightContain = cache.mightContain(2L, FILTERED_ADDRESS, ABSENT_KEY,
+        newKeys::iterator);
+
+    assertThat(mightContain).isTrue();
+    assertThat(cache.getHeight()).isEqualTo(2L);
+  }
+
+  @Test
+  void doesNotFilterAtLowerHeight() {
+    cache.mightContain(2L, FILTERED_ADDRESS, ABSENT_KEY, indexKeys());
+    int numRequests = numKeysRequests;
+
+    assertThat(cache.mightContain(1L, FILTERED_ADDRESS, ABSENT_KEY, indexKeys())).isTrue();
+    assertThat(numKeysRequests).isEqualTo(numRequests);
+    assertThat(cache.getHeight()).isEqualTo(2L);
+  }
+
+  @Test
+  void filtersEmptyIndex() {
+    List<byte[]> noKeys = ImmutableList.of();
+
+    assertThat(cache.mightContain(1L, FILTERED_ADDRESS, ABSENT_KEY, noKeys::iterator))
+        .isFalse();
+  }
+
+  @ParameterizedTest
+  @ValueSource(doubles = {-0.1, 0.0, 1.0, 1.5})
+  void rejectsInvalidFalsePositiveRate(double rate) {
+    List<IndexAddress> addresses = ImmutableList.of(FILTERED_ADDRESS);
+
+    assertThrows(IllegalArgumentException.class,
+        () -> KeyFilterCache.newInstance(addresses, rate));
+  }
+
+  private Supplier<Iterator<byte[]>> indexKeys() {
+    return () -> {
+      numKeysRequests++;
+      return KEYS.iterator();
+    };
+  }
+}
@@ -19,11 +19,20 @@ package com.exonum.binding.core.storage.database;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.exonum.binding.core.storage.indices.IndexAddress;
 import com.exonum.binding.core.storage.indices.StorageIndex;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -66,6 +75,17 @@ class OpenIndexRegistryTest {
           .contains(String.valueOf(otherIndex));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void findOrRegisterReturnsRegisteredIndex() {
+      Supplier<StorageIndex> factory = mock(Supplier.class);
+
+      StorageIndex actual = registry.findOrRegister(address, factory);
+
+      assertThat(actual).isSameAs(index);
+      verify(factory, never()).get();
+    }
+
     @Test
     void clearRemovesTheIndex() {
       registry.clear();
@@ -83,4 +103,55 @@ class OpenIndexRegistryTest {
 
     assertThat(index).isEmpty();
   }
+
+  @Test
+  void findOrRegisterRegistersNewIndex() {
+    IndexAddress address = IndexAddress.valueOf("name");
+    StorageIndex index = mock(StorageIndex.class);
+
+    StorageIndex actual = registry.findOrRegister(address, () -> index);
+
+    assertThat(actual).isSameAs(index);
+    assertThat(registry.findIndex(address)).hasValue(index);
+  }
+
+  @Test
+  void findOrRegisterAllowsFactoryToRegisterIndexes() {
+    IndexAddress address = IndexAddress.valueOf("name");
+    IndexAddress auxAddress = IndexAddress.valueOf("name.aux");
+    StorageIndex index = mock(StorageIndex.class, "index");
+    StorageIndex auxIndex = mock(StorageIndex.class, "aux index");
+
+    StorageIndex actual = registry.findOrRegister(address, () -> {
+      registry.findOrRegister(auxAddress, () -> auxIndex);
+      return index;
+    });
+
+    assertThat(actual).isSameAs(index);
+    assertThat(registry.findIndex(auxAddress)).hasValue(auxIndex);
+  }
+
+  @Test
+  void concurrentRegistryReturnsSameIndex() throws Exception {
+    OpenIndexRegistry concurrentRegistry = OpenIndexRegistry.newConcurrent();
+    IndexAddress address = IndexAddress.valueOf("name");
+    Supplier<StorageIndex> factory = () -> mock(StorageIndex.class);
+
+    int numThreads = 4;
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      List<Future<StorageIndex>> results = new ArrayList<>();
+      for (int i = 0; i < numThreads; i++) {
+        results.add(executor.submit(() -> concurrentRegistry.findOrRegister(address, factory)));
+      }
+      List<StorageIndex> indexes = new ArrayList<>();
+      for (Future<StorageIndex> result : results) {
+        indexes.add(result.get(1, TimeUnit.MINUTES));
+      }
+      StorageIndex registered = concurrentRegistry.findIndex(address).get();
+      assertThat(indexes).containsOnly(registered);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 }
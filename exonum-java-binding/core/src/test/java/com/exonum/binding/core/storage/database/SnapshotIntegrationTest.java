@@ -0,0 +1,221 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.database;
+
+import static com.exonum.binding.common.serialization.StandardSerializers.hash;
+import static com.exonum.binding.common.serialization.StandardSerializers.string;
+import static com.exonum.binding.core.storage.indices.TestStorageItems.V1;
+import static com.exonum.binding.core.storage.indices.TestStorageItems.V2;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.exonum.binding.common.hash.HashCode;
+import com.exonum.binding.common.serialization.Serializer;
+import com.exonum.binding.core.proxy.Cleaner;
+import com.exonum.binding.core.storage.indices.IndexAddress;
+import com.exonum.binding.core.storage.indices.ListIndex;
+import com.exonum.binding.core.storage.indices.MapIndex;
+import com.exonum.binding.test.RequiresNativeLibrary;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+@RequiresNativeLibrary
+class SnapshotIntegrationTest {
+
+  private static final IndexAddress BLOCK_HASHES =
+      IndexAddress.valueOf("core.block_hashes_by_height");
+
+  @Test
+  void valueCacheSharesValuesBetweenIndexes() throws Exception {
+    try (TemporaryDb db = TemporaryDb.newInstance();
+        Cleaner cleaner = new Cleaner()) {
+      String mapName = "map";
+      Fork fork = db.createFork(cleaner);
+      newMap(mapName, fork).put("k1", V1);
+      db.merge(fork);
+
+      Snapshot s = db.createSnapshot(cleaner);
+      s.enableValueCache(16);
+      String v1 = newMap(mapName, s).get("k1");
+      String v2 = newMap(mapName, s).get("k1");
+
+      assertThat(v1).isEqualTo(V1);
+      assertThat(v2).isSameAs(v1);
+      DecodedValueCache cache = s.getValueCache().get();
+      assertThat(cache.getMissCount()).isEqualTo(1);
+      assertThat(cache.getHitCount()).isEqualTo(1);
+    }
+  }
+
+  @Test
+  void valueCacheDistinguishesIndexes() throws Exception {
+    try (TemporaryDb db = TemporaryDb.newInstance();
+        Cleaner cleaner = new Cleaner()) {
+      Fork fork = db.createFork(cleaner);
+      newMap("map1", fork).put("k1", V1);
+      newMap("map2", fork).put("k1", V2);
+      db.merge(fork);
+
+      Snapshot s = db.createSnapshot(cleaner);
+      s.enableValueCache(16);
+
+      assertThat(newMap("map1", s).get("k1")).isEqualTo(V1);
+      assertThat(newMap("map2", s).get("k1")).isEqualTo(V2);
+      assertThat(newMap("map2", s).get("k2")).isNull();
+    }
+  }
+
+  @Test
+  void valueCacheMapIsInvalidatedWhenCleanerClosed() throws Exception {
+    MapIndex<String, String> map;
+    try (TemporaryDb db = TemporaryDb.newInstance();
+        Cleaner cleaner = new Cleaner()) {
+      Snapshot s = db.createSnapshot(cleaner);
+      s.enableValueCache(16);
+      map = newMap("map", s);
+      map.get("k1");
+    }
+
+    MapIndex<String, String> closedMap = map;
+    assertThrows(IllegalStateException.class, () -> closedMap.get("k1"));
+  }
+
+  @Test
+  void snapshotCanBeReadBySeveralThreads() throws Exception {
+    int numThreads = 4;
+    int numEntries = 100;
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try (TemporaryDb db = TemporaryDb.newInstance();
+        Cleaner cleaner = new Cleaner()) {
+      Fork fork = db.createFork(cleaner);
+      MapIndex<String, String> forkMap = newMap("map", fork);
+      for (int i = 0; i < numEntries; i++) {
+        forkMap.put("k" + i, "v" + i);
+      }
+      db.merge(fork);
+
+      Snapshot s = db.createSnapshot(cleaner);
+      s.enableValueCache(16);
+      List<Future<Integer>> results = new ArrayList<>();
+      for (int t = 0; t < numThreads; t++) {
+        // Each thread opens the index and reads all its entries
+        results.add(executor.submit(() -> {
+          MapIndex<String, String> map = newMap("map", s);
+          int numRead = 0;
+          for (int i = 0; i < numEntries; i++) {
+            assertThat(map.get("k" + i)).isEqualTo("v" + i);
+            numRead++;
+          }
+          return numRead;
+        }));
+      }
+
+      for (Future<Integer> result : results) {
+        assertThat(result.get(1, TimeUnit.MINUTES)).isEqualTo(numEntries);
+      }
+      // The index is opened once
+      assertThat(newMap("map", s)).isSameAs(newMap("map", s));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void keyFiltersAnswerContainsKey() throws Exception {
+    try (TemporaryDb db = TemporaryDb.newInstance();
+        Cleaner cleaner = new Cleaner()) {
+      String mapName = "map";
+      Fork fork = db.createFork(cleaner);
+      newMap(mapName, fork).put("k1", V1);
+      addBlocks(fork, 2);
+      db.merge(fork);
+
+      KeyFilterCache filters = KeyFilterCache.newInstance(
+          ImmutableList.of(IndexAddress.valueOf(mapName)), 0.01);
+      Snapshot s = db.createSnapshot(cleaner);
+      s.enableKeyFilters(filters);
+      MapIndex<String, String> map = newMap(mapName, s);
+
+      assertThat(map.containsKey("k1")).isTrue();
+      assertThat(map.containsKey("k2")).isFalse();
+      // The filters are built at the blockchain height of the snapshot
+      assertThat(filters.getHeight()).isEqualTo(1L);
+    }
+  }
+
+  @Test
+  void enableKeyFiltersRequiresBlocks() throws Exception {
+    try (TemporaryDb db = TemporaryDb.newInstance();
+        Cleaner cleaner = new Cleaner()) {
+      KeyFilterCache filters = KeyFilterCache.newInstance(
+          ImmutableList.of(IndexAddress.valueOf("map")), 0.01);
+      Snapshot s = db.createSnapshot(cleaner);
+
+      assertThrows(IllegalStateException.class, () -> s.enableKeyFilters(filters));
+    }
+  }
+
+  @Test
+  void keyFiltersUseStoredKeys() throws Exception {
+    try (TemporaryDb db = TemporaryDb.newInstance();
+        Cleaner cleaner = new Cleaner()) {
+      // A key serializer which does not restore the original bytes on de-serialization
+      Serializer<String> keySerializer = new Serializer<String>() {
+        @Override
+        public byte[] toBytes(String value) {
+          return string().toBytes(value);
+        }
+
+        @Override
+        public String fromBytes(byte[] serializedValue) {
+          return string().fromBytes(serializedValue).toUpperCase(Locale.ROOT);
+        }
+      };
+      IndexAddress address = IndexAddress.valueOf("map");
+      Fork fork = db.createFork(cleaner);
+      fork.getMap(address, keySerializer, string()).put("k1", V1);
+      addBlocks(fork, 1);
+      db.merge(fork);
+
+      KeyFilterCache filters = KeyFilterCache.newInstance(ImmutableList.of(address), 0.01);
+      Snapshot s = db.createSnapshot(cleaner);
+      s.enableKeyFilters(filters);
+      MapIndex<String, String> map = s.getMap(address, keySerializer, string());
+
+      assertThat(map.containsKey("k1")).isTrue();
+    }
+  }
+
+  /** Records the hashes of the given number of blocks, which define the blockchain height. */
+  private static void addBlocks(Fork fork, int numBlocks) {
+    ListIndex<HashCode> blockHashes = fork.getList(BLOCK_HASHES, hash());
+    for (int i = 0; i < numBlocks; i++) {
+      blockHashes.add(HashCode.fromInt(i));
+    }
+  }
+
+  private static MapIndex<String, String> newMap(String name, Access access) {
+    return access.getMap(IndexAddress.valueOf(name), string(), string());
+  }
+}
@@ -16,9 +16,13 @@
 
 package com.exonum.binding.core.storage.database;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.exonum.binding.core.proxy.Cleaner;
+import com.exonum.binding.core.proxy.CloseFailuresException;
+import com.exonum.binding.core.storage.indices.IndexAddress;
 import org.junit.jupiter.api.Test;
 
 class SnapshotTest {
@@ -28,4 +32,40 @@ class SnapshotTest {
     Snapshot s = Snapshot.newInstance(0x0A, false, new Cleaner());
     assertFalse(s.canModify());
   }
+
+  @Test
+  void valueCacheIsDisabledByDefault() {
+    Snapshot s = Snapshot.newInstance(0x0A, false, new Cleaner());
+    assertThat(s.getValueCache()).isEmpty();
+  }
+
+  @Test
+  void enableValueCache() {
+    Snapshot s = Snapshot.newInstance(0x0A, false, new Cleaner());
+    s.enableValueCache(16);
+
+    assertThat(s.getValueCache()).hasValueSatisfying(cache ->
+        assertThat(cache.getMaxSize()).isEqualTo(16));
+  }
+
+  @Test
+  void enableValueCacheTwiceFails() {
+    Snapshot s = Snapshot.newInstance(0x0A, false, new Cleaner());
+    s.enableValueCache(16);
+
+    assertThrows(IllegalStateException.class, () -> s.enableValueCache(16));
+  }
+
+  @Test
+  void valueCacheIsClearedWhenCleanerClosed() throws CloseFailuresException {
+    Cleaner cleaner = new Cleaner();
+    Snapshot s = Snapshot.newInstance(0x0A, false, cleaner);
+    s.enableValueCache(16);
+    DecodedValueCache cache = s.getValueCache().get();
+    cache.get(IndexAddress.valueOf("test"), new byte[0], k -> "v");
+
+    cleaner.close();
+
+    assertThat(cache.size()).isZero();
+  }
 }
@@ -21,12 +21,17 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.text.MatchesPattern.matchesPattern;
 import static org.junit.internal.matchers.ThrowableMessageMatcher.hasMessage;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import com.exonum.binding.core.proxy.Cleaner;
 import com.exonum.binding.core.proxy.NativeHandle;
 import com.exonum.binding.core.storage.database.AbstractAccess;
 import com.exonum.binding.core.storage.database.Fork;
 import com.exonum.binding.core.storage.database.Snapshot;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import org.junit.jupiter.api.Test;
 
@@ -82,6 +87,56 @@ class AbstractIndexProxyTest {
     assertThat(proxy.getName(), equalTo(INDEX_NAME));
   }
 
+  @Test
+  void nativeIndexIsCreatedOnFirstAccess() {
+    Supplier<NativeHandle> nativeIndexFactory = mockNativeIndexFactory();
+    proxy = new IndexProxyImpl(nativeIndexFactory, createSnapshot());
+
+    verify(nativeIndexFactory, never()).get();
+    assertThat(proxy.isNativeIndexCreated(), equalTo(false));
+
+    assertThat(proxy.getNativeHandle(), equalTo(IndexProxyImpl.NATIVE_HANDLE));
+    assertThat(proxy.getNativeHandle(), equalTo(IndexProxyImpl.NATIVE_HANDLE));
+
+    // Check the native index is created once
+    verify(nativeIndexFactory).get();
+    assertThat(proxy.isNativeIndexCreated(), equalTo(true));
+  }
+
+  @Test
+  void nativeIndexIsNotCreatedIfAccessClosed() throws Exception {
+    Supplier<NativeHandle> nativeIndexFactory = mockNativeIndexFactory();
+    Cleaner cleaner = new Cleaner();
+    Snapshot snapshot = Snapshot.newInstance(0x02, false, cleaner);
+    proxy = new IndexProxyImpl(nativeIndexFactory, snapshot);
+
+    cleaner.close();
+
+    assertThrows(IllegalStateException.class, () -> proxy.getNativeHandle());
+    verify(nativeIndexFactory, never()).get();
+  }
+
+  @Test
+  void nativeIndexIsNotCreatedIfForkRolledBack() throws Exception {
+    Supplier<NativeHandle> nativeIndexFactory = mockNativeIndexFactory();
+    Cleaner cleaner = new Cleaner();
+    Fork fork = Fork.newInstance(0x01, false, cleaner);
+    proxy = new IndexProxyImpl(nativeIndexFactory, fork);
+
+    // Close the cleaner of the fork indexes, as a rollback does
+    fork.getCleaner().close();
+
+    assertThrows(IllegalStateException.class, () -> proxy.getNativeHandle());
+    verify(nativeIndexFactory, never()).get();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Supplier<NativeHandle> mockNativeIndexFactory() {
+    Supplier<NativeHandle> nativeIndexFactory = mock(Supplier.class);
+    when(nativeIndexFactory.get()).thenReturn(new NativeHandle(IndexProxyImpl.NATIVE_HANDLE));
+    return nativeIndexFactory;
+  }
+
   /**
    * Create a non-owning fork.
    */
@@ -101,7 +156,11 @@ class AbstractIndexProxyTest {
     private static final long NATIVE_HANDLE = 0x11L;
 
     IndexProxyImpl(AbstractAccess access) {
-      super(new NativeHandle(NATIVE_HANDLE), IndexAddress.valueOf(INDEX_NAME), access);
+      this(() -> new NativeHandle(NATIVE_HANDLE), access);
+    }
+
+    IndexProxyImpl(Supplier<NativeHandle> nativeIndexFactory, AbstractAccess access) {
+      super(nativeIndexFactory, IndexAddress.valueOf(INDEX_NAME), access);
     }
   }
 
@@ -76,12 +76,14 @@ abstract class BaseIndexProxyTestable<IndexT extends StorageIndex> {
   abstract void update(IndexT index);
 
   /**
-   * A test verifying that an index constructor adds its destructor to the cleaner.
-   * First it checks the number of actions registered before and after the constructor is executed,
-   * and then that the index becomes inaccessible after the cleaner is closed.
+   * A test verifying that an index adds its destructor to the cleaner once the native
+   * index is created on the first operation.
+   * First it checks the number of actions registered before and after the constructor
+   * and the first operation are executed, and then that the index becomes inaccessible
+   * after the cleaner is closed.
    */
   @Test
-  void indexConstructorRegistersItsDestructor() throws CloseFailuresException {
+  void indexRegistersItsDestructorOnFirstOperation() throws CloseFailuresException {
     String name = "test_index";
 
     try (Cleaner cleaner = new Cleaner()) {
@@ -90,7 +92,11 @@ abstract class BaseIndexProxyTestable<IndexT extends StorageIndex> {
       int numAddedActions = cleaner.getNumRegisteredActions();
       IndexT index = create(name, snapshot);
 
-      // Check that the index constructor registered a single clean action.
+      // Check that the index constructor did not register any clean actions.
+      assertThat(cleaner.getNumRegisteredActions(), equalTo(numAddedActions));
+
+      // Check that the first operation registered a single clean action.
+      getAnyElement(index);
       int numActionsExpected = numAddedActions + 1;
       assertThat(cleaner.getNumRegisteredActions(), equalTo(numActionsExpected));
 
@@ -103,6 +109,30 @@ abstract class BaseIndexProxyTestable<IndexT extends StorageIndex> {
     }
   }
 
+  @Test
+  void unusedIndexIsInaccessibleAfterCleanerClosed() throws CloseFailuresException {
+    try (Cleaner cleaner = new Cleaner()) {
+      Snapshot snapshot = database.createSnapshot(cleaner);
+      IndexT index = create("test_index", snapshot);
+
+      cleaner.close();
+
+      assertThrows(IllegalStateException.class, () -> getAnyElement(index));
+    }
+  }
+
+  @Test
+  void unusedIndexIsInaccessibleAfterForkRollback() throws CloseFailuresException {
+    try (Cleaner cleaner = new Cleaner()) {
+      Fork fork = database.createFork(cleaner);
+      IndexT index = create("test_index", fork);
+
+      fork.rollback();
+
+      assertThrows(IllegalStateException.class, () -> getAnyElement(index));
+    }
+  }
+
   @ParameterizedTest
   @ValueSource(strings = {
       "",
@@ -191,8 +221,11 @@ abstract class BaseIndexProxyTestable<IndexT extends StorageIndex> {
 
       // Create a new Snapshot to be able to create another index with the same address
       Snapshot snapshot = database.createSnapshot(cleaner);
-      // Try to create an index of other type with the same name as the index above
-      Exception e = assertThrows(RuntimeException.class, () -> createOfOtherType(name, snapshot));
+      // Try to create an index of other type with the same name as the index above.
+      // The native index is created on the first operation.
+      StorageIndex other = createOfOtherType(name, snapshot);
+      Exception e = assertThrows(RuntimeException.class,
+          () -> ((AbstractIndexProxy) other).createNativeIndex());
 
       Assertions.assertThat(e.getMessage())
           .containsIgnoringCase("WrongIndexType");
@@ -45,6 +45,7 @@ import java.util.function.Function;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 /**
@@ -206,6 +207,42 @@ abstract class BaseListIndexIntegrationTestable
     }
   }
 
+  @Test
+  void getRange() {
+    runTestWithView(database::createFork, (l) -> {
+      List<String> elements = TestStorageItems.values;
+      l.addAll(elements);
+
+      assertThat(l.getRange(0, elements.size()), equalTo(elements));
+      assertThat(l.getRange(1, 3), equalTo(elements.subList(1, 3)));
+    });
+  }
+
+  @Test
+  void getRangeEmptyRange() {
+    runTestWithView(database::createFork, (l) -> {
+      l.add(V1);
+
+      assertThat(l.getRange(1, 1), equalTo(Collections.emptyList()));
+    });
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+      "-1, 1",
+      "2, 1",
+      "0, 3",
+      "3, 3"
+  })
+  void getRangeInvalidRange(long from, long to) {
+    runTestWithView(database::createFork, (l) -> {
+      l.add(V1);
+      l.add(V2);
+
+      assertThrows(IndexOutOfBoundsException.class, () -> l.getRange(from, to));
+    });
+  }
+
   @Test
   void getLastEmptyList() {
     runTestWithView(database::createFork, (l) -> {
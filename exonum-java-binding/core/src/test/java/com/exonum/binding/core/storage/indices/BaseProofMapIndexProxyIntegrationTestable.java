@@ -55,6 +55,7 @@ import com.exonum.binding.common.serialization.StandardSerializers;
 import com.exonum.binding.core.proxy.Cleaner;
 import com.exonum.binding.core.proxy.CloseFailuresException;
 import com.exonum.binding.core.storage.database.Access;
+import com.exonum.binding.core.storage.database.Fork;
 import com.exonum.core.messages.MapProofOuterClass;
 import com.exonum.core.messages.MapProofOuterClass.OptionalEntry;
 import com.google.common.collect.ImmutableList;
@@ -173,6 +174,29 @@ abstract class BaseProofMapIndexProxyIntegrationTestable
     });
   }
 
+  @Test
+  void getAll() {
+    runTestWithView(database::createFork, (map) -> {
+      map.put(key1, V1);
+      map.put(key3, V3);
+
+      List<String> values = map.getAll(ImmutableList.of(key3, key2, key1));
+
+      assertThat(values, equalTo(Arrays.asList(V3, null, V1)));
+    });
+  }
+
+  @Test
+  void containsAll() {
+    runTestWithView(database::createFork, (map) -> {
+      map.put(key1, V1);
+      map.put(key2, V2);
+
+      assertTrue(map.containsAll(ImmutableList.of(key1, key2)));
+      assertFalse(map.containsAll(ImmutableList.of(key1, key2, key3)));
+    });
+  }
+
   @Test
   void getIndexHash_EmptyMap() {
     runTestWithView(database::createSnapshot,
@@ -191,6 +215,23 @@ abstract class BaseProofMapIndexProxyIntegrationTestable
     });
   }
 
+  @Test
+  void getIndexHash_ReflectsModifications() {
+    runTestWithView(database::createFork, (map) -> {
+      map.put(key1, V1);
+      HashCode hash1 = map.getIndexHash();
+
+      map.put(key2, V2);
+      HashCode hash2 = map.getIndexHash();
+
+      map.remove(key2);
+      HashCode hash3 = map.getIndexHash();
+
+      assertThat(hash2, not(equalTo(hash1)));
+      assertThat(hash3, equalTo(hash1));
+    });
+  }
+
   @Test
   @DisabledProofTest
   void verifyProof_EmptyMapDoesNotContainSingleKey() {
@@ -418,6 +459,25 @@ abstract class BaseProofMapIndexProxyIntegrationTestable
     });
   }
 
+  @Test
+  void parallelStreamOverSnapshotTest() throws CloseFailuresException {
+    List<MapEntry<HashCode, String>> entries = createSortedMapEntries();
+    try (Cleaner cleaner = new Cleaner()) {
+      Fork fork = database.createFork(cleaner);
+      putAll(create(MAP_NAME, fork), entries);
+      database.merge(fork);
+
+      ProofMapIndexProxy<HashCode, String> map = create(MAP_NAME,
+          database.createSnapshot(cleaner));
+      List<MapEntry<HashCode, String>> entriesFromStream = map.stream()
+          .parallel()
+          .collect(toList());
+
+      // Entries must appear in a lexicographical order of keys.
+      assertThat(entriesFromStream, equalTo(entries));
+    }
+  }
+
   @Test
   void getProofFromSingleKey() {
     runTestWithView(database::createFork, (map) -> {
@@ -0,0 +1,340 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static com.exonum.binding.core.storage.indices.ChunkedStorageIterator.INITIAL_CHUNK_SIZE;
+import static com.exonum.binding.core.storage.indices.ChunkedStorageIterator.MAX_CHUNK_BYTES;
+import static com.exonum.binding.core.storage.indices.ChunkedStorageIterator.MAX_CHUNK_SIZE;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.exonum.binding.common.collect.MapEntry;
+import com.exonum.binding.common.serialization.Serializer;
+import com.exonum.binding.common.serialization.StandardSerializers;
+import com.exonum.binding.core.proxy.NativeHandle;
+import com.exonum.binding.core.storage.indices.ChunkedStorageIterator.NextChunkFunction;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class ChunkedStorageIteratorTest {
+
+  private static final int INITIAL_MOD_COUNT = 11;
+
+  private static final long DEFAULT_NATIVE_HANDLE = 0x05;
+
+  private static final Serializer<Integer> SERIALIZER = StandardSerializers.fixed32();
+
+  private ModificationCounter modCounter;
+
+  private Runnable releaseOperation;
+
+  private FakeNativeIter nativeIter;
+
+  private ChunkedStorageIterator<Integer> iter;
+
+  @BeforeEach
+  void setUp() {
+    modCounter = mock(ModificationCounter.class);
+    when(modCounter.getCurrentValue())
+        .thenReturn(INITIAL_MOD_COUNT);
+    releaseOperation = mock(Runnable.class);
+  }
+
+  @ParameterizedTest
+  @MethodSource("testData")
+  void iteratorMustIncludeAllTheItemsFromTheList(List<Integer> underlyingList) {
+    createFromIterable(underlyingList);
+
+    List<Integer> iterElements = ImmutableList.copyOf(iter);
+
+    assertThat(iterElements, equalTo(underlyingList));
+  }
+
+  @Test
+  void nextThrowsIfNoNextItem0() {
+    createFromIterable(emptyList());
+
+    assertThrows(NoSuchElementException.class, () -> iter.next());
+  }
+
+  @Test
+  void nextThrowsIfNoNextItem1() {
+    createFromIterable(singletonList(1));
+
+    iter.next();
+
+    assertThrows(NoSuchElementException.class, () -> iter.next());
+  }
+
+  @Test
+  void doesNotFetchItemsUntilRequested() {
+    createFromIterable(asList(1, 2));
+
+    assertThat(nativeIter.requestedChunkSizes, equalTo(emptyList()));
+  }
+
+  @Test
+  void fetchesSmallCollectionInSingleCall() {
+    createFromIterable(asList(1, 2, 3));
+
+    ImmutableList.copyOf(iter);
+
+    assertThat(nativeIter.requestedChunkSizes, contains(INITIAL_CHUNK_SIZE));
+  }
+
+  @Test
+  void chunkSizeGrowsUpToMaxSize() {
+    int numElements = 4 * MAX_CHUNK_SIZE;
+    createFromIterable(range(numElements));
+
+    ImmutableList.copyOf(iter);
+
+    List<Integer> chunkSizes = nativeIter.requestedChunkSizes;
+    assertThat(chunkSizes.get(0), equalTo(INITIAL_CHUNK_SIZE));
+    assertThat(chunkSizes.get(1), equalTo(2 * INITIAL_CHUNK_SIZE));
+    assertThat(chunkSizes.get(chunkSizes.size() - 1), equalTo(MAX_CHUNK_SIZE));
+  }
+
+  @Test
+  void chunkSizeIsLimitedInBytes() {
+    // Each element takes a quarter of the maximum size of a chunk
+    int elementSize = MAX_CHUNK_BYTES / 4;
+    List<Integer> underlyingList = range(10);
+    createFromIterable(underlyingList, elementSize);
+
+    List<Integer> iterElements = ImmutableList.copyOf(iter);
+
+    assertThat(iterElements, equalTo(underlyingList));
+    assertThat(nativeIter.returnedChunkSizes, equalTo(asList(4, 4, 2)));
+  }
+
+  @Test
+  void pairIteratorMustIncludeAllThePairs() {
+    List<MapEntry<Integer, Integer>> entries = range(INITIAL_CHUNK_SIZE + 1).stream()
+        .map(i -> MapEntry.valueOf(i, -i))
+        .collect(Collectors.toList());
+    List<Integer> items = entries.stream()
+        .flatMap(e -> IntStream.of(e.getKey(), e.getValue()).boxed())
+        .collect(Collectors.toList());
+    nativeIter = new FakeNativeIter(items, 2, Integer.BYTES);
+    ChunkedStorageIterator<MapEntry<Integer, Integer>> pairIter = ChunkedStorageIterator.ofPairs(
+        new NativeHandle(DEFAULT_NATIVE_HANDLE), nativeIter, releaseOperation, modCounter,
+        (k, v) -> MapEntry.valueOf(SERIALIZER.fromBytes(k), SERIALIZER.fromBytes(v)));
+
+    List<MapEntry<Integer, Integer>> iterEntries = ImmutableList.copyOf(pairIter);
+
+    assertThat(iterEntries, equalTo(entries));
+  }
+
+  @Test
+  void nextFailsIfModifiedBeforeFirstNext() {
+    createFromIterable(emptyList());
+
+    notifyModified();
+
+    assertThrows(ConcurrentModificationException.class, () -> iter.next());
+  }
+
+  @Test
+  void nextFailsIfModifiedAfterFirstNext() {
+    createFromIterable(asList(1, 2));
+
+    iter.next();  // 1st must succeed
+
+    notifyModified();
+
+    // The 2nd element is already fetched, but #next must throw anyway
+    assertThrows(ConcurrentModificationException.class, () -> iter.next());
+  }
+
+  @Test
+  void hasNextFailsIfModifiedBeforeFetchingChunk() {
+    createFromIterable(asList(1, 2));
+
+    notifyModified();
+
+    assertThrows(ConcurrentModificationException.class, () -> iter.hasNext());
+  }
+
+  @Test
+  void nextFailsIfHandleClosed() {
+    NativeHandle nh = new NativeHandle(DEFAULT_NATIVE_HANDLE);
+    createFromIterable(nh, asList(1, 2), Integer.BYTES);
+
+    // Close the native handle.
+    nh.close();
+
+    assertThrows(IllegalStateException.class, () -> iter.next());
+  }
+
+  @Test
+  void accessModificationResultsInTerminalState() {
+    createFromIterable(asList(1, 2));
+
+    notifyModified();
+
+    // Any subsequent call to #next must throw
+    assertThrows(ConcurrentModificationException.class, () -> iter.next());
+    assertThrows(ConcurrentModificationException.class, () -> iter.next());
+  }
+
+  @Test
+  void releasesNativeIteratorOnceFetchedLastChunk() {
+    createFromIterable(asList(1, 2));
+
+    iter.next();
+
+    // The last element is fetched, but not yet returned
+    verify(releaseOperation).run();
+    assertThat(iter.next(), equalTo(2));
+  }
+
+  @Test
+  void releasesNativeIteratorOnceIfExhausted() {
+    createFromIterable(range(3 * INITIAL_CHUNK_SIZE));
+
+    ImmutableList.copyOf(iter);
+    iter.close();
+
+    verify(releaseOperation, times(1)).run();
+  }
+
+  @Test
+  void doesNotReleaseNativeIteratorBeforeLastChunk() {
+    createFromIterable(range(INITIAL_CHUNK_SIZE + 1));
+
+    iter.next();
+
+    verify(releaseOperation, never()).run();
+  }
+
+  @Test
+  void closeReleasesNativeIterator() {
+    createFromIterable(range(INITIAL_CHUNK_SIZE + 1));
+    iter.next();
+
+    iter.close();
+
+    verify(releaseOperation).run();
+  }
+
+  @Test
+  void hasNextFailsIfClosed() {
+    createFromIterable(asList(1, 2));
+    iter.next();
+
+    iter.close();
+
+    assertThrows(IllegalStateException.class, () -> iter.hasNext());
+    assertThrows(IllegalStateException.class, () -> iter.next());
+  }
+
+  private static List<List<Integer>> testData() {
+    return Arrays.asList(
+        emptyList(),
+        singletonList(1),
+        asList(1, 2),
+        asList(1, 2, 3),
+        asList(1, 2, 3, 4, 5),
+        range(INITIAL_CHUNK_SIZE),
+        range(INITIAL_CHUNK_SIZE + 1),
+        range(3 * MAX_CHUNK_SIZE + 1)
+    );
+  }
+
+  private static List<Integer> range(int size) {
+    return IntStream.range(0, size)
+        .boxed()
+        .collect(Collectors.toList());
+  }
+
+  private void createFromIterable(List<Integer> elements) {
+    createFromIterable(elements, Integer.BYTES);
+  }
+
+  private void createFromIterable(List<Integer> elements, int elementSize) {
+    NativeHandle nh = new NativeHandle(DEFAULT_NATIVE_HANDLE);
+    createFromIterable(nh, elements, elementSize);
+  }
+
+  private void createFromIterable(NativeHandle nativeHandle, List<Integer> elements,
+      int elementSize) {
+    nativeIter = new FakeNativeIter(elements, 1, elementSize);
+    iter = ChunkedStorageIterator.ofItems(nativeHandle, nativeIter, releaseOperation,
+        modCounter, bytes -> SERIALIZER.fromBytes(Arrays.copyOf(bytes, Integer.BYTES)));
+  }
+
+  private void notifyModified() {
+    when(modCounter.isModifiedSince(eq(INITIAL_MOD_COUNT)))
+        .thenReturn(true);
+  }
+
+  /**
+   * A fake of a native iterator that returns the chunks as the native code does.
+   */
+  private static class FakeNativeIter implements NextChunkFunction {
+    private final Iterator<Integer> items;
+    private final int itemsPerElement;
+    private final int itemSize;
+    final List<Integer> requestedChunkSizes = new ArrayList<>();
+    final List<Integer> returnedChunkSizes = new ArrayList<>();
+
+    FakeNativeIter(List<Integer> items, int itemsPerElement, int itemSize) {
+      this.items = items.iterator();
+      this.itemsPerElement = itemsPerElement;
+      this.itemSize = itemSize;
+    }
+
+    @Override
+    public byte[][] nextChunk(long iterNativeHandle, int maxItems, int maxBytes) {
+      requestedChunkSizes.add(maxItems);
+      List<byte[]> chunk = new ArrayList<>();
+      int chunkBytes = 0;
+      while (chunk.size() < maxItems * itemsPerElement && chunkBytes < maxBytes
+          && items.hasNext()) {
+        for (int i = 0; i < itemsPerElement; i++) {
+          chunk.add(Arrays.copyOf(SERIALIZER.toBytes(items.next()), itemSize));
+          chunkBytes += itemSize;
+        }
+      }
+      returnedChunkSizes.add(chunk.size() / itemsPerElement);
+      return chunk.toArray(new byte[0][]);
+    }
+  }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static com.exonum.binding.common.serialization.StandardSerializers.bytes;
+import static com.exonum.binding.common.serialization.StandardSerializers.string;
+import static com.exonum.binding.core.storage.indices.TestStorageItems.K1;
+import static com.exonum.binding.core.storage.indices.TestStorageItems.K2;
+import static com.exonum.binding.core.storage.indices.TestStorageItems.K3;
+import static com.exonum.binding.core.storage.indices.TestStorageItems.V1;
+import static com.exonum.binding.core.storage.indices.TestStorageItems.V2;
+import static com.exonum.binding.core.storage.indices.TestStorageItems.V3;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.exonum.binding.core.proxy.Cleaner;
+import com.exonum.binding.core.storage.database.Access;
+import com.exonum.binding.core.storage.database.Fork;
+import com.exonum.binding.core.storage.database.Snapshot;
+import com.exonum.binding.core.storage.database.TemporaryDb;
+import com.exonum.binding.test.RequiresNativeLibrary;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@RequiresNativeLibrary
+class CountedMapIndexIntegrationTest {
+
+  private static final IndexAddress ADDRESS = IndexAddress.valueOf("test_counted_map");
+
+  private TemporaryDb database;
+  private Cleaner cleaner;
+
+  @BeforeEach
+  void setUp() {
+    database = TemporaryDb.newInstance();
+    cleaner = new Cleaner();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    cleaner.close();
+    database.close();
+  }
+
+  @Test
+  void sizeOfEmptyMap() {
+    Snapshot snapshot = database.createSnapshot(cleaner);
+    CountedMapIndex<String, String> map = newMap(snapshot);
+
+    assertThat(map.size()).isZero();
+    assertThat(map.isEmpty()).isTrue();
+  }
+
+  @Test
+  void putCountsNewKeysOnly() {
+    Fork fork = database.createFork(cleaner);
+    CountedMapIndex<String, String> map = newMap(fork);
+
+    map.put(K1, V1);
+    map.put(K2, V2);
+    map.put(K1, V3);
+
+    assertThat(map.size()).isEqualTo(2);
+    assertThat(map.get(K1)).isEqualTo(V3);
+  }
+
+  @Test
+  void putAllCountsNewKeysOnly() {
+    Fork fork = database.createFork(cleaner);
+    CountedMapIndex<String, String> map = newMap(fork);
+    map.put(K1, V1);
+
+    map.putAll(ImmutableMap.of(K1, V2, K2, V2, K3, V3));
+
+    assertThat(map.size()).isEqualTo(3);
+  }
+
+  @Test
+  void putAllCountsKeysWithSameSerializedFormOnce() {
+    Fork fork = database.createFork(cleaner);
+    CountedMapIndex<byte[], String> map = fork.getCountedMap(ADDRESS, bytes(), string());
+
+    // Distinct arrays are distinct keys of the source map
+    map.putAll(ImmutableMap.of(new byte[] {1}, V1, new byte[] {1}, V2, new byte[] {2}, V3));
+
+    assertThat(map.size()).isEqualTo(2);
+  }
+
+  @Test
+  void removeCountsPresentKeysOnly() {
+    Fork fork = database.createFork(cleaner);
+    CountedMapIndex<String, String> map = newMap(fork);
+    map.put(K1, V1);
+    map.put(K2, V2);
+
+    map.remove(K1);
+    map.remove(K3);
+
+    assertThat(map.size()).isEqualTo(1);
+    assertThat(map.containsKey(K1)).isFalse();
+  }
+
+  @Test
+  void clearResetsSize() {
+    Fork fork = database.createFork(cleaner);
+    CountedMapIndex<String, String> map = newMap(fork);
+    map.put(K1, V1);
+    map.put(K2, V2);
+
+    map.clear();
+
+    assertThat(map.size()).isZero();
+    assertThat(map.isEmpty()).isTrue();
+  }
+
+  @Test
+  void sizeIsPersisted() throws Exception {
+    Fork fork = database.createFork(cleaner);
+    CountedMapIndex<String, String> forkMap = newMap(fork);
+    forkMap.put(K1, V1);
+    forkMap.put(K2, V2);
+    database.merge(fork);
+
+    Snapshot snapshot = database.createSnapshot(cleaner);
+    CountedMapIndex<String, String> map = newMap(snapshot);
+
+    assertThat(map.size()).isEqualTo(2);
+  }
+
+  @Test
+  void countsEntriesOfMapPopulatedAsRegularMap() throws Exception {
+    Fork fork = database.createFork(cleaner);
+    MapIndex<String, String> regularMap = fork.getMap(ADDRESS, string(), string());
+    regularMap.put(K1, V1);
+    regularMap.put(K2, V2);
+    database.merge(fork);
+
+    Fork fork2 = database.createFork(cleaner);
+    CountedMapIndex<String, String> map = newMap(fork2);
+    assertThat(map.size()).isEqualTo(2);
+
+    map.put(K3, V3);
+
+    assertThat(map.size()).isEqualTo(3);
+  }
+
+  @Test
+  void removeCountsEntriesOfMapPopulatedAsRegularMap() throws Exception {
+    Fork fork = database.createFork(cleaner);
+    MapIndex<String, String> regularMap = fork.getMap(ADDRESS, string(), string());
+    regularMap.put(K1, V1);
+    regularMap.put(K2, V2);
+    regularMap.put(K3, V3);
+    database.merge(fork);
+
+    Fork fork2 = database.createFork(cleaner);
+    CountedMapIndex<String, String> map = newMap(fork2);
+    map.remove(K1);
+
+    assertThat(map.size()).isEqualTo(2);
+  }
+
+  @Test
+  void countedProofMap() {
+    Fork fork = database.createFork(cleaner);
+    CountedMapIndex<String, String> map = fork.getCountedProofMap(ADDRESS, string(), string());
+
+    map.put(K1, V1);
+    map.put(K2, V2);
+    map.remove(K2);
+
+    assertThat(map.size()).isEqualTo(1);
+  }
+
+  @Test
+  void countsMapsInGroupSeparately() {
+    Fork fork = database.createFork(cleaner);
+    CountedMapIndex<String, String> map1 = fork.getCountedMap(
+        IndexAddress.valueOf("test_counted_maps", new byte[] {1}), string(), string());
+    CountedMapIndex<String, String> map2 = fork.getCountedMap(
+        IndexAddress.valueOf("test_counted_maps", new byte[] {2}), string(), string());
+
+    map1.put(K1, V1);
+    map1.put(K2, V2);
+    map2.put(K1, V1);
+
+    assertThat(map1.size()).isEqualTo(2);
+    assertThat(map2.size()).isEqualTo(1);
+  }
+
+  @Test
+  void sizeDoesNotCollideWithUserIndexes() {
+    Fork fork = database.createFork(cleaner);
+    CountedMapIndex<String, String> map = newMap(fork);
+    MapIndex<String, String> userMap = fork.getMap(
+        IndexAddress.valueOf(ADDRESS.getName() + ".meta"), string(), string());
+
+    map.put(K1, V1);
+    userMap.put("size", V2);
+
+    assertThat(map.size()).isEqualTo(1);
+    assertThat(userMap.get("size")).isEqualTo(V2);
+  }
+
+  @Test
+  void putFailsIfSnapshot() {
+    Snapshot snapshot = database.createSnapshot(cleaner);
+    CountedMapIndex<String, String> map = newMap(snapshot);
+
+    assertThrows(UnsupportedOperationException.class, () -> map.put(K1, V1));
+  }
+
+  @Test
+  void cannotBeAccessedAsRegularMap() {
+    Fork fork = database.createFork(cleaner);
+    newMap(fork);
+
+    assertThrows(IllegalArgumentException.class,
+        () -> fork.getMap(ADDRESS, string(), string()));
+  }
+
+  private static CountedMapIndex<String, String> newMap(Access access) {
+    return access.getCountedMap(ADDRESS, string(), string());
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.exonum.binding.common.hash.HashCode;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class IndexHashCacheTest {
+
+  private static final HashCode HASH_1 = HashCode.fromString("a1");
+  private static final HashCode HASH_2 = HashCode.fromString("a2");
+
+  @Mock
+  private Supplier<HashCode> loader;
+
+  private IncrementalModificationCounter modCounter;
+  private IndexHashCache cache;
+
+  @BeforeEach
+  void setUp() {
+    modCounter = new IncrementalModificationCounter();
+    cache = new IndexHashCache(modCounter);
+  }
+
+  @Test
+  void getLoadsHashOnce() {
+    when(loader.get()).thenReturn(HASH_1);
+
+    assertThat(cache.get(loader)).isEqualTo(HASH_1);
+    assertThat(cache.get(loader)).isEqualTo(HASH_1);
+
+    verify(loader).get();
+  }
+
+  @Test
+  void getReloadsHashIfModified() {
+    when(loader.get()).thenReturn(HASH_1, HASH_2);
+    cache.get(loader);
+
+    modCounter.notifyModified();
+
+    assertThat(cache.get(loader)).isEqualTo(HASH_2);
+    assertThat(cache.get(loader)).isEqualTo(HASH_2);
+    verify(loader, times(2)).get();
+  }
+
+  @Test
+  void getWithImmutableCounterLoadsHashOnce() {
+    cache = new IndexHashCache(ImmutableModificationCounter.INSTANCE);
+    when(loader.get()).thenReturn(HASH_1);
+
+    cache.get(loader);
+    cache.get(loader);
+
+    verify(loader).get();
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static com.exonum.binding.common.serialization.StandardSerializers.string;
+import static com.exonum.binding.core.storage.indices.TestStorageItems.K1;
+import static com.exonum.binding.core.storage.indices.TestStorageItems.K2;
+import static com.exonum.binding.core.storage.indices.TestStorageItems.K3;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.exonum.binding.core.proxy.Cleaner;
+import com.exonum.binding.core.storage.database.Access;
+import com.exonum.binding.core.storage.database.Fork;
+import com.exonum.binding.core.storage.database.Snapshot;
+import com.exonum.binding.core.storage.database.TemporaryDb;
+import com.exonum.binding.test.RequiresNativeLibrary;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@RequiresNativeLibrary
+class IndexedMapIndexIntegrationTest {
+
+  private static final IndexAddress ADDRESS = IndexAddress.valueOf("test_indexed_map");
+
+  /** Values are "owner:name" strings, indexed by the owner. */
+  private static final SecondaryKey<String, String> OWNER =
+      SecondaryKey.of("owner", string(), IndexedMapIndexIntegrationTest::owner);
+
+  private TemporaryDb database;
+  private Cleaner cleaner;
+
+  @BeforeEach
+  void setUp() {
+    database = TemporaryDb.newInstance();
+    cleaner = new Cleaner();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    cleaner.close();
+    database.close();
+  }
+
+  @Test
+  void putIndexesValue() {
+    Fork fork = database.createFork(cleaner);
+    IndexedMapIndex<String, String> map = newMap(fork);
+
+    map.put(K1, "alice:v1");
+    map.put(K2, "bob:v2");
+    map.put(K3, "alice:v3");
+
+    SecondaryIndex<String, String> byOwner = map.getSecondaryIndex(OWNER);
+    assertThat(byOwner.keys("alice")).toIterable().containsExactly(K1, K3);
+    assertThat(byOwner.keys("bob")).toIterable().containsExactly(K2);
+    assertThat(byOwner.contains("alice")).isTrue();
+    assertThat(byOwner.contains("carol")).isFalse();
+  }
+
+  @Test
+  void keysIteratorMayBeClosed() {
+    Fork fork = database.createFork(cleaner);
+    IndexedMapIndex<String, String> map = newMap(fork);
+    map.put(K1, "alice:v1");
+    map.put(K2, "alice:v2");
+
+    SecondaryIndex<String, String> byOwner = map.getSecondaryIndex(OWNER);
+    CloseableIterator<String> keys = byOwner.keys("alice");
+    assertThat(keys.next()).isEqualTo(K1);
+
+    keys.close();
+
+    // The native iterator is released, hence the iterator can no longer be used
+    assertThrows(IllegalStateException.class, keys::hasNext);
+  }
+
+  @Test
+  void putReplacesIndexedValue() {
+    Fork fork = database.createFork(cleaner);
+    IndexedMapIndex<String, String> map = newMap(fork);
+    map.put(K1, "alice:v1");
+
+    map.put(K1, "bob:v2");
+
+    SecondaryIndex<String, String> byOwner = map.getSecondaryIndex(OWNER);
+    assertThat(byOwner.contains("alice")).isFalse();
+    assertThat(byOwner.keys("bob")).toIterable().containsExactly(K1);
+  }
+
+  @Test
+  void putDoesNotIndexValueWithoutSecondaryKey() {
+    Fork fork = database.createFork(cleaner);
+    IndexedMapIndex<String, String> map = newMap(fork);
+
+    map.put(K1, "no owner");
+
+    assertThat(map.get(K1)).isEqualTo("no owner");
+    SecondaryIndex<String, String> byOwner = map.getSecondaryIndex(OWNER);
+    assertThat(byOwner.keys("", "\uffff")).isExhausted();
+  }
+
+  @Test
+  void removeUnindexesValue() {
+    Fork fork = database.createFork(cleaner);
+    IndexedMapIndex<String, String> map = newMap(fork);
+    map.put(K1, "alice:v1");
+    map.put(K2, "alice:v2");
+
+    map.remove(K1);
+
+    SecondaryIndex<String, String> byOwner = map.getSecondaryIndex(OWNER);
+    assertThat(byOwner.keys("alice")).toIterable().containsExactly(K2);
+  }
+
+  @Test
+  void clearClearsSecondaryIndexes() {
+    Fork fork = database.createFork(cleaner);
+    IndexedMapIndex<String, String> map = newMap(fork);
+    map.put(K1, "alice:v1");
+
+    map.clear();
+
+    assertThat(map.getSecondaryIndex(OWNER).contains("alice")).isFalse();
+  }
+
+  @Test
+  void rangeScanBySecondaryKey() {
+    Fork fork = database.createFork(cleaner);
+    IndexedMapIndex<String, String> map = newMap(fork);
+    map.put(K1, "carol:v1");
+    map.put(K2, "alice:v2");
+    map.put(K3, "bob:v3");
+
+    SecondaryIndex<String, String> byOwner = map.getSecondaryIndex(OWNER);
+
+    // Ordered by the secondary keys
+    assertThat(byOwner.keys("alice", "carol")).toIterable().containsExactly(K2, K3);
+    // Keys that are prefixes of the bounds are handled correctly
+    assertThat(byOwner.keys("al", "b")).toIterable().containsExactly(K2);
+  }
+
+  @Test
+  void secondaryIndexIsPersisted() throws Exception {
+    Fork fork = database.createFork(cleaner);
+    newMap(fork).put(K1, "alice:v1");
+    database.merge(fork);
+
+    Snapshot snapshot = database.createSnapshot(cleaner);
+    IndexedMapIndex<String, String> map = newMap(snapshot);
+
+    assertThat(map.getSecondaryIndex(OWNER).keys("alice")).toIterable().containsExactly(K1);
+  }
+
+  @Test
+  void indexedProofMap() {
+    Fork fork = database.createFork(cleaner);
+    IndexedMapIndex<String, String> map = fork.getIndexedProofMap(ADDRESS, string(), string(),
+        ImmutableList.of(OWNER));
+
+    map.put(K1, "alice:v1");
+
+    assertThat(map.getSecondaryIndex(OWNER).keys("alice")).toIterable().containsExactly(K1);
+  }
+
+  @Test
+  void getSecondaryIndexRejectsUnknownKey() {
+    Fork fork = database.createFork(cleaner);
+    IndexedMapIndex<String, String> map = newMap(fork);
+    SecondaryKey<String, String> otherKey = SecondaryKey.of("other", string(), v -> v);
+
+    assertThrows(IllegalArgumentException.class, () -> map.getSecondaryIndex(otherKey));
+  }
+
+  @Test
+  void rejectsDuplicateSecondaryKeyNames() {
+    Fork fork = database.createFork(cleaner);
+    SecondaryKey<String, String> sameName = SecondaryKey.of(OWNER.getName(), string(), v -> v);
+    List<SecondaryKey<String, String>> keys = ImmutableList.of(OWNER, sameName);
+
+    assertThrows(IllegalArgumentException.class,
+        () -> fork.getIndexedMap(ADDRESS, string(), string(), keys));
+  }
+
+  private static IndexedMapIndex<String, String> newMap(Access access) {
+    return access.getIndexedMap(ADDRESS, string(), string(), ImmutableList.of(OWNER));
+  }
+
+  private static String owner(String value) {
+    int separator = value.indexOf(':');
+    return (separator < 0) ? null : value.substring(0, separator);
+  }
+}
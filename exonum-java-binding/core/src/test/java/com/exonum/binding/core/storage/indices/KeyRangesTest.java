@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static com.exonum.binding.test.Bytes.bytes;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class KeyRangesTest {
+
+  @ParameterizedTest
+  @MethodSource("prefixesWithUpperBounds")
+  void prefixUpperBound(byte[] prefix, byte[] expectedUpperBound) {
+    assertThat(KeyRanges.prefixUpperBound(prefix), equalTo(expectedUpperBound));
+  }
+
+  @ParameterizedTest
+  @MethodSource("prefixesWithoutUpperBounds")
+  void prefixUpperBoundIsNullIfNoGreaterKey(byte[] prefix) {
+    assertNull(KeyRanges.prefixUpperBound(prefix));
+  }
+
+  @ParameterizedTest
+  @MethodSource("rangesWithMidpoints")
+  void midpoint(byte[] from, byte[] toExclusive, int length, byte[] expectedMidpoint) {
+    assertThat(KeyRanges.midpoint(from, toExclusive, length), equalTo(expectedMidpoint));
+  }
+
+  @Test
+  void midpointIsNullIfNoKeyInBetween() {
+    assertNull(KeyRanges.midpoint(bytes(0x01, 0x02), bytes(0x01, 0x03), 2));
+  }
+
+  @Test
+  void midpointIsNullIfEmptyRange() {
+    assertNull(KeyRanges.midpoint(bytes(0x02), bytes(0x01), 1));
+  }
+
+  @Test
+  void compareIsUnsigned() {
+    assertThat(KeyRanges.compare(bytes(0x7F), bytes(0x80)) < 0, equalTo(true));
+    assertThat(KeyRanges.compare(bytes(0x01), bytes(0x01, 0x00)) < 0, equalTo(true));
+    assertThat(KeyRanges.compare(bytes(0xFF), bytes(0xFF)), equalTo(0));
+  }
+
+  private static Stream<Arguments> rangesWithMidpoints() {
+    return Stream.of(
+        Arguments.of(bytes(), null, 1, bytes(0x80)),
+        Arguments.of(bytes(0x00), bytes(0x10), 1, bytes(0x08)),
+        Arguments.of(bytes(0x10), bytes(0x20), 2, bytes(0x18, 0x00)),
+        Arguments.of(bytes(0x10), bytes(0x11), 2, bytes(0x10, 0x80)),
+        Arguments.of(bytes(0xFF), null, 2, bytes(0xFF, 0x80)),
+        Arguments.of(bytes(0x01, 0xFF), bytes(0x02), 3, bytes(0x01, 0xFF, 0x80))
+    );
+  }
+
+  private static Stream<Arguments> prefixesWithUpperBounds() {
+    return Stream.of(
+        Arguments.of(bytes(0x00), bytes(0x01)),
+        Arguments.of(bytes(0x7F), bytes(0x80)),
+        Arguments.of(bytes(0xFE), bytes(0xFF)),
+        Arguments.of(bytes(0x01, 0x02), bytes(0x01, 0x03)),
+        Arguments.of(bytes(0x01, 0xFF), bytes(0x02)),
+        Arguments.of(bytes(0x01, 0xFF, 0xFF), bytes(0x02)),
+        Arguments.of(bytes(0xFF, 0x00), bytes(0xFF, 0x01))
+    );
+  }
+
+  private static Stream<byte[]> prefixesWithoutUpperBounds() {
+    return Stream.of(
+        bytes(),
+        bytes(0xFF),
+        bytes(0xFF, 0xFF)
+    );
+  }
+}
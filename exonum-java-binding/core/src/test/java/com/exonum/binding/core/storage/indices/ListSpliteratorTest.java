@@ -22,15 +22,19 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.ConcurrentModificationException;
 import java.util.List;
 import java.util.Spliterator;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -40,6 +44,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InOrder;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.stubbing.Answer;
 
@@ -237,6 +242,52 @@ class ListSpliteratorTest {
     assertThat(spliterator.estimateSize()).isEqualTo(size);
   }
 
+  @ParameterizedTest
+  @ValueSource(ints = {0, 1, ListSpliterator.FOR_EACH_CHUNK_SIZE,
+      ListSpliterator.FOR_EACH_CHUNK_SIZE + 1, 3 * ListSpliterator.FOR_EACH_CHUNK_SIZE})
+  void forEachRemainingConsumesAllElements(int size) {
+    int[] source = IntStream.range(0, size).toArray();
+    Spliterator<Integer> spliterator = createSpliteratorOf(source);
+
+    List<Integer> elements = new ArrayList<>();
+    spliterator.forEachRemaining(elements::add);
+
+    assertThat(elements).containsExactlyElementsOf(
+        IntStream.of(source).boxed().collect(Collectors.toList()));
+    assertThat(spliterator.estimateSize()).isEqualTo(0);
+  }
+
+  @Test
+  void forEachRemainingReadsInChunks() {
+    ListIndex<Integer> list = createListMock();
+    int chunkSize = ListSpliterator.FOR_EACH_CHUNK_SIZE;
+    long size = 2 * chunkSize + 1;
+    when(list.size()).thenReturn(size);
+    ModificationCounter counter = mock(ModificationCounter.class);
+    Spliterator<Integer> spliterator = new ListSpliterator<>(list, counter, true);
+
+    // Consume the first element so that the chunks are not aligned with the list start
+    spliterator.tryAdvance(NULL_CONSUMER);
+    spliterator.forEachRemaining(NULL_CONSUMER);
+
+    InOrder inOrder = inOrder(list);
+    inOrder.verify(list).getRange(1, chunkSize + 1);
+    inOrder.verify(list).getRange(chunkSize + 1, size);
+    inOrder.verify(list, never()).getRange(anyLong(), anyLong());
+  }
+
+  @Test
+  void forEachRemainingDetectsModificationsByAction() {
+    ListIndex<Integer> list = createListMock();
+    when(list.size()).thenReturn(2L);
+    when(list.getRange(0, 2)).thenReturn(Arrays.asList(1, 2));
+    ModificationCounter counter = new IncrementalModificationCounter();
+    Spliterator<Integer> spliterator = new ListSpliterator<>(list, counter, true);
+
+    assertThrows(ConcurrentModificationException.class,
+        () -> spliterator.forEachRemaining(e -> counter.notifyModified()));
+  }
+
   private static void assertHasDetectedModification(Spliterator<Integer> spliterator) {
     assertThrows(ConcurrentModificationException.class,
         () -> spliterator.tryAdvance(NULL_CONSUMER));
@@ -290,6 +341,13 @@ class ListSpliteratorTest {
       Long index = invocation.getArgument(0);
       return source[Math.toIntExact(index)];
     });
+    lenient().when(list.getRange(anyLong(), anyLong())).thenAnswer(invocation -> {
+      int from = Math.toIntExact(invocation.<Long>getArgument(0));
+      int to = Math.toIntExact(invocation.<Long>getArgument(1));
+      return IntStream.range(from, to)
+          .mapToObj(i -> source[i])
+          .collect(Collectors.toList());
+    });
     lenient().when(list.size()).thenReturn((long) source.length);
 
     ModificationCounter modCounter = mock(ModificationCounter.class);
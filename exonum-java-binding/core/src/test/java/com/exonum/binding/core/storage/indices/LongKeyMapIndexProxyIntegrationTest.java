@@ -0,0 +1,184 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static com.exonum.binding.common.serialization.StandardSerializers.string;
+import static com.exonum.binding.core.storage.indices.TestStorageItems.V1;
+import static com.exonum.binding.core.storage.indices.TestStorageItems.V2;
+import static com.exonum.binding.core.storage.indices.TestStorageItems.V3;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.exonum.binding.core.proxy.Cleaner;
+import com.exonum.binding.core.storage.database.Access;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class LongKeyMapIndexProxyIntegrationTest
+    extends BaseIndexProxyTestable<LongKeyMapIndexProxy<String>> {
+
+  private static final String MAP_NAME = "test_long_key_map";
+
+  @Test
+  void putAndGet() {
+    runTestWithView(database::createFork, (map) -> {
+      map.put(Long.MIN_VALUE, V1);
+      map.put(Long.MAX_VALUE, V2);
+
+      assertThat(map.get(Long.MIN_VALUE)).isEqualTo(V1);
+      assertThat(map.get(Long.MAX_VALUE)).isEqualTo(V2);
+    });
+  }
+
+  @Test
+  void getIfAbsent() {
+    runTestWithView(database::createSnapshot, (map) -> assertThat(map.get(1L)).isNull());
+  }
+
+  @Test
+  void putFailsIfSnapshot() {
+    runTestWithView(database::createSnapshot,
+        (map) -> assertThrows(UnsupportedOperationException.class, () -> map.put(1L, V1)));
+  }
+
+  @Test
+  void containsKey() {
+    runTestWithView(database::createFork, (map) -> {
+      map.put(1L, V1);
+
+      assertThat(map.containsKey(1L)).isTrue();
+      assertThat(map.containsKey(2L)).isFalse();
+    });
+  }
+
+  @Test
+  void remove() {
+    runTestWithView(database::createFork, (map) -> {
+      map.put(1L, V1);
+
+      map.remove(1L);
+
+      assertThat(map.containsKey(1L)).isFalse();
+    });
+  }
+
+  @Test
+  void clear() {
+    runTestWithView(database::createFork, (map) -> {
+      map.put(1L, V1);
+      map.put(2L, V2);
+
+      map.clear();
+
+      assertThat(map.isEmpty()).isTrue();
+    });
+  }
+
+  @Test
+  void keysAreInNumericOrder() {
+    runTestWithView(database::createFork, (map) -> {
+      long[] keys = {Long.MIN_VALUE, -256L, -1L, 0L, 1L, 255L, 256L, Long.MAX_VALUE};
+      for (int i = keys.length - 1; i >= 0; i--) {
+        map.put(keys[i], V1);
+      }
+
+      assertThat(toList(map.keys())).containsExactly(Long.MIN_VALUE, -256L, -1L, 0L, 1L, 255L,
+          256L, Long.MAX_VALUE);
+    });
+  }
+
+  @Test
+  void keysFrom() {
+    runTestWithView(database::createFork, (map) -> {
+      map.put(-1L, V1);
+      map.put(1L, V2);
+      map.put(3L, V3);
+
+      assertThat(toList(map.keys(0L))).containsExactly(1L, 3L);
+    });
+  }
+
+  @Test
+  void values() {
+    runTestWithView(database::createFork, (map) -> {
+      map.put(2L, V2);
+      map.put(-1L, V1);
+      map.put(3L, V3);
+
+      assertThat(map.values()).toIterable().containsExactly(V1, V2, V3);
+    });
+  }
+
+  @Test
+  void keysFailsIfModified() {
+    runTestWithView(database::createFork, (map) -> {
+      map.put(1L, V1);
+      PrimitiveIterator.OfLong keys = map.keys();
+
+      map.put(2L, V2);
+
+      assertThrows(ConcurrentModificationException.class, keys::nextLong);
+    });
+  }
+
+  private static List<Long> toList(PrimitiveIterator.OfLong it) {
+    List<Long> elements = new ArrayList<>();
+    it.forEachRemaining((long e) -> elements.add(e));
+    return elements;
+  }
+
+  private static void runTestWithView(Function<Cleaner, Access> viewFactory,
+      Consumer<LongKeyMapIndexProxy<String>> mapTest) {
+    IndicesTests.runTestWithView(
+        viewFactory,
+        MAP_NAME,
+        (address, access, serializer) -> access.getLongKeyMap(address, serializer),
+        (access, map) -> mapTest.accept(map)
+    );
+  }
+
+  @Override
+  LongKeyMapIndexProxy<String> create(String name, Access access) {
+    return access.getLongKeyMap(IndexAddress.valueOf(name), string());
+  }
+
+  @Override
+  LongKeyMapIndexProxy<String> createInGroup(String groupName, byte[] idInGroup,
+      Access access) {
+    return access.getLongKeyMap(IndexAddress.valueOf(groupName, idInGroup), string());
+  }
+
+  @Override
+  StorageIndex createOfOtherType(String name, Access access) {
+    return access.getList(IndexAddress.valueOf(name), string());
+  }
+
+  @Override
+  Object getAnyElement(LongKeyMapIndexProxy<String> index) {
+    return index.get(1L);
+  }
+
+  @Override
+  void update(LongKeyMapIndexProxy<String> index) {
+    index.put(1L, V1);
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static com.exonum.binding.common.serialization.StandardSerializers.fixed64;
+import static com.exonum.binding.common.serialization.StandardSerializers.string;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.exonum.binding.core.proxy.Cleaner;
+import com.exonum.binding.core.proxy.CloseFailuresException;
+import com.exonum.binding.core.storage.database.Access;
+import com.exonum.binding.core.storage.database.Fork;
+import com.exonum.binding.core.storage.database.Snapshot;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class LongListIndexProxyIntegrationTest extends BaseIndexProxyTestable<LongListIndexProxy> {
+
+  private static final String LIST_NAME = "test_long_list";
+
+  @Test
+  void addAndGet() {
+    runTestWithView(database::createFork, (list) -> {
+      list.add(Long.MIN_VALUE);
+      list.add(0L);
+      list.add(Long.MAX_VALUE);
+
+      assertThat(list.size()).isEqualTo(3L);
+      assertThat(list.get(0)).isEqualTo(Long.MIN_VALUE);
+      assertThat(list.get(1)).isEqualTo(0L);
+      assertThat(list.get(2)).isEqualTo(Long.MAX_VALUE);
+    });
+  }
+
+  @Test
+  void addAll() {
+    runTestWithView(database::createFork, (list) -> {
+      list.add(1L);
+
+      list.addAll(new long[] {2L, 3L});
+
+      assertThat(list.stream().toArray()).containsExactly(1L, 2L, 3L);
+    });
+  }
+
+  @Test
+  void addFailsIfSnapshot() {
+    runTestWithView(database::createSnapshot,
+        (list) -> assertThrows(UnsupportedOperationException.class, () -> list.add(1L)));
+  }
+
+  @Test
+  void getFailsIfOutOfBounds() {
+    runTestWithView(database::createFork, (list) -> {
+      list.add(1L);
+
+      assertThrows(IndexOutOfBoundsException.class, () -> list.get(1));
+    });
+  }
+
+  @Test
+  void set() {
+    runTestWithView(database::createFork, (list) -> {
+      list.add(1L);
+
+      list.set(0, 10L);
+
+      assertThat(list.get(0)).isEqualTo(10L);
+    });
+  }
+
+  @Test
+  void getLast() {
+    runTestWithView(database::createFork, (list) -> {
+      list.addAll(new long[] {1L, 2L});
+
+      assertThat(list.getLast()).isEqualTo(2L);
+    });
+  }
+
+  @Test
+  void getLastFailsIfEmpty() {
+    runTestWithView(database::createSnapshot,
+        (list) -> assertThrows(NoSuchElementException.class, list::getLast));
+  }
+
+  @Test
+  void removeLast() {
+    runTestWithView(database::createFork, (list) -> {
+      list.addAll(new long[] {1L, 2L});
+
+      assertThat(list.removeLast()).isEqualTo(2L);
+      assertThat(list.size()).isEqualTo(1L);
+    });
+  }
+
+  @Test
+  void removeLastFailsIfEmpty() {
+    runTestWithView(database::createFork,
+        (list) -> assertThrows(NoSuchElementException.class, list::removeLast));
+  }
+
+  @Test
+  void truncate() {
+    runTestWithView(database::createFork, (list) -> {
+      list.addAll(new long[] {1L, 2L, 3L});
+
+      list.truncate(1);
+
+      assertThat(list.stream().toArray()).containsExactly(1L);
+    });
+  }
+
+  @Test
+  void clear() {
+    runTestWithView(database::createFork, (list) -> {
+      list.addAll(new long[] {1L, 2L});
+
+      list.clear();
+
+      assertThat(list.isEmpty()).isTrue();
+    });
+  }
+
+  @Test
+  void iterator() {
+    runTestWithView(database::createFork, (list) -> {
+      long[] elements = new long[100];
+      for (int i = 0; i < elements.length; i++) {
+        elements[i] = i - 50;
+      }
+      list.addAll(elements);
+
+      PrimitiveIterator.OfLong it = list.iterator();
+      for (long e : elements) {
+        assertThat(it.nextLong()).isEqualTo(e);
+      }
+      assertThat(it.hasNext()).isFalse();
+    });
+  }
+
+  @Test
+  void iteratorFailsIfModified() {
+    runTestWithView(database::createFork, (list) -> {
+      list.add(1L);
+      PrimitiveIterator.OfLong it = list.iterator();
+
+      list.add(2L);
+
+      assertThrows(ConcurrentModificationException.class, it::nextLong);
+    });
+  }
+
+  @Test
+  void isCompatibleWithFixed64List() throws CloseFailuresException {
+    try (Cleaner cleaner = new Cleaner()) {
+      Fork fork = database.createFork(cleaner);
+      LongListIndex list = create(LIST_NAME, fork);
+      list.add(-1L);
+      list.add(Long.MAX_VALUE);
+      database.merge(fork);
+
+      Snapshot snapshot = database.createSnapshot(cleaner);
+      ListIndex<Long> boxedList = snapshot.getList(IndexAddress.valueOf(LIST_NAME), fixed64());
+      assertThat(boxedList).containsExactly(-1L, Long.MAX_VALUE);
+    }
+  }
+
+  private static void runTestWithView(Function<Cleaner, Access> viewFactory,
+      Consumer<LongListIndexProxy> listTest) {
+    IndicesTests.runTestWithView(
+        viewFactory,
+        LIST_NAME,
+        ((address, access, serializer) -> access.getLongList(address)),
+        (access, list) -> listTest.accept(list)
+    );
+  }
+
+  @Override
+  LongListIndexProxy create(String name, Access access) {
+    return access.getLongList(IndexAddress.valueOf(name));
+  }
+
+  @Override
+  LongListIndexProxy createInGroup(String groupName, byte[] idInGroup, Access access) {
+    return access.getLongList(IndexAddress.valueOf(groupName, idInGroup));
+  }
+
+  @Override
+  StorageIndex createOfOtherType(String name, Access access) {
+    return access.getMap(IndexAddress.valueOf(name), string(), string());
+  }
+
+  @Override
+  Object getAnyElement(LongListIndexProxy index) {
+    return index.isEmpty();
+  }
+
+  @Override
+  void update(LongListIndexProxy index) {
+    index.add(1L);
+  }
+}
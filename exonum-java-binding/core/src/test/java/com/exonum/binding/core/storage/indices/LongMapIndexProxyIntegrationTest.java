@@ -0,0 +1,203 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static com.exonum.binding.common.serialization.StandardSerializers.fixed64;
+import static com.exonum.binding.common.serialization.StandardSerializers.string;
+import static com.exonum.binding.core.storage.indices.TestStorageItems.K1;
+import static com.exonum.binding.core.storage.indices.TestStorageItems.K2;
+import static com.exonum.binding.core.storage.indices.TestStorageItems.K3;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.exonum.binding.core.proxy.Cleaner;
+import com.exonum.binding.core.proxy.CloseFailuresException;
+import com.exonum.binding.core.storage.database.Access;
+import com.exonum.binding.core.storage.database.Fork;
+import com.exonum.binding.core.storage.database.Snapshot;
+import java.util.ConcurrentModificationException;
+import java.util.PrimitiveIterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class LongMapIndexProxyIntegrationTest
+    extends BaseIndexProxyTestable<LongMapIndexProxy<String>> {
+
+  private static final String MAP_NAME = "test_long_map";
+
+  @Test
+  void putAndGet() {
+    runTestWithView(database::createFork, (map) -> {
+      map.put(K1, Long.MIN_VALUE);
+      map.put(K2, Long.MAX_VALUE);
+
+      assertThat(map.getOrDefault(K1, 0L)).isEqualTo(Long.MIN_VALUE);
+      assertThat(map.getOrDefault(K2, 0L)).isEqualTo(Long.MAX_VALUE);
+    });
+  }
+
+  @Test
+  void getOrDefaultIfAbsent() {
+    runTestWithView(database::createSnapshot,
+        (map) -> assertThat(map.getOrDefault(K1, -1L)).isEqualTo(-1L));
+  }
+
+  @Test
+  void putFailsIfSnapshot() {
+    runTestWithView(database::createSnapshot,
+        (map) -> assertThrows(UnsupportedOperationException.class, () -> map.put(K1, 1L)));
+  }
+
+  @Test
+  void containsKey() {
+    runTestWithView(database::createFork, (map) -> {
+      map.put(K1, 0L);
+
+      assertThat(map.containsKey(K1)).isTrue();
+      assertThat(map.containsKey(K2)).isFalse();
+    });
+  }
+
+  @Test
+  void addAndGetIfAbsent() {
+    runTestWithView(database::createFork, (map) -> {
+      assertThat(map.addAndGet(K1, 5L)).isEqualTo(5L);
+      assertThat(map.getOrDefault(K1, 0L)).isEqualTo(5L);
+    });
+  }
+
+  @Test
+  void addAndGet() {
+    runTestWithView(database::createFork, (map) -> {
+      map.put(K1, 10L);
+
+      assertThat(map.addAndGet(K1, -3L)).isEqualTo(7L);
+      assertThat(map.getOrDefault(K1, 0L)).isEqualTo(7L);
+    });
+  }
+
+  @Test
+  void addAndGetFailsOnOverflow() {
+    runTestWithView(database::createFork, (map) -> {
+      map.put(K1, Long.MAX_VALUE);
+
+      assertThrows(ArithmeticException.class, () -> map.addAndGet(K1, 1L));
+      assertThat(map.getOrDefault(K1, 0L)).isEqualTo(Long.MAX_VALUE);
+    });
+  }
+
+  @Test
+  void remove() {
+    runTestWithView(database::createFork, (map) -> {
+      map.put(K1, 1L);
+
+      map.remove(K1);
+
+      assertThat(map.containsKey(K1)).isFalse();
+    });
+  }
+
+  @Test
+  void clear() {
+    runTestWithView(database::createFork, (map) -> {
+      map.put(K1, 1L);
+      map.put(K2, 2L);
+
+      map.clear();
+
+      assertThat(map.isEmpty()).isTrue();
+    });
+  }
+
+  @Test
+  void keysAndValues() {
+    runTestWithView(database::createFork, (map) -> {
+      map.put(K2, 2L);
+      map.put(K1, 1L);
+      map.put(K3, 3L);
+
+      assertThat(map.keys()).toIterable().containsExactly(K1, K2, K3);
+      PrimitiveIterator.OfLong values = map.values();
+      assertThat(values.nextLong()).isEqualTo(1L);
+      assertThat(values.nextLong()).isEqualTo(2L);
+      assertThat(values.nextLong()).isEqualTo(3L);
+      assertThat(values.hasNext()).isFalse();
+    });
+  }
+
+  @Test
+  void valuesFailsIfModified() {
+    runTestWithView(database::createFork, (map) -> {
+      map.put(K1, 1L);
+      PrimitiveIterator.OfLong values = map.values();
+
+      map.put(K2, 2L);
+
+      assertThrows(ConcurrentModificationException.class, values::nextLong);
+    });
+  }
+
+  @Test
+  void isCompatibleWithFixed64Map() throws CloseFailuresException {
+    try (Cleaner cleaner = new Cleaner()) {
+      Fork fork = database.createFork(cleaner);
+      create(MAP_NAME, fork).put(K1, -1L);
+      database.merge(fork);
+
+      Snapshot snapshot = database.createSnapshot(cleaner);
+      MapIndex<String, Long> boxedMap = snapshot.getMap(IndexAddress.valueOf(MAP_NAME),
+          string(), fixed64());
+      assertThat(boxedMap.get(K1)).isEqualTo(-1L);
+    }
+  }
+
+  private static void runTestWithView(Function<Cleaner, Access> viewFactory,
+      Consumer<LongMapIndexProxy<String>> mapTest) {
+    IndicesTests.runTestWithView(
+        viewFactory,
+        MAP_NAME,
+        (address, access, serializer) -> access.getLongMap(address, serializer),
+        (access, map) -> mapTest.accept(map)
+    );
+  }
+
+  @Override
+  LongMapIndexProxy<String> create(String name, Access access) {
+    return access.getLongMap(IndexAddress.valueOf(name), string());
+  }
+
+  @Override
+  LongMapIndexProxy<String> createInGroup(String groupName, byte[] idInGroup, Access access) {
+    return access.getLongMap(IndexAddress.valueOf(groupName, idInGroup), string());
+  }
+
+  @Override
+  StorageIndex createOfOtherType(String name, Access access) {
+    return access.getList(IndexAddress.valueOf(name), string());
+  }
+
+  @Override
+  Object getAnyElement(LongMapIndexProxy<String> index) {
+    return index.getOrDefault(K1, 0L);
+  }
+
+  @Override
+  void update(LongMapIndexProxy<String> index) {
+    index.put(K1, 1L);
+  }
+}
@@ -37,13 +37,17 @@ import com.exonum.binding.common.serialization.StandardSerializers;
 import com.exonum.binding.core.proxy.Cleaner;
 import com.exonum.binding.core.proxy.CloseFailuresException;
 import com.exonum.binding.core.storage.database.Access;
+import com.exonum.binding.core.storage.database.Fork;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Streams;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
@@ -110,6 +114,45 @@ class MapIndexProxyIntegrationTest
     });
   }
 
+  @Test
+  void getAllShouldReturnValuesInKeysOrder() {
+    runTestWithView(database::createFork, (map) -> {
+      map.put(K1, V1);
+      map.put(K2, V2);
+
+      List<String> values = map.getAll(ImmutableList.of(K2, "absent key", K1));
+
+      assertThat(values, equalTo(Arrays.asList(V2, null, V1)));
+    });
+  }
+
+  @Test
+  void getAllShouldReturnEmptyListIfNoKeys() {
+    runTestWithView(database::createSnapshot, (map) -> {
+      List<String> values = map.getAll(ImmutableList.of());
+
+      assertTrue(values.isEmpty());
+    });
+  }
+
+  @Test
+  void getAllShouldThrowIfNullKey() {
+    runTestWithView(database::createSnapshot, (map) -> {
+      assertThrows(NullPointerException.class, () -> map.getAll(Arrays.asList(K1, null)));
+    });
+  }
+
+  @Test
+  void containsAllShouldReturnTrueIfHasMappingsForAllKeys() {
+    runTestWithView(database::createFork, (map) -> {
+      map.put(K1, V1);
+      map.put(K2, V2);
+
+      assertTrue(map.containsAll(ImmutableList.of(K1, K2)));
+      assertFalse(map.containsAll(ImmutableList.of(K1, K2, "absent key")));
+    });
+  }
+
   @Test
   void putShouldOverwritePreviousValue() {
     runTestWithView(database::createFork, (map) -> {
@@ -170,6 +213,19 @@ class MapIndexProxyIntegrationTest
     });
   }
 
+  @Test
+  void putAllWithNullValueHasNoEffect() {
+    runTestWithView(database::createFork, (map) -> {
+      Map<String, String> source = new LinkedHashMap<>();
+      source.put(K1, V1);
+      source.put(K2, null);
+
+      assertThrows(NullPointerException.class, () -> map.putAll(source));
+
+      assertTrue(map.isEmpty());
+    });
+  }
+
   @Test
   void getShouldReturnSuccessfullyPutEmptyValue() {
     runTestWithView(database::createFork, (map) -> {
@@ -224,6 +280,79 @@ class MapIndexProxyIntegrationTest
     });
   }
 
+  @Test
+  void getSerializedShouldReadValueIntoBuffer() {
+    runTestWithView(database::createFork, (map) -> {
+      map.put(K1, V1);
+
+      ByteBuffer key = toDirectBuffer(K1);
+      ByteBuffer valueBuffer = ByteBuffer.allocateDirect(64);
+      int valueSize = map.getSerialized(key, valueBuffer);
+
+      assertThat(valueSize, equalTo(string().toBytes(V1).length));
+      assertThat(valueBuffer.position(), equalTo(valueSize));
+      assertThat(key.remaining(), equalTo(string().toBytes(K1).length));
+      valueBuffer.flip();
+      assertThat(string().readFrom(valueBuffer), equalTo(V1));
+    });
+  }
+
+  @Test
+  void getSerializedShouldReturnNegativeIfNoSuchValue() {
+    runTestWithView(database::createSnapshot, (map) -> {
+      ByteBuffer valueBuffer = ByteBuffer.allocateDirect(64);
+
+      int valueSize = map.getSerialized(toDirectBuffer(K1), valueBuffer);
+
+      assertThat(valueSize, equalTo(-1));
+      assertThat(valueBuffer.position(), equalTo(0));
+    });
+  }
+
+  @Test
+  void getSerializedShouldNotWriteValueIfBufferTooSmall() {
+    runTestWithView(database::createFork, (map) -> {
+      String value = "a long value";
+      map.put(K1, value);
+
+      ByteBuffer valueBuffer = ByteBuffer.allocateDirect(4);
+      int valueSize = map.getSerialized(toDirectBuffer(K1), valueBuffer);
+
+      assertThat(valueSize, equalTo(string().toBytes(value).length));
+      assertThat(valueBuffer.position(), equalTo(0));
+    });
+  }
+
+  @Test
+  void getSerializedShouldThrowIfHeapBuffer() {
+    runTestWithView(database::createSnapshot, (map) -> {
+      ByteBuffer key = ByteBuffer.wrap(string().toBytes(K1));
+      ByteBuffer valueBuffer = ByteBuffer.allocateDirect(64);
+
+      assertThrows(IllegalArgumentException.class, () -> map.getSerialized(key, valueBuffer));
+    });
+  }
+
+  @Test
+  void putSerializedShouldPutValue() {
+    runTestWithView(database::createFork, (map) -> {
+      ByteBuffer value = toDirectBuffer(V1);
+
+      map.putSerialized(toDirectBuffer(K1), value);
+
+      assertThat(value.remaining(), equalTo(0));
+      assertThat(map.get(K1), equalTo(V1));
+    });
+  }
+
+  @Test
+  void putSerializedShouldFailWithSnapshot() {
+    runTestWithView(database::createSnapshot, (map) -> {
+      assertThrows(UnsupportedOperationException.class,
+          () -> map.putSerialized(toDirectBuffer(K1), toDirectBuffer(V1)));
+    });
+  }
+
   @Test
   void putPrefixKeys() {
     runTestWithView(database::createFork, (map) -> {
@@ -356,6 +485,169 @@ class MapIndexProxyIntegrationTest
     });
   }
 
+  @Test
+  void keysFromShouldStartAtTheGivenKey() {
+    runTestWithView(database::createFork, (map) -> {
+      List<MapEntry<String, String>> entries = createSortedMapEntries(5);
+      putAll(map, entries);
+
+      List<String> keysFromC = ImmutableList.copyOf(map.keys("c"));
+      assertThat(keysFromC, equalTo(ImmutableList.of("c", "d", "e")));
+
+      // The key itself does not have to be in the map
+      List<String> keysFromBb = ImmutableList.copyOf(map.keys("bb"));
+      assertThat(keysFromBb, equalTo(ImmutableList.of("c", "d", "e")));
+    });
+  }
+
+  @Test
+  void entriesInRangeShouldReturnEntriesInRange() {
+    runTestWithView(database::createFork, (map) -> {
+      List<MapEntry<String, String>> entries = createSortedMapEntries(5);
+      putAll(map, entries);
+
+      List<MapEntry<String, String>> iterEntries = ImmutableList.copyOf(map.entries("b", "d"));
+
+      assertThat(iterEntries, equalTo(entries.subList(1, 3)));
+    });
+  }
+
+  @Test
+  void entriesInRangeShouldBeEmptyIfFromIsNotLessThanTo() {
+    runTestWithView(database::createFork, (map) -> {
+      List<MapEntry<String, String>> entries = createSortedMapEntries(5);
+      putAll(map, entries);
+
+      assertFalse(map.entries("c", "c").hasNext());
+      assertFalse(map.entries("d", "b").hasNext());
+    });
+  }
+
+  @Test
+  void entriesWithPrefixShouldReturnEntriesWithPrefix() {
+    runTestWithView(database::createFork, (map) -> {
+      List<MapEntry<String, String>> entries = ImmutableList.of(
+          MapEntry.valueOf("a", V1),
+          MapEntry.valueOf("ab", V2),
+          MapEntry.valueOf("abc", V3),
+          MapEntry.valueOf("ac", V4));
+      putAll(map, entries);
+
+      byte[] prefix = StandardSerializers.string().toBytes("ab");
+      List<MapEntry<String, String>> iterEntries =
+          ImmutableList.copyOf(map.entriesWithPrefix(prefix));
+
+      assertThat(iterEntries, equalTo(entries.subList(1, 3)));
+    });
+  }
+
+  @Test
+  void entriesWithEmptyPrefixShouldReturnAllEntries() {
+    runTestWithView(database::createFork, (map) -> {
+      List<MapEntry<String, String>> entries = createSortedMapEntries(3);
+      putAll(map, entries);
+
+      List<MapEntry<String, String>> iterEntries =
+          ImmutableList.copyOf(map.entriesWithPrefix(new byte[0]));
+
+      assertThat(iterEntries, equalTo(entries));
+    });
+  }
+
+  @Test
+  void parallelStreamOverSnapshotShouldHaveAllEntriesInOrder() throws CloseFailuresException {
+    List<MapEntry<String, String>> entries = IntStream.range(0, 1000)
+        .mapToObj(i -> MapEntry.valueOf(String.format("k%04d", i), "v" + i))
+        .collect(Collectors.toList());
+    try (Cleaner cleaner = new Cleaner()) {
+      Fork fork = database.createFork(cleaner);
+      putAll(createMap(MAP_NAME, fork), entries);
+      database.merge(fork);
+
+      MapIndexProxy<String, String> map = createMap(MAP_NAME, database.createSnapshot(cleaner));
+      List<MapEntry<String, String>> streamEntries = map.stream()
+          .parallel()
+          .collect(Collectors.toList());
+
+      assertThat(streamEntries, equalTo(entries));
+    }
+  }
+
+  @Test
+  void streamOverForkShouldHaveAllEntries() {
+    runTestWithView(database::createFork, (map) -> {
+      List<MapEntry<String, String>> entries = createSortedMapEntries(5);
+      putAll(map, entries);
+
+      List<MapEntry<String, String>> streamEntries = map.stream()
+          .parallel()
+          .collect(Collectors.toList());
+
+      assertThat(streamEntries, equalTo(entries));
+    });
+  }
+
+  @Test
+  void exhaustedIteratorShouldReleaseNativeIterator() throws CloseFailuresException {
+    try (Cleaner cleaner = new Cleaner()) {
+      Fork fork = database.createFork(cleaner);
+      MapIndexProxy<String, String> map = createMap(MAP_NAME, fork);
+      putAll(map, createSortedMapEntries(3));
+      int numActions = cleaner.getNumRegisteredActions();
+
+      ImmutableList.copyOf(map.entries());
+
+      assertThat(cleaner.getNumRegisteredActions(), equalTo(numActions));
+    }
+  }
+
+  @Test
+  void closedIteratorShouldReleaseNativeIterator() throws CloseFailuresException {
+    try (Cleaner cleaner = new Cleaner()) {
+      Fork fork = database.createFork(cleaner);
+      MapIndexProxy<String, String> map = createMap(MAP_NAME, fork);
+      putAll(map, createSortedMapEntries(3));
+      int numActions = cleaner.getNumRegisteredActions();
+
+      try (CloseableIterator<String> keys = map.keys()) {
+        assertThat(keys.next(), equalTo("a"));
+        assertThat(cleaner.getNumRegisteredActions(), equalTo(numActions + 1));
+      }
+
+      assertThat(cleaner.getNumRegisteredActions(), equalTo(numActions));
+    }
+  }
+
+  @Test
+  void closedStreamShouldReleaseNativeIterators() throws CloseFailuresException {
+    try (Cleaner cleaner = new Cleaner()) {
+      Fork fork = database.createFork(cleaner);
+      MapIndexProxy<String, String> map = createMap(MAP_NAME, fork);
+      putAll(map, createSortedMapEntries(3));
+      int numActions = cleaner.getNumRegisteredActions();
+
+      try (Stream<MapEntry<String, String>> entries = map.stream()) {
+        assertTrue(entries.findFirst().isPresent());
+      }
+
+      assertThat(cleaner.getNumRegisteredActions(), equalTo(numActions));
+    }
+  }
+
+  @Test
+  void isEmptyShouldReleaseNativeIterator() throws CloseFailuresException {
+    try (Cleaner cleaner = new Cleaner()) {
+      Fork fork = database.createFork(cleaner);
+      MapIndexProxy<String, String> map = createMap(MAP_NAME, fork);
+      putAll(map, createSortedMapEntries(3));
+      int numActions = cleaner.getNumRegisteredActions();
+
+      assertFalse(map.isEmpty());
+
+      assertThat(cleaner.getNumRegisteredActions(), equalTo(numActions));
+    }
+  }
+
   @Test
   void clearEmptyFork() {
     runTestWithView(database::createFork, MapIndexProxy::clear);  // no-op
@@ -474,6 +766,14 @@ class MapIndexProxyIntegrationTest
     return access.getMap(IndexAddress.valueOf(name), string(), string());
   }
 
+  private static ByteBuffer toDirectBuffer(String value) {
+    byte[] bytes = string().toBytes(value);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    string().writeTo(value, buffer);
+    buffer.flip();
+    return buffer;
+  }
+
   private static String prefix(String source, int prefixSize) {
     checkArgument(prefixSize <= source.length());
     return source.substring(0, prefixSize);
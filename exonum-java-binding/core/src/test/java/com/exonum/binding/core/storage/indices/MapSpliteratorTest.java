@@ -0,0 +1,246 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static com.exonum.binding.test.Bytes.bytes;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.exonum.binding.core.storage.indices.MapSpliterator.RangeSource;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class MapSpliteratorTest {
+
+  @Test
+  void trySplit_Empty() {
+    FakeMap map = new FakeMap();
+    Spliterator<byte[]> spliterator = new MapSpliterator<>(map, 0, true);
+
+    assertNull(spliterator.trySplit());
+    assertThat(spliterator.estimateSize()).isZero();
+  }
+
+  @Test
+  void trySplit_OneEntry() {
+    FakeMap map = new FakeMap(bytes(0x10));
+    Spliterator<byte[]> spliterator = new MapSpliterator<>(map, 0, true);
+
+    assertNull(spliterator.trySplit());
+    assertThat(StreamSupport.stream(spliterator, false)).containsExactly(bytes(0x10));
+  }
+
+  @Test
+  void trySplit_TwoEntries() {
+    FakeMap map = new FakeMap(bytes(0x10), bytes(0x90, 0x00));
+    Spliterator<byte[]> suffix = new MapSpliterator<>(map, 0, true);
+
+    Spliterator<byte[]> prefix = suffix.trySplit();
+
+    assertThat(StreamSupport.stream(prefix, false)).containsExactly(bytes(0x10));
+    assertThat(StreamSupport.stream(suffix, false)).containsExactly(bytes(0x90, 0x00));
+  }
+
+  @Test
+  void trySplit_NotImmutable() {
+    FakeMap map = new FakeMap(bytes(0x10), bytes(0x20));
+    Spliterator<byte[]> spliterator = new MapSpliterator<>(map, 0, false);
+
+    assertNull(spliterator.trySplit());
+    assertThat(spliterator.hasCharacteristics(Spliterator.IMMUTABLE)).isFalse();
+  }
+
+  @Test
+  void trySplit_AfterTraversalStarted() {
+    FakeMap map = new FakeMap(bytes(0x10), bytes(0x20), bytes(0x30));
+    Spliterator<byte[]> spliterator = new MapSpliterator<>(map, 0, true);
+
+    spliterator.tryAdvance(e -> { });
+
+    assertNull(spliterator.trySplit());
+  }
+
+  @Test
+  void trySplit_SplitsInHalves() {
+    FakeMap map = new FakeMap(bytes(0x10), bytes(0x20), bytes(0x90));
+    Spliterator<byte[]> suffix = new MapSpliterator<>(map, 1, true);
+    long size = suffix.estimateSize();
+
+    Spliterator<byte[]> prefix = suffix.trySplit();
+
+    assertThat(prefix.estimateSize()).isEqualTo(size / 2);
+    assertThat(suffix.estimateSize()).isEqualTo(size / 2);
+    // The midpoint of [0x10, 0x100) is 0x88
+    assertThat(StreamSupport.stream(prefix, false)).containsExactly(bytes(0x10), bytes(0x20));
+    assertThat(StreamSupport.stream(suffix, false)).containsExactly(bytes(0x90));
+  }
+
+  @Test
+  void trySplit_SkipsEmptyRanges() {
+    // All keys are in the beginning of the key space
+    FakeMap map = new FakeMap(bytes(0x00, 0x01), bytes(0x00, 0x02));
+    Spliterator<byte[]> suffix = new MapSpliterator<>(map, 2, true);
+
+    Spliterator<byte[]> prefix = suffix.trySplit();
+
+    assertThat(StreamSupport.stream(prefix, false)).containsExactly(bytes(0x00, 0x01));
+    assertThat(StreamSupport.stream(suffix, false)).containsExactly(bytes(0x00, 0x02));
+  }
+
+  @Test
+  void traversesEntireMapWithoutSplits() {
+    FakeMap map = new FakeMap(bytes(0x10), bytes(0x20));
+    Spliterator<byte[]> spliterator = new MapSpliterator<>(map, 0, true);
+
+    List<byte[]> entries = new ArrayList<>();
+    spliterator.forEachRemaining(entries::add);
+
+    assertThat(entries).containsExactly(bytes(0x10), bytes(0x20));
+    assertThat(map.rangeIterators).isZero();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {2, 3, 16, 100, 1024})
+  void trySplit_splitsWhileSplittable(int size) {
+    List<byte[]> keys = IntStream.range(0, size)
+        .mapToObj(i -> bytes((byte) (i >>> 8), (byte) i))
+        .collect(Collectors.toList());
+    FakeMap map = new FakeMap(keys.toArray(new byte[0][]));
+    Spliterator<byte[]> spliterator = new MapSpliterator<>(map, 0, true);
+
+    List<byte[]> entries = splitRecursively(spliterator)
+        .collect(Collectors.toList());
+
+    assertThat(entries).containsExactlyElementsOf(keys);
+  }
+
+  @Test
+  void parallelStreamHasAllEntries() {
+    List<byte[]> keys = IntStream.range(0, 1000)
+        .mapToObj(i -> bytes((byte) (i >>> 2), (byte) (i * 37)))
+        .sorted(KeyRanges::compare)
+        .collect(Collectors.toList());
+    FakeMap map = new FakeMap(keys.toArray(new byte[0][]));
+    Spliterator<byte[]> spliterator = new MapSpliterator<>(map, 0, true);
+
+    List<byte[]> entries = StreamSupport.stream(spliterator, true)
+        .collect(Collectors.toList());
+
+    assertThat(entries).containsExactlyElementsOf(keys);
+  }
+
+  @Test
+  void closeClosesIteratorsOfAllSplits() {
+    FakeMap map = new FakeMap(bytes(0x10), bytes(0x20), bytes(0x90));
+    MapSpliterator<byte[]> spliterator = new MapSpliterator<>(map, 1, true);
+    Spliterator<byte[]> prefix = spliterator.trySplit();
+    prefix.tryAdvance(e -> { });
+    spliterator.tryAdvance(e -> { });
+
+    spliterator.close();
+
+    assertThat(map.iterators).hasSize(2);
+    assertThat(map.iterators).allMatch(it -> it.closed);
+  }
+
+  /**
+   * Splits recursively while splittable then merges the resulting streams together.
+   */
+  private static Stream<byte[]> splitRecursively(Spliterator<byte[]> spliterator) {
+    Spliterator<byte[]> prefix = spliterator.trySplit();
+    if (prefix == null) {
+      return StreamSupport.stream(spliterator, false);
+    }
+    return Stream.concat(splitRecursively(prefix), splitRecursively(spliterator));
+  }
+
+  /**
+   * A map source backed by a sorted set of keys, which are also the entries.
+   */
+  private static final class FakeMap implements RangeSource<byte[]> {
+    final NavigableMap<byte[], byte[]> keys = new TreeMap<>(KeyRanges::compare);
+    final List<FakeIterator> iterators = new ArrayList<>();
+    int rangeIterators;
+
+    FakeMap(byte[]... keys) {
+      for (byte[] key : keys) {
+        this.keys.put(key, key);
+      }
+    }
+
+    @Override
+    public CloseableIterator<byte[]> entries() {
+      return register(new FakeIterator(keys.values().iterator()));
+    }
+
+    @Override
+    public CloseableIterator<byte[]> entries(byte[] from, @Nullable byte[] toExclusive) {
+      rangeIterators++;
+      NavigableMap<byte[], byte[]> range = (toExclusive == null)
+          ? keys.tailMap(from, true)
+          : keys.subMap(from, true, toExclusive, false);
+      return register(new FakeIterator(range.values().iterator()));
+    }
+
+    @Override
+    @Nullable
+    public byte[] ceilingKey(byte[] key) {
+      return keys.ceilingKey(key);
+    }
+
+    private synchronized FakeIterator register(FakeIterator iterator) {
+      iterators.add(iterator);
+      return iterator;
+    }
+  }
+
+  private static final class FakeIterator implements CloseableIterator<byte[]> {
+    final Iterator<byte[]> entries;
+    boolean closed;
+
+    FakeIterator(Iterator<byte[]> entries) {
+      this.entries = entries;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return entries.hasNext();
+    }
+
+    @Override
+    public byte[] next() {
+      return entries.next();
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
@@ -101,6 +101,23 @@ class ProofListIndexProxyIntegrationTest extends BaseListIndexIntegrationTestabl
     });
   }
 
+  @Test
+  void getIndexHashReflectsModifications() {
+    runTestWithView(database::createFork, (list) -> {
+      HashCode emptyHash = list.getIndexHash();
+
+      list.add(V1);
+      HashCode singletonHash = list.getIndexHash();
+
+      list.clear();
+      HashCode clearedHash = list.getIndexHash();
+
+      assertThat(emptyHash, equalTo(EMPTY_LIST_INDEX_HASH));
+      assertThat(singletonHash, not(equalTo(EMPTY_LIST_INDEX_HASH)));
+      assertThat(clearedHash, equalTo(EMPTY_LIST_INDEX_HASH));
+    });
+  }
+
   @ParameterizedTest
   @ValueSource(ints = {0, 1, 2})
   void getProofThreeElementList(int index) {
@@ -17,6 +17,7 @@
 package com.exonum.binding.core.storage.indices;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.exonum.binding.common.hash.HashCode;
 import com.exonum.binding.common.serialization.StandardSerializers;
@@ -24,6 +25,7 @@ import com.exonum.binding.core.storage.database.Access;
 import com.exonum.binding.test.Bytes;
 import java.util.List;
 import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
 
 class ProofMapIndexProxyIntegrationTest
     extends BaseProofMapIndexProxyIntegrationTestable {
@@ -64,4 +66,19 @@ class ProofMapIndexProxyIntegrationTest
     return access.getProofMap(IndexAddress.valueOf(groupName, idInGroup),
         StandardSerializers.hash(), StandardSerializers.string());
   }
+
+  @Test
+  void entriesInRangeIsNotSupported() {
+    HashCode from = TEST_KEYS.get(0);
+    HashCode to = TEST_KEYS.get(1);
+    runTestWithView(database::createSnapshot,
+        (map) -> assertThrows(UnsupportedOperationException.class, () -> map.entries(from, to)));
+  }
+
+  @Test
+  void entriesWithPrefixIsNotSupported() {
+    runTestWithView(database::createSnapshot,
+        (map) -> assertThrows(UnsupportedOperationException.class,
+            () -> map.entriesWithPrefix(Bytes.bytes(0x01))));
+  }
 }
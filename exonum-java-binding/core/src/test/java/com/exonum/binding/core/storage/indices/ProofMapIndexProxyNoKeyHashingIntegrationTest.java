@@ -21,10 +21,12 @@ import static com.exonum.binding.core.storage.indices.ProofMapContainsMatcher.pr
 import static com.exonum.binding.core.storage.indices.ProofMapContainsMatcher.provesThatPresent;
 import static com.exonum.binding.core.storage.indices.StoragePreconditions.PROOF_MAP_KEY_SIZE;
 import static com.exonum.binding.core.storage.indices.TestStorageItems.V1;
+import static com.exonum.binding.core.storage.indices.TestStorageItems.V3;
 import static com.exonum.binding.core.storage.indices.TestStorageItems.values;
 import static com.exonum.binding.test.Bytes.createPrefixed;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.exonum.binding.common.collect.MapEntry;
@@ -33,6 +35,7 @@ import com.exonum.binding.common.serialization.StandardSerializers;
 import com.exonum.binding.core.storage.database.Access;
 import com.exonum.binding.test.Bytes;
 import com.exonum.binding.test.CiOnly;
+import com.google.common.collect.ImmutableList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
@@ -105,6 +108,86 @@ class ProofMapIndexProxyNoKeyHashingIntegrationTest
         (map) -> assertThrows(IllegalArgumentException.class, () -> map.remove(INVALID_PROOF_KEY)));
   }
 
+  @Test
+  void keysFromShouldStartAtTheGivenKey() {
+    runTestWithView(database::createFork, (map) -> {
+      HashCode k1 = keyWithPrefix(0x01);
+      HashCode k3 = keyWithPrefix(0x03);
+      map.put(k1, V1);
+      map.put(k3, V3);
+
+      List<HashCode> keys = ImmutableList.copyOf(map.keys(keyWithPrefix(0x02)));
+
+      assertThat(keys, equalTo(ImmutableList.of(k3)));
+    });
+  }
+
+  @Test
+  void entriesInRangeShouldReturnEntriesInRange() {
+    runTestWithView(database::createFork, (map) -> {
+      List<MapEntry<HashCode, String>> entries = createMapEntries(Stream.of(
+          keyWithPrefix(0x01),
+          keyWithPrefix(0x02),
+          keyWithPrefix(0x03)));
+      putAll(map, entries);
+
+      List<MapEntry<HashCode, String>> iterEntries = ImmutableList.copyOf(
+          map.entries(keyWithPrefix(0x02), keyWithPrefix(0x03)));
+
+      assertThat(iterEntries, equalTo(entries.subList(1, 2)));
+    });
+  }
+
+  @Test
+  void entriesInRangeThrowsIfInvalidKey() {
+    runTestWithView(database::createSnapshot, (map) -> assertThrows(IllegalArgumentException.class,
+        () -> map.entries(INVALID_PROOF_KEY, keyWithPrefix(0x01))));
+  }
+
+  @Test
+  void entriesWithPrefixShouldReturnEntriesWithPrefix() {
+    runTestWithView(database::createFork, (map) -> {
+      List<MapEntry<HashCode, String>> entries = createMapEntries(Stream.of(
+          keyWithPrefix(0x00, 0xFF),
+          keyWithPrefix(0x01, 0x00),
+          keyWithPrefix(0x01, 0xFF),
+          keyWithPrefix(0x02, 0x00)));
+      putAll(map, entries);
+
+      List<MapEntry<HashCode, String>> iterEntries =
+          ImmutableList.copyOf(map.entriesWithPrefix(Bytes.bytes(0x01)));
+
+      assertThat(iterEntries, equalTo(entries.subList(1, 3)));
+    });
+  }
+
+  @Test
+  void entriesWithPrefixShouldSupportPrefixOfOnes() {
+    runTestWithView(database::createFork, (map) -> {
+      List<MapEntry<HashCode, String>> entries = createMapEntries(Stream.of(
+          keyWithPrefix(0xFE),
+          keyWithPrefix(0xFF),
+          keyWithPrefix(0xFF, 0xFF)));
+      putAll(map, entries);
+
+      List<MapEntry<HashCode, String>> iterEntries =
+          ImmutableList.copyOf(map.entriesWithPrefix(Bytes.bytes(0xFF)));
+
+      assertThat(iterEntries, equalTo(entries.subList(1, 3)));
+    });
+  }
+
+  @Test
+  void entriesWithPrefixThrowsIfPrefixTooLong() {
+    byte[] prefix = new byte[PROOF_MAP_KEY_SIZE + 1];
+    runTestWithView(database::createSnapshot, (map) -> assertThrows(IllegalArgumentException.class,
+        () -> map.entriesWithPrefix(prefix)));
+  }
+
+  private static HashCode keyWithPrefix(int... prefix) {
+    return HashCode.fromBytes(createPrefixed(Bytes.bytes(prefix), PROOF_MAP_KEY_SIZE));
+  }
+
   @Test
   @DisabledProofTest
   void verifyProof_FourEntryMap_LastByte_Contains1() {
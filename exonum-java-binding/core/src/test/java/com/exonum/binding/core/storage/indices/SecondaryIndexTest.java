@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static com.exonum.binding.test.Bytes.bytes;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.primitives.UnsignedBytes;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class SecondaryIndexTest {
+
+  private static final Comparator<byte[]> ORDER = UnsignedBytes.lexicographicalComparator();
+
+  @ParameterizedTest
+  @MethodSource("orderedKeys")
+  void encodePreservesOrder(byte[] smaller, byte[] greater) {
+    byte[] encodedSmaller = SecondaryIndex.encode(smaller);
+    byte[] encodedGreater = SecondaryIndex.encode(greater);
+
+    assertThat(ORDER.compare(encodedSmaller, encodedGreater)).isNegative();
+    // Composite keys with any map key suffix must preserve the order too
+    byte[] compositeSmaller = concat(encodedSmaller, bytes(0xFF, 0xFF));
+    byte[] compositeGreater = concat(encodedGreater, bytes(0x00));
+    assertThat(ORDER.compare(compositeSmaller, compositeGreater)).isNegative();
+  }
+
+  @ParameterizedTest
+  @MethodSource("orderedKeys")
+  void encodedKeyIsNotPrefixOfOther(byte[] smaller, byte[] greater) {
+    byte[] encodedSmaller = SecondaryIndex.encode(smaller);
+    byte[] encodedGreater = SecondaryIndex.encode(greater);
+
+    assertThat(startsWith(encodedGreater, encodedSmaller)).isFalse();
+    assertThat(startsWith(encodedSmaller, encodedGreater)).isFalse();
+  }
+
+  private static Stream<Arguments> orderedKeys() {
+    return Stream.of(
+        Arguments.of(bytes(), bytes(0x00)),
+        Arguments.of(bytes(), bytes(0x01)),
+        Arguments.of(bytes(0x00), bytes(0x00, 0x00)),
+        Arguments.of(bytes(0x00), bytes(0x01)),
+        Arguments.of(bytes(0x00, 0xFF), bytes(0x01)),
+        Arguments.of(bytes(0x01), bytes(0x01, 0x00)),
+        Arguments.of(bytes("a"), bytes("ab")),
+        Arguments.of(bytes("ab"), bytes("b")),
+        Arguments.of(bytes(0x7F), bytes(0x80))
+    );
+  }
+
+  private static boolean startsWith(byte[] array, byte[] prefix) {
+    if (array.length < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (array[i] != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static byte[] concat(byte[] a, byte[] b) {
+    byte[] result = new byte[a.length + b.length];
+    System.arraycopy(a, 0, result, 0, a.length);
+    System.arraycopy(b, 0, result, a.length, b.length);
+    return result;
+  }
+}
@@ -51,6 +51,14 @@ class StoragePreconditionsTest {
     });
   }
 
+  @Test
+  void checkIndexNameDoesNotAcceptReservedPrefix() {
+    String name = StoragePreconditions.RESERVED_NAME_PREFIX + "table1";
+
+    assertThrows(IllegalArgumentException.class,
+        () -> StoragePreconditions.checkIndexName(name));
+  }
+
   @Test
   void checkIdInGroup() {
     byte[] validId = bytes("id1");
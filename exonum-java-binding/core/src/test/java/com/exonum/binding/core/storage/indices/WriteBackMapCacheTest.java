@@ -0,0 +1,197 @@
+/*
+ * Copyright 2020 The Exonum Team
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exonum.binding.core.storage.indices;
+
+import static com.exonum.binding.common.serialization.StandardSerializers.string;
+import static com.exonum.binding.core.storage.indices.TestStorageItems.V1;
+import static com.exonum.binding.core.storage.indices.TestStorageItems.V2;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.exonum.binding.core.storage.indices.WriteBackMapCache.BatchWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBackMapCacheTest {
+
+  private static final byte[] K1 = bytes("k1");
+  private static final byte[] K2 = bytes("k2");
+
+  @Mock
+  private BatchWriter batchWriter;
+
+  private WriteBackMapCache<String> cache;
+
+  @BeforeEach
+  void setUp() {
+    cache = new WriteBackMapCache<>(string(), batchWriter);
+  }
+
+  @Test
+  void containsOnlyCachedKeys() {
+    cache.putClean(K1, null);
+
+    assertThat(cache.contains(K1)).isTrue();
+    assertThat(cache.contains(K2)).isFalse();
+  }
+
+  @Test
+  void identifiesEntriesBySerializedKey() {
+    cache.putClean(K1, bytes(V1));
+
+    assertThat(cache.contains(bytes("k1"))).isTrue();
+  }
+
+  @Test
+  void getCleanValue() {
+    cache.putClean(K1, bytes(V1));
+
+    assertThat(cache.hasValue(K1)).isTrue();
+    assertThat(cache.get(K1)).isEqualTo(V1);
+  }
+
+  @Test
+  void getAbsentValue() {
+    cache.putClean(K1, null);
+
+    assertThat(cache.hasValue(K1)).isFalse();
+    assertThat(cache.get(K1)).isNull();
+  }
+
+  @Test
+  void putDefersWrite() {
+    cache.put(K1, bytes(V1), V1);
+
+    assertThat(cache.get(K1)).isEqualTo(V1);
+    verify(batchWriter, never()).write(any(), any());
+  }
+
+  @Test
+  void removeDefersWrite() {
+    cache.putClean(K1, bytes(V1));
+
+    cache.remove(K1);
+
+    assertThat(cache.hasValue(K1)).isFalse();
+    verify(batchWriter, never()).write(any(), any());
+  }
+
+  @Test
+  void flushWritesChangesInSingleBatch() {
+    cache.putClean(K1, bytes(V1));
+    cache.remove(K1);
+    cache.put(K2, bytes(V1), V1);
+    cache.put(K2, bytes(V2), V2);
+
+    cache.flush();
+
+    ArgumentCaptor<byte[][]> keys = ArgumentCaptor.forClass(byte[][].class);
+    ArgumentCaptor<byte[][]> values = ArgumentCaptor.forClass(byte[][].class);
+    verify(batchWriter).write(keys.capture(), values.capture());
+    assertThat(keys.getValue()).containsExactly(K1, K2);
+    assertThat(values.getValue()).containsExactly(null, bytes(V2));
+  }
+
+  @Test
+  void flushWritesCopiesOfPutKeysAndValues() {
+    byte[] key = bytes("k1");
+    byte[] dbValue = bytes(V1);
+    cache.put(key, dbValue, V1);
+
+    key[0] = 0;
+    dbValue[0] = 0;
+    cache.flush();
+
+    ArgumentCaptor<byte[][]> keys = ArgumentCaptor.forClass(byte[][].class);
+    ArgumentCaptor<byte[][]> values = ArgumentCaptor.forClass(byte[][].class);
+    verify(batchWriter).write(keys.capture(), values.capture());
+    assertThat(keys.getValue()).containsExactly(K1);
+    assertThat(values.getValue()).containsExactly(bytes(V1));
+    assertThat(cache.contains(K1)).isTrue();
+  }
+
+  @Test
+  void flushKeepsEntries() {
+    cache.put(K1, bytes(V1), V1);
+
+    cache.flush();
+
+    assertThat(cache.get(K1)).isEqualTo(V1);
+  }
+
+  @Test
+  void flushWritesOnlyNewChanges() {
+    cache.put(K1, bytes(V1), V1);
+    cache.flush();
+    cache.put(K2, bytes(V2), V2);
+
+    cache.flush();
+
+    ArgumentCaptor<byte[][]> keys = ArgumentCaptor.forClass(byte[][].class);
+    verify(batchWriter, times(2)).write(keys.capture(), any());
+    assertThat(keys.getValue()).containsExactly(K2);
+  }
+
+  @Test
+  void flushDoesNothingIfNoChanges() {
+    cache.putClean(K1, bytes(V1));
+
+    cache.flush();
+
+    verify(batchWriter, never()).write(any(), any());
+  }
+
+  @Test
+  void clearDiscardsChanges() {
+    cache.put(K1, bytes(V1), V1);
+
+    cache.clear();
+    cache.flush();
+
+    assertThat(cache.contains(K1)).isFalse();
+    verify(batchWriter, never()).write(any(), any());
+  }
+
+  @Test
+  void flushesWhenFull() {
+    cache.put(K1, bytes(V1), V1);
+    for (int i = 1; i < WriteBackMapCache.MAX_ENTRIES; i++) {
+      cache.putClean(bytes("key" + i), null);
+    }
+    verify(batchWriter, never()).write(any(), any());
+
+    cache.put(K2, bytes(V2), V2);
+
+    ArgumentCaptor<byte[][]> keys = ArgumentCaptor.forClass(byte[][].class);
+    verify(batchWriter).write(keys.capture(), any());
+    assertThat(keys.getValue()).containsExactly(K1);
+    assertThat(cache.contains(K1)).isFalse();
+    assertThat(cache.get(K2)).isEqualTo(V2);
+  }
+
+  private static byte[] bytes(String s) {
+    return string().toBytes(s);
+  }
+}
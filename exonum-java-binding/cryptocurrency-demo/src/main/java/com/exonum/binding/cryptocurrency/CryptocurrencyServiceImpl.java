@@ -45,6 +45,7 @@ import com.google.inject.Inject;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
 import io.vertx.ext.web.Router;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import javax.annotation.Nullable;
@@ -141,11 +142,12 @@ public final class CryptocurrencyServiceImpl extends AbstractService
     CryptocurrencySchema schema =
         new CryptocurrencySchema(context.getFork(), context.getServiceName());
     ProofMapIndexProxy<PublicKey, Wallet> wallets = schema.wallets();
-    checkExecution(wallets.containsKey(fromWallet), UNKNOWN_SENDER.errorCode);
-    checkExecution(wallets.containsKey(toWallet), UNKNOWN_RECEIVER.errorCode);
-
-    Wallet from = wallets.get(fromWallet);
-    Wallet to = wallets.get(toWallet);
+    // Look up both wallets at once
+    List<Wallet> transferWallets = wallets.getAll(Arrays.asList(fromWallet, toWallet));
+    Wallet from = transferWallets.get(0);
+    Wallet to = transferWallets.get(1);
+    checkExecution(from != null, UNKNOWN_SENDER.errorCode);
+    checkExecution(to != null, UNKNOWN_RECEIVER.errorCode);
     checkExecution(sum <= from.getBalance(), INSUFFICIENT_FUNDS.errorCode);
 
     // Update the balances